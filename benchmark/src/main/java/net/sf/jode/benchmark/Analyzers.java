@@ -0,0 +1,145 @@
+/* Analyzers Copyright (C) 2026 agent.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; see the file COPYING.LESSER.  If not, write to
+ * the Free Software Foundation, 675 Mass Ave, Cambridge, MA 02139, USA.
+ *
+ * $Id$
+ */
+
+package net.sf.jode.benchmark;
+import net.sf.jode.bytecode.ClassFormatException;
+import net.sf.jode.bytecode.ClassInfo;
+import net.sf.jode.bytecode.ClassPath;
+import net.sf.jode.decompiler.ClassAnalyzer;
+import net.sf.jode.decompiler.DecompilerContext;
+import net.sf.jode.decompiler.ImportHandler;
+import net.sf.jode.decompiler.Options;
+import net.sf.jode.decompiler.TabbedPrintWriter;
+import net.sf.jode.util.SimpleSet;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Vector;
+
+/**
+ * The class analyzers for the top level classes of the corpus.  The
+ * steps of ClassAnalyzer.dumpJavaFile are available as separate
+ * methods, so that a benchmark can prepare the steps before the one
+ * it measures.  An analyzer can only be used once, call {@link
+ * #create} again for the next round.
+ *
+ * @author agent
+ */
+public class Analyzers {
+    private DecompilerContext context = new DecompilerContext();
+    private ClassPath classPath;
+    private ClassInfo[] infos;
+    private ImportHandler[] imports;
+    private ClassAnalyzer[] analyzers;
+    private boolean[] failed;
+
+    public Analyzers(Corpus corpus) throws IOException {
+	classPath = corpus.getClassPath();
+	ClassInfo[] allInfos = corpus.getClasses(ClassInfo.OUTERCLASS);
+	Vector topLevel = new Vector();
+	DecompilerContext previous = DecompilerContext.setCurrent(context);
+	try {
+	    for (int i = 0; i < allInfos.length; i++) {
+		if (!Options.skipClass(allInfos[i]))
+		    topLevel.addElement(allInfos[i]);
+	    }
+	} finally {
+	    DecompilerContext.setCurrent(previous);
+	}
+	infos = new ClassInfo[topLevel.size()];
+	topLevel.copyInto(infos);
+	imports = new ImportHandler[infos.length];
+	analyzers = new ClassAnalyzer[infos.length];
+	failed = new boolean[infos.length];
+    }
+
+    /**
+     * Creates and initializes fresh analyzers for all classes.
+     */
+    public void create() throws IOException {
+	DecompilerContext previous = DecompilerContext.setCurrent(context);
+	try {
+	    for (int i = 0; i < infos.length; i++) {
+		imports[i] = new ImportHandler(classPath);
+		imports[i].init(infos[i].getName());
+		context.resetSerials();
+		try {
+		    analyzers[i] = new ClassAnalyzer(infos[i], imports[i],
+						     context);
+		} catch (ClassFormatException ex) {
+		    /* The reader doesn't understand this class. */
+		    analyzers[i] = null;
+		    continue;
+		}
+		analyzers[i].initialize();
+	    }
+	} finally {
+	    DecompilerContext.setCurrent(previous);
+	}
+    }
+
+    /**
+     * Analyzes the methods of all classes and their inner classes.
+     * This runs the flow analysis and the expression transformations.
+     * Classes whose analysis fails are left out when writing.
+     */
+    public void analyze() {
+	DecompilerContext previous = DecompilerContext.setCurrent(context);
+	try {
+	    for (int i = 0; i < analyzers.length; i++) {
+		if (analyzers[i] == null)
+		    continue;
+		/* Like the decompiler with --keep-going, we continue
+		 * with the next class if the analysis fails.
+		 */
+		try {
+		    analyzers[i].analyze(null, 0.0, 1.0);
+		    analyzers[i].analyzeInnerClasses(null, 0.0, 1.0);
+		    analyzers[i].makeDeclaration(new SimpleSet());
+		    failed[i] = false;
+		} catch (RuntimeException ex) {
+		    failed[i] = true;
+		}
+	    }
+	} finally {
+	    DecompilerContext.setCurrent(previous);
+	}
+    }
+
+    /**
+     * Writes the source of all classes.
+     * @param out the stream for the source code.
+     */
+    public void dump(OutputStream out) throws IOException {
+	DecompilerContext previous = DecompilerContext.setCurrent(context);
+	try {
+	    for (int i = 0; i < analyzers.length; i++) {
+		if (analyzers[i] == null || failed[i])
+		    continue;
+		TabbedPrintWriter writer
+		    = new TabbedPrintWriter(out, imports[i], false);
+		imports[i].dumpHeader(writer);
+		analyzers[i].dumpSource(writer);
+		writer.flush();
+	    }
+	} finally {
+	    DecompilerContext.setCurrent(previous);
+	}
+    }
+}
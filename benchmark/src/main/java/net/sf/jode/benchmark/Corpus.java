@@ -0,0 +1,218 @@
+/* Corpus Copyright (C) 2026 agent.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; see the file COPYING.LESSER.  If not, write to
+ * the Free Software Foundation, 675 Mass Ave, Cambridge, MA 02139, USA.
+ *
+ * $Id$
+ */
+
+package net.sf.jode.benchmark;
+import net.sf.jode.bytecode.ClassFormatException;
+import net.sf.jode.bytecode.ClassInfo;
+import net.sf.jode.bytecode.ClassPath;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.Vector;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * The class files the benchmarks work on.  All class files of a jar
+ * are read into memory once, so that the benchmarks don't measure the
+ * file system. <br>
+ *
+ * The jar is given by the <code>corpus</code> parameter of the
+ * benchmarks, e.g.
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar -p corpus=/path/to/some.jar
+ * </pre>
+ *
+ * If it is empty, the classes of jode itself are used.  The classes
+ * of the jar are loaded from a class path that contains the jar and
+ * the reflection location, so that the analysis can look at the
+ * library classes.
+ *
+ * @author agent
+ */
+public class Corpus {
+    private static final String JODE_PACKAGE = "net/sf/jode/";
+    private static final String BENCHMARK_PACKAGE = "net/sf/jode/benchmark/";
+
+    private String[] classNames;
+    private byte[][] classFiles;
+    private String jarName;
+    private ClassPath classPath;
+
+    /**
+     * Reads the classes of a jar.
+     * @param jarName the file name of the jar, or the empty string
+     * for the classes of jode.
+     * @exception IOException if the jar can't be read.
+     */
+    public Corpus(String jarName) throws IOException {
+	boolean jodeOnly = false;
+	if (jarName == null || jarName.length() == 0) {
+	    jarName = getJodeJar();
+	    jodeOnly = true;
+	}
+
+	ZipFile zip = new ZipFile(jarName);
+	try {
+	    Vector entries = new Vector();
+	    Enumeration enumeration = zip.entries();
+	    while (enumeration.hasMoreElements()) {
+		String name = ((ZipEntry) enumeration.nextElement()).getName();
+		if (!name.endsWith(".class"))
+		    continue;
+		if (jodeOnly && (!name.startsWith(JODE_PACKAGE)
+				 || name.startsWith(BENCHMARK_PACKAGE)))
+		    continue;
+		entries.addElement(name);
+	    }
+	    String[] names = new String[entries.size()];
+	    entries.copyInto(names);
+	    /* The order of the entries shouldn't matter, but make the
+	     * runs comparable nevertheless.
+	     */
+	    Arrays.sort(names);
+
+	    classNames = new String[names.length];
+	    classFiles = new byte[names.length][];
+	    for (int i = 0; i < names.length; i++) {
+		classNames[i] = names[i].substring(0, names[i].length() - 6)
+		    .replace('/', '.');
+		classFiles[i] = readFully(zip.getInputStream
+					  (zip.getEntry(names[i])));
+	    }
+	} finally {
+	    zip.close();
+	}
+	this.jarName = jarName;
+	classPath = createClassPath();
+    }
+
+    private static String getJodeJar() throws IOException {
+	try {
+	    return new File(ClassInfo.class.getProtectionDomain()
+			    .getCodeSource().getLocation().toURI()).getPath();
+	} catch (URISyntaxException ex) {
+	    throw new IOException("Can't find jode jar: " + ex);
+	}
+    }
+
+    private static byte[] readFully(InputStream input) throws IOException {
+	try {
+	    byte[] buffer = new byte[4096];
+	    int length = 0;
+	    for (;;) {
+		if (length == buffer.length) {
+		    byte[] newBuffer = new byte[buffer.length * 2];
+		    System.arraycopy(buffer, 0, newBuffer, 0, length);
+		    buffer = newBuffer;
+		}
+		int count = input.read(buffer, length, buffer.length - length);
+		if (count < 0)
+		    break;
+		length += count;
+	    }
+	    byte[] result = new byte[length];
+	    System.arraycopy(buffer, 0, result, 0, length);
+	    return result;
+	} finally {
+	    input.close();
+	}
+    }
+
+    /**
+     * Returns the number of classes.
+     */
+    public int size() {
+	return classNames.length;
+    }
+
+    /**
+     * Returns the full qualified name of a class.
+     */
+    public String getClassName(int i) {
+	return classNames[i];
+    }
+
+    /**
+     * Returns a stream of the class file of a class.
+     */
+    public DataInputStream getClassFile(int i) {
+	return new DataInputStream(new ByteArrayInputStream(classFiles[i]));
+    }
+
+    /**
+     * Returns the class path, that contains the classes of the corpus.
+     */
+    public ClassPath getClassPath() {
+	return classPath;
+    }
+
+    /**
+     * Creates a new class path, that contains the classes of the
+     * corpus.  Its classes are not loaded yet.
+     */
+    public ClassPath createClassPath() {
+	return new ClassPath(new String[] { jarName, "reflection:/" });
+    }
+
+    /**
+     * Returns the class infos of the classes of the corpus.  Classes
+     * that the reader doesn't understand are left out.
+     * @param howMuch the amount of information that should be loaded,
+     * {@link ClassInfo#NONE} to not load the classes.
+     * @exception IOException if a class can't be read.
+     */
+    public ClassInfo[] getClasses(int howMuch) throws IOException {
+	Vector classes = new Vector();
+	for (int i = 0; i < classNames.length; i++) {
+	    ClassInfo info = classPath.getClassInfo(classNames[i]);
+	    if (howMuch > ClassInfo.NONE) {
+		try {
+		    info.load(howMuch);
+		} catch (ClassFormatException ex) {
+		    continue;
+		}
+	    }
+	    classes.addElement(info);
+	}
+	ClassInfo[] result = new ClassInfo[classes.size()];
+	classes.copyInto(result);
+	return result;
+    }
+
+    /**
+     * An output stream that forgets everything.  The benchmarks write
+     * to it, so that they don't measure the file system.
+     */
+    public static class NullOutputStream extends OutputStream {
+	public void write(int b) {
+	}
+
+	public void write(byte[] b, int off, int len) {
+	}
+    }
+}
@@ -0,0 +1,134 @@
+/* OutputBenchmark Copyright (C) 2026 agent.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; see the file COPYING.LESSER.  If not, write to
+ * the Free Software Foundation, 675 Mass Ave, Cambridge, MA 02139, USA.
+ *
+ * $Id$
+ */
+
+package net.sf.jode.benchmark;
+import net.sf.jode.decompiler.TabbedPrintWriter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures writing source code through TabbedPrintWriter.  The
+ * classes of the corpus are analyzed again before each invocation,
+ * since writing them consumes the analyzers.  The generated lines
+ * measure the line breaking alone: a deeply nested chain of calls
+ * and a long sum.
+ *
+ * @author agent
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 10)
+@Measurement(iterations = 10)
+@Fork(1)
+public class OutputBenchmark {
+    @State(Scope.Thread)
+    public static class Classes {
+	@Param({""})
+	public String corpus;
+
+	private Analyzers analyzers;
+
+	@Setup
+	public void setup() throws IOException {
+	    analyzers = new Analyzers(new Corpus(corpus));
+	}
+
+	@Setup(Level.Invocation)
+	public void prepare() throws IOException {
+	    analyzers.create();
+	    analyzers.analyze();
+	}
+    }
+
+    @State(Scope.Thread)
+    public static class Lines {
+	/**
+	 * The number of calls or summands.  With 14 nested calls the
+	 * search for the best breaks nearly exhausts its step limit,
+	 * longer chains are broken greedily.
+	 */
+	@Param({"14", "1000", "10000"})
+	public int size;
+    }
+
+    @Benchmark
+    public void dump(Classes classes) throws IOException {
+	classes.analyzers.dump(new Corpus.NullOutputStream());
+    }
+
+    /**
+     * Prints <code>x = f(x0, f(x1, ... f(xn-1, 0)...));</code>.
+     */
+    @Benchmark
+    public void nested(Lines lines) {
+	TabbedPrintWriter writer
+	    = new TabbedPrintWriter(new Corpus.NullOutputStream());
+	writer.tab();
+	writer.print("x = ");
+	for (int i = 0; i < lines.size; i++) {
+	    writer.print("f(");
+	    writer.startOp(TabbedPrintWriter.EXPL_PAREN, 0);
+	    writer.print("x" + i + ",");
+	    writer.breakOp();
+	    writer.print(" ");
+	}
+	writer.print("0");
+	for (int i = 0; i < lines.size; i++) {
+	    writer.endOp();
+	    writer.print(")");
+	}
+	writer.println(";");
+    }
+
+    /**
+     * Prints <code>x = "s" + x1 + ... + xn-1;</code>.
+     */
+    @Benchmark
+    public void sum(Lines lines) {
+	TabbedPrintWriter writer
+	    = new TabbedPrintWriter(new Corpus.NullOutputStream());
+	writer.tab();
+	writer.print("x = ");
+	writer.startOp(TabbedPrintWriter.IMPL_PAREN, 1);
+	writer.print("\"s\"");
+	for (int i = 1; i < lines.size; i++) {
+	    writer.breakOp();
+	    writer.print(" + ");
+	    writer.startOp(TabbedPrintWriter.IMPL_PAREN, 1);
+	    writer.print("x" + i);
+	    writer.endOp();
+	}
+	writer.endOp();
+	writer.println(";");
+    }
+}
@@ -0,0 +1,99 @@
+/* ReadBenchmark Copyright (C) 2026 agent.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; see the file COPYING.LESSER.  If not, write to
+ * the Free Software Foundation, 675 Mass Ave, Cambridge, MA 02139, USA.
+ *
+ * $Id$
+ */
+
+package net.sf.jode.benchmark;
+import net.sf.jode.bytecode.ClassFormatException;
+import net.sf.jode.bytecode.ClassInfo;
+import net.sf.jode.bytecode.ClassPath;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the parsing of the class files of the corpus.  The
+ * bytecode reader BasicBlockReader isn't public, so readCode is
+ * measured as the difference between reading the declarations and
+ * reading everything.
+ *
+ * @author agent
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ReadBenchmark {
+    @Param({""})
+    public String corpus;
+
+    private Corpus classes;
+
+    @Setup
+    public void setup() throws IOException {
+	classes = new Corpus(corpus);
+    }
+
+    private void read(int howMuch, Blackhole blackhole) throws IOException {
+	/* Start with a fresh class path, so that no class is known. */
+	ClassPath classPath = classes.createClassPath();
+	for (int i = 0; i < classes.size(); i++) {
+	    ClassInfo info = classPath.getClassInfo(classes.getClassName(i));
+	    try {
+		info.read(classes.getClassFile(i), howMuch);
+	    } catch (ClassFormatException ex) {
+		/* The reader doesn't understand everything that newer
+		 * compilers produce.  Ignore these classes.
+		 */
+		blackhole.consume(ex);
+	    }
+	    blackhole.consume(info);
+	}
+    }
+
+    /**
+     * Reads the classes up to the declarations of the fields and
+     * methods.
+     */
+    @Benchmark
+    public void readDeclarations(Blackhole blackhole) throws IOException {
+	read(ClassInfo.DECLARATIONS, blackhole);
+    }
+
+    /**
+     * Reads the classes including the bytecode of the methods.
+     */
+    @Benchmark
+    public void readCode(Blackhole blackhole) throws IOException {
+	read(ClassInfo.ALL, blackhole);
+    }
+}
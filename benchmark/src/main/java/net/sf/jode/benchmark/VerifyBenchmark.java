@@ -0,0 +1,94 @@
+/* VerifyBenchmark Copyright (C) 2026 agent.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; see the file COPYING.LESSER.  If not, write to
+ * the Free Software Foundation, 675 Mass Ave, Cambridge, MA 02139, USA.
+ *
+ * $Id$
+ */
+
+package net.sf.jode.benchmark;
+import net.sf.jode.bytecode.BasicBlocks;
+import net.sf.jode.bytecode.ClassInfo;
+import net.sf.jode.bytecode.MethodInfo;
+import net.sf.jode.jvm.CodeVerifier;
+import net.sf.jode.jvm.VerifyException;
+
+import java.io.IOException;
+import java.util.Vector;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the verification of all methods of the corpus.
+ *
+ * @author agent
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class VerifyBenchmark {
+    @Param({""})
+    public String corpus;
+
+    private ClassInfo[] methodClasses;
+    private MethodInfo[] methods;
+
+    @Setup
+    public void setup() throws IOException {
+	ClassInfo[] infos = new Corpus(corpus).getClasses(ClassInfo.ALL);
+	Vector classVector = new Vector();
+	Vector methodVector = new Vector();
+	for (int i = 0; i < infos.length; i++) {
+	    MethodInfo[] minfos = infos[i].getMethods();
+	    for (int j = 0; j < minfos.length; j++) {
+		if (minfos[j].getBasicBlocks() != null) {
+		    classVector.addElement(infos[i]);
+		    methodVector.addElement(minfos[j]);
+		}
+	    }
+	}
+	methodClasses = new ClassInfo[classVector.size()];
+	classVector.copyInto(methodClasses);
+	methods = new MethodInfo[methodVector.size()];
+	methodVector.copyInto(methods);
+    }
+
+    @Benchmark
+    public void verify(Blackhole blackhole) {
+	for (int i = 0; i < methods.length; i++) {
+	    BasicBlocks bb = methods[i].getBasicBlocks();
+	    try {
+		new CodeVerifier(methodClasses[i], methods[i], bb).verify();
+	    } catch (VerifyException ex) {
+		/* Broken methods are as expensive as correct ones. */
+		blackhole.consume(ex);
+	    }
+	}
+    }
+}
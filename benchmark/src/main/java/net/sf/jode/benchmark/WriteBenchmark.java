@@ -0,0 +1,86 @@
+/* WriteBenchmark Copyright (C) 2026 agent.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; see the file COPYING.LESSER.  If not, write to
+ * the Free Software Foundation, 675 Mass Ave, Cambridge, MA 02139, USA.
+ *
+ * $Id$
+ */
+
+package net.sf.jode.benchmark;
+import net.sf.jode.bytecode.ClassInfo;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Vector;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures writing the classes of the corpus back to class files,
+ * which is mostly the work of BasicBlockWriter and the constant pool.
+ *
+ * @author agent
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class WriteBenchmark {
+    @Param({""})
+    public String corpus;
+
+    private ClassInfo[] infos;
+
+    @Setup
+    public void setup() throws IOException {
+	ClassInfo[] allInfos = new Corpus(corpus).getClasses(ClassInfo.ALL);
+	/* The writer only produces old class files and refuses some
+	 * newer constructs, e.g. class constants.  Leave out these
+	 * classes.
+	 */
+	DataOutputStream output
+	    = new DataOutputStream(new Corpus.NullOutputStream());
+	Vector writable = new Vector();
+	for (int i = 0; i < allInfos.length; i++) {
+	    try {
+		allInfos[i].write(output);
+		writable.addElement(allInfos[i]);
+	    } catch (IllegalArgumentException ex) {
+	    }
+	}
+	infos = new ClassInfo[writable.size()];
+	writable.copyInto(infos);
+    }
+
+    @Benchmark
+    public void write() throws IOException {
+	DataOutputStream output
+	    = new DataOutputStream(new Corpus.NullOutputStream());
+	for (int i = 0; i < infos.length; i++)
+	    infos[i].write(output);
+    }
+}
@@ -28,6 +28,26 @@ public class GlobalOptions {
 	"Jode (c) 1998-2004 Jochen Hoenicke <"+email+">";
     public final static String URL = "http://jode.sourceforge.net/";
 
+    /**
+     * The error stream, the verbose level and the debugging flags of
+     * a thread.  The decompiler binds its context to the thread with
+     * {@link #setSettings}, so that code outside the decompiler
+     * reports to the right stream.
+     */
+    public interface Settings {
+	public PrintWriter getErr();
+	public int getVerboseLevel();
+	public int getDebuggingFlags();
+    }
+
+    private static final ThreadLocal settings = new ThreadLocal();
+
+    /**
+     * The defaults for the error stream, the verbose level and the
+     * debugging flags.  They are used when no {@link Settings} are
+     * bound to the current thread.  Code should read them with
+     * getErr(), getVerboseLevel() and isDebugging().
+     */
     public static PrintWriter err = new PrintWriter(System.err, true);
     public static int verboseLevel   = 0;
     public static int debuggingFlags = 0;
@@ -50,6 +70,42 @@ public class GlobalOptions {
 	"constructors", "interpreter"
     };
 
+    /**
+     * Binds settings to the current thread.
+     * @param newSettings the new settings, null to use the defaults.
+     * @return the previously bound settings, or null if there were
+     * none.
+     */
+    public static Settings setSettings(Settings newSettings) {
+	Settings previous = (Settings) settings.get();
+	settings.set(newSettings);
+	return previous;
+    }
+
+    /**
+     * Returns the stream where errors and warnings should be printed.
+     */
+    public static PrintWriter getErr() {
+	Settings current = (Settings) settings.get();
+	return current != null ? current.getErr() : err;
+    }
+
+    public static int getVerboseLevel() {
+	Settings current = (Settings) settings.get();
+	return current != null ? current.getVerboseLevel() : verboseLevel;
+    }
+
+    /**
+     * Checks whether the given debugging flag is set.
+     * @param flag one of the DEBUG_* constants.
+     */
+    public static boolean isDebugging(int flag) {
+	Settings current = (Settings) settings.get();
+	int flags = current != null
+	    ? current.getDebuggingFlags() : debuggingFlags;
+	return (flags & flag) != 0;
+    }
+
     public static void usageDebugging() {
 	err.println("Debugging option: --debug=flag1,flag2,...");
 	err.println("possible flags:");
@@ -80,28 +136,41 @@ public class GlobalOptions {
     
     /**
      * Parse the argument given to the debugging flag.
+     * @return the debugging flags.
      * @exception IllegalArgumentException 
      *    if a problem occured while parsing the argument.
      */
-    public static boolean setDebugging(String debuggingString) {
+    public static int parseDebugging(String debuggingString) {
 	if (debuggingString.length() == 0 || debuggingString.equals("help")) {
 	    usageDebugging();
 	    throw new IllegalArgumentException();
 	}
 
+	int flags = 0;
 	StringTokenizer st = new StringTokenizer(debuggingString, ",");
     next_token:
 	while (st.hasMoreTokens()) {
 	    String token = st.nextToken().intern();
 	    for (int i=0; i<debuggingNames.length; i++) {
 		if (token == debuggingNames[i]) {
-		    debuggingFlags |= 1 << i;
+		    flags |= 1 << i;
 		    continue next_token;
 		}
 	    }
 	    throw new IllegalArgumentException("Illegal debugging flag: "
 					       +token);
 	}
+	return flags;
+    }
+
+    /**
+     * Parse the argument given to the debugging flag and add the
+     * flags to the default debugging flags.
+     * @exception IllegalArgumentException 
+     *    if a problem occured while parsing the argument.
+     */
+    public static boolean setDebugging(String debuggingString) {
+	debuggingFlags |= parseDebugging(debuggingString);
 	return true;
     }
 }
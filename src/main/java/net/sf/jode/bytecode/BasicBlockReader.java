@@ -20,7 +20,6 @@
 package net.sf.jode.bytecode;
 
 import net.sf.jode.GlobalOptions;
-import java.io.DataInputStream;
 import java.io.IOException;
 import java.util.Stack;
 import java.util.Vector;
@@ -292,10 +291,9 @@ class BasicBlockReader implements Opcodes {
 	int count = 0;
 	for (int i = 0; i < infos.length; i = infos[i].nextAddr) {
 	    InstrInfo info = infos[i];
-	    if ((GlobalOptions.debuggingFlags
-		 & GlobalOptions.DEBUG_BYTECODE) != 0) {
+	    if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_BYTECODE)) {
 		if ((info.flags & IS_BORDER) != 0)
-		    GlobalOptions.err.println
+		    GlobalOptions.getErr().println
 			(""+info.addr+": "+info.flags+","+info.blockNr+";"+info.stack);
 	    }
 	    if ((info.flags & IS_BORDER) != 0) {
@@ -328,7 +326,7 @@ class BasicBlockReader implements Opcodes {
     }
 
     public void readCode(ConstantPool cp, 
-			 DataInputStream input) throws IOException {
+			 ClassFileInput input) throws IOException {
         maxStack = input.readUnsignedShort();
 	maxLocals = input.readUnsignedShort(); 
 
@@ -342,9 +340,8 @@ class BasicBlockReader implements Opcodes {
 
 		infos[addr] = new InstrInfo();
 		int opcode = input.readUnsignedByte();
-		if ((GlobalOptions.debuggingFlags
-		     & GlobalOptions.DEBUG_BYTECODE) != 0) 
-		    GlobalOptions.err.print(addr+": "+opcodeString[opcode]);
+		if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_BYTECODE)) 
+		    GlobalOptions.getErr().print(addr+": "+opcodeString[opcode]);
 
 		switch (opcode) {
 		case opc_wide: {
@@ -360,9 +357,8 @@ class BasicBlockReader implements Opcodes {
 			    = LocalVariableInfo.getInfo(slot);
 			instr = new SlotInstruction(wideopcode, lvi);
 			length = 4;
-			if ((GlobalOptions.debuggingFlags
-			     & GlobalOptions.DEBUG_BYTECODE) != 0) 
-			    GlobalOptions.err.print
+			if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_BYTECODE)) 
+			    GlobalOptions.getErr().print
 				(" " + opcodeString[wideopcode] + " " + slot);
 			break;
 		    }
@@ -376,9 +372,8 @@ class BasicBlockReader implements Opcodes {
 			    = LocalVariableInfo.getInfo(slot);
 			instr = new SlotInstruction(wideopcode, lvi);
 			length = 4;
-			if ((GlobalOptions.debuggingFlags
-			     & GlobalOptions.DEBUG_BYTECODE) != 0) 
-			    GlobalOptions.err.print
+			if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_BYTECODE)) 
+			    GlobalOptions.getErr().print
 				(" " + opcodeString[wideopcode] + " " + slot);
 			break;
 		    }
@@ -391,9 +386,8 @@ class BasicBlockReader implements Opcodes {
 			    = LocalVariableInfo.getInfo(slot);
 			instr = new SlotInstruction(wideopcode, lvi);
 			length = 4;
-			if ((GlobalOptions.debuggingFlags
-			     & GlobalOptions.DEBUG_BYTECODE) != 0) 
-			    GlobalOptions.err.print(" ret "+slot);
+			if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_BYTECODE)) 
+			    GlobalOptions.getErr().print(" ret "+slot);
 			break;
 		    }
 		    case opc_iinc: {
@@ -406,9 +400,8 @@ class BasicBlockReader implements Opcodes {
 			int incr = input.readShort();
 			instr = new IncInstruction(wideopcode, lvi, incr);
 			length = 6;
-			if ((GlobalOptions.debuggingFlags
-			     & GlobalOptions.DEBUG_BYTECODE) != 0) 
-			    GlobalOptions.err.print
+			if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_BYTECODE)) 
+			    GlobalOptions.getErr().print
 				(" iinc " + slot + " " + instr.getIncrement());
 			break;
 		    }
@@ -481,9 +474,8 @@ class BasicBlockReader implements Opcodes {
 			= LocalVariableInfo.getInfo(slot);
 		    instr = new SlotInstruction(opcode, lvi);
 		    length = 2;
-		    if ((GlobalOptions.debuggingFlags
-			 & GlobalOptions.DEBUG_BYTECODE) != 0) 
-			GlobalOptions.err.print(" "+slot);
+		    if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_BYTECODE)) 
+			GlobalOptions.getErr().print(" "+slot);
 		    break;
 		}
 		case opc_lstore: case opc_dstore:
@@ -496,9 +488,8 @@ class BasicBlockReader implements Opcodes {
 			= LocalVariableInfo.getInfo(slot);
 		    instr = new SlotInstruction(opcode, lvi);
 		    length = 2;
-		    if ((GlobalOptions.debuggingFlags
-			 & GlobalOptions.DEBUG_BYTECODE) != 0) 
-			GlobalOptions.err.print(" "+slot);
+		    if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_BYTECODE)) 
+			GlobalOptions.getErr().print(" "+slot);
 		    break;
 		}
 		case opc_ret: {
@@ -510,9 +501,8 @@ class BasicBlockReader implements Opcodes {
 			= LocalVariableInfo.getInfo(slot);
 		    instr = new SlotInstruction(opcode, lvi);
 		    length = 2;
-		    if ((GlobalOptions.debuggingFlags
-			 & GlobalOptions.DEBUG_BYTECODE) != 0) 
-			GlobalOptions.err.print(" "+slot);
+		    if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_BYTECODE)) 
+			GlobalOptions.getErr().print(" "+slot);
 		    break;
 		}
 		case opc_aconst_null:
@@ -585,9 +575,8 @@ class BasicBlockReader implements Opcodes {
 		    int incr = input.readByte();
 		    instr = new IncInstruction(opcode, lvi, incr);
 		    length = 3;
-		    if ((GlobalOptions.debuggingFlags
-			 & GlobalOptions.DEBUG_BYTECODE) != 0) 
-			GlobalOptions.err.print
+		    if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_BYTECODE)) 
+			GlobalOptions.getErr().print
 			    (" " + slot + " " + instr.getIncrement());
 		    break;
 		}
@@ -604,9 +593,8 @@ class BasicBlockReader implements Opcodes {
 		    instr = new Instruction(opcode);
 		    length = 3;
 		    infos[addr].succs = new int[] { addr+input.readShort() };
-		    if ((GlobalOptions.debuggingFlags
-			 & GlobalOptions.DEBUG_BYTECODE) != 0) 
-			GlobalOptions.err.print(" "+infos[addr].succs[0]);
+		    if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_BYTECODE)) 
+			GlobalOptions.getErr().print(" "+infos[addr].succs[0]);
 		    break;
 
 		case opc_goto_w:
@@ -614,14 +602,13 @@ class BasicBlockReader implements Opcodes {
 		    instr = new Instruction(opcode - (opc_goto_w - opc_goto));
 		    length = 5;
 		    infos[addr].succs = new int[] { addr+input.readInt() };
-		    if ((GlobalOptions.debuggingFlags
-			 & GlobalOptions.DEBUG_BYTECODE) != 0) 
-			GlobalOptions.err.print(" "+infos[addr].succs[0]);
+		    if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_BYTECODE)) 
+			GlobalOptions.getErr().print(" "+infos[addr].succs[0]);
 		    break;
 
 		case opc_tableswitch: {
 		    length = 3 - (addr % 4);
-		    input.readFully(new byte[length]);
+		    input.skipBytes(length);
 		    int def  = input.readInt();
 		    int low  = input.readInt();
 		    int high = input.readInt();
@@ -649,7 +636,7 @@ class BasicBlockReader implements Opcodes {
 		}
 		case opc_lookupswitch: {
 		    length = 3 - (addr % 4);
-		    input.readFully(new byte[length]);
+		    input.skipBytes(length);
 		    int def = input.readInt();
 		    int npairs = input.readInt();
 		    infos[addr].succs = new int[npairs + 1];
@@ -693,9 +680,8 @@ class BasicBlockReader implements Opcodes {
 			    ("Illegal call of special method/field "+ref);
 		    instr = new ReferenceInstruction(opcode, ref);
 		    length = 3;
-		    if ((GlobalOptions.debuggingFlags
-			 & GlobalOptions.DEBUG_BYTECODE) != 0) 
-			GlobalOptions.err.print(" "+ref);
+		    if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_BYTECODE)) 
+			GlobalOptions.getErr().print(" "+ref);
 		    break;
 		}
 		case opc_invokeinterface: {
@@ -719,9 +705,8 @@ class BasicBlockReader implements Opcodes {
 
 		    instr = new ReferenceInstruction(opcode, ref);
 		    length = 5;
-		    if ((GlobalOptions.debuggingFlags
-			 & GlobalOptions.DEBUG_BYTECODE) != 0) 
-			GlobalOptions.err.print(" "+ref);
+		    if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_BYTECODE)) 
+			GlobalOptions.getErr().print(" "+ref);
 		    break;
 		}
 
@@ -734,9 +719,8 @@ class BasicBlockReader implements Opcodes {
 			    ("Can't create array with opc_new");
 		    instr = new TypeInstruction(opcode, type);
 		    length = 3;
-		    if ((GlobalOptions.debuggingFlags
-			 & GlobalOptions.DEBUG_BYTECODE) != 0) 
-			GlobalOptions.err.print(" "+type);
+		    if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_BYTECODE)) 
+			GlobalOptions.getErr().print(" "+type);
 		    break;
 		}
 		case opc_multianewarray: {
@@ -757,9 +741,8 @@ class BasicBlockReader implements Opcodes {
 		    }
 		    instr = new TypeDimensionInstruction(opcode, type, dims);
 		    length = 4;
-		    if ((GlobalOptions.debuggingFlags
-			 & GlobalOptions.DEBUG_BYTECODE) != 0) 
-			GlobalOptions.err.print(" " + type + " " + dims);
+		    if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_BYTECODE)) 
+			GlobalOptions.getErr().print(" " + type + " " + dims);
 		    break;
 		}
 		case opc_anewarray: {
@@ -768,18 +751,16 @@ class BasicBlockReader implements Opcodes {
 		    instr = new TypeDimensionInstruction
 			(opc_multianewarray, type.intern(), 1);
 		    length = 3;
-		    if ((GlobalOptions.debuggingFlags
-			 & GlobalOptions.DEBUG_BYTECODE) != 0) 
-			GlobalOptions.err.print(" "+type);
+		    if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_BYTECODE)) 
+			GlobalOptions.getErr().print(" "+type);
 		    break;
 		}
 		case opc_newarray: {
 		    char sig = newArrayTypes.charAt
 			(input.readUnsignedByte()-4);
 		    String type = new String (new char[] { '[', sig });
-		    if ((GlobalOptions.debuggingFlags
-			 & GlobalOptions.DEBUG_BYTECODE) != 0) 
-			GlobalOptions.err.print(" "+type);
+		    if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_BYTECODE)) 
+			GlobalOptions.getErr().print(" "+type);
 		    instr = new TypeDimensionInstruction
 			(opc_multianewarray, type.intern(), 1);
 		    length = 2;
@@ -828,9 +809,8 @@ class BasicBlockReader implements Opcodes {
 		default:
 		    throw new ClassFormatException("Invalid opcode "+opcode);
 		}
-		if ((GlobalOptions.debuggingFlags
-		     & GlobalOptions.DEBUG_BYTECODE) != 0) 
-		    GlobalOptions.err.println();
+		if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_BYTECODE)) 
+		    GlobalOptions.getErr().println();
 
 		infos[addr].instr = instr;
 		infos[addr].addr  = addr;
@@ -866,9 +846,8 @@ class BasicBlockReader implements Opcodes {
 		i--;
 	    }
 
-	    if ((GlobalOptions.debuggingFlags
-		 & GlobalOptions.DEBUG_BYTECODE) != 0) 
-		GlobalOptions.err.println("Handler "+handlers[i].start
+	    if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_BYTECODE)) 
+		GlobalOptions.getErr().println("Handler "+handlers[i].start
 					  +"-"+handlers[i].end
 					  +" @"+handlers[i].catcher
 					  + ": "+handlers[i].type);
@@ -946,13 +925,13 @@ class BasicBlockReader implements Opcodes {
     }
 
     public void readLVT(int length, ConstantPool cp, 
-			DataInputStream input) throws IOException {
-	if ((GlobalOptions.debuggingFlags & GlobalOptions.DEBUG_LVT) != 0) 
-	    GlobalOptions.err.println("LocalVariableTable of "+bb);
+			ClassFileInput input) throws IOException {
+	if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_LVT)) 
+	    GlobalOptions.getErr().println("LocalVariableTable of "+bb);
 	int count = input.readUnsignedShort();
 	if (length != 2 + count * 10) {
-	    if ((GlobalOptions.debuggingFlags & GlobalOptions.DEBUG_LVT) != 0) 
-		GlobalOptions.err.println("Illegal LVT length, ignoring it");
+	    if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_LVT)) 
+		GlobalOptions.getErr().println("Illegal LVT length, ignoring it");
 	    return;
 	}
 	Vector[] lvt = new Vector[maxLocals];
@@ -969,17 +948,16 @@ class BasicBlockReader implements Opcodes {
 		
 		// This is probably an evil lvt as created by HashJava
 		// simply ignore it.
-		if ((GlobalOptions.debuggingFlags
-		     & GlobalOptions.DEBUG_LVT) != 0) 
-		    GlobalOptions.err.println
+		if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_LVT)) 
+		    GlobalOptions.getErr().println
 			("Illegal entry, ignoring LVT");
 		lvt = null;
 		return;
 	    }
 	    lve.name = cp.getUTF8(nameIndex);
 	    lve.type = cp.getUTF8(typeIndex);
-	    if ((GlobalOptions.debuggingFlags & GlobalOptions.DEBUG_LVT) != 0)
-		GlobalOptions.err.println("\t" + lve.name + ": "
+	    if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_LVT))
+		GlobalOptions.getErr().println("\t" + lve.name + ": "
 					  + lve.type
 					  +" range "+lve.start
 					  +" - "+lve.end
@@ -1048,10 +1026,10 @@ class BasicBlockReader implements Opcodes {
     } 
 
     public void readLNT(int length, ConstantPool cp, 
-			DataInputStream input) throws IOException {
+			ClassFileInput input) throws IOException {
 	int count = input.readUnsignedShort();
 	if (length != 2 + count * 4) {
-	    GlobalOptions.err.println
+	    GlobalOptions.getErr().println
 		("Illegal LineNumberTable, ignoring it");
 	    return;
 	}
@@ -25,6 +25,8 @@ import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.Stack;
 
+import net.sf.jode.GlobalOptions;
+
 /**
  * This is a helper class, that contains the method to write basic
  * blocks to a class file.
@@ -145,7 +147,8 @@ class BasicBlockWriter implements Opcodes {
 		current[slot] = new LVTEntry();
 		current[slot].startAddr = 0;
 		current[slot].lvi = lvi;
-		System.err.println("lvi at init,"+slot+": "+lvi);
+		if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_LVT))
+		    GlobalOptions.getErr().println("lvi at init,"+slot+": "+lvi);
 	    }
 	}
 
@@ -167,7 +170,8 @@ class BasicBlockWriter implements Opcodes {
 		    current[slot] = new LVTEntry();
 		    current[slot].startAddr = addr;
 		    current[slot].lvi = atStart[i][slot];
-		    System.err.println("lvi at "+i+","+slot+": "+current[slot].lvi);
+		    if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_LVT))
+			GlobalOptions.getErr().println("lvi at "+i+","+slot+": "+current[slot].lvi);
 		}
 	    }
 
@@ -188,7 +192,8 @@ class BasicBlockWriter implements Opcodes {
 			current[slot] = new LVTEntry();
 			current[slot].startAddr = addr;
 			current[slot].lvi = lvi;
-			System.err.println("lvi at "+i+","+k+","+slot+": "+current[slot].lvi);
+			if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_LVT))
+			    GlobalOptions.getErr().println("lvi at "+i+","+k+","+slot+": "+current[slot].lvi);
 		    }
 		}
 		addr += instrLength[i][k];
@@ -581,7 +586,8 @@ class BasicBlockWriter implements Opcodes {
 	    gcp.putUTF8("LocalVariableTable");
             int count = lvt.length;
             for (int i=0; i < count; i++) {
-	      System.err.println("lvt: "+lvt[i].lvi);
+		if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_LVT))
+		    GlobalOptions.getErr().println("lvt: "+lvt[i].lvi);
 		gcp.putUTF8(lvt[i].lvi.getName());
 		gcp.putUTF8(lvt[i].lvi.getType());
 	    }
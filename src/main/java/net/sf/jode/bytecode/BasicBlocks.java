@@ -21,7 +21,6 @@ package net.sf.jode.bytecode;
 
 import net.sf.jode.GlobalOptions;
 
-import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.PrintWriter;
@@ -297,23 +296,21 @@ public class BasicBlocks extends BinaryInfo implements Opcodes {
 
     private BasicBlockReader reader;
     void read(ConstantPool cp, 
-		     DataInputStream input, 
+		     ClassFileInput input, 
 		     int howMuch) throws IOException {
-	if ((GlobalOptions.debuggingFlags
-	     & GlobalOptions.DEBUG_BYTECODE) != 0)
-	    GlobalOptions.err.println("Reading "+methodInfo);
+	if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_BYTECODE))
+	    GlobalOptions.getErr().println("Reading "+methodInfo);
 	reader = new BasicBlockReader(this);
 	reader.readCode(cp, input);
 	readAttributes(cp, input, howMuch);
   	reader.convert();
 	reader = null;
-	if ((GlobalOptions.debuggingFlags
-	     & GlobalOptions.DEBUG_BYTECODE) != 0)
-	    dumpCode(GlobalOptions.err);
+	if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_BYTECODE))
+	    dumpCode(GlobalOptions.getErr());
     }
 
     protected void readAttribute(String name, int length, ConstantPool cp,
-				 DataInputStream input, 
+				 ClassFileInput input, 
 				 int howMuch) throws IOException {
 	if (howMuch >= ClassInfo.ALMOSTALL
 	    && name.equals("LocalVariableTable")) {
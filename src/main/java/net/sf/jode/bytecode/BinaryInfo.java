@@ -18,12 +18,8 @@
  */
 
 package net.sf.jode.bytecode;
-import java.io.DataInputStream;
 import java.io.DataOutputStream;
-import java.io.EOFException;
-import java.io.FilterInputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import net.sf.jode.util.SimpleMap;
 
 import java.util.Collections;
@@ -134,17 +130,11 @@ public class BinaryInfo {
 
     private Map unknownAttributes = null;
 
-    void skipAttributes(DataInputStream input) throws IOException {
+    void skipAttributes(ClassFileInput input) throws IOException {
         int count = input.readUnsignedShort();
         for (int i=0; i< count; i++) {
             input.readUnsignedShort();  // the name index
-            long length = input.readInt();
-	    while (length > 0) {
-		long skipped = input.skip(length);
-		if (skipped == 0)
-		    throw new EOFException("Can't skip. EOF?");
-		length -= skipped;
-	    }
+            input.skipBytes(input.readInt());
         }
     }
 
@@ -155,14 +145,14 @@ public class BinaryInfo {
      * @param name the attribute name.
      * @param length the length of the attribute.
      * @param constantPool the constant pool of the class.
-     * @param input a data input stream where you can read the attribute
-     * from.  It will protect you to read more over the attribute boundary.
+     * @param input the input where you can read the attribute from.
+     * It will protect you to read more over the attribute boundary.
      * @param howMuch the constant that was given to the {@link
      * ClassInfo#load} function when loading this class.
      */
     protected void readAttribute(String name, int length,
 				 ConstantPool constantPool,
-				 DataInputStream input, 
+				 ClassFileInput input, 
 				 int howMuch) throws IOException {
 	byte[] data = new byte[length];
 	input.readFully(data);
@@ -173,72 +163,17 @@ public class BinaryInfo {
 	}
     }
 
-    static class ConstrainedInputStream extends FilterInputStream {
-	int length;
-
-	public ConstrainedInputStream(int attrLength, InputStream input) {
-	    super(input);
-	    length = attrLength;
-	}
-
-	public int read() throws IOException {
-	    if (length > 0) {
-		int data = super.read();
-		length--;
-		return data;
-	    }
-	    throw new EOFException();
-	}
-
-	public int read(byte[] b, int off, int len) throws IOException {
-	    if (length < len) {
-		len = length;
-	    }
-	    if (len == 0)
-		return -1;
-	    int count = super.read(b, off, len);
-	    length -= count;
-	    return count;
-	}
-
-	public int read(byte[] b) throws IOException {
-	    return read(b, 0, b.length);
-	}
-
-	public long skip(long count) throws IOException {
-	    if (length < count) {
-		count = length;
-	    }
-	    count = super.skip(count);
-	    length -= (int) count;
-	    return count;
-	}
-
-	public void skipRemaining() throws IOException {
-	    while (length > 0) {
-		int skipped = (int) skip(length);
-		if (skipped == 0)
-		    throw new EOFException();
-		length -= skipped;
-	    }
-	}
-    }
-
     void readAttributes(ConstantPool constantPool,
-			DataInputStream input, 
+			ClassFileInput input, 
 			int howMuch) throws IOException {
 	int count = input.readUnsignedShort();
 	unknownAttributes = null;
 	for (int i=0; i< count; i++) {
 	    String attrName = 
 		constantPool.getUTF8(input.readUnsignedShort());
-	    final int attrLength = input.readInt();
-	    ConstrainedInputStream constrInput = 
-		    new ConstrainedInputStream(attrLength, input);
+	    int attrLength = input.readInt();
 	    readAttribute(attrName, attrLength, 
-			  constantPool, new DataInputStream(constrInput),
-			  howMuch);
-	    constrInput.skipRemaining();
+			  constantPool, input.sub(attrLength), howMuch);
 	}
     }
 
@@ -0,0 +1,163 @@
+/* ClassFileInput Copyright (C) 2026 agent.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; see the file COPYING.LESSER.  If not, write to
+ * the Free Software Foundation, 675 Mass Ave, Cambridge, MA 02139, USA.
+ *
+ * $Id$
+ */
+
+package net.sf.jode.bytecode;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads the contents of a class file, that is completely in memory.
+ * It has the same read methods as a DataInputStream, but every
+ * method reads the bytes at the current position directly from the
+ * array, instead of calling the read method of a stream for every
+ * byte. <br>
+ *
+ * The attributes are read from a {@link #sub sub input}, that
+ * shares the array, but throws an EOFException if the attribute
+ * boundary is crossed.
+ *
+ * @author agent
+ */
+public final class ClassFileInput {
+    byte[] data;
+    int pos;
+    int end;
+
+    /**
+     * Creates an input that reads the given class file.
+     * @param data the contents of the class file.
+     */
+    public ClassFileInput(byte[] data) {
+	this(data, 0, data.length);
+    }
+
+    /**
+     * Creates an input that reads a part of the given array.
+     * @param data the array.
+     * @param offset the start of the part.
+     * @param length the length of the part.
+     */
+    public ClassFileInput(byte[] data, int offset, int length) {
+	if (offset < 0 || length < 0 || offset + length > data.length)
+	    throw new IndexOutOfBoundsException();
+	this.data = data;
+	this.pos = offset;
+	this.end = offset + length;
+    }
+
+    /**
+     * Reads the remaining bytes of a stream into an array.  The
+     * stream is not closed.
+     * @param input the stream.
+     * @return the bytes read.
+     * @exception IOException if the stream throws an exception.
+     */
+    public static byte[] readAll(InputStream input) throws IOException {
+	/* For files and zip entries available() returns the size. */
+	byte[] buffer = new byte[Math.max(input.available() + 1, 1024)];
+	int length = 0;
+	for (;;) {
+	    int count = input.read(buffer, length, buffer.length - length);
+	    if (count < 0)
+		break;
+	    length += count;
+	    if (length == buffer.length) {
+		byte[] newBuffer = new byte[buffer.length * 2];
+		System.arraycopy(buffer, 0, newBuffer, 0, length);
+		buffer = newBuffer;
+	    }
+	}
+	byte[] result = new byte[length];
+	System.arraycopy(buffer, 0, result, 0, length);
+	return result;
+    }
+
+    /**
+     * Returns the number of bytes that are left.
+     */
+    public int available() {
+	return end - pos;
+    }
+
+    private int advance(int count) throws EOFException {
+	int p = pos;
+	if (count > end - p)
+	    throw new EOFException();
+	pos = p + count;
+	return p;
+    }
+
+    public int readUnsignedByte() throws IOException {
+	return data[advance(1)] & 0xff;
+    }
+
+    public byte readByte() throws IOException {
+	return data[advance(1)];
+    }
+
+    public int readUnsignedShort() throws IOException {
+	int p = advance(2);
+	return (data[p] & 0xff) << 8 | (data[p+1] & 0xff);
+    }
+
+    public short readShort() throws IOException {
+	int p = advance(2);
+	return (short) (data[p] << 8 | (data[p+1] & 0xff));
+    }
+
+    public int readInt() throws IOException {
+	int p = advance(4);
+	return data[p] << 24 | (data[p+1] & 0xff) << 16
+	    | (data[p+2] & 0xff) << 8 | (data[p+3] & 0xff);
+    }
+
+    public void readFully(byte[] b) throws IOException {
+	readFully(b, 0, b.length);
+    }
+
+    public void readFully(byte[] b, int off, int len) throws IOException {
+	System.arraycopy(data, advance(len), b, off, len);
+    }
+
+    /**
+     * Skips the given number of bytes.
+     * @exception EOFException if there are not enough bytes left.
+     */
+    public void skipBytes(int count) throws IOException {
+	if (count < 0)
+	    throw new EOFException();
+	advance(count);
+    }
+
+    /**
+     * Returns an input for the next bytes, and skips them in this
+     * input.
+     * @param length the number of bytes.
+     * @return an input that reads exactly these bytes.
+     * @exception EOFException if there are not enough bytes left.
+     */
+    public ClassFileInput sub(int length) throws IOException {
+	if (length < 0)
+	    throw new EOFException();
+	int p = advance(length);
+	return new ClassFileInput(data, p, length);
+    }
+}
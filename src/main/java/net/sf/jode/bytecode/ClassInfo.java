@@ -230,10 +230,35 @@ public final class ClassInfo extends BinaryInfo implements Comparable {
 
     private static ClassPath defaultClasspath;
     
-    private int status = 0;
+    /**
+     * The amount of information loaded.  It is only changed while
+     * holding the lock of the class path, see {@link #load}.
+     */
+    private volatile int status = 0;
 
     private boolean modified = false;
     private boolean isGuessed = false;
+    /**
+     * The time of the last call to load, counted in calls to load.
+     * This and the following field are only maintained if the class
+     * path has a memory budget, see {@link ClassPath#setMemoryBudget}.
+     */
+    int lastAccess;
+    /**
+     * True, if the class is in the list of the class path that
+     * contains the classes that may be dropped.
+     */
+    boolean dropCandidate;
+    /**
+     * The length of the class file this class was last read from.
+     * The class path estimates the memory used by the class from it.
+     */
+    int fileSize;
+    /**
+     * How often this class is pinned, see {@link #pin}.  Guarded by
+     * the lock of the class path.
+     */
+    private int pinCount;
     private ClassPath classpath;
 
     private int modifiers = -1;
@@ -409,10 +434,11 @@ public final class ClassInfo extends BinaryInfo implements Comparable {
 	    return modifiers;
     }
     
-    private void mergeModifiers(int newModifiers)
+    private void mergeModifiers(int newModifiers, boolean anonymous)
 	throws ClassFormatException
     {
-	if (modifiers == -1) {
+	/* The modifiers of a guessed class are only a guess, too. */
+	if (modifiers == -1 || isGuessed) {
 	    modifiers = newModifiers;
 	    return;
 	}
@@ -433,6 +459,15 @@ public final class ClassInfo extends BinaryInfo implements Comparable {
 	    return;
 	}
 
+	/* Some javac versions mark anonymous classes final in the
+	 * class file, but not in the InnerClasses attribute.
+	 */
+	if (anonymous
+	    && ((newSimple ^ modifiers) & 0xfdf & ~Modifier.FINAL) == 0) {
+	    modifiers = newModifiers | (modifiers & 0x20);
+	    return;
+	}
+
 	throw new ClassFormatException
 	    ("modifiers in InnerClass info doesn't match: "
              + modifiers + "<->" + newModifiers);
@@ -455,17 +490,17 @@ public final class ClassInfo extends BinaryInfo implements Comparable {
 		    this.className = className;
 		    this.methodScoped = ms;
 		} else if (className != null || outer != null) {
-		    GlobalOptions.err.println
+		    GlobalOptions.getErr().println
 			("WARNING: Outer information mismatch "
 			 +name+": "+className+","+outer+","+ms+"<->"
 			 +this.className +","+this.outerClass+","+this.methodScoped);
 		}
 	    }
 	    if (realModifiers != -1)
-		mergeModifiers(realModifiers);
+		mergeModifiers(realModifiers, className == null && ms);
 	} else {
 	    if (realModifiers != -1)
-		mergeModifiers(realModifiers);
+		mergeModifiers(realModifiers, className == null && ms);
 	    this.className = className;
 	    this.outerClass = outer;
 	    this.methodScoped = ms;
@@ -474,7 +509,7 @@ public final class ClassInfo extends BinaryInfo implements Comparable {
     }
 
     private void readInnerClassesAttribute(int length, ConstantPool cp,
-					   DataInputStream input)
+					   ClassFileInput input)
 	throws IOException
     {
 	/* The InnerClasses attribute is transformed in a special way
@@ -556,7 +591,7 @@ public final class ClassInfo extends BinaryInfo implements Comparable {
 
     protected void readAttribute(String name, int length,
 				 ConstantPool cp,
-				 DataInputStream input, 
+				 ClassFileInput input, 
 				 int howMuch) throws IOException {
 	if (howMuch >= ClassInfo.ALMOSTALL && name.equals("SourceFile")) {
 	    if (length != 2)
@@ -712,6 +747,29 @@ public final class ClassInfo extends BinaryInfo implements Comparable {
      */
     public void read(DataInputStream input, int howMuch) 
 	throws IOException 
+    {
+	if (modified)
+	    throw new IllegalStateException(name);
+	if (status >= howMuch)
+	    return;
+	read(new ClassFileInput(ClassFileInput.readAll(input)), howMuch);
+    }
+
+    /**
+     * Reads a class file, that is completely in memory.
+     *
+     * @param input The input, containing the class in standard
+     *              bytecode format.
+     * @param howMuch The amount of information that should be read in, one
+     *                of HIERARCHY, PUBLICDECLARATIONS, DECLARATIONS or ALL.
+     * @exception ClassFormatException if the file doesn't denote a valid
+     * class.  
+     * @exception IOException if the file is truncated.
+     * @exception IllegalStateException if this ClassInfo was modified.
+     * @see #read(DataInputStream, int)
+     */
+    public void read(ClassFileInput input, int howMuch) 
+	throws IOException 
     {
 	if (modified)
 	    throw new IllegalStateException(name);
@@ -723,6 +781,7 @@ public final class ClassInfo extends BinaryInfo implements Comparable {
 	 */
 	if (howMuch <= DECLARATIONS)
 	    howMuch = DECLARATIONS;
+	fileSize = input.end - input.pos;
 
 	/* header */
 	if (input.readInt() != 0xcafebabe)
@@ -737,7 +796,15 @@ public final class ClassInfo extends BinaryInfo implements Comparable {
         cpool.read(input);
 
 	/* modifiers */
-	modifiers = input.readUnsignedShort();
+	int fileModifiers = input.readUnsignedShort();
+	/* If we read the class again to get the method bodies, other
+	 * threads may already use the declarations, so everything
+	 * below is built up before it is stored into this object.
+	 * The modifiers were already merged with the InnerClasses
+	 * information and merging them again doesn't change them.
+	 */
+	if (status < HIERARCHY)
+	    modifiers = fileModifiers;
 	/* name */
 	String className = cpool.getClassName(input.readUnsignedShort());
 	if (name == null)
@@ -752,35 +819,40 @@ public final class ClassInfo extends BinaryInfo implements Comparable {
 
 	/* interfaces */
 	int count = input.readUnsignedShort();
-	interfaces = new ClassInfo[count];
+	ClassInfo[] newInterfaces = new ClassInfo[count];
 	for (int i = 0; i < count; i++) {
-	    interfaces[i] = classpath.getClassInfo
+	    newInterfaces[i] = classpath.getClassInfo
 		(cpool.getClassName(input.readUnsignedShort()));
 	}
+	interfaces = newInterfaces;
 
 	/* fields */
 	count = input.readUnsignedShort();
-	fields = new FieldInfo[count];
+	FieldInfo[] newFields = new FieldInfo[count];
 	for (int i = 0; i < count; i++) {
-	    fields[i] = new FieldInfo(); 
-	    fields[i].read(cpool, input, howMuch);
+	    newFields[i] = new FieldInfo(); 
+	    newFields[i].read(cpool, input, howMuch);
 	}
+	fields = newFields;
 
 	/* methods */
 	count = input.readUnsignedShort();
-	methods = new MethodInfo[count];
+	MethodInfo[] newMethods = new MethodInfo[count];
 	for (int i = 0; i < count; i++) {
-	    methods[i] = new MethodInfo(); 
-	    methods[i].read(cpool, input, howMuch);
+	    newMethods[i] = new MethodInfo(); 
+	    newMethods[i].read(cpool, input, howMuch);
 	}
+	methods = newMethods;
+
+	/* attributes */
+	hasInnerClassesAttr = false;
+	readAttributes(cpool, input, howMuch);
 
 	/* initialize inner classes to empty array, in case there
 	 * is no InnerClasses attribute.
 	 */
-	innerClasses = EMPTY_INNER;
-
-	/* attributes */
-	readAttributes(cpool, input, howMuch);
+	if (!hasInnerClassesAttr)
+	    innerClasses = EMPTY_INNER;
 
 	/* All classes that are mentioned in the constant pool must
 	 * have an empty outer class info.  This is specified in the
@@ -847,7 +919,7 @@ public final class ClassInfo extends BinaryInfo implements Comparable {
 	while (iter.hasNext()) {
 	    ClassInfo ci = classpath.getClassInfo((String) iter.next());
 	    if (ci.status < OUTERCLASS) {
-		GlobalOptions.err.println
+		GlobalOptions.getErr().println
 		    ("WARNING: " + ci.name + "'s outer class isn't known.");
 	    } else {
 		if ((ci.outerClass != null || ci.methodScoped)
@@ -995,12 +1067,22 @@ public final class ClassInfo extends BinaryInfo implements Comparable {
     {
 	if (modified)
 	    throw new IllegalStateException(name);
+	classpath.classAccessed(this);
 	if (status >= howMuch)
 	    return;
-	if (classpath.loadClass(this, howMuch)) {
-	    if (status < howMuch)
-		throw new IllegalStateException("state = "+status);
-	    return;
+	/* Reading a class also fills in the outer class information
+	 * of other classes of the same class path, so we serialize
+	 * loading on the class path.
+	 */
+	synchronized (classpath) {
+	    if (status >= howMuch)
+		return;
+	    if (classpath.loadClass(this, howMuch)) {
+		if (status < howMuch)
+		    throw new IllegalStateException("state = "+status);
+		classpath.classLoaded(this, howMuch);
+		return;
+	    }
 	}
 	throw new FileNotFoundException(name);
     }
@@ -1023,8 +1105,19 @@ public final class ClassInfo extends BinaryInfo implements Comparable {
      */
     public void guess(int howMuch) 
     {
-	if (howMuch <= status)
-	    throw new IllegalStateException("status = "+status);
+	synchronized (classpath) {
+	    if (howMuch <= status) {
+		/* Another thread may have guessed this class already. */
+		if (isGuessed)
+		    return;
+		throw new IllegalStateException("status = "+status);
+	    }
+	    doGuess(howMuch);
+	}
+    }
+
+    private void doGuess(int howMuch) 
+    {
 	isGuessed = true;
 	if (howMuch >= OUTERCLASS) {
 	    modifiers = Modifier.PUBLIC | 0x20;
@@ -1070,6 +1163,32 @@ public final class ClassInfo extends BinaryInfo implements Comparable {
 	status = howMuch;
     }
 
+    /**
+     * Pins this class, so that it isn't dropped when its class path
+     * exceeds its memory budget, see {@link
+     * ClassPath#setMemoryBudget}.  Pin a class while its code is in
+     * use; the budget only knows when it was loaded.  Every call must
+     * be followed by a call to {@link #unpin}.  This doesn't prevent
+     * explicit calls to {@link #drop}.
+     */
+    public void pin() {
+	synchronized (classpath) {
+	    pinCount++;
+	}
+    }
+
+    /**
+     * Releases a pin of this class, see {@link #pin}.
+     * @exception IllegalStateException if the class isn't pinned.
+     */
+    public void unpin() {
+	synchronized (classpath) {
+	    if (pinCount == 0)
+		throw new IllegalStateException(name);
+	    pinCount--;
+	}
+    }
+
     /**  
      * This is the counter part to load and guess.  It will drop all
      * informations bigger than "keep" and clean up the memory.  Note
@@ -1080,6 +1199,28 @@ public final class ClassInfo extends BinaryInfo implements Comparable {
      * @see #load
      */
     public void drop(int keep) {
+	if (status <= keep)
+	    return;
+	synchronized (classpath) {
+	    doDrop(keep);
+	}
+    }
+
+    /**
+     * Drops information to save memory.  This is called by the class
+     * path, which already holds its lock.  Modified and pinned classes
+     * are kept.
+     * @param keep tells how much info we should keep.
+     * @return true if the information was dropped.
+     */
+    boolean dropUnused(int keep) {
+	if (modified || pinCount > 0)
+	    return false;
+	doDrop(keep);
+	return true;
+    }
+
+    private void doDrop(int keep) {
 	if (status <= keep)
 	    return;
 	if (modified) {
@@ -20,8 +20,6 @@
 package net.sf.jode.bytecode;
 
 import java.io.ByteArrayInputStream;
-import java.io.BufferedInputStream;
-import java.io.DataInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
@@ -29,13 +27,18 @@ import java.io.IOException;
 import java.io.InputStream;
 
 import java.net.MalformedURLException;
+import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLConnection;
 
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Enumeration;
 import java.util.NoSuchElementException;
 import java.util.Hashtable;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Vector;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
@@ -152,6 +155,30 @@ public class ClassPath  {
 	    return null;
 	}
 
+	/**
+	 * Returns the contents of the given file.  It is only called
+	 * for files for which exists returns true. <br>
+	 * The default implementation reads the stream returned by
+	 * getFile().  Override it, if you have the file in memory
+	 * anyway.
+	 * @param file the name of the file, subdirectories are always
+	 * separated by "/".
+	 * @return the contents of the file, or null if file was not
+	 * found.
+	 * @exception IOException if an io exception occured while reading
+	 * the file.
+	 */
+	protected byte[] getFileContents(String file) throws IOException {
+	    InputStream input = getFile(file);
+	    if (input == null)
+		return null;
+	    try {
+		return ClassFileInput.readAll(input);
+	    } finally {
+		input.close();
+	    }
+	}
+
 	/**
 	 * Lists the files and subdirectory in a directory.  This is
 	 * only called for directories for which isDirectory returns
@@ -204,9 +231,10 @@ public class ClassPath  {
 	    String file = clazz.getName().replace('.', '/') + ".class";
 	    if (!exists(file))
 		return false;
-	    DataInputStream input = new DataInputStream
-		(new BufferedInputStream(getFile(file)));
-	    clazz.read(input, howMuch);
+	    byte[] contents = getFileContents(file);
+	    if (contents == null)
+		return false;
+	    clazz.read(new ClassFileInput(contents), howMuch);
 	    return true;
 	}
     }
@@ -483,17 +511,14 @@ public class ClassPath  {
 	     * exists call, and to optimize howMuch.
 	     */
 	    String file = clazz.getName().replace('.', '/') + ".class";
-	    InputStream is = getFile(file);
-	    if (is == null)
+	    byte[] contents = getFileContents(file);
+	    if (contents == null)
 		return false;
 
-	    DataInputStream input = new DataInputStream
-		(new BufferedInputStream(is));
-
 	    /* Reading an URL may be expensive.  Therefore we ignore
 	     * howMuch and read everything to avoid reading it again.
 	     */
-	    clazz.read(input, ClassInfo.ALL);
+	    clazz.read(new ClassFileInput(contents), ClassInfo.ALL);
 	    return true;
 	}
 
@@ -507,6 +532,67 @@ public class ClassPath  {
     
     ClassPath fallback = null;
 
+    /**
+     * The index that remembers the directories of the jars, or null.
+     */
+    private ClassPathIndex index = null;
+
+    /**
+     * The estimated memory in bytes above which classes are dropped,
+     * or 0 if classes are never dropped automatically.
+     */
+    private long memoryBudget = 0;
+    /**
+     * The estimated memory used by the drop candidates beyond the
+     * drop level.  Guarded by the lock of this class path.
+     */
+    private long usedMemory;
+    /**
+     * The level to which classes are dropped.
+     */
+    private int dropLevel = ClassInfo.DECLARATIONS;
+    /**
+     * The number of calls to ClassInfo.load, used as clock to find
+     * the least recently used classes.
+     */
+    private int accessCount;
+    /**
+     * The classes that were loaded beyond the drop level.  Guarded
+     * by the lock of this class path.
+     */
+    private Vector dropCandidates = new Vector();
+
+    /**
+     * The number of recently used classes that are never dropped.
+     * This only avoids reading the same classes again and again; the
+     * classes that are still in use must be pinned.
+     */
+    private static final int KEEP_RECENT = 8;
+
+    /**
+     * The memory that a class loaded with all its code uses beyond
+     * its declarations, in bytes per byte of its class file.  This
+     * was measured by loading the runtime classes.
+     */
+    private static final int MEMORY_PER_FILE_BYTE = 4;
+
+    /**
+     * Remembers the answers of existsClass, a Boolean for every class
+     * name.  The import handler asks for the same names for every
+     * class it decompiles and a missing class is searched in all
+     * locations, which may mean a file system access for each
+     * directory.  The least recently used names are removed first.
+     */
+    private final Map existsCache = new LinkedHashMap(16, 0.75f, true) {
+	protected boolean removeEldestEntry(Map.Entry eldest) {
+	    return size() > MAX_EXISTS_CACHE;
+	}
+    };
+    /**
+     * The number of class names that are remembered.
+     */
+    static final int MAX_EXISTS_CACHE = 8192;
+
     /**
      * Creates a new class path for the given path.  See the class
      * description for more information, which kind of paths are
@@ -517,6 +603,9 @@ public class ClassPath  {
      */
     public ClassPath(String[] paths, ClassPath fallback) {
 	this.fallback = fallback;
+	this.index = fallback.index;
+	this.memoryBudget = fallback.memoryBudget;
+	this.dropLevel = fallback.dropLevel;
 	initPath(paths);
     }
 
@@ -560,6 +649,9 @@ public class ClassPath  {
      */
     public ClassPath(String path, ClassPath fallback) {
 	this.fallback = fallback;
+	this.index = fallback.index;
+	this.memoryBudget = fallback.memoryBudget;
+	this.dropLevel = fallback.dropLevel;
 	initPath(tokenizeClassPath(path));
     }
 
@@ -576,6 +668,19 @@ public class ClassPath  {
 	initPath(tokenizeClassPath(path));
     }
 
+    /**
+     * Creates a new class path for the given path.  The directories
+     * of the jar files are taken from the index, if they didn't
+     * change, and added to it otherwise.  Class paths that use this
+     * one as fallback use the index, too.
+     * @param path One or more paths, see {@link #ClassPath(String)}.
+     * @param index the index, or null.
+     */
+    public ClassPath(String path, ClassPathIndex index) {
+	this.index = index;
+	initPath(tokenizeClassPath(path));
+    }
+
     /**
      * Creates a location for a given path component.  See the
      * class comment which path components are supported.
@@ -589,6 +694,13 @@ public class ClassPath  {
      */
     public static Location createLocation(String path) 
 	throws IOException, SecurityException
+    {
+	return createLocation(path, null);
+    }
+
+    private static Location createLocation(String path,
+					   ClassPathIndex pathIndex)
+	throws IOException, SecurityException
     {
 	String zipPrefix = null;
 	// The special reflection URL
@@ -621,14 +733,38 @@ public class ClassPath  {
 	    if (zipPrefix != null
 		|| path.endsWith(".zip") || path.endsWith(".jar")
 		|| connection.getContentType().endsWith("/zip")) {
+		if (base.getProtocol().equals("file")) {
+		    /* Map local files instead of copying them. */
+		    File file;
+		    try {
+			file = new File(base.toURI());
+		    } catch (URISyntaxException ex) {
+			/* Older URLs may contain unquoted spaces. */
+			file = new File(base.getFile());
+		    } catch (IllegalArgumentException ex) {
+			file = new File(base.getFile());
+		    }
+		    Location location
+			= MappedZipLocation.create(file, zipPrefix, pathIndex);
+		    if (location != null)
+			return location;
+		}
 		// This is a zip file.  Read it into memory.
 		byte[] contents = readURLZip(connection);
+		Location location
+		    = MappedZipLocation.create(contents, path, zipPrefix);
+		if (location != null)
+		    return location;
 		return new ZipLocation(contents, zipPrefix);
 	    } else
 		return new URLLocation(base);
 	} else {
 	    File dir = new File(path);
 	    if (zipPrefix != null || !dir.isDirectory()) {
+		Location location
+		    = MappedZipLocation.create(dir, zipPrefix, pathIndex);
+		if (location != null)
+		    return location;
 		return new ZipLocation(new ZipFile(dir), zipPrefix);
 	    } else
 		return new LocalLocation(dir);
@@ -743,16 +879,16 @@ public class ClassPath  {
 	    if (tokens[i] == null)
 		continue;
 	    try {
-		paths[i] = createLocation(tokens[i]);
+		paths[i] = createLocation(tokens[i], index);
 	    } catch (MalformedURLException ex) {
-		GlobalOptions.err.println
+		GlobalOptions.getErr().println
 		    ("Warning: Malformed URL "+ tokens[i] + ".");
 	    } catch (IOException ex) {
-		GlobalOptions.err.println
+		GlobalOptions.getErr().println
 		    ("Warning: IO exception while accessing "
 		     +tokens[i]+".");
 	    } catch (SecurityException ex) {
-		GlobalOptions.err.println
+		GlobalOptions.getErr().println
 		    ("Warning: Security exception while accessing "
 		     +tokens[i]+".");
 	    }
@@ -776,7 +912,7 @@ public class ClassPath  {
      *        e.g. <code>java.util.Map$Entry</code>.
      * @exception IllegalArgumentException if class name isn't valid.
      */
-    public ClassInfo getClassInfo(String classname) 
+    public synchronized ClassInfo getClassInfo(String classname) 
     {
 	checkClassName(classname);
 	int hash = classname.hashCode();
@@ -811,21 +947,23 @@ public class ClassPath  {
 	throws IOException, ClassFormatException
     {
 	ClassInfo classInfo = new ClassInfo(null, this);
-	classInfo.read(new DataInputStream(new BufferedInputStream(stream)),
-		   ClassInfo.ALL);
-	String classname = classInfo.getName();
-	/* Remove the classinfo with the same name from this path if
-	 * it exists.
-	 */
-	Iterator iter = classes.iterateHashCode(classname.hashCode());
-	while (iter.hasNext()) {
-	    ClassInfo clazz = (ClassInfo) iter.next();
-	    if (clazz.getName().equals(classname)) {
-		iter.remove();
-		break;
+	synchronized (this) {
+	    classInfo.read(new ClassFileInput(ClassFileInput.readAll(stream)),
+			   ClassInfo.ALL);
+	    String classname = classInfo.getName();
+	    /* Remove the classinfo with the same name from this path if
+	     * it exists.
+	     */
+	    Iterator iter = classes.iterateHashCode(classname.hashCode());
+	    while (iter.hasNext()) {
+		ClassInfo clazz = (ClassInfo) iter.next();
+		if (clazz.getName().equals(classname)) {
+		    iter.remove();
+		    break;
+		}
 	    }
+	    classes.put(classname.hashCode(), classInfo);
 	}
-	classes.put(classname.hashCode(), classInfo);
 	return classInfo;
     }
 
@@ -833,7 +971,7 @@ public class ClassPath  {
      * Updates the classes unify hash for a class renaming.  This
      * should be only called by {@link ClassInfo#setName}.
      */
-    void renameClassInfo(ClassInfo classInfo, String classname) {
+    synchronized void renameClassInfo(ClassInfo classInfo, String classname) {
 	classes.remove(classInfo.getName().hashCode(), classInfo);
 	/* Now remove any class already loaded with that name, just
 	 * in case we're overwriting one.
@@ -851,13 +989,24 @@ public class ClassPath  {
 
     /**
      * Checks, if a class with the given name exists somewhere in this
-     * path.
+     * path.  The answer is remembered, so a class file that is added
+     * to or removed from a location later may go unnoticed.
      * @param classname the class name.
      * @exception IllegalArgumentException if class name isn't valid.
      */
     public boolean existsClass(String classname) {
 	checkClassName(classname);
-	return existsFile(classname.replace('.', '/') + ".class");
+	Boolean cached;
+	synchronized (existsCache) {
+	    cached = (Boolean) existsCache.get(classname);
+	}
+	if (cached != null)
+	    return cached.booleanValue();
+	boolean exists = existsFile(classname.replace('.', '/') + ".class");
+	synchronized (existsCache) {
+	    existsCache.put(classname, exists ? Boolean.TRUE : Boolean.FALSE);
+	}
+	return exists;
     }
 
     /**
@@ -1018,6 +1167,103 @@ public class ClassPath  {
 	return false;
     }
 
+    /**
+     * Sets a memory budget for this class path.  Whenever a class is
+     * loaded beyond the given level and the classes loaded beyond
+     * that level use more memory than the budget, the least recently
+     * loaded classes are dropped to that level, see {@link
+     * ClassInfo#drop}.  The memory of a class is estimated from the
+     * size of its class file; unlike the used heap this doesn't
+     * count garbage or other data.  A dropped class is read
+     * again by the next call to {@link ClassInfo#load} that needs
+     * more information.  Classes that were modified or that are
+     * pinned are never dropped. <br>
+     *
+     * Only use this if the callers load a class to the needed level
+     * before they use its information, if they {@link ClassInfo#pin
+     * pin} a class as long as they hold on to its code, and if they
+     * don't modify the bytecode of a class without calling its set
+     * methods.  Class
+     * paths that are created later with this one as fallback use the
+     * same budget.
+     *
+     * @param budget the memory in bytes, 0 to never drop classes.
+     * @param keep how much information is kept, at least {@link
+     * ClassInfo#HIERARCHY}.
+     */
+    public synchronized void setMemoryBudget(long budget, int keep) {
+	if (keep < ClassInfo.HIERARCHY)
+	    throw new IllegalArgumentException("keep: "+keep);
+	memoryBudget = budget;
+	dropLevel = keep;
+	if (budget == 0) {
+	    for (int i = 0; i < dropCandidates.size(); i++)
+		((ClassInfo) dropCandidates.elementAt(i)).dropCandidate = false;
+	    dropCandidates.removeAllElements();
+	    usedMemory = 0;
+	}
+    }
+
+    /**
+     * Returns the memory budget, or 0 if there is none.
+     * @see #setMemoryBudget
+     */
+    public long getMemoryBudget() {
+	return memoryBudget;
+    }
+
+    /**
+     * Called by ClassInfo.load for every class of this path.
+     */
+    void classAccessed(ClassInfo clazz) {
+	/* This isn't synchronized, a lost update only makes the
+	 * class look a bit older.
+	 */
+	if (memoryBudget != 0)
+	    clazz.lastAccess = ++accessCount;
+    }
+
+    /**
+     * Called by ClassInfo.load while holding the lock of this path,
+     * after a class of this path was loaded.  This drops the least
+     * recently used classes if the loaded classes exceed the budget.
+     */
+    void classLoaded(ClassInfo clazz, int howMuch) {
+	if (memoryBudget == 0 || howMuch <= dropLevel)
+	    return;
+	if (!clazz.dropCandidate) {
+	    clazz.dropCandidate = true;
+	    dropCandidates.addElement(clazz);
+	    usedMemory += (long) clazz.fileSize * MEMORY_PER_FILE_BYTE;
+	}
+	int size = dropCandidates.size();
+	if (size <= KEEP_RECENT || usedMemory <= memoryBudget)
+	    return;
+
+	Collections.sort(dropCandidates, new Comparator() {
+	    public int compare(Object o1, Object o2) {
+		int a1 = ((ClassInfo) o1).lastAccess;
+		int a2 = ((ClassInfo) o2).lastAccess;
+		return a1 < a2 ? -1 : a1 == a2 ? 0 : 1;
+	    }
+	});
+	Vector kept = new Vector();
+	int dropped = 0;
+	for (int i = 0; i < size; i++) {
+	    ClassInfo candidate = (ClassInfo) dropCandidates.elementAt(i);
+	    if (usedMemory > memoryBudget && i < size - KEEP_RECENT
+		&& candidate != clazz && candidate.dropUnused(dropLevel)) {
+		candidate.dropCandidate = false;
+		usedMemory -= (long) candidate.fileSize * MEMORY_PER_FILE_BYTE;
+		dropped++;
+	    } else
+		kept.addElement(candidate);
+	}
+	dropCandidates = kept;
+	if (GlobalOptions.getVerboseLevel() > 1)
+	    GlobalOptions.getErr().println("Dropped "+dropped+" classes");
+    }
+
     /**
      * Returns a string representation of this classpath.
      * @return a string useful for debugging purposes.
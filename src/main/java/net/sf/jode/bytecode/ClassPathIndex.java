@@ -0,0 +1,224 @@
+/* ClassPathIndex Copyright (C) 2026 agent.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; see the file COPYING.LESSER.  If not, write to
+ * the Free Software Foundation, 675 Mass Ave, Cambridge, MA 02139, USA.
+ *
+ * $Id$
+ */
+
+package net.sf.jode.bytecode;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Enumeration;
+import java.util.Hashtable;
+import java.util.Iterator;
+
+import net.sf.jode.GlobalOptions;
+
+/**
+ * A file that remembers the directories of the jar files in a class
+ * path between runs.  Reading the central directory of all jars of a
+ * big class path takes a while; with an index a class path whose jars
+ * didn't change is ready immediately. <br>
+ *
+ * For every jar the index stores its path, size and modification
+ * time together with the sorted file names and the positions of their
+ * entries.  If the size or the modification time of a jar differs,
+ * the entry is ignored and replaced by a fresh one.  Plain
+ * directories in the class path are not indexed. <br>
+ *
+ * Pass the index to the {@link ClassPath} constructor and call
+ * {@link #save} when you are done.
+ *
+ * @author agent
+ */
+public class ClassPathIndex {
+    private static final int MAGIC = 0x4a6f6449; /* "JodI" */
+    private static final int VERSION = 1;
+
+    private File file;
+    private Hashtable entries;
+    private boolean modified;
+
+    /**
+     * The directory of a single jar.
+     */
+    static class Entry {
+	long size;
+	long lastModified;
+	String[] names;
+	int[] headers;
+
+	Entry(long size, long lastModified, String[] names, int[] headers) {
+	    this.size = size;
+	    this.lastModified = lastModified;
+	    this.names = names;
+	    this.headers = headers;
+	}
+    }
+
+    /**
+     * Creates an index that is stored in the given file.  The file
+     * is read when the index is first used; it needn't exist.
+     * @param file the index file.
+     */
+    public ClassPathIndex(File file) {
+	this.file = file;
+    }
+
+    private void load() {
+	entries = new Hashtable();
+	DataInputStream input;
+	try {
+	    input = new DataInputStream
+		(new BufferedInputStream(new FileInputStream(file)));
+	} catch (FileNotFoundException ex) {
+	    return;
+	}
+	try {
+	    try {
+		if (input.readInt() != MAGIC || input.readInt() != VERSION)
+		    return;
+		int count = input.readInt();
+		for (int i = 0; i < count; i++) {
+		    String key = input.readUTF();
+		    long size = input.readLong();
+		    long lastModified = input.readLong();
+		    int length = input.readInt();
+		    String[] names = new String[length];
+		    int[] headers = new int[length];
+		    for (int j = 0; j < length; j++) {
+			names[j] = input.readUTF();
+			headers[j] = input.readInt();
+		    }
+		    entries.put(key, new Entry(size, lastModified,
+					       names, headers));
+		}
+	    } finally {
+		input.close();
+	    }
+	} catch (IOException ex) {
+	    GlobalOptions.getErr().println
+		("Warning: Can't read class path index "+file+": "+ex);
+	    entries = new Hashtable();
+	}
+    }
+
+    /**
+     * Returns the key for a jar.
+     * @param file the jar file.
+     * @param prefix the directory in the jar that is used, or null.
+     */
+    static String getKey(File file, String prefix) {
+	String path = file.getAbsolutePath();
+	return prefix != null ? path + "!/" + prefix : path;
+    }
+
+    private static String getPath(String key) {
+	int index = key.indexOf("!/");
+	return index >= 0 ? key.substring(0, index) : key;
+    }
+
+    /**
+     * Looks up the directory of a jar.
+     * @param key the path of the jar and the prefix in the jar.
+     * @param size the current size of the jar.
+     * @param lastModified the current modification time of the jar.
+     * @return the entry, or null if there is none or if the jar
+     * changed.
+     */
+    synchronized Entry lookup(String key, long size, long lastModified) {
+	if (entries == null)
+	    load();
+	Entry entry = (Entry) entries.get(key);
+	if (entry == null
+	    || entry.size != size || entry.lastModified != lastModified)
+	    return null;
+	return entry;
+    }
+
+    /**
+     * Remembers the directory of a jar.
+     * @param key the path of the jar and the prefix in the jar.
+     */
+    synchronized void store(String key, long size, long lastModified,
+			    String[] names, int[] headers) {
+	if (entries == null)
+	    load();
+	entries.put(key, new Entry(size, lastModified, names, headers));
+	modified = true;
+    }
+
+    /**
+     * Writes the index file, if some jar was added or changed since
+     * it was read.
+     * @exception IOException if the file can't be written.
+     */
+    public synchronized void save() throws IOException {
+	if (!modified)
+	    return;
+	/* Write to a temporary file first, so that a concurrent run
+	 * never reads a half written index.
+	 */
+	File tmpFile = new File(file.getPath() + ".tmp");
+	DataOutputStream output = new DataOutputStream
+	    (new BufferedOutputStream(new FileOutputStream(tmpFile)));
+	try {
+	    output.writeInt(MAGIC);
+	    output.writeInt(VERSION);
+	    /* Forget the jars that were deleted. */
+	    Iterator iter = entries.keySet().iterator();
+	    while (iter.hasNext()) {
+		String key = (String) iter.next();
+		if (!new File(getPath(key)).exists())
+		    iter.remove();
+	    }
+	    output.writeInt(entries.size());
+	    Enumeration keys = entries.keys();
+	    while (keys.hasMoreElements()) {
+		String key = (String) keys.nextElement();
+		Entry entry = (Entry) entries.get(key);
+		output.writeUTF(key);
+		output.writeLong(entry.size);
+		output.writeLong(entry.lastModified);
+		output.writeInt(entry.names.length);
+		for (int j = 0; j < entry.names.length; j++) {
+		    output.writeUTF(entry.names[j]);
+		    output.writeInt(entry.headers[j]);
+		}
+	    }
+	} finally {
+	    output.close();
+	}
+	if (!tmpFile.renameTo(file)) {
+	    /* Windows doesn't replace existing files. */
+	    file.delete();
+	    if (!tmpFile.renameTo(file))
+		throw new IOException("Can't rename "+tmpFile+" to "+file);
+	}
+	modified = false;
+    }
+
+    public String toString() {
+	return file.getPath();
+    }
+}
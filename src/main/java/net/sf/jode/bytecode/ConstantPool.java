@@ -18,7 +18,6 @@
  */
 
 package net.sf.jode.bytecode;
-import java.io.DataInputStream;
 import java.io.IOException;
 
 import java.util.NoSuchElementException;
@@ -52,16 +51,28 @@ public class ConstantPool {
 
     Object[] constants;
 
+    /**
+     * The raw bytes of the UTF8 entries; this is the contents of the
+     * class file the constant pool was read from.  The numeric and
+     * UTF8 entries are decoded only when they are first asked for;
+     * most of them are never used if the class is only loaded
+     * partially.  For a UTF8 entry indices1 holds its offset in this
+     * array and indices2 its length.  For a numeric entry indices1 holds its (upper)
+     * bits and indices2 the lower bits of a long or double.
+     */
+    byte[] data;
+
     public ConstantPool () {
     }
 
-    public void read(DataInputStream stream) 
+    public void read(ClassFileInput stream) 
 	throws IOException {
 	count = stream.readUnsignedShort();
         tags = new int[count];
         indices1 = new int[count];
         indices2 = new int[count];
         constants = new Object[count];
+	data = stream.data;
 
 	for (int i=1; i< count; i++) {
             int tag = stream.readUnsignedByte();
@@ -80,32 +91,91 @@ public class ConstantPool {
 		indices1[i] = stream.readUnsignedShort();
 		break;
 	    case INTEGER:
-		constants[i] = new Integer(stream.readInt());
-		break;
 	    case FLOAT:
-		constants[i] = new Float(stream.readFloat());
+		indices1[i] = stream.readInt();
 		break;
 	    case LONG:
-		constants[i] = new Long(stream.readLong());
-                tags[++i] = -LONG;
-		break;
 	    case DOUBLE:
-		constants[i] = new Double(stream.readDouble());
-                tags[++i] = -DOUBLE;
+		indices1[i] = stream.readInt();
+		indices2[i] = stream.readInt();
+                tags[++i] = -tag;
 		break;
 	    case NAMEANDTYPE:
 		indices1[i] = stream.readUnsignedShort();
 		indices2[i] = stream.readUnsignedShort();
 		break;
-	    case UTF8:
-		constants[i] = stream.readUTF().intern();
+	    case UTF8: {
+		int length = stream.readUnsignedShort();
+		indices1[i] = stream.pos;
+		indices2[i] = length;
+		stream.skipBytes(length);
 		break;
+	    }
 	    default:
 		throw new ClassFormatException("unknown constant tag");
             }
 	}
     }
 
+    /**
+     * Decodes the modified UTF-8 string of a UTF8 entry, as
+     * DataInputStream.readUTF would do.
+     */
+    private String decodeUTF8(int i) throws ClassFormatException {
+	int offset = indices1[i];
+	int end = offset + indices2[i];
+	char[] chars = new char[indices2[i]];
+	int length = 0;
+	while (offset < end) {
+	    int c = data[offset++] & 0xff;
+	    if (c < 0x80) {
+		chars[length++] = (char) c;
+	    } else if ((c & 0xe0) == 0xc0) {
+		if (offset >= end || (data[offset] & 0xc0) != 0x80)
+		    throw new ClassFormatException("malformed UTF8 constant");
+		chars[length++] = (char) (((c & 0x1f) << 6)
+					  | (data[offset++] & 0x3f));
+	    } else if ((c & 0xf0) == 0xe0) {
+		if (offset + 1 >= end
+		    || (data[offset] & 0xc0) != 0x80
+		    || (data[offset+1] & 0xc0) != 0x80)
+		    throw new ClassFormatException("malformed UTF8 constant");
+		chars[length++] = (char) (((c & 0x0f) << 12)
+					  | ((data[offset] & 0x3f) << 6)
+					  | (data[offset+1] & 0x3f));
+		offset += 2;
+	    } else
+		throw new ClassFormatException("malformed UTF8 constant");
+	}
+	return new String(chars, 0, length).intern();
+    }
+
+    /**
+     * Returns the boxed value of a numeric entry.
+     */
+    private Object getNumber(int i) {
+	if (constants[i] == null) {
+	    switch (tags[i]) {
+	    case INTEGER:
+		constants[i] = new Integer(indices1[i]);
+		break;
+	    case FLOAT:
+		constants[i] = new Float(Float.intBitsToFloat(indices1[i]));
+		break;
+	    case LONG:
+		constants[i] = new Long(((long) indices1[i] << 32)
+					| (indices2[i] & 0xffffffffL));
+		break;
+	    case DOUBLE:
+		constants[i] = new Double(Double.longBitsToDouble
+					  (((long) indices1[i] << 32)
+					   | (indices2[i] & 0xffffffffL)));
+		break;
+	    }
+	}
+	return constants[i];
+    }
+
     public int getTag(int i) throws ClassFormatException {
         if (i == 0)
             throw new ClassFormatException("null tag");
@@ -115,6 +185,8 @@ public class ConstantPool {
     public String getUTF8(int i) throws ClassFormatException {
         if (tags[i] != UTF8)
             throw new ClassFormatException("Tag mismatch");
+	if (constants[i] == null)
+	    constants[i] = decodeUTF8(i);
         return (String)constants[i];
     }
 
@@ -151,7 +223,7 @@ public class ConstantPool {
         case FLOAT:
         case LONG:
         case DOUBLE:
-            return constants[i];
+            return getNumber(i);
         case CLASS:
 	    return Reference.getReference(getClassType(i), 
 					  "class", "Ljava/lang/Class;");
@@ -235,15 +307,19 @@ public class ConstantPool {
         case STRING:
             return "String \""+toString(indices1[i])+"\"";
         case INTEGER:
-            return "Int "+constants[i].toString();
+            return "Int "+getNumber(i);
         case FLOAT:
-            return "Float "+constants[i].toString();
+            return "Float "+getNumber(i);
         case LONG:
-            return "Long "+constants[i].toString();
+            return "Long "+getNumber(i);
         case DOUBLE:
-            return "Double "+constants[i].toString();
+            return "Double "+getNumber(i);
         case UTF8:
-            return constants[i].toString();
+	    try {
+		return getUTF8(i);
+	    } catch (ClassFormatException ex) {
+		return "malformed UTF8";
+	    }
         case FIELDREF:
             return "Fieldref: "+toString(indices1[i])+"; "
                 + toString(indices2[i]);
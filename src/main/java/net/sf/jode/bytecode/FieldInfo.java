@@ -18,7 +18,6 @@
  */
 
 package net.sf.jode.bytecode;
-import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.lang.reflect.Modifier;
@@ -94,7 +93,7 @@ public final class FieldInfo extends BinaryInfo implements Comparable {
 
     protected void readAttribute(String name, int length,
 				 ConstantPool cp,
-				 DataInputStream input, 
+				 ClassFileInput input, 
 				 int howMuch) throws IOException {
 	if (howMuch >= ClassInfo.DECLARATIONS
 	    && name.equals("ConstantValue")) {
@@ -120,7 +119,7 @@ public final class FieldInfo extends BinaryInfo implements Comparable {
     }
     
     void read(ConstantPool constantPool, 
-	      DataInputStream input, int howMuch) throws IOException {
+	      ClassFileInput input, int howMuch) throws IOException {
 	modifier = input.readUnsignedShort();
 	name = constantPool.getUTF8(input.readUnsignedShort());
 	typeSig = constantPool.getUTF8(input.readUnsignedShort());
@@ -18,7 +18,7 @@
  */
 
 package net.sf.jode.bytecode;
-import net.sf.jode.util.UnifyHash;
+import net.sf.jode.util.ConcurrentUnifyHash;
 import java.util.Iterator;
 
 /**
@@ -41,7 +41,8 @@ public final class LocalVariableInfo {
     static {
 	grow(5);
     }
-    private static final UnifyHash unifier = new UnifyHash();
+    private static final ConcurrentUnifyHash unifier
+	= new ConcurrentUnifyHash();
 
     private LocalVariableInfo(int slot) {
 	this.slot = slot;
@@ -69,7 +70,7 @@ public final class LocalVariableInfo {
      * Creates a new local variable info, with no name or type.
      * @param slot the slot number.
      */
-    public static LocalVariableInfo getInfo(int slot) {
+    public static synchronized LocalVariableInfo getInfo(int slot) {
 	if (slot >= anonymous.length)
 	    grow(Math.max(slot + 1, anonymous.length * 2));
 	return anonymous[slot];
@@ -86,17 +87,19 @@ public final class LocalVariableInfo {
 	if (name == null && type == null)
 	    return getInfo(slot);
 	int hash = slot ^ name.hashCode() ^ type.hashCode();
-	Iterator iter = unifier.iterateHashCode(hash);
-	while (iter.hasNext()) {
-	    LocalVariableInfo lvi = (LocalVariableInfo) iter.next();
-	    if (lvi.slot == slot
-		&& lvi.name.equals(name)
-		&& lvi.type.equals(type))
-		return lvi;
+	synchronized (unifier.getLock(hash)) {
+	    Iterator iter = unifier.iterateHashCode(hash);
+	    while (iter.hasNext()) {
+		LocalVariableInfo lvi = (LocalVariableInfo) iter.next();
+		if (lvi.slot == slot
+		    && lvi.name.equals(name)
+		    && lvi.type.equals(type))
+		    return lvi;
+	    }
+	    LocalVariableInfo lvi = new LocalVariableInfo(slot, name, type);
+	    unifier.put(hash, lvi);
+	    return lvi;
 	}
-	LocalVariableInfo lvi = new LocalVariableInfo(slot, name, type);
-	unifier.put(hash, lvi);
-	return lvi;
     }
     
     /**
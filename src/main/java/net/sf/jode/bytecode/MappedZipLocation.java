@@ -0,0 +1,512 @@
+/* MappedZipLocation Copyright (C) 2026 agent.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; see the file COPYING.LESSER.  If not, write to
+ * the Free Software Foundation, 675 Mass Ave, Cambridge, MA 02139, USA.
+ *
+ * $Id$
+ */
+
+package net.sf.jode.bytecode;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.Vector;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
+
+import net.sf.jode.GlobalOptions;
+
+/**
+ * A class path location for a zip or jar archive, that reads the
+ * archive directly from a buffer.  The file is memory mapped, so it
+ * doesn't occupy the heap.  The central directory is read on the
+ * first access into a sorted array of names, and the files are read
+ * from slices of the buffer without copying them. <br>
+ *
+ * Archives that use the zip64 extensions are not supported; {@link
+ * #create} returns null for them and the class path falls back to
+ * {@link java.util.zip.ZipFile}.
+ *
+ * @author agent
+ */
+class MappedZipLocation extends ClassPath.Location {
+    private static final int LOCSIG = 0x04034b50;
+    private static final int CENSIG = 0x02014b50;
+    private static final int ENDSIG = 0x06054b50;
+    private static final int LOCHDR = 30;
+    private static final int CENHDR = 46;
+    private static final int ENDHDR = 22;
+
+    private static final int STORED   = 0;
+    private static final int DEFLATED = 8;
+
+    private ByteBuffer buffer;
+    private String name;
+    private String prefix;
+    private int centralOffset;
+    private int centralSize;
+
+    /**
+     * The sorted names of the files, without prefix, and the
+     * position of their central directory entries.  They are null
+     * until the index is read.
+     */
+    private volatile String[] names;
+    private int[] headers;
+
+    /**
+     * The index where the names and headers are remembered between
+     * runs, null if there is none.
+     */
+    private ClassPathIndex index;
+    private String indexKey;
+    private long size;
+    private long lastModified;
+
+    private MappedZipLocation(ByteBuffer buffer, String name, String prefix,
+			      int centralOffset, int centralSize) {
+	this.buffer = buffer;
+	this.name = name;
+	this.prefix = prefix;
+	this.centralOffset = centralOffset;
+	this.centralSize = centralSize;
+    }
+
+    /**
+     * Creates a location for the given archive.
+     * @param file the zip file, it is memory mapped.
+     * @param prefix the directory in the archive that is the root of
+     * this location, null for the whole archive.
+     * @return the location, or null if the archive can't be read
+     * this way.
+     * @param index the index where the directory of the archive is
+     * remembered, null if there is none.
+     * @exception IOException if the file can't be read.
+     */
+    public static MappedZipLocation create(File file, String prefix,
+					   ClassPathIndex index)
+	throws IOException
+    {
+	long lastModified = file.lastModified();
+	RandomAccessFile raf = new RandomAccessFile(file, "r");
+	MappedZipLocation location;
+	long size;
+	try {
+	    FileChannel channel = raf.getChannel();
+	    size = channel.size();
+	    if (size > Integer.MAX_VALUE)
+		return null;
+	    /* The mapping stays valid after the channel is closed. */
+	    ByteBuffer buffer
+		= channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+	    location = create(buffer, file.getPath(), prefix);
+	} finally {
+	    raf.close();
+	}
+	if (location != null && index != null) {
+	    location.index = index;
+	    location.indexKey = ClassPathIndex.getKey(file, prefix);
+	    location.size = size;
+	    location.lastModified = lastModified;
+	}
+	return location;
+    }
+
+    /**
+     * Creates a location for an archive that was read into memory.
+     * @param contents the contents of the zip file.
+     * @param name the name of the archive for error messages.
+     * @param prefix the directory in the archive that is the root of
+     * this location, null for the whole archive.
+     * @return the location, or null if the archive can't be read
+     * this way.
+     */
+    public static MappedZipLocation create(byte[] contents, String name,
+					   String prefix) {
+	return create(ByteBuffer.wrap(contents), name, prefix);
+    }
+
+    private static MappedZipLocation create(ByteBuffer buffer, String name,
+					    String prefix) {
+	buffer.order(ByteOrder.LITTLE_ENDIAN);
+	/* The end of central directory record is at the end of the
+	 * file, followed by a comment of at most 65535 bytes.
+	 */
+	int end = buffer.limit() - ENDHDR;
+	int stop = Math.max(0, end - 0xffff);
+	for (; end >= stop; end--) {
+	    if (buffer.getInt(end) == ENDSIG
+		&& end + ENDHDR + (buffer.getShort(end + 20) & 0xffff)
+		== buffer.limit())
+		break;
+	}
+	if (end < stop)
+	    return null;
+	int entries = buffer.getShort(end + 10) & 0xffff;
+	long size = buffer.getInt(end + 12) & 0xffffffffL;
+	long offset = buffer.getInt(end + 16) & 0xffffffffL;
+	if (entries == 0xffff || size == 0xffffffffL
+	    || offset == 0xffffffffL || offset + size > end)
+	    /* zip64 or broken */
+	    return null;
+	return new MappedZipLocation(buffer, name, prefix,
+				     (int) offset, (int) size);
+    }
+
+    private static String getName(ByteBuffer buffer, int pos, int length) {
+	byte[] bytes = new byte[length];
+	boolean ascii = true;
+	for (int i = 0; i < length; i++) {
+	    bytes[i] = buffer.get(pos + i);
+	    if (bytes[i] < 0)
+		ascii = false;
+	}
+	if (ascii) {
+	    char[] chars = new char[length];
+	    for (int i = 0; i < length; i++)
+		chars[i] = (char) bytes[i];
+	    return new String(chars);
+	}
+	try {
+	    return new String(bytes, "UTF-8");
+	} catch (UnsupportedEncodingException ex) {
+	    throw new InternalError("UTF-8 not supported");
+	}
+    }
+
+    /**
+     * Reads the central directory into the sorted index.
+     */
+    private synchronized void readIndex() throws ZipException {
+	if (names != null)
+	    return;
+	if (index != null) {
+	    ClassPathIndex.Entry entry
+		= index.lookup(indexKey, size, lastModified);
+	    if (entry != null) {
+		headers = entry.headers;
+		names = entry.names;
+		return;
+	    }
+	}
+	Vector entries = new Vector();
+	int pos = centralOffset;
+	int end = centralOffset + centralSize;
+	while (pos < end) {
+	    if (buffer.getInt(pos) != CENSIG)
+		throw new ZipException("invalid central directory in "+name);
+	    int nameLength = buffer.getShort(pos + 28) & 0xffff;
+	    int extraLength = buffer.getShort(pos + 30) & 0xffff;
+	    int commentLength = buffer.getShort(pos + 32) & 0xffff;
+	    String entryName = getName(buffer, pos + CENHDR, nameLength);
+	    if (!entryName.endsWith("/")
+		&& (prefix == null || entryName.startsWith(prefix))) {
+		if (prefix != null)
+		    entryName = entryName.substring(prefix.length());
+		entries.addElement(new Entry(entryName, pos));
+	    }
+	    pos += CENHDR + nameLength + extraLength + commentLength;
+	}
+	Entry[] sorted = new Entry[entries.size()];
+	entries.copyInto(sorted);
+	Arrays.sort(sorted);
+	String[] newNames = new String[sorted.length];
+	int[] newHeaders = new int[sorted.length];
+	for (int i = 0; i < sorted.length; i++) {
+	    newNames[i] = sorted[i].name;
+	    newHeaders[i] = sorted[i].header;
+	}
+	headers = newHeaders;
+	names = newNames;
+	if (index != null)
+	    index.store(indexKey, size, lastModified, newNames, newHeaders);
+    }
+
+    private static class Entry implements Comparable {
+	String name;
+	int header;
+
+	Entry(String name, int header) {
+	    this.name = name;
+	    this.header = header;
+	}
+
+	public int compareTo(Object o) {
+	    return name.compareTo(((Entry) o).name);
+	}
+    }
+
+    /**
+     * Returns the sorted names, reading the index if necessary.
+     */
+    private String[] getNames() {
+	String[] result = names;
+	if (result == null) {
+	    try {
+		readIndex();
+	    } catch (ZipException ex) {
+		GlobalOptions.getErr().println("Warning: " + ex.getMessage());
+		synchronized (this) {
+		    headers = new int[0];
+		    names = new String[0];
+		}
+	    }
+	    result = names;
+	}
+	return result;
+    }
+
+    /**
+     * Returns the index of the first name that is not smaller than
+     * the given name.
+     */
+    private static int search(String[] sortedNames, String key) {
+	int index = Arrays.binarySearch(sortedNames, key);
+	return index >= 0 ? index : -index - 1;
+    }
+
+    protected boolean exists(String filename) {
+	String[] sortedNames = getNames();
+	if (Arrays.binarySearch(sortedNames, filename) >= 0)
+	    return true;
+	return isDirectory(filename);
+    }
+
+    protected boolean isDirectory(String filename) {
+	String[] sortedNames = getNames();
+	if (filename.length() == 0)
+	    return sortedNames.length > 0;
+	String dir = filename + "/";
+	int index = search(sortedNames, dir);
+	return index < sortedNames.length
+	    && sortedNames[index].startsWith(dir);
+    }
+
+    protected Enumeration listFiles(String directory) {
+	String[] sortedNames = getNames();
+	String dir = directory.length() == 0 ? "" : directory + "/";
+	Vector result = new Vector();
+	String last = null;
+	for (int i = search(sortedNames, dir); i < sortedNames.length
+		 && sortedNames[i].startsWith(dir); i++) {
+	    String entry = sortedNames[i];
+	    int slash = entry.indexOf('/', dir.length());
+	    String child = slash == -1 ? entry.substring(dir.length())
+		: entry.substring(dir.length(), slash);
+	    /* The entries of a subdirectory are next to each other. */
+	    if (!child.equals(last))
+		result.addElement(child);
+	    last = child;
+	}
+	if (result.size() == 0)
+	    return null;
+	return result.elements();
+    }
+
+    /**
+     * Returns the position of the central directory header of a file.
+     * @return the position, or -1 if the file doesn't exist.
+     */
+    private int getHeader(String filename) throws IOException {
+	String[] sortedNames = getNames();
+	int index = Arrays.binarySearch(sortedNames, filename);
+	if (index < 0)
+	    return -1;
+	int header = headers[index];
+	if (buffer.getInt(header) != CENSIG)
+	    throw new ZipException("invalid central directory in "+name);
+	return header;
+    }
+
+    /**
+     * Returns the (compressed) data of a file.
+     * @param header the position of its central directory header.
+     */
+    private ByteBuffer getData(int header, String filename)
+	throws IOException {
+	long compressedSize = buffer.getInt(header + 20) & 0xffffffffL;
+	long local = buffer.getInt(header + 42) & 0xffffffffL;
+	if (local + LOCHDR > buffer.limit()
+	    || buffer.getInt((int) local) != LOCSIG)
+	    throw new ZipException("invalid local header for "+filename
+				   +" in "+name);
+	int start = (int) local + LOCHDR
+	    + (buffer.getShort((int) local + 26) & 0xffff)
+	    + (buffer.getShort((int) local + 28) & 0xffff);
+	if (start + compressedSize > buffer.limit())
+	    throw new ZipException("truncated entry "+filename+" in "+name);
+
+	ByteBuffer slice = buffer.duplicate();
+	slice.position(start);
+	slice.limit(start + (int) compressedSize);
+	return slice.slice();
+    }
+
+    private ZipException unsupportedMethod(int method, String filename) {
+	return new ZipException("unsupported compression method "
+				+method+" for "+filename+" in "+name);
+    }
+
+    protected InputStream getFile(String filename) throws IOException {
+	int header = getHeader(filename);
+	if (header < 0)
+	    return null;
+	int method = buffer.getShort(header + 10) & 0xffff;
+	InputStream in = new BufferInputStream(getData(header, filename));
+	switch (method) {
+	case STORED:
+	    return in;
+	case DEFLATED:
+	    return new EntryInflaterStream(in);
+	default:
+	    throw unsupportedMethod(method, filename);
+	}
+    }
+
+    /**
+     * Returns the contents of a file.  A stored file is copied
+     * from the buffer in one go, and a deflated one is inflated
+     * directly into an array of the right size, without any
+     * stream in between.
+     */
+    protected byte[] getFileContents(String filename) throws IOException {
+	int header = getHeader(filename);
+	if (header < 0)
+	    return null;
+	int method = buffer.getShort(header + 10) & 0xffff;
+	long size = buffer.getInt(header + 24) & 0xffffffffL;
+	if (size > Integer.MAX_VALUE)
+	    throw new ZipException("entry "+filename+" in "+name
+				   +" is too big");
+	ByteBuffer data = getData(header, filename);
+	byte[] contents = new byte[(int) size];
+	switch (method) {
+	case STORED:
+	    if (data.remaining() != contents.length)
+		throw new ZipException("wrong size of "+filename
+				       +" in "+name);
+	    data.get(contents);
+	    return contents;
+	case DEFLATED: {
+	    /* The inflater needs an extra dummy byte in nowrap mode. */
+	    byte[] compressed = new byte[data.remaining() + 1];
+	    data.get(compressed, 0, compressed.length - 1);
+	    Inflater inflater = new Inflater(true);
+	    try {
+		inflater.setInput(compressed);
+		int length = 0;
+		while (length < contents.length) {
+		    int count = inflater.inflate(contents, length,
+						 contents.length - length);
+		    if (count == 0 && (inflater.finished()
+				       || inflater.needsInput()
+				       || inflater.needsDictionary()))
+			throw new ZipException("wrong size of "+filename
+					       +" in "+name);
+		    length += count;
+		}
+	    } catch (DataFormatException ex) {
+		throw new ZipException("invalid compressed data of "
+				       +filename+" in "+name);
+	    } finally {
+		inflater.end();
+	    }
+	    return contents;
+	}
+	default:
+	    throw unsupportedMethod(method, filename);
+	}
+    }
+
+    public String toString() {
+	return name;
+    }
+
+    /**
+     * An input stream that reads the remaining bytes of a buffer.
+     */
+    private static class BufferInputStream extends InputStream {
+	private ByteBuffer buffer;
+
+	BufferInputStream(ByteBuffer buffer) {
+	    this.buffer = buffer;
+	}
+
+	public int read() {
+	    if (!buffer.hasRemaining())
+		return -1;
+	    return buffer.get() & 0xff;
+	}
+
+	public int read(byte[] b, int off, int len) {
+	    if (len == 0)
+		return 0;
+	    if (!buffer.hasRemaining())
+		return -1;
+	    len = Math.min(len, buffer.remaining());
+	    buffer.get(b, off, len);
+	    return len;
+	}
+
+	public long skip(long n) {
+	    n = Math.max(0, Math.min(n, buffer.remaining()));
+	    buffer.position(buffer.position() + (int) n);
+	    return n;
+	}
+
+	public int available() {
+	    return buffer.remaining();
+	}
+    }
+
+    /**
+     * Inflates an entry.  The inflater needs an extra dummy byte
+     * after the compressed data in nowrap mode, and it must be ended
+     * when the stream is closed.
+     */
+    private static class EntryInflaterStream extends InflaterInputStream {
+	private boolean eof;
+
+	EntryInflaterStream(InputStream in) {
+	    super(in, new Inflater(true), 2048);
+	}
+
+	protected void fill() throws IOException {
+	    if (eof)
+		throw new ZipException("unexpected end of entry");
+	    len = in.read(buf, 0, buf.length);
+	    if (len == -1) {
+		buf[0] = 0;
+		len = 1;
+		eof = true;
+	    }
+	    inf.setInput(buf, 0, len);
+	}
+
+	public void close() throws IOException {
+	    inf.end();
+	    super.close();
+	}
+    }
+}
@@ -18,7 +18,6 @@
  */
 
 package net.sf.jode.bytecode;
-import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.lang.Comparable;
@@ -87,7 +86,7 @@ public final class MethodInfo extends BinaryInfo implements Comparable {
 
     protected void readAttribute
 	(String name, int length, ConstantPool cp,
-	 DataInputStream input, int howMuch) throws IOException {
+	 ClassFileInput input, int howMuch) throws IOException {
 	if (howMuch >= ClassInfo.NODEBUG && name.equals("Code")) {
 	    basicblocks = new BasicBlocks(this);
 	    basicblocks.read(cp, input, howMuch);
@@ -117,7 +116,7 @@ public final class MethodInfo extends BinaryInfo implements Comparable {
     }
 
     void read(ConstantPool constantPool, 
-	      DataInputStream input, int howMuch) throws IOException {
+	      ClassFileInput input, int howMuch) throws IOException {
 	modifier   = input.readUnsignedShort();
 	name = constantPool.getUTF8(input.readUnsignedShort());
         typeSig = constantPool.getUTF8(input.readUnsignedShort());
@@ -18,7 +18,7 @@
  */
 
 package net.sf.jode.bytecode;
-import net.sf.jode.util.UnifyHash;
+import net.sf.jode.util.ConcurrentUnifyHash;
 import java.util.Iterator;
 
 /**
@@ -31,22 +31,25 @@ public class Reference {
      */
     private final String clazz, name, type;
 
-    private static final UnifyHash unifier = new UnifyHash();
+    private static final ConcurrentUnifyHash unifier
+	= new ConcurrentUnifyHash();
 
     public static Reference getReference(String className, 
 					 String name, String type) {
 	int hash = className.hashCode() ^ name.hashCode() ^ type.hashCode();
-	Iterator iter = unifier.iterateHashCode(hash);
-	while (iter.hasNext()) {
-	    Reference ref = (Reference) iter.next();
-	    if (ref.clazz.equals(className)
-		&& ref.name.equals(name)
-		&& ref.type.equals(type))
-		return ref;
+	synchronized (unifier.getLock(hash)) {
+	    Iterator iter = unifier.iterateHashCode(hash);
+	    while (iter.hasNext()) {
+		Reference ref = (Reference) iter.next();
+		if (ref.clazz.equals(className)
+		    && ref.name.equals(name)
+		    && ref.type.equals(type))
+		    return ref;
+	    }
+	    Reference ref = new Reference(className, name, type);
+	    unifier.put(hash, ref);
+	    return ref;
 	}
-	Reference ref = new Reference(className, name, type);
-	unifier.put(hash, ref);
-	return ref;
     }
 
     private Reference(String clazz, String name, String type) {
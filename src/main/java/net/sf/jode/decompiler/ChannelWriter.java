@@ -0,0 +1,209 @@
+/* ChannelWriter Copyright (C) 2026 agent.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; see the file COPYING.LESSER.  If not, write to
+ * the Free Software Foundation, 675 Mass Ave, Cambridge, MA 02139, USA.
+ *
+ * $Id$
+ */
+
+package net.sf.jode.decompiler;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * A writer that encodes the source straight into a byte buffer and
+ * writes it to a channel or a stream in large chunks.  It replaces
+ * the BufferedWriter and the OutputStreamWriter, which a PrintWriter
+ * puts on an output stream, and the BufferedOutputStream below
+ * them. <br>
+ *
+ * The characters are collected in a char buffer and encoded a whole
+ * buffer at once.  The buffers are taken from a pool of the current
+ * thread and given back when the writer is closed, so that writing
+ * many files doesn't allocate new buffers for every file.  A file
+ * output stream is written through its channel, any other stream
+ * from the array of the byte buffer. <br>
+ *
+ * Like the OutputStreamWriter, the writer uses the default encoding
+ * and replaces characters that can't be encoded.  Unlike it, the
+ * writer is not synchronized.
+ *
+ * @author agent
+ */
+public class ChannelWriter extends Writer {
+    private static final int CHAR_BUFFER_SIZE = 8192;
+    private static final int BYTE_BUFFER_SIZE = 65536;
+
+    /**
+     * The buffers of a closed writer, which the next writer in the
+     * same thread takes.
+     */
+    private static final ThreadLocal pool = new ThreadLocal();
+
+    private static class Buffers {
+	CharBuffer chars = CharBuffer.allocate(CHAR_BUFFER_SIZE);
+	ByteBuffer bytes = ByteBuffer.allocate(BYTE_BUFFER_SIZE);
+    }
+
+    private WritableByteChannel channel;
+    private OutputStream out;
+    private CharsetEncoder encoder;
+    private Buffers buffers;
+    private CharBuffer chars;
+    private ByteBuffer bytes;
+
+    /**
+     * Creates a writer that writes to a channel.
+     * @param channel the channel, which is closed with the writer.
+     */
+    public ChannelWriter(WritableByteChannel channel) {
+	this.channel = channel;
+	init();
+    }
+
+    /**
+     * Creates a writer that writes to a stream.  If it is a file
+     * output stream, its channel is used.
+     * @param out the stream, which is closed with the writer.
+     */
+    public ChannelWriter(OutputStream out) {
+	if (out instanceof FileOutputStream)
+	    channel = ((FileOutputStream) out).getChannel();
+	else
+	    this.out = out;
+	init();
+    }
+
+    private void init() {
+	encoder = Charset.defaultCharset().newEncoder()
+	    .onMalformedInput(CodingErrorAction.REPLACE)
+	    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+	buffers = (Buffers) pool.get();
+	if (buffers != null)
+	    pool.set(null);
+	else
+	    buffers = new Buffers();
+	chars = buffers.chars;
+	bytes = buffers.bytes;
+	chars.clear();
+	bytes.clear();
+    }
+
+    private void ensureOpen() throws IOException {
+	if (buffers == null)
+	    throw new IOException("Writer closed");
+    }
+
+    public void write(int c) throws IOException {
+	ensureOpen();
+	if (!chars.hasRemaining())
+	    encodeChars(false);
+	chars.put((char) c);
+    }
+
+    public void write(char[] cbuf, int off, int len) throws IOException {
+	ensureOpen();
+	while (len > 0) {
+	    int count = Math.min(len, chars.remaining());
+	    chars.put(cbuf, off, count);
+	    off += count;
+	    len -= count;
+	    if (!chars.hasRemaining())
+		encodeChars(false);
+	}
+    }
+
+    public void write(String str, int off, int len) throws IOException {
+	ensureOpen();
+	while (len > 0) {
+	    int count = Math.min(len, chars.remaining());
+	    int pos = chars.position();
+	    str.getChars(off, off + count,
+			 chars.array(), chars.arrayOffset() + pos);
+	    chars.position(pos + count);
+	    off += count;
+	    len -= count;
+	    if (!chars.hasRemaining())
+		encodeChars(false);
+	}
+    }
+
+    /**
+     * Encodes the collected characters into the byte buffer, writing
+     * it whenever it is full.  A high surrogate at the end stays in
+     * the char buffer until its low surrogate comes.
+     */
+    private void encodeChars(boolean endOfInput) throws IOException {
+	chars.flip();
+	while (true) {
+	    CoderResult result = encoder.encode(chars, bytes, endOfInput);
+	    if (result.isUnderflow())
+		break;
+	    if (result.isOverflow())
+		writeBytes();
+	    else
+		result.throwException();
+	}
+	chars.compact();
+    }
+
+    private void writeBytes() throws IOException {
+	bytes.flip();
+	if (channel != null) {
+	    while (bytes.hasRemaining())
+		channel.write(bytes);
+	} else
+	    out.write(bytes.array(), bytes.arrayOffset() + bytes.position(),
+		      bytes.remaining());
+	bytes.clear();
+    }
+
+    public void flush() throws IOException {
+	ensureOpen();
+	encodeChars(false);
+	writeBytes();
+	if (out != null)
+	    out.flush();
+    }
+
+    public void close() throws IOException {
+	if (buffers == null)
+	    return;
+	try {
+	    encodeChars(true);
+	    while (encoder.flush(bytes).isOverflow())
+		writeBytes();
+	    writeBytes();
+	} finally {
+	    pool.set(buffers);
+	    buffers = null;
+	    chars = null;
+	    bytes = null;
+	    if (channel != null)
+		channel.close();
+	    else
+		out.close();
+	}
+    }
+}
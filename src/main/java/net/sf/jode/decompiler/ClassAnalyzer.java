@@ -18,7 +18,6 @@
  */
 
 package net.sf.jode.decompiler;
-import net.sf.jode.GlobalOptions;
 import net.sf.jode.type.MethodType;
 import net.sf.jode.type.Type;
 import net.sf.jode.bytecode.ClassFormatException;
@@ -84,11 +83,22 @@ public class ClassAnalyzer
      */
     Expression  outerInstance;
 
-    public ClassAnalyzer(ClassDeclarer parent,
-			 ClassInfo clazz, ImportHandler imports,
-			 Expression[] outerValues) 
+    /**
+     * The context of the decompilation.
+     */
+    DecompilerContext context;
+
+    private ClassAnalyzer(DecompilerContext context, ClassDeclarer parent,
+			  ClassInfo clazz, ImportHandler imports,
+			  Expression[] outerValues) 
 	throws ClassFormatException, IOException
     {
+	this.context = context;
+	/* Pin the class before loading it, so that the memory budget
+	 * can't drop its code while we analyze it.  The top level
+	 * class releases the pins when it is written.
+	 */
+	context.pinClass(clazz);
 	clazz.load(ClassInfo.ALL);
 	ClassInfo superClass = clazz.getSuperclass();
 	String myPackage = clazz.getName().substring
@@ -101,13 +111,13 @@ public class ClassAnalyzer
 	    try {
 		superClass.load(howMuch);
 	    } catch (IOException ex) {
-		GlobalOptions.err.println
+		context.getErr().println
 		    ("Warning: Can't get "
 		     + (howMuch == ClassInfo.PUBLICDECLARATIONS 
 			? "public" : "all")
 		     + " information of " + superClass
 		     +" to detect name conflicts.");
-		GlobalOptions.err.println(ex.toString());
+		context.getErr().println(ex.toString());
 		superClass.guess(howMuch);
 	    }
 	    superClass = superClass.getSuperclass();
@@ -123,13 +133,32 @@ public class ClassAnalyzer
 	/* Check if this is a normal non-static inner class and set
 	 * outerInstance.
 	 */
-	if ((Options.options & Options.OPTION_INNER) != 0
+	if (context.isOption(Options.OPTION_INNER)
 	    && parent instanceof ClassAnalyzer && !isStatic())
 	    outerInstance = new ThisOperator(((ClassAnalyzer) parent).clazz);
 	if (outerValues != null)
 	    this.outerValues = new OuterValues(this, outerValues);
     }
 
+    /**
+     * Returns the context of the class analyzer, that owns the given
+     * class declarer, or the current context if there is none.
+     */
+    private static DecompilerContext getOwnerContext(ClassDeclarer parent) {
+	while (parent != null && !(parent instanceof ClassAnalyzer))
+	    parent = parent.getParent();
+	return parent != null ? ((ClassAnalyzer) parent).getContext()
+	    : DecompilerContext.getCurrent();
+    }
+
+    public ClassAnalyzer(ClassDeclarer parent,
+			 ClassInfo clazz, ImportHandler imports,
+			 Expression[] outerValues) 
+	throws ClassFormatException, IOException
+    {
+	this(getOwnerContext(parent), parent, clazz, imports, outerValues);
+    }
+
     public ClassAnalyzer(ClassDeclarer parent,
 			 ClassInfo clazz, ImportHandler imports)
 	throws ClassFormatException, IOException
@@ -143,6 +172,23 @@ public class ClassAnalyzer
 	this(null, clazz, imports);
     }
 
+    /**
+     * Creates a class analyzer for a top level class.
+     * @param clazz the class to analyze.
+     * @param imports the import handler.
+     * @param context the context of the decompilation.
+     */
+    public ClassAnalyzer(ClassInfo clazz, ImportHandler imports,
+			 DecompilerContext context)
+	throws ClassFormatException, IOException
+    {
+	this(context, null, clazz, imports, null);
+    }
+
+    public DecompilerContext getContext() {
+	return context;
+    }
+
     public ClassPath getClassPath() {
 	return clazz.getClassPath();
     }
@@ -229,7 +275,7 @@ public class ClassAnalyzer
             return;
         }
 
-	if ((Options.options & Options.OPTION_INNER) != 0
+	if (context.isOption(Options.OPTION_INNER)
 	    && innerInfos != null) {
 	    /* Create inner classes */
 	    int innerCount = innerInfos.length;
@@ -239,13 +285,13 @@ public class ClassAnalyzer
 		    inners[i] = new ClassAnalyzer
 			(this, innerInfos[i], imports, null);
 		} catch (ClassFormatException ex) {
-		    GlobalOptions.err.println("Inner class "+innerInfos[i]
+		    context.getErr().println("Inner class "+innerInfos[i]
 					      +" malformed!");
-		    ex.printStackTrace(GlobalOptions.err);
+		    ex.printStackTrace(context.getErr());
 		} catch (IOException ex) {
-		    GlobalOptions.err.println("Can't read inner class "
+		    context.getErr().println("Can't read inner class "
 					      +innerInfos[i]+".");
-		    ex.printStackTrace(GlobalOptions.err);
+		    ex.printStackTrace(context.getErr());
 		}
 	    }
 	} else
@@ -303,8 +349,8 @@ public class ClassAnalyzer
     }
 
     public void analyze(ProgressListener pl, double done, double scale) {
-	if (GlobalOptions.verboseLevel > 0)
-	    GlobalOptions.err.println("Class " + name);
+	if (context.getVerboseLevel() > 0)
+	    context.getErr().println("Class " + name);
 	double subScale = scale / methodComplexity;
 	if (pl != null)
 	    pl.updateProgress(done, name);
@@ -341,8 +387,13 @@ public class ClassAnalyzer
 		} else
 		    constructors[j].analyze(null, 0.0, 0.0);
 	    }
+	    Metrics metrics = context.getMetrics();
+	    if (metrics != null)
+		metrics.begin();
 	    constrAna = new TransformConstructors(this, false, constructors);
 	    constrAna.removeSynthInitializers();
+	    if (metrics != null)
+		metrics.end(Metrics.CONSTRUCTORS, clazz.getName(), null);
         }
 	if (staticConstructor != null) {
 	    if (pl != null) {
@@ -362,7 +413,7 @@ public class ClassAnalyzer
 	// If output should be immediate, we delay analyzation to output.
 	// Note that this may break anonymous classes, but the user
 	// has been warned.
-	if ((Options.options & Options.OPTION_IMMEDIATE) != 0)
+	if (context.isOption(Options.OPTION_IMMEDIATE))
 	    return;
 
 	// Analyze fields
@@ -393,7 +444,7 @@ public class ClassAnalyzer
 	// If output should be immediate, we delay analyzation to output.
 	// Note that this may break anonymous classes, but the user
 	// has been warned.
-	if ((Options.options & Options.OPTION_IMMEDIATE) != 0)
+	if (context.isOption(Options.OPTION_IMMEDIATE))
 	    return;
 
 	// Now analyze the inner classes.
@@ -427,6 +478,9 @@ public class ClassAnalyzer
 
     public void makeDeclaration(Set done) {
 	// First prepare constructors:
+	Metrics metrics = context.getMetrics();
+	if (metrics != null)
+	    metrics.begin();
 	if (constrAna != null)
 	    constrAna.transform();
         if (staticConstructor != null) {
@@ -434,11 +488,13 @@ public class ClassAnalyzer
 		(this, true, new MethodAnalyzer[] { staticConstructor })
 		.transform();
 	}
+	if (metrics != null)
+	    metrics.end(Metrics.CONSTRUCTORS, clazz.getName(), null);
 
 	// If output should be immediate, we delay analyzation to output.
 	// Note that this may break anonymous classes, but the user
 	// has been warned.
-	if ((Options.options & Options.OPTION_IMMEDIATE) != 0)
+	if (context.isOption(Options.OPTION_IMMEDIATE))
 	    return;
 
         for (int j=0; j < fields.length; j++)
@@ -540,7 +596,7 @@ public class ClassAnalyzer
 	boolean needFieldNewLine = false;
 	boolean needNewLine = false;
 	Set declared = null;
-	if ((Options.options & Options.OPTION_IMMEDIATE) != 0)
+	if (context.isOption(Options.OPTION_IMMEDIATE))
 	    declared = new SimpleSet();
 	for (int i=0; i< fields.length; i++) {
 	    if (blockInitializers[i] != null) {
@@ -553,7 +609,7 @@ public class ClassAnalyzer
 		writer.closeBrace();
 		needFieldNewLine = needNewLine = true;
 	    }
-	    if ((Options.options & Options.OPTION_IMMEDIATE) != 0) {
+	    if (context.isOption(Options.OPTION_IMMEDIATE)) {
 		// We now do the analyzation we skipped before.
 		fields[i].analyze();
 		fields[i].makeDeclaration(declared);
@@ -584,7 +640,7 @@ public class ClassAnalyzer
 		continue;
 	    }
 		
-	    if ((Options.options & Options.OPTION_IMMEDIATE) != 0) {
+	    if (context.isOption(Options.OPTION_IMMEDIATE)) {
 		// We now do the analyzation we skipped before.
 		inners[i].analyze(null, 0.0, 0.0);
 		inners[i].analyzeInnerClasses(null, 0.0, 0.0);
@@ -605,7 +661,7 @@ public class ClassAnalyzer
 	    needNewLine = true;
 	}
 	for (int i=0; i< methods.length; i++) {
-	    if ((Options.options & Options.OPTION_IMMEDIATE) != 0) {
+	    if (context.isOption(Options.OPTION_IMMEDIATE)) {
 		// We now do the analyzation we skipped before.
 		if (!methods[i].isConstructor())
 		    methods[i].analyze(null, 0.0, 0.0);
@@ -652,21 +708,45 @@ public class ClassAnalyzer
 
     public void dumpJavaFile(TabbedPrintWriter writer, ProgressListener pl)
 	throws IOException {    
-	imports.init(clazz.getName());
-	LocalInfo.init();
-	initialize();
-	double done = 0.05;
-	double scale = (0.75) * methodComplexity 
-	    / (methodComplexity + innerComplexity);
-	analyze(pl, INITIALIZE_COMPLEXITY, scale);
-	done += scale;
-	analyzeInnerClasses(pl, done, 0.8 - done);
-	makeDeclaration(new SimpleSet());
-	imports.dumpHeader(writer);
-	dumpSource(writer, pl, 0.8, 0.2);
-	if (pl != null)
-	    pl.updateProgress(1.0, name);
-        writer.flush();
+	/* The expressions and types ask the current thread for the
+	 * options.
+	 */
+	DecompilerContext previous = DecompilerContext.setCurrent(context);
+	Metrics metrics = context.getMetrics();
+	try {
+	    if (metrics != null) {
+		metrics.reset();
+		metrics.begin();
+	    }
+	    imports.init(clazz.getName());
+	    context.resetSerials();
+	    initialize();
+	    double done = 0.05;
+	    double scale = (0.75) * methodComplexity 
+		/ (methodComplexity + innerComplexity);
+	    analyze(pl, INITIALIZE_COMPLEXITY, scale);
+	    done += scale;
+	    analyzeInnerClasses(pl, done, 0.8 - done);
+	    makeDeclaration(new SimpleSet());
+	    if (metrics != null)
+		metrics.begin();
+	    imports.dumpHeader(writer);
+	    dumpSource(writer, pl, 0.8, 0.2);
+	    if (pl != null)
+		pl.updateProgress(1.0, name);
+	    writer.flush();
+	    if (metrics != null) {
+		metrics.end(Metrics.OUTPUT, clazz.getName(), null);
+		metrics.addCount(methods.length);
+		metrics.end(Metrics.CLASS, clazz.getName(), null);
+	    }
+	    if (context.isReleaseClasses())
+		release();
+	} finally {
+	    if (parent == null)
+		context.unpinClasses();
+	    DecompilerContext.setCurrent(previous);
+	}
     }
 
     public boolean isScopeOf(Object obj, int scopeType) {
@@ -675,9 +755,9 @@ public class ClassAnalyzer
 	return false;
     }
 
-    static int serialnr = 0;
     public void makeNameUnique() {
-	name = name + "_" + serialnr++ + "_";
+	name = name + "_"
+	    + context.nextSerial(DecompilerContext.SERIAL_CLASS) + "_";
     }
 
     public boolean conflicts(String name, int usageType) {
@@ -687,6 +767,14 @@ public class ClassAnalyzer
     private static boolean conflicts(ClassInfo info, 
 				     String name, int usageType) {
 	while (info != null) {
+	    /* Super classes and interfaces may not be loaded yet, e.g.
+	     * if the runtime classes are read by reflection.
+	     */
+	    try {
+		info.load(ClassInfo.DECLARATIONS);
+	    } catch (IOException ex) {
+		info.guess(ClassInfo.DECLARATIONS);
+	    }
 	    if (usageType == NOSUPERMETHODNAME || usageType == METHODNAME) {
 		MethodInfo[] minfos = info.getMethods();
 		for (int i = 0; i< minfos.length; i++)
@@ -702,11 +790,6 @@ public class ClassAnalyzer
 		}
 	    }
 	    if (usageType == CLASSNAME || usageType == AMBIGUOUSNAME) {
-		try {
-		    info.load(ClassInfo.DECLARATIONS);
-		} catch (IOException ex) {
-		    info.guess(ClassInfo.DECLARATIONS);
-		}
 		ClassInfo[] iinfos = info.getClasses();
 		if (iinfos != null) {
 		    for (int i=0; i < iinfos.length; i++) {
@@ -774,6 +857,35 @@ public class ClassAnalyzer
 	    parent.addClassAnalyzer(clazzAna);
     }
 
+    /**
+     * Releases the analysis of this class and of its inner classes,
+     * after the source was written.  The byte code of the classes is
+     * dropped, too; only the declarations are kept, since other
+     * classes still refer to them.  This is called by {@link
+     * #dumpJavaFile} if {@link DecompilerContext#setReleaseClasses}
+     * was set.
+     */
+    public void release() {
+	if (inners != null) {
+	    for (int i = 0; i < inners.length; i++) {
+		if (inners[i] != null)
+		    inners[i].release();
+	    }
+	}
+	if (methods != null) {
+	    for (int i = 0; i < methods.length; i++)
+		methods[i].release();
+	}
+	inners = null;
+	methods = null;
+	fields = null;
+	blockInitializers = null;
+	constructors = null;
+	staticConstructor = null;
+	constrAna = null;
+	clazz.drop(ClassInfo.DECLARATIONS);
+    }
+
     public String toString() {
 	return getClass().getName()+"["+getClazz()+"]";
     }
@@ -23,6 +23,7 @@ import net.sf.jode.bytecode.ClassPath;
 import net.sf.jode.bytecode.ClassInfo;
 import java.io.File;
 import java.io.PrintWriter;
+import java.io.StringWriter;
 import java.io.Writer;
 
 /**
@@ -46,6 +47,14 @@ public class Decompiler {
     private int outputStyle = TabbedPrintWriter.BRACE_AT_EOL;
     private int lineWidth   = 79;
 
+    /**
+     * The options, the error stream and the debugging flags of this
+     * decompiler.  They are independent of other decompilers.
+     */
+    private DecompilerContext context = new DecompilerContext();
+
+    private DecompilerCache cache = null;
+
     /**
      * We need a different pathSeparatorChar, since ':' (used for most
      * UNIX System) is used a protocol separator in URLs.  
@@ -103,7 +112,7 @@ public class Decompiler {
 
     private static final String[] optionStrings = {
 	"lvt", "inner", "anonymous", "push", "pretty", "decrypt",
-	"onetime", "immediate", "verify", "contrafo"
+	"onetime", "immediate", "verify", "contrafo", "dominators"
     };
 
     /**
@@ -155,12 +164,39 @@ public class Decompiler {
 	    importClassLimit = clazzLimit;
 	    return;
 	}
+	if (option.equals("budget")) {
+	    int comma = value.indexOf(',');
+	    long millis;
+	    int steps = 0;
+	    if (comma >= 0) {
+		millis = Long.parseLong(value.substring(0, comma));
+		steps = Integer.parseInt(value.substring(comma+1));
+	    } else
+		millis = Long.parseLong(value);
+	    if (millis < 0 || steps < 0)
+		throw new IllegalArgumentException
+		    ("Option budget doesn't allow negative parameters");
+	    context.setMethodBudget(millis, steps);
+	    return;
+	}
+	if (option.equals("release")) {
+	    if (value.equals("0") || value.equals("off") || value.equals("no"))
+		context.setReleaseClasses(false);
+	    else if (value.equals("1") || value.equals("on")
+		     || value.equals("yes"))
+		context.setReleaseClasses(true);
+	    else
+		throw new IllegalArgumentException("Illegal value for "+
+						   option);
+	    return;
+	}
 	if (option.equals("verbose")) {
-	    GlobalOptions.verboseLevel = Integer.parseInt(value);
+	    context.setVerboseLevel(Integer.parseInt(value));
 	    return;
 	}
 	if (option.equals("debug")) {
-	    GlobalOptions.setDebugging(value);
+	    context.setDebuggingFlags(context.getDebuggingFlags()
+				      | GlobalOptions.parseDebugging(value));
 	    return;
 	}
 	for (int i=0; i < optionStrings.length; i++) {
@@ -168,11 +204,11 @@ public class Decompiler {
 		if (value.equals("0") 
 		    || value.equals("off")
 		    || value.equals("no"))
-		    Options.options &= ~(1 << i);
+		    context.setOptions(context.getOptions() & ~(1 << i));
 		else if (value.equals("1") 
 			 || value.equals("on")
 			 || value.equals("yes"))
-		    Options.options |= 1 << i;
+		    context.setOptions(context.getOptions() | 1 << i);
 		else
 		    throw new IllegalArgumentException("Illegal value for "+
 						       option);
@@ -188,11 +224,35 @@ public class Decompiler {
      * to.
      * @param errorStream the error stream. Note that this is a
      * PrintWriter, not a PrintStream (which are deprecated since 1.1).
+     * This also becomes the default stream, which is used for errors
+     * that are reported outside of {@link #decompile}, e.g. while
+     * the class path is read.
      */
     public void setErr(PrintWriter errorStream) {
+	context.setErr(errorStream);
 	GlobalOptions.err = errorStream;
     }
 
+    /**
+     * Sets the listener that is told how long the phases of the
+     * decompilation took.
+     * @param listener the listener, null to measure nothing.
+     */
+    public void setMetricsListener(MetricsListener listener) {
+	context.setMetrics(listener != null ? new Metrics(listener) : null);
+    }
+
+    /**
+     * Sets the cache that remembers the source of the classes.  If a
+     * class and its inner classes didn't change since they were
+     * decompiled with the same options, the source is taken from
+     * the cache.  The cache may be shared with other decompilers.
+     * @param cache the cache, null to decompile every class.
+     */
+    public void setCache(DecompilerCache cache) {
+	this.cache = cache;
+    }
+
    /**
     * Decompile a class.
     * @param className full-qualified classname, dot separated, e.g. 
@@ -217,6 +277,30 @@ public class Decompiler {
 	   classPath = new ClassPath(cp);
        }
 
+       String key = null;
+       if (cache != null) {
+	   /* The cache stores the source as UTF-8, independent of
+	    * the encoding of the writer.
+	    */
+	   key = cache.getKey(classPath, className, DecompilerCache.getSettings
+			      (context.getOptions(),
+			       context.getMethodTimeLimit(),
+			       context.getMethodStepLimit(),
+			       outputStyle, indentSize,
+			       tabWidth, lineWidth, importPackageLimit,
+			       importClassLimit, "UTF-8"));
+	   byte[] source = key != null ? cache.getSource(key) : null;
+	   if (source != null) {
+	       writer.write(new String(source, "UTF-8"));
+	       writer.flush();
+	       return;
+	   }
+       }
+
+       Writer destWriter = writer;
+       if (key != null)
+	   writer = new StringWriter();
+
        ClassInfo clazz = classPath.getClassInfo(className);
        ImportHandler imports = new ImportHandler(classPath,
 						 importPackageLimit,
@@ -225,8 +309,30 @@ public class Decompiler {
 	   new TabbedPrintWriter(writer, imports, false, 
 				 outputStyle, indentSize, 
 				 tabWidth, lineWidth);
-       ClassAnalyzer clazzAna = new ClassAnalyzer(null, clazz, imports);
-       clazzAna.dumpJavaFile(tabbedWriter, progress);
-       writer.flush();
+       /* Every call gets its own copy of the context, since the serial
+	* numbers must not be shared with other threads.
+	*/
+       DecompilerContext callContext = new DecompilerContext(context);
+       DecompilerContext previous = DecompilerContext.setCurrent(callContext);
+       try {
+	   ClassAnalyzer clazzAna
+	       = new ClassAnalyzer(clazz, imports, callContext);
+	   clazzAna.dumpJavaFile(tabbedWriter, progress);
+       } finally {
+	   /* The constructor may fail after pinning the class. */
+	   callContext.unpinClasses();
+	   DecompilerContext.setCurrent(previous);
+       }
+       tabbedWriter.flush();
+       if (key != null) {
+	   String source = writer.toString();
+	   /* A method that ran out of its budget may be decompiled
+	    * the next time, so don't cache the source.
+	    */
+	   if (callContext.getGivenUpCount() == 0)
+	       cache.putSource(key, source.getBytes("UTF-8"));
+	   destWriter.write(source);
+       }
+       destWriter.flush();
    }
 }
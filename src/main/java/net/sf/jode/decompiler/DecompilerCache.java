@@ -0,0 +1,271 @@
+/* DecompilerCache Copyright (C) 2026 agent.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; see the file COPYING.LESSER.  If not, write to
+ * the Free Software Foundation, 675 Mass Ave, Cambridge, MA 02139, USA.
+ *
+ * $Id$
+ */
+
+package net.sf.jode.decompiler;
+import net.sf.jode.GlobalOptions;
+import net.sf.jode.bytecode.ClassPath;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.Hashtable;
+import java.util.Vector;
+
+/**
+ * A directory that remembers the decompiled source of top level
+ * classes between runs.  The key of a class is the SHA-1 hash of its
+ * class file, the class files of its inner and anonymous classes, the
+ * decompiler options and the output settings.  If a class didn't
+ * change since the last run, its source is taken from the cache
+ * instead of decompiling it again. <br>
+ *
+ * The source of a class also depends a little on the other classes,
+ * e.g. on the hierarchy of the classes it uses and on name conflicts
+ * with them.  The cache ignores this.  Clear the cache directory if
+ * you change the class path of a jar. <br>
+ *
+ * Every source is stored in its own file, named after its key.
+ * Several decompilers may use the same cache at the same time.
+ * Nothing is ever removed from the cache, delete the directory if
+ * it grows too big.
+ *
+ * @author agent
+ */
+public class DecompilerCache {
+    private File directory;
+
+    /**
+     * The class files in the directories of the class path, so that
+     * we don't have to list a directory for every class in it.  Maps
+     * a class path to a Hashtable from directory name to a sorted
+     * String array.
+     */
+    private Hashtable listings = new Hashtable();
+
+    /**
+     * Creates a new cache.
+     * @param directory the directory where the sources are stored.
+     * It is created when the first source is stored.
+     */
+    public DecompilerCache(File directory) {
+	this.directory = directory;
+    }
+
+    /**
+     * Returns the class files in the given directory of the class path.
+     */
+    private synchronized String[] listClassFiles(ClassPath classPath,
+						 String dirName) {
+	Hashtable pathListings = (Hashtable) listings.get(classPath);
+	if (pathListings == null) {
+	    pathListings = new Hashtable();
+	    listings.put(classPath, pathListings);
+	}
+	String[] files = (String[]) pathListings.get(dirName);
+	if (files == null) {
+	    Vector vector = new Vector();
+	    Enumeration enumeration = classPath.listFiles(dirName);
+	    while (enumeration.hasMoreElements()) {
+		String name = (String) enumeration.nextElement();
+		if (name.endsWith(".class"))
+		    vector.addElement(name);
+	    }
+	    files = new String[vector.size()];
+	    vector.copyInto(files);
+	    Arrays.sort(files);
+	    pathListings.put(dirName, files);
+	}
+	return files;
+    }
+
+    /**
+     * Builds the settings string for {@link #getKey} from everything
+     * that changes the source of a class.
+     * @param options the decompiler options, see {@link Options}.
+     * @param methodTimeLimit the time budget of a method, see {@link
+     * DecompilerContext#setMethodBudget}.
+     * @param methodStepLimit the step budget of a method.
+     * @param encoding the character encoding of the source.
+     */
+    public static String getSettings(int options, long methodTimeLimit,
+				     int methodStepLimit, int outputStyle,
+				     int indentSize, int tabWidth,
+				     int lineWidth, int importPackageLimit,
+				     int importClassLimit, String encoding) {
+	return "options=" + Integer.toHexString(options)
+	    + ",budget=" + methodTimeLimit + "/" + methodStepLimit
+	    + ",style=" + Integer.toHexString(outputStyle)
+	    + ",indent=" + indentSize + ",tab=" + tabWidth
+	    + ",width=" + lineWidth
+	    + ",import=" + importPackageLimit + "/" + importClassLimit
+	    + ",encoding=" + encoding;
+    }
+
+    private static void digestFile(MessageDigest digest, ClassPath classPath,
+				   String fileName) throws IOException {
+	InputStream input = classPath.getFile(fileName);
+	try {
+	    digest.update(fileName.getBytes("UTF-8"));
+	    digest.update((byte) 0);
+	    byte[] buffer = new byte[4096];
+	    int count;
+	    while ((count = input.read(buffer)) > 0)
+		digest.update(buffer, 0, count);
+	    digest.update((byte) 0);
+	} finally {
+	    input.close();
+	}
+    }
+
+    /**
+     * Computes the key of a top level class.
+     * @param classPath the class path of the class.
+     * @param className the full qualified name of the class.
+     * @param settings the options and output settings that influence
+     * the source, as a string.
+     * @return the key, or null if the class file can't be read.
+     */
+    public String getKey(ClassPath classPath, String className,
+			 String settings) {
+	MessageDigest digest;
+	try {
+	    digest = MessageDigest.getInstance("SHA-1");
+	} catch (NoSuchAlgorithmException ex) {
+	    return null;
+	}
+
+	String fileName = className.replace('.', '/');
+	int slash = fileName.lastIndexOf('/');
+	String dirName = slash >= 0 ? fileName.substring(0, slash) : "";
+	String innerPrefix = fileName.substring(slash + 1) + "$";
+	try {
+	    digest.update(GlobalOptions.version.getBytes("UTF-8"));
+	    digest.update((byte) 0);
+	    digest.update(settings.getBytes("UTF-8"));
+	    digest.update((byte) 0);
+	    digestFile(digest, classPath, fileName + ".class");
+
+	    /* The inner classes are decompiled together with the
+	     * outer class, so they belong to the key.
+	     */
+	    String[] files = listClassFiles(classPath, dirName);
+	    for (int i = 0; i < files.length; i++) {
+		if (files[i].startsWith(innerPrefix))
+		    digestFile(digest, classPath,
+			       slash >= 0 ? dirName + "/" + files[i]
+			       : files[i]);
+	    }
+	} catch (IOException ex) {
+	    return null;
+	}
+
+	byte[] hash = digest.digest();
+	StringBuffer key = new StringBuffer(hash.length * 2);
+	for (int i = 0; i < hash.length; i++) {
+	    key.append(Character.forDigit((hash[i] >> 4) & 0xf, 16));
+	    key.append(Character.forDigit(hash[i] & 0xf, 16));
+	}
+	return key.toString();
+    }
+
+    private File getFile(String key) {
+	return new File(new File(directory, key.substring(0, 2)),
+			key + ".java");
+    }
+
+    /**
+     * Returns the cached source of a class.
+     * @param key the key, see {@link #getKey}.
+     * @return the source, or null if it isn't in the cache.
+     */
+    public byte[] getSource(String key) {
+	File file = getFile(key);
+	try {
+	    InputStream input = new FileInputStream(file);
+	    try {
+		ByteArrayOutputStream output
+		    = new ByteArrayOutputStream((int) file.length());
+		byte[] buffer = new byte[4096];
+		int count;
+		while ((count = input.read(buffer)) > 0)
+		    output.write(buffer, 0, count);
+		return output.toByteArray();
+	    } finally {
+		input.close();
+	    }
+	} catch (FileNotFoundException ex) {
+	    return null;
+	} catch (IOException ex) {
+	    GlobalOptions.getErr().println
+		("Warning: Can't read cached source "+file+": "+ex);
+	    return null;
+	}
+    }
+
+    /**
+     * Stores the source of a class.  Errors are reported, but
+     * otherwise ignored, since the source was decompiled anyway.
+     * @param key the key, see {@link #getKey}.
+     * @param source the source.
+     */
+    public void putSource(String key, byte[] source) {
+	File file = getFile(key);
+	File dir = file.getParentFile();
+	try {
+	    if (!dir.exists() && !dir.mkdirs() && !dir.isDirectory())
+		throw new IOException("Can't create directory "+dir);
+	    /* Write to a temporary file first, so that a concurrent
+	     * run never reads a half written source.
+	     */
+	    File tmpFile = File.createTempFile(key, ".tmp", dir);
+	    OutputStream output = new FileOutputStream(tmpFile);
+	    try {
+		output.write(source);
+	    } finally {
+		output.close();
+	    }
+	    if (!tmpFile.renameTo(file)) {
+		/* Someone else stored the same source, or we are on
+		 * Windows, which doesn't replace existing files.
+		 */
+		file.delete();
+		if (!tmpFile.renameTo(file)) {
+		    tmpFile.delete();
+		    throw new IOException("Can't rename "+tmpFile);
+		}
+	    }
+	} catch (IOException ex) {
+	    GlobalOptions.getErr().println
+		("Warning: Can't store source in cache "+file+": "+ex);
+	}
+    }
+
+    public String toString() {
+	return directory.getPath();
+    }
+}
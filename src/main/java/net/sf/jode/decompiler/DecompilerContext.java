@@ -0,0 +1,347 @@
+/* DecompilerContext Copyright (C) 2026 agent.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; see the file COPYING.LESSER.  If not, write to
+ * the Free Software Foundation, 675 Mass Ave, Cambridge, MA 02139, USA.
+ *
+ * $Id$
+ */
+
+package net.sf.jode.decompiler;
+import net.sf.jode.GlobalOptions;
+
+import net.sf.jode.bytecode.ClassInfo;
+
+import java.io.PrintWriter;
+import java.util.Vector;
+
+/**
+ * The state of a single decompilation: the decompiler options, the
+ * stream for errors and warnings, the verbose level, the debugging
+ * flags and the serial numbers used to make generated names and
+ * labels unique.  <br>
+ *
+ * The ClassAnalyzer, MethodAnalyzer and FlowBlock objects remember
+ * the context they were created in.  The other classes use the
+ * context that is bound to the current thread with {@link
+ * #setCurrent}, or the static defaults in {@link Options} and {@link
+ * GlobalOptions} if there is none.  This way several decompilations
+ * with different options can run in one virtual machine at the same
+ * time, each on its own thread. <br>
+ *
+ * The context also holds the budget of a single method: if the
+ * analysis of a method takes more than {@link #setMethodBudget the
+ * given} time or steps, it is given up and the byte code is written
+ * instead. <br>
+ *
+ * A context must not be used by more than one thread at a time.
+ *
+ * @author agent
+ */
+public class DecompilerContext implements GlobalOptions.Settings {
+    public static final int SERIAL_LOCAL  = 0;
+    public static final int SERIAL_CLASS  = 1;
+    public static final int SERIAL_FLOW   = 2;
+    public static final int SERIAL_LOOP   = 3;
+    public static final int SERIAL_SWITCH = 4;
+    public static final int SERIAL_LABEL  = 5;
+
+    private static final int SERIAL_COUNT = 6;
+
+    private static final ThreadLocal current = new ThreadLocal();
+    private static final ThreadLocal defaults = new ThreadLocal();
+
+    private int options;
+    private PrintWriter err;
+    private int verboseLevel;
+    private int debuggingFlags;
+    private Metrics metrics;
+    private boolean releaseClasses;
+    private int[] serials = new int[SERIAL_COUNT];
+
+    private long methodTimeLimit;
+    private int methodStepLimit;
+    private boolean budgetActive;
+    private long budgetDeadline;
+    private int budgetSteps;
+    private int givenUpCount;
+    private Vector pinned = new Vector();
+
+    /**
+     * Creates a new context, whose settings are initialized from
+     * the static defaults in {@link Options} and {@link GlobalOptions}.
+     */
+    public DecompilerContext() {
+	loadDefaults();
+    }
+
+    private void loadDefaults() {
+	options = Options.options;
+	err = GlobalOptions.err;
+	verboseLevel = GlobalOptions.verboseLevel;
+	debuggingFlags = GlobalOptions.debuggingFlags;
+    }
+
+    /**
+     * Creates a new context with the same settings as the given
+     * context.  The serial numbers are not copied.
+     * @param other the context to copy the settings from.
+     */
+    public DecompilerContext(DecompilerContext other) {
+	options = other.options;
+	err = other.err;
+	verboseLevel = other.verboseLevel;
+	debuggingFlags = other.debuggingFlags;
+	methodTimeLimit = other.methodTimeLimit;
+	methodStepLimit = other.methodStepLimit;
+	releaseClasses = other.releaseClasses;
+	/* The metrics remember the running phases, so every copy
+	 * gets its own, reporting to the same listener.
+	 */
+	if (other.metrics != null)
+	    metrics = new Metrics(other.metrics.getListener());
+    }
+
+    /**
+     * Returns the context bound to the current thread.
+     * @return the bound context, or null if there is none.
+     */
+    public static DecompilerContext getBound() {
+	return (DecompilerContext) current.get();
+    }
+
+    /**
+     * Returns the context bound to the current thread.  If there is
+     * none, the default context of the current thread is returned.
+     * It is created on the first call and keeps its serial numbers,
+     * so that names and labels stay unique, but its settings are
+     * reloaded from the static defaults on every call.
+     */
+    public static DecompilerContext getCurrent() {
+	DecompilerContext context = (DecompilerContext) current.get();
+	if (context != null)
+	    return context;
+	context = (DecompilerContext) defaults.get();
+	if (context == null) {
+	    context = new DecompilerContext();
+	    defaults.set(context);
+	} else
+	    context.loadDefaults();
+	return context;
+    }
+
+    /**
+     * Binds a context to the current thread.
+     * @param context the new context, null to unbind the context.
+     * @return the previously bound context, or null if there was none.
+     * Pass it to this method again to restore it.
+     */
+    public static DecompilerContext setCurrent(DecompilerContext context) {
+	DecompilerContext previous = (DecompilerContext) current.get();
+	current.set(context);
+	GlobalOptions.setSettings(context);
+	return previous;
+    }
+
+    public int getOptions() {
+	return options;
+    }
+
+    public void setOptions(int options) {
+	this.options = options;
+    }
+
+    /**
+     * Checks whether the given option is set.
+     * @param option one of the OPTION_* constants in {@link Options}.
+     */
+    public boolean isOption(int option) {
+	return (options & option) != 0;
+    }
+
+    public PrintWriter getErr() {
+	return err;
+    }
+
+    public void setErr(PrintWriter err) {
+	this.err = err;
+    }
+
+    public int getVerboseLevel() {
+	return verboseLevel;
+    }
+
+    public void setVerboseLevel(int verboseLevel) {
+	this.verboseLevel = verboseLevel;
+    }
+
+    public int getDebuggingFlags() {
+	return debuggingFlags;
+    }
+
+    public void setDebuggingFlags(int debuggingFlags) {
+	this.debuggingFlags = debuggingFlags;
+    }
+
+    /**
+     * Checks whether the given debugging flag is set.
+     * @param flag one of the DEBUG_* constants in {@link GlobalOptions}.
+     */
+    public boolean isDebugging(int flag) {
+	return (debuggingFlags & flag) != 0;
+    }
+
+    /**
+     * Returns the metrics that measure this decompilation.
+     * @return the metrics, or null if nothing is measured.
+     */
+    public Metrics getMetrics() {
+	return metrics;
+    }
+
+    public void setMetrics(Metrics metrics) {
+	this.metrics = metrics;
+    }
+
+    /**
+     * Tells whether the analysis and the byte code of a class are
+     * released as soon as its source is written.
+     */
+    public boolean isReleaseClasses() {
+	return releaseClasses;
+    }
+
+    /**
+     * Sets whether the analysis of a class, i.e.&nbsp;its flow
+     * graphs and local variables, and its byte code are released as
+     * soon as its source is written, see {@link
+     * ClassAnalyzer#release}.  This keeps the heap flat when many
+     * classes are decompiled with the same class path.
+     * @param release true, to release the classes.
+     */
+    public void setReleaseClasses(boolean release) {
+	releaseClasses = release;
+    }
+
+    /**
+     * Sets the budget for the analysis of a single method.
+     * @param millis the maximum time in milliseconds, 0 for no limit.
+     * @param steps the maximum number of steps, 0 for no limit.  A
+     * step is a try to merge flow blocks or to combine the
+     * instructions of a flow block.
+     */
+    public void setMethodBudget(long millis, int steps) {
+	methodTimeLimit = millis;
+	methodStepLimit = steps;
+    }
+
+    public long getMethodTimeLimit() {
+	return methodTimeLimit;
+    }
+
+    public int getMethodStepLimit() {
+	return methodStepLimit;
+    }
+
+    /**
+     * Starts the budget for the analysis of a method.
+     */
+    public void startMethodBudget() {
+	budgetActive = methodTimeLimit > 0 || methodStepLimit > 0;
+	budgetSteps = 0;
+	if (methodTimeLimit > 0)
+	    budgetDeadline = System.currentTimeMillis() + methodTimeLimit;
+    }
+
+    /**
+     * Stops the budget, after the method was analyzed.
+     */
+    public void stopMethodBudget() {
+	budgetActive = false;
+    }
+
+    /**
+     * Counts a step of the method analysis and checks the budget.
+     * This does nothing if no budget was started.  The clock is only
+     * read every 64 steps, since this is called very often.
+     * @exception MethodBudgetException if the budget is exceeded.
+     */
+    public void checkMethodBudget() {
+	if (!budgetActive)
+	    return;
+	budgetSteps++;
+	if (methodStepLimit > 0 && budgetSteps > methodStepLimit)
+	    throw new MethodBudgetException
+		("limit of " + methodStepLimit + " steps");
+	if (methodTimeLimit > 0 && (budgetSteps & 63) == 0
+	    && System.currentTimeMillis() > budgetDeadline)
+	    throw new MethodBudgetException
+		("time limit of " + methodTimeLimit + " ms");
+    }
+
+    /**
+     * Counts a method whose analysis was given up, because it
+     * exceeded its budget.
+     */
+    public void methodGivenUp() {
+	givenUpCount++;
+    }
+
+    /**
+     * Returns how many methods were given up in this context.
+     */
+    public int getGivenUpCount() {
+	return givenUpCount;
+    }
+
+    /**
+     * Pins a class that is analyzed in this context, so that the
+     * memory budget of its class path doesn't drop its code, see
+     * {@link ClassInfo#pin}.
+     */
+    public void pinClass(ClassInfo clazz) {
+	clazz.pin();
+	pinned.addElement(clazz);
+    }
+
+    /**
+     * Releases the pins of all classes pinned with {@link #pinClass}.
+     * This is called when the source of a top level class is written.
+     */
+    public void unpinClasses() {
+	for (int i = 0; i < pinned.size(); i++)
+	    ((ClassInfo) pinned.elementAt(i)).unpin();
+	pinned.removeAllElements();
+    }
+
+    /**
+     * Resets all serial numbers.  This is called before a top level
+     * class is analyzed, so that the output for a class doesn't
+     * depend on the classes that were decompiled before.  The
+     * parallel decompiler and the cache rely on this.  Older versions
+     * numbered the labels of all classes of a run globally, so their
+     * output may have e.g. label_57 where this version has label_0.
+     */
+    public void resetSerials() {
+	for (int i = 0; i < SERIAL_COUNT; i++)
+	    serials[i] = 0;
+    }
+
+    /**
+     * Returns the next serial number of the given kind.
+     * @param kind one of the SERIAL_* constants.
+     */
+    public int nextSerial(int kind) {
+	return serials[kind]++;
+    }
+}
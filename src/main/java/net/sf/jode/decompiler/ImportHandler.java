@@ -236,7 +236,7 @@ public class ImportHandler {
     }
 
     public void error(String message) {
-        GlobalOptions.err.println(message);
+        GlobalOptions.getErr().println(message);
     }
 
     public void init(String className) {
@@ -37,7 +37,6 @@ import net.sf.jode.expr.LocalVarOperator;
  * calls the member functions of the other local.<p>
  */
 public class LocalInfo implements Declarable {
-    private static int serialnr = 0;
     private static int nextAnonymousSlot = -1;
     private int slot;
     private MethodAnalyzer methodAnalyzer;
@@ -102,10 +101,6 @@ public class LocalInfo implements Declarable {
         this.slot = slot;
     }
 
-    public static void init() {
-	serialnr = 0;
-    }
-
     public void setOperator(LocalVarOperator operator) {
         getLocalInfo().operators.addElement(operator);
     }
@@ -146,7 +141,7 @@ public class LocalInfo implements Declarable {
 	    shadow.constExpr = constExpr;
 	}
 	
-// 	GlobalOptions.err.println("combining "+name+"("+type+") and "
+// 	GlobalOptions.getErr().println("combining "+name+"("+type+") and "
 // 				  +shadow.name+"("+shadow.type+")");
 	shadow.setType(type);
 
@@ -158,9 +153,8 @@ public class LocalInfo implements Declarable {
 	    LocalVarOperator lvo = 
 		(LocalVarOperator) enumeration.nextElement();
 	    if (needTypeUpdate) {
-		if ((GlobalOptions.debuggingFlags 
-		     & GlobalOptions.DEBUG_TYPES) != 0)
-		    GlobalOptions.err.println("updating " + lvo);
+		if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_TYPES))
+		    GlobalOptions.getErr().println("updating " + lvo);
 		lvo.updateType();
 	    }
 	    shadow.operators.addElement(lvo);
@@ -219,19 +213,20 @@ public class LocalInfo implements Declarable {
 		}
 	    }
 	    nameIsGenerated = true;
-	    if ((GlobalOptions.debuggingFlags & GlobalOptions.DEBUG_TYPES) != 0)
-		GlobalOptions.err.println(getName()+" set type to getHint()");
+	    if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_TYPES))
+		GlobalOptions.getErr().println(getName()+" set type to getHint()");
 	    setType(type.getHint());
-            if ((Options.options & Options.OPTION_PRETTY) != 0) {
+            if ((Options.getOptions() & Options.OPTION_PRETTY) != 0) {
                 name = type.getDefaultName();
             } else {
                 name = type.getDefaultName()
-		    + (slot >= 0 ? "_" + slot : "") + "_" + serialnr++ + "_";
+		    + (slot >= 0 ? "_" + slot : "") + "_"
+		    + DecompilerContext.getCurrent()
+		    .nextSerial(DecompilerContext.SERIAL_LOCAL) + "_";
                 isUnique = true;
             }
-	    if ((GlobalOptions.debuggingFlags 
-		 & GlobalOptions.DEBUG_LOCALS) != 0) {
-		GlobalOptions.err.println("Guessed name: " + name
+	    if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_LOCALS)) {
+		GlobalOptions.getErr().println("Guessed name: " + name
 					  + " from type: " + type);
 		Thread.dumpStack();
 	    }
@@ -283,7 +278,9 @@ public class LocalInfo implements Declarable {
         LocalInfo li = getLocalInfo();
         String name = li.getName();
         if (!li.isUnique) {
-            li.name = name + "_" + serialnr++ + "_";
+            li.name = name + "_"
+		+ DecompilerContext.getCurrent()
+		.nextSerial(DecompilerContext.SERIAL_LOCAL) + "_";
             li.isUnique = true;
         }
     }
@@ -305,7 +302,7 @@ public class LocalInfo implements Declarable {
     public Type setType(Type otherType) {
         LocalInfo li = getLocalInfo();
 	if (li.loopCount++ > 5) {
-	    GlobalOptions.err.println("Type error in local " + getName()+": "
+	    GlobalOptions.getErr().println("Type error in local " + getName()+": "
 				      + li.type + " seems to be recursive.");
 	    Thread.dumpStack();
 	    otherType = Type.tError;
@@ -313,14 +310,13 @@ public class LocalInfo implements Declarable {
         Type newType = li.type.intersection(otherType);
 	if (newType == Type.tError
 	    && otherType != Type.tError && li.type != Type.tError) {
-	    GlobalOptions.err.println("Type error in local " + getName()+": "
+	    GlobalOptions.getErr().println("Type error in local " + getName()+": "
 				   + li.type + " and " + otherType);
-	    if ((GlobalOptions.debuggingFlags 
-		 & GlobalOptions.DEBUG_TYPES) != 0)
+	    if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_TYPES))
 		Thread.dumpStack();
 	}
-        else if ((GlobalOptions.debuggingFlags & GlobalOptions.DEBUG_TYPES) != 0)
-            GlobalOptions.err.println(getName()+" setType, new: "+newType
+        else if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_TYPES))
+            GlobalOptions.getErr().println(getName()+" setType, new: "+newType
 				   + " old: "+li.type);
 
         if (!li.type.equals(newType)) {
@@ -328,8 +324,8 @@ public class LocalInfo implements Declarable {
             java.util.Enumeration enumeration = li.operators.elements();
             while (enumeration.hasMoreElements()) {
                 LocalVarOperator lvo = (LocalVarOperator) enumeration.nextElement();
-                if ((GlobalOptions.debuggingFlags & GlobalOptions.DEBUG_TYPES) != 0)
-                    GlobalOptions.err.println("updating "+lvo);
+                if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_TYPES))
+                    GlobalOptions.getErr().println("updating "+lvo);
                 lvo.updateType();
             }
         }
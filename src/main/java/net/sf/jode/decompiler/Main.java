@@ -20,12 +20,14 @@
 package net.sf.jode.decompiler;
 import net.sf.jode.bytecode.ClassInfo;
 import net.sf.jode.bytecode.ClassPath;
+import net.sf.jode.bytecode.ClassPathIndex;
 import net.sf.jode.bytecode.ClassFormatException;
 import net.sf.jode.GlobalOptions;
 
-import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileOutputStream;
+import java.io.FileWriter;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.PrintWriter;
@@ -33,6 +35,7 @@ import java.util.zip.ZipOutputStream;
 import java.util.zip.ZipFile;
 import java.util.zip.ZipEntry;
 import java.util.Enumeration;
+import java.util.Vector;
 
 import gnu.getopt.LongOpt;
 import gnu.getopt.Getopt;
@@ -46,7 +49,14 @@ public class Main extends Options {
 	new LongOpt("cp", LongOpt.REQUIRED_ARGUMENT, null, 'c'),
 	new LongOpt("classpath", LongOpt.REQUIRED_ARGUMENT, null, 'c'),
 	new LongOpt("dest", LongOpt.REQUIRED_ARGUMENT, null, 'd'),
+	new LongOpt("index", LongOpt.REQUIRED_ARGUMENT, null, 'I'),
 	new LongOpt("keep-going", LongOpt.NO_ARGUMENT, null, 'k'),
+	new LongOpt("threads", LongOpt.REQUIRED_ARGUMENT, null, 't'),
+	new LongOpt("memory", LongOpt.REQUIRED_ARGUMENT, null, 'm'),
+	new LongOpt("release", LongOpt.NO_ARGUMENT, null, 'r'),
+	new LongOpt("metrics", LongOpt.REQUIRED_ARGUMENT, null, 'M'),
+	new LongOpt("cache", LongOpt.REQUIRED_ARGUMENT, null, 'C'),
+	new LongOpt("budget", LongOpt.REQUIRED_ARGUMENT, null, 'b'),
 	new LongOpt("help", LongOpt.NO_ARGUMENT, null, 'h'),
 	new LongOpt("version", LongOpt.NO_ARGUMENT, null, 'V'),
 	new LongOpt("verbose", LongOpt.OPTIONAL_ARGUMENT, null, 'v'),
@@ -73,11 +83,13 @@ public class Main extends Options {
 	new LongOpt("verify", LongOpt.OPTIONAL_ARGUMENT, null, 
 		    OPTION_START+8),
 	new LongOpt("contrafo", LongOpt.OPTIONAL_ARGUMENT, null, 
-		    OPTION_START+9)
+		    OPTION_START+9),
+	new LongOpt("dominators", LongOpt.OPTIONAL_ARGUMENT, null, 
+		    OPTION_START+10)
     };
 
     public static void usage() {
-	PrintWriter err = GlobalOptions.err;
+	PrintWriter err = GlobalOptions.getErr();
 	err.println("Version: " + GlobalOptions.version);
         err.println("Usage: java net.sf.jode.decompiler.Main [OPTION]* {CLASS|JAR}*");
 	err.println("Give a fully qualified CLASS name, e.g. net.sf.jode.decompiler.Main, if you want to");
@@ -95,6 +107,10 @@ public class Main extends Options {
 		    "The directories should be separated by ','.");
 	err.println("  -d, --dest <dir>     "+
 		    "write decompiled files to disk into directory destdir.");
+	err.println("  -I, --index <file>   "+
+		    "remember the directories of the jars in the classpath");
+	err.println("                       "+
+		    "in file, to start faster next time.");
 	err.println("  -s, --style {sun|gnu|pascal|python}  "+
 		    "specify indentation style");
 	err.println("  -l, --chars-per-line <number>  "+
@@ -110,6 +126,35 @@ public class Main extends Options {
 		    "After an error continue to decompile the other classes.");
 	err.println("                       "+
              "after an error decompiling one of them.");
+	err.println("  -t, --threads <n>    "+
+		    "decompile the classes of a jar with n threads.");
+	err.println("                       "+
+		    "0 means one thread per processor.  Default is 1.");
+	err.println("  -m, --memory <mb>    "+
+		    "drop the bytecode of classes that were decompiled");
+	err.println("                       "+
+		    "when they use more than about mb megabytes.");
+	err.println("  -r, --release        "+
+		    "drop the bytecode and the analysis of every class");
+	err.println("                       "+
+		    "as soon as its source is written.");
+	err.println("  -M, --metrics <file> "+
+		    "write the time and memory used by every phase of");
+	err.println("                       "+
+		    "every method to file, as JSON if it ends with .json,");
+	err.println("                       "+
+		    "otherwise as CSV.");
+	err.println("  -C, --cache <dir>    "+
+		    "remember the source of every class in dir and reuse");
+	err.println("                       "+
+		    "it if the class files didn't change.");
+	err.println("  -b, --budget <ms>[,<steps>]");
+	err.println("                       "+
+		    "give up methods whose analysis takes longer than ms");
+	err.println("                       "+
+		    "milliseconds or more than steps steps and write their");
+	err.println("                       "+
+		    "byte code instead.  0 means no limit.");
     }
 
     public static boolean handleOption(int option, int longind, String arg) {
@@ -120,7 +165,7 @@ public class Main extends Options {
 	else if ("no".startsWith(arg) || arg.equals("off"))
 	    options &= ~(1 << option);
 	else {
-	    GlobalOptions.err.println
+	    GlobalOptions.getErr().println
 		("net.sf.jode.decompiler.Main: option --"+longOptions[longind].getName()
 		 +" takes one of `yes', `no', `on', `off' as parameter");
 	    return false;
@@ -133,12 +178,27 @@ public class Main extends Options {
 	 String classPathStr,
 	 ZipOutputStream destZip, String destDir, 
 	 TabbedPrintWriter writer, ImportHandler imports) {
+	return decompileClass(className, classPath, classPathStr,
+			      destZip, destDir, writer, imports, (byte[]) null);
+    }
+
+    /**
+     * Decompiles a class, or writes its source if it is already
+     * known.
+     * @param source the source of the class, as written by {@link
+     * TabbedPrintWriter#writeSource}, or null to decompile it.
+     */
+    static boolean decompileClass
+	(String className, ClassPath classPath,
+	 String classPathStr,
+	 ZipOutputStream destZip, String destDir, 
+	 TabbedPrintWriter writer, ImportHandler imports, byte[] source) {
 	try {
 	    ClassInfo clazz;
 	    try {
 		clazz = classPath.getClassInfo(className);
 	    } catch (IllegalArgumentException ex) {
-		GlobalOptions.err.println
+		GlobalOptions.getErr().println
 		    ("`"+className+"' is not a class name");
 		return false;
 	    }
@@ -154,50 +214,51 @@ public class Main extends Options {
 		File file = new File (destDir, filename);
 		File directory = new File(file.getParent());
 		if (!directory.exists() && !directory.mkdirs()) {
-		    GlobalOptions.err.println
+		    GlobalOptions.getErr().println
 			("Could not create directory " 
 			 + directory.getPath() + ", check permissions.");
 		}
 		writer = new TabbedPrintWriter
-		    (new BufferedOutputStream(new FileOutputStream(file)),
-		     imports, false);
+		    (new FileOutputStream(file), imports, false);
 	    }
 	    
-	    GlobalOptions.err.println(className);
+	    GlobalOptions.getErr().println(className);
 		
-	    ClassAnalyzer clazzAna = new ClassAnalyzer(clazz, imports);
-	    clazzAna.dumpJavaFile(writer);
+	    if (source != null)
+		writer.writeSource(source);
+	    else {
+		ClassAnalyzer clazzAna = new ClassAnalyzer(clazz, imports);
+		clazzAna.dumpJavaFile(writer);
+	    }
 	    
 	    if (destZip != null) {
 		    writer.flush();
 		    destZip.closeEntry();
 	    } else if (destDir != null)
 		writer.close();
-	    /* Now is a good time to clean up */
-	    System.gc();
 	    return true;
 	} catch (FileNotFoundException ex) {
-	    GlobalOptions.err.println
+	    GlobalOptions.getErr().println
 		("Can't read "+ex.getMessage()+".");
-	    GlobalOptions.err.println
+	    GlobalOptions.getErr().println
 		("Check the class path ("+classPathStr+
 		 ") and check that you use the java class name.");
 	    return false;
 	} catch (ClassFormatException ex) {
-	    GlobalOptions.err.println
+	    GlobalOptions.getErr().println
 		("Error while reading "+className+".");
-	    ex.printStackTrace(GlobalOptions.err);
+	    ex.printStackTrace(GlobalOptions.getErr());
 	    return false;
 	} catch (IOException ex) {
-	    GlobalOptions.err.println
+	    GlobalOptions.getErr().println
 		("Can't write source of "+className+".");
-	    GlobalOptions.err.println("Check the permissions.");
-	    ex.printStackTrace(GlobalOptions.err);
+	    GlobalOptions.getErr().println("Check the permissions.");
+	    ex.printStackTrace(GlobalOptions.getErr());
 	    return false;
 	} catch(RuntimeException ex) {
-	    GlobalOptions.err.println
+	    GlobalOptions.getErr().println
 		("Error whilst decompiling " + className + ".");
-	    ex.printStackTrace(GlobalOptions.err);
+	    ex.printStackTrace(GlobalOptions.getErr());
 	    return false;
 	} catch(InternalError ex) {
 	    /* InternalError should not normally be
@@ -208,13 +269,37 @@ public class Main extends Options {
 	     * TODO: Replace InternalError with something else in
 	     * places they can actually be thrown
 	     */
-	    GlobalOptions.err.println
+	    GlobalOptions.getErr().println
 		("Internal error whilst decompiling " + className + ".");
-	    ex.printStackTrace(GlobalOptions.err);
+	    ex.printStackTrace(GlobalOptions.getErr());
 	    return false;
+	} finally {
+	    /* The analyzer may have failed before it released its pins. */
+	    DecompilerContext.getCurrent().unpinClasses();
 	}
     }
 
+    /**
+     * Decompiles a class in the serial loop.
+     * @param cached the decompiler that takes the source from the
+     * cache, null if there is no cache.
+     */
+    private static boolean decompileClass
+	(String className, ClassPath classPath, String classPathStr,
+	 ZipOutputStream destZip, String destDir,
+	 TabbedPrintWriter writer, ImportHandler imports,
+	 ParallelDecompiler cached) {
+	if (cached == null)
+	    return decompileClass(className, classPath, classPathStr,
+				  destZip, destDir, writer, imports);
+	if (destZip != null)
+	    writer.flush();
+	return cached.decompileClass(className, classPath, classPathStr,
+				     destZip, destDir,
+				     destZip == null && destDir == null
+				     ? System.out : null, imports);
+    }
+
     public static void main(String[] params) throws Throwable{
 	decompile(params);
 	/* When AWT applications are compiled with insufficient
@@ -249,11 +334,19 @@ public class Main extends Options {
 	int indentSize = 4;
         int outputLineLength = 79;
 	boolean keepGoing = false;
+	int threads = 1;
+	long memoryBudget = 0;
+	boolean releaseClasses = false;
+	long methodTimeLimit = 0;
+	int methodStepLimit = 0;
+	String metricsFile = null;
+	DecompilerCache cache = null;
+	ClassPathIndex index = null;
 
-	GlobalOptions.err.println(GlobalOptions.copyright);
+	GlobalOptions.getErr().println(GlobalOptions.copyright);
 
 	boolean errorInParams = false;
-	Getopt g = new Getopt("net.sf.jode.decompiler.Main", params, "hVvkc:d:D:i:s:l:",
+	Getopt g = new Getopt("net.sf.jode.decompiler.Main", params, "hVvkrt:m:M:C:b:c:d:I:D:i:s:l:",
 			      longOptions, true);
 	for (int opt = g.getopt(); opt != -1; opt = g.getopt()) {
 	    switch(opt) {
@@ -264,7 +357,7 @@ public class Main extends Options {
 		errorInParams = true;
 		break;
 	    case 'V':
-		GlobalOptions.err.println(GlobalOptions.version);
+		GlobalOptions.getErr().println(GlobalOptions.version);
 		break;
 	    case 'c':
 		classPathStr = g.getOptarg();
@@ -272,9 +365,69 @@ public class Main extends Options {
 	    case 'd':
 		destDir = g.getOptarg();
 		break;
+	    case 'I':
+		index = new ClassPathIndex(new File(g.getOptarg()));
+		break;
 	    case 'k':
 		keepGoing = true;
 		break;
+	    case 't': {
+		String arg = g.getOptarg();
+		try {
+		    threads = Integer.parseInt(arg.trim());
+		    if (threads < 0)
+			throw new IllegalArgumentException();
+		    if (threads == 0)
+			threads = Runtime.getRuntime().availableProcessors();
+		} catch (RuntimeException ex) {
+		    GlobalOptions.getErr().println
+			("net.sf.jode.decompiler.Main: Invalid argument for -t option.");
+		    errorInParams = true;
+		}
+		break;
+	    }
+	    case 'r':
+		releaseClasses = true;
+		break;
+	    case 'M':
+		metricsFile = g.getOptarg();
+		break;
+	    case 'C':
+		cache = new DecompilerCache(new File(g.getOptarg()));
+		break;
+	    case 'm': {
+		String arg = g.getOptarg();
+		try {
+		    memoryBudget = Long.parseLong(arg.trim()) * 1024 * 1024;
+		    if (memoryBudget < 0)
+			throw new IllegalArgumentException();
+		} catch (RuntimeException ex) {
+		    GlobalOptions.getErr().println
+			("net.sf.jode.decompiler.Main: Invalid argument for -m option.");
+		    errorInParams = true;
+		}
+		break;
+	    }
+	    case 'b': {
+		String arg = g.getOptarg();
+		int comma = arg.indexOf(',');
+		try {
+		    if (comma >= 0) {
+			methodTimeLimit = Long.parseLong
+			    (arg.substring(0, comma).trim());
+			methodStepLimit = Integer.parseInt
+			    (arg.substring(comma+1).trim());
+		    } else
+			methodTimeLimit = Long.parseLong(arg.trim());
+		    if (methodTimeLimit < 0 || methodStepLimit < 0)
+			throw new IllegalArgumentException();
+		} catch (RuntimeException ex) {
+		    GlobalOptions.getErr().println
+			("net.sf.jode.decompiler.Main: Invalid argument for -b option.");
+		    errorInParams = true;
+		}
+		break;
+	    }
 	    case 'v': {
 		String arg = g.getOptarg();
 		if (arg == null)
@@ -283,7 +436,7 @@ public class Main extends Options {
 		    try {
 			GlobalOptions.verboseLevel = Integer.parseInt(arg);
 		    } catch (NumberFormatException ex) {
-			GlobalOptions.err.println
+			GlobalOptions.getErr().println
 			    ("net.sf.jode.decompiler.Main: Argument `"
 			     +arg+"' to --verbose must be numeric:");
 			errorInParams = true;
@@ -314,7 +467,7 @@ public class Main extends Options {
                     outputStyle = TabbedPrintWriter.BRACE_AT_EOL|TabbedPrintWriter.CODD_FORMATTING;
                     indentSize = 4;
 		} else {
-		    GlobalOptions.err.println
+		    GlobalOptions.getErr().println
 			("net.sf.jode.decompiler.Main: Unknown style `"+arg+"'.");
 		    errorInParams = true;
 		}
@@ -326,7 +479,7 @@ public class Main extends Options {
                     outputLineLength = Integer.parseInt(arg.trim());
                 }
                 catch (RuntimeException rte) {
-                    GlobalOptions.err.println(
+                    GlobalOptions.getErr().println(
                         "net.sf.jode.decompiler.Main: Invalid Linelength " + arg);
                     errorInParams = true;
                 }
@@ -351,7 +504,7 @@ public class Main extends Options {
 		    importClassLimit = clazzLimit;
 			
 		} catch (RuntimeException ex) {
-		    GlobalOptions.err.println
+		    GlobalOptions.getErr().println
 			("net.sf.jode.decompiler.Main: Invalid argument for -i option.");
 		    errorInParams = true;
 		}
@@ -369,74 +522,158 @@ public class Main extends Options {
 	}
 	if (errorInParams)
 	    return;
-	classPath = new ClassPath(classPathStr);
-	ImportHandler imports = new ImportHandler(classPath,
-						  importPackageLimit,
-						  importClassLimit);
-
-	ZipOutputStream destZip = null;
-	TabbedPrintWriter writer = null;
-	if (destDir == null)
-	    writer = new TabbedPrintWriter(System.out, imports, true,
-					   outputStyle, indentSize, 0, outputLineLength);
-	else if (destDir.toLowerCase().endsWith(".zip")
-		 || destDir.toLowerCase().endsWith(".jar")) {
+	MetricsReport report = null;
+	if (metricsFile != null) {
 	    try {
-		destZip = new ZipOutputStream(new FileOutputStream(destDir));
+		report = new MetricsReport
+		    (new BufferedWriter(new FileWriter(metricsFile)),
+		     metricsFile.toLowerCase().endsWith(".json"));
 	    } catch (IOException ex) {
-		GlobalOptions.err.println("Can't open zip file "+destDir);
-		ex.printStackTrace(GlobalOptions.err);
+		GlobalOptions.getErr().println("Can't open metrics file "
+					       + metricsFile);
+		ex.printStackTrace(GlobalOptions.getErr());
 		return;
 	    }
-	    writer = new TabbedPrintWriter(new BufferedOutputStream(destZip), 
-					   imports, false,
-					   outputStyle, indentSize, 0, outputLineLength);
 	}
-        for (int i= g.getOptind(); i< params.length; i++) {
-	    try {
-		if ((params[i].endsWith(".jar") || params[i].endsWith(".zip"))
-		    && new File(params[i]).isFile()) {
-		    /* The user obviously wants to decompile a jar/zip file.
-		     * Lets do him a pleasure and allow this.
-		     */
-		    ClassPath zipClassPath
-			= new ClassPath(params[i], classPath);
-		    Enumeration enumeration = new ZipFile(params[i]).entries();
-		    while (enumeration.hasMoreElements()) {
-			String entry
-			    = ((ZipEntry) enumeration.nextElement()).getName();
-			if (entry.endsWith(".class")) {
-			    entry = entry.substring(0, entry.length() - 6)
-				.replace('/', '.');
-			    if (!decompileClass(entry, zipClassPath, 
-						classPathStr,
-						destZip, destDir, 
-						writer, imports)
-				&& !keepGoing)
-				break;
+	DecompilerContext context = new DecompilerContext();
+	context.setMethodBudget(methodTimeLimit, methodStepLimit);
+	context.setReleaseClasses(releaseClasses);
+	if (report != null)
+	    context.setMetrics(new Metrics(report));
+	DecompilerContext previous = DecompilerContext.setCurrent(context);
+	try {
+	    classPath = new ClassPath(classPathStr, index);
+	    if (memoryBudget > 0)
+		classPath.setMemoryBudget(memoryBudget, ClassInfo.DECLARATIONS);
+	    ImportHandler imports = new ImportHandler(classPath,
+						      importPackageLimit,
+						      importClassLimit);
+
+	    ZipOutputStream destZip = null;
+	    TabbedPrintWriter writer = null;
+	    if (destDir == null)
+		writer = new TabbedPrintWriter(System.out, imports, true,
+					       outputStyle, indentSize, 0, outputLineLength);
+	    else if (destDir.toLowerCase().endsWith(".zip")
+		     || destDir.toLowerCase().endsWith(".jar")) {
+		try {
+		    destZip = new ZipOutputStream(new FileOutputStream(destDir));
+		} catch (IOException ex) {
+		    GlobalOptions.getErr().println("Can't open zip file "+destDir);
+		    ex.printStackTrace(GlobalOptions.getErr());
+		    return;
+		}
+		writer = new TabbedPrintWriter(destZip,
+					       imports, false,
+					       outputStyle, indentSize, 0, outputLineLength);
+	    }
+	    ParallelDecompiler parallel = null;
+	    if (threads > 1 || cache != null) {
+		/* Use the same settings as the serial writers.  With
+		 * one thread the serial loop only uses it for the cache.
+		 */
+		if (destDir != null && destZip == null)
+		    parallel = new ParallelDecompiler
+			(threads, context, classPath,
+			 importPackageLimit, importClassLimit,
+			 TabbedPrintWriter.BRACE_AT_EOL, 4, 8, 79);
+		else
+		    parallel = new ParallelDecompiler
+			(threads, context, classPath,
+			 importPackageLimit, importClassLimit,
+			 outputStyle, indentSize, 0, outputLineLength);
+		parallel.setCache(cache);
+	    }
+	    for (int i= g.getOptind(); i< params.length; i++) {
+		try {
+		    if ((params[i].endsWith(".jar") || params[i].endsWith(".zip"))
+			&& new File(params[i]).isFile()) {
+			/* The user obviously wants to decompile a jar/zip file.
+			 * Lets do him a pleasure and allow this.
+			 */
+			ClassPath zipClassPath
+			    = new ClassPath(params[i], classPath);
+			Enumeration enumeration = new ZipFile(params[i]).entries();
+			Vector classNames = new Vector();
+			while (enumeration.hasMoreElements()) {
+			    String entry
+				= ((ZipEntry) enumeration.nextElement()).getName();
+			    if (entry.endsWith(".class")) {
+				entry = entry.substring(0, entry.length() - 6)
+				    .replace('/', '.');
+				if (threads > 1) {
+				    classNames.addElement(entry);
+				    continue;
+				}
+				if (!decompileClass(entry, zipClassPath,
+						    classPathStr, destZip,
+						    destDir, writer, imports,
+						    parallel)
+				    && !keepGoing)
+				    break;
+			    }
+			}
+			if (threads > 1) {
+			    if (destZip != null)
+				writer.flush();
+			    parallel.decompile(classNames, zipClassPath,
+					       classPathStr, destZip, destDir,
+					       destDir == null ? System.out : null,
+					       keepGoing);
 			}
+		    } else if (threads > 1) {
+			Vector classNames = new Vector();
+			classNames.addElement(params[i]);
+			if (destZip != null)
+			    writer.flush();
+			if (!parallel.decompile(classNames, classPath,
+						classPathStr, destZip, destDir,
+						destDir == null
+						? System.out : null,
+						keepGoing)
+			    && !keepGoing)
+			    break;
+		    } else {
+			if (!decompileClass(params[i], classPath,
+					    classPathStr, destZip, destDir,
+					    writer, imports, parallel)
+			    && !keepGoing)
+			    break;
 		    }
-		} else {
-		    if (!decompileClass(params[i], classPath, 
-					classPathStr,
-					destZip, destDir, 
-					writer, imports)
-			&& !keepGoing)
-			break;
+		} catch (IOException ex) {
+		    GlobalOptions.getErr().println
+			("Can't read zip file " + params[i] + ".");
+		    ex.printStackTrace(GlobalOptions.getErr());
 		}
-	    } catch (IOException ex) {
-		GlobalOptions.err.println
-		    ("Can't read zip file " + params[i] + ".");
-		ex.printStackTrace(GlobalOptions.err);
 	    }
-	}
-	if (destZip != null) {
-	    try {
-		destZip.close();
-	    } catch (IOException ex) {
-		GlobalOptions.err.println("Can't close Zipfile");
-		ex.printStackTrace(GlobalOptions.err);
+	    if (destZip != null) {
+		try {
+		    destZip.close();
+		} catch (IOException ex) {
+		    GlobalOptions.getErr().println("Can't close Zipfile");
+		    ex.printStackTrace(GlobalOptions.getErr());
+		}
+	    }
+	    if (index != null) {
+		try {
+		    index.save();
+		} catch (IOException ex) {
+		    GlobalOptions.getErr().println
+			("Can't write index file " + index + ".");
+		    ex.printStackTrace(GlobalOptions.getErr());
+		}
+	    }
+	    if (report != null) {
+		try {
+		    report.close();
+		} catch (IOException ex) {
+		    GlobalOptions.getErr().println
+			("Can't write metrics file " + metricsFile + ".");
+		    ex.printStackTrace(GlobalOptions.getErr());
+		}
 	    }
+	} finally {
+	    DecompilerContext.setCurrent(previous);
 	}
     }
 }
@@ -18,7 +18,6 @@
  */
 
 package net.sf.jode.decompiler;
-import net.sf.jode.GlobalOptions;
 import net.sf.jode.bytecode.BasicBlocks;
 import net.sf.jode.bytecode.Block;
 import net.sf.jode.bytecode.ClassInfo;
@@ -35,6 +34,7 @@ import net.sf.jode.expr.LocalLoadOperator;
 import net.sf.jode.expr.OuterLocalOperator;
 import net.sf.jode.expr.InvokeOperator;
 import net.sf.jode.flow.StructuredBlock;
+import net.sf.jode.flow.DescriptionBlock;
 import net.sf.jode.flow.FlowBlock;
 import net.sf.jode.flow.TransformExceptionHandlers;
 import net.sf.jode.jvm.CodeVerifier;
@@ -42,6 +42,8 @@ import net.sf.jode.jvm.VerifyException;
 
 import java.lang.reflect.Modifier;
 import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
 
 import java.util.Collection;
 import java.util.ArrayList;
@@ -85,6 +87,11 @@ public class MethodAnalyzer implements Scope, ClassDeclarer {
      * The class analyzer of the class that contains this method.
      */
     ClassAnalyzer classAnalyzer;
+    /**
+     * The context of the decompilation, the same as that of the
+     * class analyzer.
+     */
+    DecompilerContext context;
     /**
      * The method info structure for this method.
      */
@@ -186,6 +193,7 @@ public class MethodAnalyzer implements Scope, ClassDeclarer {
     public MethodAnalyzer(ClassAnalyzer cla, MethodInfo minfo,
                           ImportHandler imports) {
         this.classAnalyzer = cla;
+	this.context = cla.getContext();
         this.imports = imports;
 	this.minfo = minfo;
         this.methodName = minfo.getName();
@@ -376,6 +384,10 @@ public class MethodAnalyzer implements Scope, ClassDeclarer {
 	return classAnalyzer;
     }
 
+    public DecompilerContext getContext() {
+	return context;
+    }
+
     /**
      * Get the class info for the class containing this method.
      */
@@ -411,7 +423,7 @@ public class MethodAnalyzer implements Scope, ClassDeclarer {
      */
     public LocalInfo getLocalInfo(LocalVariableInfo lvi) {
         LocalInfo li = new LocalInfo(this, lvi.getSlot());
-	if ((Options.options & Options.OPTION_LVT) != 0
+	if (context.isOption(Options.OPTION_LVT)
 	    && lvi.getName() != null)
 	    li.addHint(lvi.getName(), Type.tType(classAnalyzer.getClassPath(),
 						 lvi.getType()));
@@ -435,6 +447,14 @@ public class MethodAnalyzer implements Scope, ClassDeclarer {
 	}
     }
 
+    /**
+     * Ends a phase of the metrics.
+     */
+    private void endPhase(Metrics metrics, int phase) {
+	metrics.end(phase, getClazz().getName(),
+		    methodName + minfo.getType());
+    }
+
     /**
      * Analyzes the code of this method.  This creates the
      * flow blocks (including methodHeader) and analyzes them.  
@@ -443,12 +463,15 @@ public class MethodAnalyzer implements Scope, ClassDeclarer {
     {
 	int instrsPerStep = Integer.MAX_VALUE;
 	double instrScale = (scale * 0.9) / getComplexity();
-	if (GlobalOptions.verboseLevel > 0)
-	    GlobalOptions.err.print(methodName+": ");
+	if (context.getVerboseLevel() > 0)
+	    context.getErr().print(methodName+": ");
 
 	if (pl != null)
 	    instrsPerStep = (int) (STEP_COMPLEXITY / instrScale);
 
+	Metrics metrics = context.getMetrics();
+	if (metrics != null)
+	    metrics.begin();
 	Block[] blocks = bb.getBlocks();
 	FlowBlock[] flows = new FlowBlock[blocks.length];
         TransformExceptionHandlers excHandlers; 
@@ -463,8 +486,8 @@ public class MethodAnalyzer implements Scope, ClassDeclarer {
 		int mark = 100;
 		Instruction[] instrs = blocks[i].getInstructions();
 		for (int j=0; j < instrs.length; j++) {
-		    if (GlobalOptions.verboseLevel > 0 && j > mark) {
-			GlobalOptions.err.print('.');
+		    if (context.getVerboseLevel() > 0 && j > mark) {
+			context.getErr().print('.');
 			mark += 100;
 		    }
 		    if (++count >= instrsPerStep) {
@@ -474,6 +497,8 @@ public class MethodAnalyzer implements Scope, ClassDeclarer {
 		    }
 		    Opcodes.addOpcode(flows[i], instrs[j], this);
 		}
+		if (metrics != null)
+		    metrics.addCount(instrs.length);
 		Block[] succs = blocks[i].getSuccs();
 		FlowBlock[] flowSuccs;
 		int lastOpcode = instrs.length > 0
@@ -500,6 +525,10 @@ public class MethodAnalyzer implements Scope, ClassDeclarer {
 	    else
 		methodHeader = flows[startBlock.getBlockNr()];
 	    methodHeader.addStartPred();
+	    if (metrics != null) {
+		endPhase(metrics, Metrics.CREATE_FLOW);
+		metrics.begin();
+	    }
 
 	    Handler[] handlers = bb.getExceptionHandlers();
 	    excHandlers = new TransformExceptionHandlers(flows);
@@ -516,25 +545,37 @@ public class MethodAnalyzer implements Scope, ClassDeclarer {
                 	flows[j].addExceptionHandler(type, handler);
                 }
             }
+	    if (metrics != null) {
+		metrics.addCount(handlers.length);
+		endPhase(metrics, Metrics.HANDLERS);
+	    }
         }
 
-        if (GlobalOptions.verboseLevel > 0)
-            GlobalOptions.err.print('-');
+        if (context.getVerboseLevel() > 0)
+            context.getErr().print('-');
             
         //excHandlers.analyze();
+	if (metrics != null)
+	    metrics.begin();
         methodHeader.analyze();
 	methodHeader.removeStartPred();
+	if (metrics != null) {
+	    endPhase(metrics, Metrics.ANALYZE_FLOW);
+	    metrics.begin();
+	}
 
-	if ((Options.options & Options.OPTION_PUSH) == 0
+	if (!context.isOption(Options.OPTION_PUSH)
 	    && methodHeader.mapStackToLocal())
 	    methodHeader.removePush();
-	if ((Options.options & Options.OPTION_ONETIME) != 0)
+	if (context.isOption(Options.OPTION_ONETIME))
 	    methodHeader.removeOnetimeLocals();
 
 	methodHeader.mergeParams(param);
+	if (metrics != null)
+	    endPhase(metrics, Metrics.LOCALS);
 
-	if (GlobalOptions.verboseLevel > 0)
-	    GlobalOptions.err.println("");
+	if (context.getVerboseLevel() > 0)
+	    context.getErr().println("");
 	if (pl != null) {
 	    done += 0.1 * scale;
 	    pl.updateProgress(done, methodName);
@@ -551,15 +592,20 @@ public class MethodAnalyzer implements Scope, ClassDeclarer {
 	if (pl != null)
 	    pl.updateProgress(done, methodName);
 	if (bb != null) {
-	    if ((Options.options & Options.OPTION_VERIFY) != 0) {
+	    if (context.isOption(Options.OPTION_VERIFY)) {
+		Metrics metrics = context.getMetrics();
+		if (metrics != null)
+		    metrics.begin();
 		CodeVerifier verifier
 		    = new CodeVerifier(getClazz(), minfo, bb);
 		try {
 		    verifier.verify();
 		} catch (VerifyException ex) {
-		    ex.printStackTrace(GlobalOptions.err);
+		    ex.printStackTrace(context.getErr());
 		    throw new InternalError("Verification error");
 		}
+		if (metrics != null)
+		    endPhase(metrics, Metrics.VERIFY);
 	    }
 	}
 
@@ -594,8 +640,64 @@ public class MethodAnalyzer implements Scope, ClassDeclarer {
         if (!isConstructor)
             imports.useType(methodType.getReturnType());
 
-	if (bb != null)
-	    analyzeCode(pl, done, scale);
+	if (bb != null) {
+	    Metrics metrics = context.getMetrics();
+	    int depth = metrics != null ? metrics.getDepth() : 0;
+	    String exceeded = null;
+	    context.startMethodBudget();
+	    try {
+		analyzeCode(pl, done, scale);
+	    } catch (MethodBudgetException ex) {
+		exceeded = ex.getMessage();
+	    } finally {
+		context.stopMethodBudget();
+	    }
+	    if (exceeded != null) {
+		if (metrics != null)
+		    metrics.abort(depth);
+		giveUp(exceeded);
+	    }
+	}
+    }
+
+    /**
+     * Replaces the partly analyzed code of this method by a comment
+     * containing the byte code.  This is called if the analysis
+     * exceeded its budget.
+     * @param reason the budget that was exceeded.
+     */
+    private void giveUp(String reason) {
+	context.methodGivenUp();
+	context.getErr().println("Warning: Analysis of "+getClazz().getName()
+				 +"."+methodName+minfo.getType()
+				 +" exceeded the "+reason+".");
+	/* Forget the locals and method scoped classes found so far.  */
+	allLocals.removeAllElements();
+	for (int i = 0; i < param.length; i++)
+	    allLocals.addElement(param[i]);
+	anonConstructors.removeAllElements();
+
+	StringWriter code = new StringWriter();
+	bb.dumpCode(new PrintWriter(code));
+	String[] lines = code.toString().split("\\r?\\n");
+
+	methodHeader = new FlowBlock(this, 0, null);
+	methodHeader.appendBlock(new DescriptionBlock
+				 ("/* Not decompiled, the analysis exceeded the "
+				  +reason+"."));
+	methodHeader.appendBlock(new DescriptionBlock(" * Byte code:"));
+	for (int i = 0; i < lines.length; i++) {
+	    String line = lines[i];
+	    if (line.startsWith("\t"))
+		line = "        " + line.substring(1);
+	    /* Don't let string constants end the comment. */
+	    int index;
+	    while ((index = line.indexOf("*/")) >= 0)
+		line = line.substring(0, index+1) + "\\/"
+		    + line.substring(index+2);
+	    methodHeader.appendBlock(new DescriptionBlock(" * "+line));
+	}
+	methodHeader.appendBlock(new DescriptionBlock(" */"));
     }
 
     /**
@@ -659,8 +761,13 @@ public class MethodAnalyzer implements Scope, ClassDeclarer {
 	}
 	
 	if (bb != null) {
+	    Metrics metrics = context.getMetrics();
+	    if (metrics != null)
+		metrics.begin();
 	    methodHeader.makeDeclaration(done);
 	    methodHeader.simplify();
+	    if (metrics != null)
+		endPhase(metrics, Metrics.DECLARATIONS);
 	}
 	for (int i=0; i < param.length; i++) {
 	    done.remove(param[i]);
@@ -684,8 +791,8 @@ public class MethodAnalyzer implements Scope, ClassDeclarer {
 		return true;
 	    if (synth.getKind() >= SyntheticAnalyzer.ACCESSGETFIELD
 		&& synth.getKind() <= SyntheticAnalyzer.ACCESSDUPPUTSTATIC
-		&& (Options.options & Options.OPTION_INNER) != 0
-		&& (Options.options & Options.OPTION_ANON) != 0)
+		&& context.isOption(Options.OPTION_INNER)
+		&& context.isOption(Options.OPTION_ANON))
 		return true;
 	}
 
@@ -762,7 +869,7 @@ public class MethodAnalyzer implements Scope, ClassDeclarer {
 	int modifiedModifiers = minfo.getModifiers();
 
 	if (isConstructor() && !isStatic()
-	    && (Options.options & Options.OPTION_CONTRAFO) != 0) {
+	    && context.isOption(Options.OPTION_CONTRAFO)) {
 	    if (classAnalyzer.outerValues != null)
 		skipParams = classAnalyzer.outerValues.getCount();
 	    else if (classAnalyzer.getOuterInstance() != null)
@@ -1024,7 +1131,7 @@ public class MethodAnalyzer implements Scope, ClassDeclarer {
 		anonAnalyzer = new ClassAnalyzer(this, clazz, imports,
 						 outerValueArray);
 	    } catch (IOException ex) {
-		GlobalOptions.err.println
+		context.getErr().println
 		    ("Error while reading anonymous class "+clazz+".");
 		return;
 	    }
@@ -1129,6 +1236,26 @@ public class MethodAnalyzer implements Scope, ClassDeclarer {
 	return false;
     }
 
+    /**
+     * Releases the flow graph, the local variables and the analyzers
+     * of the method scoped classes, after the source was written.
+     * The method can't be dumped again afterwards.
+     */
+    public void release() {
+	if (innerAnalyzers != null) {
+	    Enumeration enumeration = innerAnalyzers.elements();
+	    while (enumeration.hasMoreElements())
+		((ClassAnalyzer) enumeration.nextElement()).release();
+	}
+	innerAnalyzers = null;
+	usedAnalyzers = null;
+	anonConstructors = null;
+	methodHeader = null;
+	allLocals = null;
+	param = null;
+	bb = null;
+    }
+
     public String toString() {
 	return getClass().getName()+"["+getClazz()+"."+getName()+"]";
     }
@@ -0,0 +1,33 @@
+/* MethodBudgetException Copyright (C) 2026 agent.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; see the file COPYING.LESSER.  If not, write to
+ * the Free Software Foundation, 675 Mass Ave, Cambridge, MA 02139, USA.
+ *
+ * $Id$
+ */
+
+package net.sf.jode.decompiler;
+
+/**
+ * Thrown when the analysis of a method exceeds the time or step
+ * budget of its {@link DecompilerContext}.  The method analyzer
+ * catches it and writes the byte code of the method instead.
+ *
+ * @author agent
+ */
+public class MethodBudgetException extends RuntimeException {
+    public MethodBudgetException(String detail) {
+	super(detail);
+    }
+}
@@ -0,0 +1,221 @@
+/* Metrics Copyright (C) 2026 agent.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; see the file COPYING.LESSER.  If not, write to
+ * the Free Software Foundation, 675 Mass Ave, Cambridge, MA 02139, USA.
+ *
+ * $Id$
+ */
+
+package net.sf.jode.decompiler;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+
+/**
+ * Measures the phases of a decompilation and reports them to a
+ * {@link MetricsListener}.  The metrics of a decompilation are found
+ * in its {@link DecompilerContext}; if there are none, nothing is
+ * measured. <br>
+ *
+ * The analyzers call {@link #begin} when a phase starts and {@link
+ * #end} when it is done.  Phases may nest.  Besides the time and the
+ * allocated memory every phase counts its steps:
+ * <dl>
+ * <dt>createFlow</dt><dd>the instructions of the method.</dd>
+ * <dt>handlers</dt><dd>the exception handlers of the method.</dd>
+ * <dt>analyzeFlow</dt><dd>the T1 and T2 transformations that merged
+ * flow blocks.</dd>
+ * <dt>class</dt><dd>the methods of the class.</dd>
+ * </dl>
+ * The other phases count nothing. <br>
+ *
+ * Like the context, an instance must not be used by more than one
+ * thread at a time.
+ *
+ * @author agent
+ */
+public class Metrics {
+    /** Running the byte code verifier, if the verify option is set. */
+    public static final int VERIFY         = 0;
+    /** Creating the flow blocks from the instructions. */
+    public static final int CREATE_FLOW    = 1;
+    /** Adding the exception handlers to the flow blocks. */
+    public static final int HANDLERS       = 2;
+    /** Merging the flow blocks to structured blocks. */
+    public static final int ANALYZE_FLOW   = 3;
+    /** Mapping the stack to locals and merging the parameters. */
+    public static final int LOCALS         = 4;
+    /** Transforming the constructors and field initializers. */
+    public static final int CONSTRUCTORS   = 5;
+    /** Finding the declarations of the local variables. */
+    public static final int DECLARATIONS   = 6;
+    /** Writing the source code of the class. */
+    public static final int OUTPUT         = 7;
+    /** Decompiling a top level class, including all other phases. */
+    public static final int CLASS          = 8;
+
+    private static final String[] phaseNames = {
+	"verify", "createFlow", "handlers", "analyzeFlow", "locals",
+	"constructors", "declarations", "output", "class"
+    };
+
+    private static Object threadBean;
+    private static Method allocatedBytesMethod;
+
+    static {
+	/* The allocated bytes are only available on some virtual
+	 * machines, so we have to use reflection.
+	 */
+	try {
+	    Class beanClass
+		= Class.forName("com.sun.management.ThreadMXBean");
+	    Object bean = ManagementFactory.getThreadMXBean();
+	    if (beanClass.isInstance(bean)) {
+		Method supported = beanClass.getMethod
+		    ("isThreadAllocatedMemorySupported", new Class[0]);
+		Method enabled = beanClass.getMethod
+		    ("isThreadAllocatedMemoryEnabled", new Class[0]);
+		if (((Boolean) supported.invoke(bean, new Object[0]))
+		    .booleanValue()
+		    && ((Boolean) enabled.invoke(bean, new Object[0]))
+		    .booleanValue()) {
+		    allocatedBytesMethod = beanClass.getMethod
+			("getThreadAllocatedBytes", new Class[] { Long.TYPE });
+		    threadBean = bean;
+		}
+	    }
+	} catch (Exception ex) {
+	    /* Not supported. */
+	} catch (LinkageError ex) {
+	    /* Not supported. */
+	}
+    }
+
+    private MetricsListener listener;
+    private long[] startTimes = new long[8];
+    private long[] startBytes = new long[8];
+    private int[] counts = new int[8];
+    private int depth = 0;
+
+    /**
+     * Creates new metrics.
+     * @param listener the listener that gets the measured values.
+     */
+    public Metrics(MetricsListener listener) {
+	this.listener = listener;
+    }
+
+    public MetricsListener getListener() {
+	return listener;
+    }
+
+    /**
+     * Returns the name of a phase, as used in reports.
+     * @param phase one of the phase constants.
+     */
+    public static String getPhaseName(int phase) {
+	return phaseNames[phase];
+    }
+
+    private static long getAllocatedBytes() {
+	if (allocatedBytesMethod == null)
+	    return -1;
+	try {
+	    return ((Long) allocatedBytesMethod.invoke
+		    (threadBean, new Object[] {
+			new Long(Thread.currentThread().getId()) }))
+		.longValue();
+	} catch (Exception ex) {
+	    return -1;
+	}
+    }
+
+    /**
+     * Forgets the phases that were begun but not ended.  This is
+     * called before a top level class is decompiled, since an
+     * exception may have aborted the previous one.
+     */
+    public void reset() {
+	depth = 0;
+    }
+
+    /**
+     * Returns the number of phases that were begun but not ended.
+     */
+    public int getDepth() {
+	return depth;
+    }
+
+    /**
+     * Forgets the phases that were begun after the given depth was
+     * returned by {@link #getDepth}, without reporting them.  This is
+     * used when the analysis of a method is given up.
+     */
+    public void abort(int depth) {
+	if (depth < this.depth)
+	    this.depth = depth;
+    }
+
+    /**
+     * Starts measuring a phase.  Every call must be followed by a
+     * call to {@link #end}.
+     */
+    public void begin() {
+	if (depth == startTimes.length) {
+	    long[] newTimes = new long[depth * 2];
+	    long[] newBytes = new long[depth * 2];
+	    int[] newCounts = new int[depth * 2];
+	    System.arraycopy(startTimes, 0, newTimes, 0, depth);
+	    System.arraycopy(startBytes, 0, newBytes, 0, depth);
+	    System.arraycopy(counts, 0, newCounts, 0, depth);
+	    startTimes = newTimes;
+	    startBytes = newBytes;
+	    counts = newCounts;
+	}
+	counts[depth] = 0;
+	startBytes[depth] = getAllocatedBytes();
+	startTimes[depth] = System.nanoTime();
+	depth++;
+    }
+
+    /**
+     * Adds steps to the innermost phase.
+     * @param steps the number of steps.
+     */
+    public void addCount(int steps) {
+	if (depth > 0)
+	    counts[depth - 1] += steps;
+    }
+
+    /**
+     * Ends the innermost phase and reports it to the listener.
+     * @param phase the phase, one of the phase constants.
+     * @param className the full qualified name of the class.
+     * @param methodName the name and type signature of the method,
+     * or null if the phase belongs to the whole class.
+     */
+    public void end(int phase, String className, String methodName) {
+	long time = System.nanoTime();
+	if (depth == 0)
+	    return;
+	depth--;
+	long bytes = -1;
+	if (startBytes[depth] >= 0) {
+	    bytes = getAllocatedBytes();
+	    if (bytes >= 0)
+		bytes -= startBytes[depth];
+	}
+	listener.phaseFinished(className, methodName, phase,
+			       time - startTimes[depth], bytes, counts[depth]);
+    }
+}
@@ -0,0 +1,51 @@
+/* MetricsListener Copyright (C) 2026 agent.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; see the file COPYING.LESSER.  If not, write to
+ * the Free Software Foundation, 675 Mass Ave, Cambridge, MA 02139, USA.
+ *
+ * $Id$
+ */
+
+package net.sf.jode.decompiler;
+
+/**
+ * This interface is told how much time and memory the phases of the
+ * decompilation took.  You register it with {@link
+ * Decompiler#setMetricsListener}, or with {@link
+ * DecompilerContext#setMetrics}.  It is called by the decompiling
+ * threads, so it must be thread safe if several threads decompile at
+ * the same time.
+ *
+ * @author agent
+ * @see Metrics
+ */
+public interface MetricsListener {
+    /**
+     * Gets called when a phase of the decompilation is finished.
+     * The values of a phase include the values of the phases that ran
+     * inside it, e.g. the phases of an anonymous class that was
+     * analyzed while its outer method was.
+     * @param className the full qualified name of the class.
+     * @param methodName the name and type signature of the method, or
+     * null for phases of the whole class.
+     * @param phase one of the phase constants in {@link Metrics}.
+     * @param nanos the wall time of the phase in nano seconds.
+     * @param allocatedBytes the bytes allocated by the decompiling
+     * thread, or -1 if the virtual machine can't tell.
+     * @param count the number of steps of the phase, see {@link Metrics}.
+     */
+    public void phaseFinished(String className, String methodName,
+			      int phase, long nanos, long allocatedBytes,
+			      int count);
+}
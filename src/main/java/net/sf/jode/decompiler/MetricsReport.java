@@ -0,0 +1,124 @@
+/* MetricsReport Copyright (C) 2026 agent.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; see the file COPYING.LESSER.  If not, write to
+ * the Free Software Foundation, 675 Mass Ave, Cambridge, MA 02139, USA.
+ *
+ * $Id$
+ */
+
+package net.sf.jode.decompiler;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+
+/**
+ * A metrics listener that writes every finished phase as a row of a
+ * CSV file or as an object of a JSON array.  The columns are the
+ * class, the method, the phase, the wall time in nano seconds, the
+ * allocated bytes and the step count, see {@link MetricsListener}.
+ * Sort the report by time to find the methods that took longest.
+ *
+ * @author agent
+ */
+public class MetricsReport implements MetricsListener {
+    private PrintWriter output;
+    private boolean json;
+    private boolean first = true;
+
+    /**
+     * Creates a new report.
+     * @param writer the writer for the report.
+     * @param json true for JSON, false for CSV.
+     */
+    public MetricsReport(Writer writer, boolean json) {
+	this.output = new PrintWriter(writer);
+	this.json = json;
+	if (json)
+	    output.println("[");
+	else
+	    output.println("class,method,phase,nanos,bytes,count");
+    }
+
+    private static String quoteJSON(String str) {
+	if (str == null)
+	    return "null";
+	StringBuffer result = new StringBuffer(str.length() + 2);
+	result.append('"');
+	for (int i = 0; i < str.length(); i++) {
+	    char c = str.charAt(i);
+	    if (c == '"' || c == '\\')
+		result.append('\\').append(c);
+	    else if (c < 0x20) {
+		String hex = Integer.toHexString(c);
+		result.append("\\u00").append(hex.length() < 2 ? "0" : "")
+		    .append(hex);
+	    } else
+		result.append(c);
+	}
+	return result.append('"').toString();
+    }
+
+    private static String quoteCSV(String str) {
+	if (str == null)
+	    return "";
+	if (str.indexOf(',') < 0 && str.indexOf('"') < 0)
+	    return str;
+	StringBuffer result = new StringBuffer(str.length() + 2);
+	result.append('"');
+	for (int i = 0; i < str.length(); i++) {
+	    char c = str.charAt(i);
+	    if (c == '"')
+		result.append('"');
+	    result.append(c);
+	}
+	return result.append('"').toString();
+    }
+
+    public synchronized void phaseFinished(String className,
+					   String methodName, int phase,
+					   long nanos, long allocatedBytes,
+					   int count) {
+	String phaseName = Metrics.getPhaseName(phase);
+	if (json) {
+	    if (!first)
+		output.println(",");
+	    output.print("{\"class\":" + quoteJSON(className)
+			 + ",\"method\":" + quoteJSON(methodName)
+			 + ",\"phase\":\"" + phaseName
+			 + "\",\"nanos\":" + nanos
+			 + ",\"bytes\":" + allocatedBytes
+			 + ",\"count\":" + count + "}");
+	} else {
+	    output.println(quoteCSV(className) + "," + quoteCSV(methodName)
+			   + "," + phaseName + "," + nanos
+			   + "," + allocatedBytes + "," + count);
+	}
+	first = false;
+    }
+
+    /**
+     * Finishes and closes the report.
+     * @exception IOException if the report couldn't be written.
+     */
+    public synchronized void close() throws IOException {
+	if (json) {
+	    if (!first)
+		output.println();
+	    output.println("]");
+	}
+	output.close();
+	if (output.checkError())
+	    throw new IOException("Can't write metrics report");
+    }
+}
@@ -32,17 +32,32 @@ public class Options {
     public static final int OPTION_IMMEDIATE = 0x0080;
     public static final int OPTION_VERIFY    = 0x0100;
     public static final int OPTION_CONTRAFO  = 0x0200;
+    public static final int OPTION_DOMINATORS = 0x0400;
 
+    /**
+     * The default options.  They are used when no {@link
+     * DecompilerContext} is bound to the current thread.  Code
+     * should read them with getOptions().
+     */
     public static int options = 
 	OPTION_LVT | OPTION_INNER | OPTION_ANON | OPTION_PRETTY |
 	OPTION_DECRYPT | OPTION_VERIFY | OPTION_CONTRAFO | OPTION_PUSH;
 
+    /**
+     * Returns the options of the context bound to the current
+     * thread, or the default options if there is none.
+     */
+    public static int getOptions() {
+	DecompilerContext context = DecompilerContext.getBound();
+	return context != null ? context.getOptions() : options;
+    }
+
     public final static boolean doAnonymous() {
-	return (options & OPTION_ANON) != 0;
+	return (getOptions() & OPTION_ANON) != 0;
     }
 
     public final static boolean doInner() {
-	return (options & OPTION_INNER) != 0;
+	return (getOptions() & OPTION_INNER) != 0;
     }
 
     public static boolean skipClass(ClassInfo clazz) {
@@ -110,9 +110,8 @@ public class OuterValues
 	this.head = head;
 	this.headMinCount = 0;
 	this.headCount = head.length;
-	if ((GlobalOptions.debuggingFlags
-	     & GlobalOptions.DEBUG_CONSTRS) != 0)
-	    GlobalOptions.err.println("Created OuterValues: "+this);
+	if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_CONSTRS))
+	    GlobalOptions.getErr().println("Created OuterValues: "+this);
     }
 
     public Expression getValue(int i) {
@@ -174,9 +173,8 @@ public class OuterValues
 	    return null;
 
 	int ovNr = ov.getNumberBySlot(li.getSlot());
-	if ((GlobalOptions.debuggingFlags
-	     & GlobalOptions.DEBUG_CONSTRS) != 0)
-	    GlobalOptions.err.println("  ovNr "+ovNr+","+ov);
+	if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_CONSTRS))
+	    GlobalOptions.getErr().println("  ovNr "+ovNr+","+ov);
 	if (ovNr < 0 && ov.getCount() >= 1 && ov.isJikesAnonymousInner()) {
 	    /* Second chance if this is a jikesAnonInner class:
 	     * last parameter is this parameter. XXX
@@ -207,9 +205,8 @@ public class OuterValues
 
     public boolean unifyOuterValues(int nr,
 				    Expression otherExpr) {
-	if ((GlobalOptions.debuggingFlags
-	     & GlobalOptions.DEBUG_CONSTRS) != 0)
-	    GlobalOptions.err.println("unifyOuterValues: "+this+","
+	if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_CONSTRS))
+	    GlobalOptions.getErr().println("unifyOuterValues: "+this+","
 				      +nr+","+otherExpr);
 	/** require nr < getCount() **/
 	Expression expr1 = otherExpr;
@@ -243,9 +240,8 @@ public class OuterValues
 	while (li1 != null
 	       && !li1.getMethodAnalyzer().isMoreOuterThan(clazzAnalyzer)) {
 	    expr1 = liftOuterValue(li1, nr);
-	    if ((GlobalOptions.debuggingFlags
-		 & GlobalOptions.DEBUG_CONSTRS) != 0)
-		GlobalOptions.err.println("  lift1 "+li1
+	    if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_CONSTRS))
+		GlobalOptions.getErr().println("  lift1 "+li1
 					  +" in "+li1.getMethodAnalyzer()
 					  +"  to "+expr1);
 
@@ -268,9 +264,8 @@ public class OuterValues
 		    break;
 
 		expr2 = liftOuterValue(li2, nr);
-		if ((GlobalOptions.debuggingFlags
-		     & GlobalOptions.DEBUG_CONSTRS) != 0)
-		    GlobalOptions.err.println("  lift2 "+li2
+		if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_CONSTRS))
+		    GlobalOptions.getErr().println("  lift2 "+li2
 					      +" in "+li2.getMethodAnalyzer()
 					      +"  to "+expr2);
 
@@ -278,9 +273,8 @@ public class OuterValues
 		return false;
 	}
 
-	if ((GlobalOptions.debuggingFlags
-	     & GlobalOptions.DEBUG_CONSTRS) != 0)
-	    GlobalOptions.err.println("unifyOuterValues succeeded.");
+	if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_CONSTRS))
+	    GlobalOptions.getErr().println("unifyOuterValues succeeded.");
 	return true;
     }
 
@@ -325,10 +319,10 @@ public class OuterValues
 
     public void setMinCount(int newMin) {
 	if (headCount < newMin) {
-	    GlobalOptions.err.println
+	    GlobalOptions.getErr().println
 		("WARNING: something got wrong with scoped class "
 		 +clazzAnalyzer.getClazz()+": " +newMin+","+headCount);
-	    new Throwable().printStackTrace(GlobalOptions.err);
+	    new Throwable().printStackTrace(GlobalOptions.getErr());
 	    headMinCount = headCount;
 	} else if (newMin > headMinCount)
 	    headMinCount = newMin;
@@ -338,19 +332,18 @@ public class OuterValues
 	if (newHeadCount >= headCount)
 	    return;
 
-	if ((GlobalOptions.debuggingFlags
-	     & GlobalOptions.DEBUG_CONSTRS) != 0) {
-	    GlobalOptions.err.println("setCount: "+this+","+newHeadCount);
-	    new Throwable().printStackTrace(GlobalOptions.err);
+	if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_CONSTRS)) {
+	    GlobalOptions.getErr().println("setCount: "+this+","+newHeadCount);
+	    new Throwable().printStackTrace(GlobalOptions.getErr());
 	}
 	    
 	headCount = newHeadCount;
 	if (newHeadCount < headMinCount) {
-	    GlobalOptions.err.println
+	    GlobalOptions.getErr().println
 		("WARNING: something got wrong with scoped class "
 		 +clazzAnalyzer.getClazz()+": "
 		 +headMinCount+","+headCount);
-	    new Throwable().printStackTrace(GlobalOptions.err);
+	    new Throwable().printStackTrace(GlobalOptions.getErr());
 	    headMinCount = newHeadCount;
 	}
 
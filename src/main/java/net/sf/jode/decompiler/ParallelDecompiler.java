@@ -0,0 +1,413 @@
+/* ParallelDecompiler Copyright (C) 2026 agent.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; see the file COPYING.LESSER.  If not, write to
+ * the Free Software Foundation, 675 Mass Ave, Cambridge, MA 02139, USA.
+ *
+ * $Id$
+ */
+
+package net.sf.jode.decompiler;
+import net.sf.jode.GlobalOptions;
+import net.sf.jode.bytecode.ClassPath;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Vector;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Decompiles a list of top level classes on several threads.  <br>
+ *
+ * The worker threads take the next undone class from the shared list
+ * whenever they are idle, so a thread that got a few big classes
+ * doesn't hold up the others.  Every worker renders the source into
+ * its own buffer with its own ImportHandler.  The calling thread is
+ * the only one that writes to the destination and it writes the
+ * classes in the order they were given, so the result is the same as
+ * that of the serial loop in {@link Main}.  Like the serial loop it
+ * writes an empty file for a class that failed, but it never writes
+ * the part of its source that was rendered before the error. <br>
+ *
+ * There is one exception: if the class path is incomplete, the
+ * missing classes are guessed from their uses and the guesses are
+ * shared by all workers.  Which class makes the first guess depends
+ * on the timing of the threads, so the source of classes that use
+ * missing classes may differ from run to run and from the serial
+ * result, e.g. it may contain a "RUNTIME ERROR IN EXPRESSION". <br>
+ *
+ * To bound the memory, workers won't start a class that is more
+ * than a few classes ahead of the writer. <br>
+ *
+ * If a {@link DecompilerCache} is set, the workers take the source
+ * of unchanged classes from the cache.  For this the serial loop
+ * uses a parallel decompiler, too, and lets it decompile every class
+ * in the calling thread with {@link #decompileClass}.
+ *
+ * @author agent
+ */
+class ParallelDecompiler {
+    /**
+     * How many classes per thread may be decompiled ahead of the
+     * writer.
+     */
+    private static final int CLASSES_AHEAD = 4;
+
+    private int threads;
+    private DecompilerContext context;
+    private ClassPath importClassPath;
+    private int importPackageLimit;
+    private int importClassLimit;
+    private int outputStyle;
+    private int indentSize;
+    private int tabWidth;
+    private int lineWidth;
+    private DecompilerCache cache;
+    private String cacheSettings;
+
+    private String classPathStr;
+    private ClassPath classPath;
+    private Job[] jobs;
+    private int nextJob;
+    private int nextWrite;
+    private boolean aborted;
+
+    /**
+     * A single class to decompile.  The fields are guarded by the
+     * lock of the enclosing ParallelDecompiler.
+     */
+    private static class Job {
+	String className;
+	boolean done;
+	boolean skipped;
+	boolean success;
+	/**
+	 * True if the class name is valid.  The serial loop creates a
+	 * file for such a class even if decompiling it fails.
+	 */
+	boolean validName = true;
+	/**
+	 * The source of the class, null if it failed.
+	 */
+	byte[] output;
+
+	Job(String className) {
+	    this.className = className;
+	}
+    }
+
+    private class Worker extends Thread {
+	Worker(int nr) {
+	    super("jode-decompiler-" + nr);
+	}
+
+	public void run() {
+	    /* The serial numbers must not be shared between threads. */
+	    DecompilerContext.setCurrent(new DecompilerContext(context));
+	    ImportHandler imports = new ImportHandler(importClassPath,
+						      importPackageLimit,
+						      importClassLimit);
+	    Job job;
+	    while ((job = nextJob()) != null) {
+		try {
+		    decompile(job, imports);
+		} catch (Error ex) {
+		    /* E.g. a StackOverflowError on a deeply nested
+		     * method.  Don't let it kill the worker, the writer
+		     * would wait for this job forever.
+		     */
+		    GlobalOptions.getErr().println
+			("Error whilst decompiling " + job.className + ".");
+		    ex.printStackTrace(GlobalOptions.getErr());
+		    job.success = false;
+		} finally {
+		    synchronized (ParallelDecompiler.this) {
+			job.done = true;
+			ParallelDecompiler.this.notifyAll();
+		    }
+		}
+	    }
+	}
+    }
+
+    /**
+     * Creates a new parallel decompiler.
+     * @param threads the number of worker threads.
+     * @param context the context whose settings the workers use.
+     * @param importClassPath the class path used by the import handlers.
+     * @param importPackageLimit the package limit of the import handlers.
+     * @param importClassLimit the class limit of the import handlers.
+     * @param outputStyle the style of the TabbedPrintWriters.
+     * @param indentSize the indentation size.
+     * @param tabWidth the tab width, 0 if no tabs should be used.
+     * @param lineWidth the line width.
+     */
+    public ParallelDecompiler(int threads, DecompilerContext context,
+			      ClassPath importClassPath,
+			      int importPackageLimit, int importClassLimit,
+			      int outputStyle, int indentSize,
+			      int tabWidth, int lineWidth) {
+	this.threads = threads;
+	this.context = context;
+	this.importClassPath = importClassPath;
+	this.importPackageLimit = importPackageLimit;
+	this.importClassLimit = importClassLimit;
+	this.outputStyle = outputStyle;
+	this.indentSize = indentSize;
+	this.tabWidth = tabWidth;
+	this.lineWidth = lineWidth;
+    }
+
+    /**
+     * Sets the cache that holds the sources of classes that were
+     * decompiled before.
+     * @param cache the cache, null to decompile every class.
+     */
+    public void setCache(DecompilerCache cache) {
+	this.cache = cache;
+	/* The workers write with the default encoding. */
+	cacheSettings = DecompilerCache.getSettings
+	    (context.getOptions(), context.getMethodTimeLimit(),
+	     context.getMethodStepLimit(), outputStyle, indentSize, tabWidth,
+	     lineWidth, importPackageLimit, importClassLimit,
+	     System.getProperty("file.encoding"));
+    }
+
+    private synchronized Job nextJob() {
+	int window = threads * CLASSES_AHEAD;
+	while (true) {
+	    while (!aborted && nextJob < jobs.length
+		   && nextJob >= nextWrite + window) {
+		try {
+		    wait();
+		} catch (InterruptedException ex) {
+		    aborted = true;
+		}
+	    }
+	    if (aborted || nextJob >= jobs.length)
+		return null;
+	    Job job = jobs[nextJob++];
+	    if (skipClass(job.className)) {
+		job.skipped = true;
+		job.success = true;
+		job.done = true;
+		notifyAll();
+		continue;
+	    }
+	    return job;
+	}
+    }
+
+    private boolean skipClass(String className) {
+	try {
+	    return Options.skipClass(classPath.getClassInfo(className));
+	} catch (IllegalArgumentException ex) {
+	    /* decompileClass will complain about this */
+	    return false;
+	}
+    }
+
+    private boolean isValidName(String className) {
+	try {
+	    classPath.getClassInfo(className);
+	    return true;
+	} catch (IllegalArgumentException ex) {
+	    return false;
+	}
+    }
+
+    private void decompile(Job job, ImportHandler imports) {
+	String key = null;
+	byte[] source = null;
+	if (cache != null) {
+	    key = cache.getKey(classPath, job.className, cacheSettings);
+	    source = key != null ? cache.getSource(key) : null;
+	}
+	DecompilerContext workerContext = DecompilerContext.getCurrent();
+	int givenUp = workerContext.getGivenUpCount();
+	ByteArrayOutputStream out = new ByteArrayOutputStream();
+	TabbedPrintWriter writer = new TabbedPrintWriter
+	    (out, imports, false, outputStyle, indentSize,
+	     tabWidth, lineWidth);
+	job.success = Main.decompileClass(job.className, classPath,
+					  classPathStr, null, null,
+					  writer, imports, source);
+	writer.close();
+	if (!job.success) {
+	    job.validName = isValidName(job.className);
+	    return;
+	}
+	job.output = out.toByteArray();
+	/* Whether a method runs out of its time budget depends on
+	 * the machine, so such a source is not cached.
+	 */
+	if (key != null && source == null
+	    && workerContext.getGivenUpCount() == givenUp)
+	    cache.putSource(key, job.output);
+    }
+
+    /**
+     * Writes the source of a job to the destination.  For a failed
+     * job this writes the same as {@link Main#decompileClass}: an
+     * empty entry or file if the class name is valid, and nothing
+     * to a stream.
+     */
+    private void write(Job job, ZipOutputStream destZip, String destDir,
+		       OutputStream destStream) {
+	if (job.output == null && (destStream != null || !job.validName))
+	    return;
+	try {
+	    writeOutput(job, destZip, destDir, destStream);
+	} catch (IOException ex) {
+	    GlobalOptions.getErr().println
+		("Can't write source of "+job.className+".");
+	    GlobalOptions.getErr().println("Check the permissions.");
+	    ex.printStackTrace(GlobalOptions.getErr());
+	    job.success = false;
+	}
+    }
+
+    private void writeOutput(Job job, ZipOutputStream destZip,
+			     String destDir, OutputStream destStream)
+	throws IOException
+    {
+	byte[] output = job.output != null ? job.output : new byte[0];
+	String filename =
+	    job.className.replace('.', File.separatorChar)+".java";
+	if (destZip != null) {
+	    destZip.putNextEntry(new ZipEntry(filename));
+	    destZip.write(output);
+	    destZip.closeEntry();
+	} else if (destDir != null) {
+	    File file = new File (destDir, filename);
+	    File directory = new File(file.getParent());
+	    if (!directory.exists() && !directory.mkdirs()) {
+		GlobalOptions.getErr().println
+		    ("Could not create directory "
+		     + directory.getPath() + ", check permissions.");
+	    }
+	    OutputStream os = new FileOutputStream(file);
+	    try {
+		os.write(output);
+	    } finally {
+		os.close();
+	    }
+	} else {
+	    destStream.write(output);
+	    destStream.flush();
+	}
+    }
+
+    /**
+     * Decompiles a single class in the calling thread and writes it
+     * to the destination.  The serial loop in {@link Main} uses this
+     * to take the source from the cache.  Exactly one of destZip,
+     * destDir and destStream should be non-null.
+     * @param className the name of the class.
+     * @param classPath the class path from which the class is read.
+     * @param classPathStr the class path for error messages.
+     * @param destZip the zip file where the source should be written.
+     * @param destDir the directory where the source should be written.
+     * @param destStream the stream where the source should be written.
+     * @param imports the import handler.
+     * @return false, if decompiling the class failed.
+     */
+    public boolean decompileClass(String className,
+				  ClassPath classPath, String classPathStr,
+				  ZipOutputStream destZip, String destDir,
+				  OutputStream destStream,
+				  ImportHandler imports) {
+	this.classPath = classPath;
+	this.classPathStr = classPathStr;
+	if (skipClass(className))
+	    return true;
+	Job job = new Job(className);
+	decompile(job, imports);
+	write(job, destZip, destDir, destStream);
+	return job.success;
+    }
+
+    /**
+     * Decompiles the given classes and writes them to the destination.
+     * Exactly one of destZip, destDir and destStream should be non-null.
+     * @param classNames the names of the classes, as Strings.
+     * @param classPath the class path from which the classes are read.
+     * @param classPathStr the class path for error messages.
+     * @param destZip the zip file where the source should be written.
+     * @param destDir the directory where the source should be written.
+     * @param destStream the stream where the source should be written.
+     * @param keepGoing true, if we should continue after an error.
+     * @return false, if we stopped at an error.
+     */
+    public boolean decompile(Vector classNames,
+			     ClassPath classPath, String classPathStr,
+			     ZipOutputStream destZip, String destDir,
+			     OutputStream destStream, boolean keepGoing) {
+	this.classPath = classPath;
+	this.classPathStr = classPathStr;
+	jobs = new Job[classNames.size()];
+	for (int i = 0; i < jobs.length; i++)
+	    jobs[i] = new Job((String) classNames.elementAt(i));
+	nextJob = 0;
+	nextWrite = 0;
+	aborted = false;
+
+	Worker[] workers = new Worker[Math.min(threads, jobs.length)];
+	for (int i = 0; i < workers.length; i++) {
+	    workers[i] = new Worker(i);
+	    workers[i].setDaemon(true);
+	    workers[i].start();
+	}
+
+	boolean success = true;
+	try {
+	    for (int i = 0; i < jobs.length; i++) {
+		Job job = jobs[i];
+		synchronized (this) {
+		    while (!job.done)
+			wait();
+		    nextWrite = i + 1;
+		    notifyAll();
+		}
+		if (!job.skipped)
+		    write(job, destZip, destDir, destStream);
+		/* Let the garbage collector have the source. */
+		jobs[i] = null;
+		if (!job.success) {
+		    success = false;
+		    if (!keepGoing)
+			break;
+		}
+	    }
+	} catch (InterruptedException ex) {
+	    success = false;
+	} finally {
+	    synchronized (this) {
+		aborted = true;
+		notifyAll();
+	    }
+	    for (int i = 0; i < workers.length; i++) {
+		try {
+		    workers[i].join();
+		} catch (InterruptedException ex) {
+		    /* the workers are daemons, so just go on */
+		}
+	    }
+	}
+	return success;
+    }
+}
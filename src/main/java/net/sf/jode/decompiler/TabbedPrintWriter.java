@@ -35,6 +35,8 @@ public class TabbedPrintWriter {
     private int currentIndent = 0;
     private String indentStr = "";
     private PrintWriter pw;
+    /* The stream pw writes to, null if it writes to a Writer. */
+    private OutputStream os;
     private ImportHandler imports;
     private Stack scopes = new Stack();
 
@@ -51,6 +53,16 @@ public class TabbedPrintWriter {
     private StringBuffer currentLine;
     private BreakPoint currentBP;
 
+    /**
+     * The nesting of the operators in the current line, and the
+     * deepest nesting since the line was started.
+     */
+    private int opDepth, maxOpDepth;
+    /**
+     * The number of getMinPenalty calls for the current line.
+     */
+    private int penaltySteps;
+
     public final static int EXPL_PAREN = 0;
     public final static int NO_PAREN   = 1;
     public final static int IMPL_PAREN = 2;
@@ -61,6 +73,25 @@ public class TabbedPrintWriter {
      */
     private final static int FASTINDENT = 20;
 
+    /**
+     * The search for the best line breaks takes time that grows very
+     * fast with the nesting of the operators.  If a line is nested
+     * deeper than this, or if the search and the commit of the best
+     * breaks take more steps than maxPenaltySteps together, the line
+     * is broken by {@link #printGreedy} instead.
+     */
+    private final static int MAX_OPTIMAL_DEPTH = 40;
+    /**
+     * The step limit of getMinPenalty for a line.  The tests lower it.
+     */
+    static int maxPenaltySteps = 100000;
+
+    /**
+     * Thrown by getMinPenalty if the search takes too many steps.
+     */
+    private static class PenaltyBudgetException extends RuntimeException {
+    }
+
     /**
      * Convert the numeric indentation to a string.
      */
@@ -137,6 +168,27 @@ public class TabbedPrintWriter {
 	    }
 	}
 
+	/**
+	 * Copies this break point and its children.
+	 * @param parent the parent of the copy.
+	 */
+	public BreakPoint copy(BreakPoint parent) {
+	    BreakPoint copy = new BreakPoint(parent, breakPos);
+	    copy.options = options;
+	    copy.breakPenalty = breakPenalty;
+	    copy.startPos = startPos;
+	    copy.endPos = endPos;
+	    copy.nesting = nesting;
+	    copy.whatBreak = whatBreak;
+	    if (childBPs != null) {
+		copy.childBPs = new Vector(childBPs.size());
+		for (int i = 0; i < childBPs.size(); i++)
+		    copy.childBPs.addElement
+			(((BreakPoint) childBPs.elementAt(i)).copy(copy));
+	    }
+	    return copy;
+	}
+
 	public void dump(String line) {
 	    if (startPos == -1) {
 		pw.print(line);
@@ -262,6 +314,9 @@ public class TabbedPrintWriter {
 	}
 
         public int getMinPenalty(int space, int lastSpace, int minPenalty) {
+	    if (++penaltySteps > maxPenaltySteps)
+		throw new PenaltyBudgetException();
+
 	    if (10 * -lastSpace >= minPenalty) {
 		return minPenalty;
 	    }
@@ -460,9 +515,10 @@ public class TabbedPrintWriter {
 			      boolean autoFlush, int style,
 			      int indentSize, int tabWidth, int lineWidth) {
         if ((style & CODD_FORMATTING) != 0)
-            pw = new PrintWriter(new NlRemover(new OutputStreamWriter(os), tabWidth), autoFlush);
+            pw = new PrintWriter(new NlRemover(new ChannelWriter(os), tabWidth), autoFlush);
         else
-            pw = new PrintWriter(os, autoFlush);
+            pw = new PrintWriter(new ChannelWriter(os), autoFlush);
+	this.os = os;
 	this.imports = imports;
 	this.style = style;
 	this.indentsize = indentSize;
@@ -545,6 +601,8 @@ public class TabbedPrintWriter {
     public void startOp(int options, int penalty) {
 	currentBP = (BreakPoint) currentBP.childBPs.lastElement();
 	currentBP.startOp(options, penalty, currentLine.length());
+	if (++opDepth > maxOpDepth)
+	    maxOpDepth = opDepth;
     }
 
     public void breakOp() {
@@ -557,6 +615,7 @@ public class TabbedPrintWriter {
     public void endOp() {
 	currentBP.endOp(currentLine.length());
 	currentBP = currentBP.parentBP;
+	opDepth--;
 	if (currentBP == null)
 	    throw new NullPointerException();
     }
@@ -571,6 +630,7 @@ public class TabbedPrintWriter {
 	    currentBP.endPos = pos;
 	    currentBP = currentBP.parentBP;
 	}
+	opDepth = 0;
 	return state;
     }
 
@@ -595,18 +655,146 @@ public class TabbedPrintWriter {
 //  	pw.println();
 
 	int lw = lineWidth - currentIndent;
-	int minPenalty = currentBP.getMinPenalty(lw, lw, Integer.MAX_VALUE/2);
-	currentBP = currentBP.commitMinPenalty(lw, lw, minPenalty);
+	boolean optimal = false;
+	if (maxOpDepth <= MAX_OPTIMAL_DEPTH) {
+	    BreakPoint uncommitted = null;
+	    try {
+		penaltySteps = 0;
+		int minPenalty
+		    = currentBP.getMinPenalty(lw, lw, Integer.MAX_VALUE/2);
+		/* The commit changes the tree and may run out of steps
+		 * halfway, so keep a copy for printGreedy.  A line that
+		 * fits is committed without a search.
+		 */
+		uncommitted = currentLine.length() > lw
+		    ? currentBP.copy(null) : currentBP;
+		currentBP = currentBP.commitMinPenalty(lw, lw, minPenalty);
+		optimal = true;
+	    } catch (PenaltyBudgetException ex) {
+		if (uncommitted != null)
+		    currentBP = uncommitted;
+	    }
+	}
 
 //  	pw.print(indentStr);
 //  	currentBP.dump(currentLine.toString());
 //  	pw.println();
-	pw.print(indentStr);
-	currentBP.printLines(currentIndent, currentLine.toString());
+	if (optimal) {
+	    pw.print(indentStr);
+	    currentBP.printLines(currentIndent, currentLine.toString());
+	} else
+	    printGreedy(currentLine.toString());
 
 	currentLine.setLength(0);
 	currentBP = new BreakPoint(null, 0);
 	currentBP.startOp(DONT_BREAK, 1, 0);
+	opDepth = maxOpDepth = 0;
+    }
+
+    /**
+     * The state of a region that printGreedy is printing.
+     */
+    private static class Region {
+	BreakPoint bp;
+	Region parent;
+	int nextChild = 0;
+	boolean broken;
+	int indent;
+	String indentStr;
+	/**
+	 * The position of the next break point after this region.  The
+	 * text up to there should fit on the line.
+	 */
+	int limit;
+
+	Region(BreakPoint bp, Region parent, int limit) {
+	    this.bp = bp;
+	    this.parent = parent;
+	    this.limit = limit;
+	}
+    }
+
+    /**
+     * Prints the current line, breaking it in a single pass from left
+     * to right.  This needs linear time and no recursion, but the
+     * breaks are not always the best ones.  It is used for lines
+     * whose operators are nested too deeply for getMinPenalty. <br>
+     *
+     * A region that fits into the rest of the line is printed as it
+     * is.  Otherwise, if its operator may be broken, it is broken at
+     * every break point where the next part doesn't fit on the line
+     * anymore, and its parts are searched for further breaks.
+     */
+    private void printGreedy(String line) {
+	pw.print(indentStr);
+	int column = currentIndent;
+	int cur = 0;
+	Region region = null;
+	BreakPoint next = currentBP;
+	int limit = line.length();
+	for (;;) {
+	    if (next != null && next.startPos >= 0) {
+		pw.print(line.substring(cur, next.startPos));
+		column += next.startPos - cur;
+		cur = next.startPos;
+		int size = next.childBPs.size();
+		if (size == 0 || column + limit - cur <= lineWidth) {
+		    pw.print(line.substring(cur, next.endPos));
+		    column += next.endPos - cur;
+		    cur = next.endPos;
+		} else {
+		    region = new Region(next, region, limit);
+		    region.broken = size > 1 && next.options != DONT_BREAK;
+		    if (region.broken && next.options == IMPL_PAREN) {
+			pw.print("(");
+			column++;
+		    }
+		    region.indent = column;
+		    if (region.broken && next.options == NO_PAREN)
+			region.indent += indentsize;
+		}
+	    }
+	    if (region == null)
+		break;
+
+	    BreakPoint bp = region.bp;
+	    if (region.nextChild == bp.childBPs.size()) {
+		pw.print(line.substring(cur, bp.endPos));
+		column += bp.endPos - cur;
+		cur = bp.endPos;
+		if (region.broken && bp.options == IMPL_PAREN) {
+		    pw.print(")");
+		    column++;
+		}
+		region = region.parent;
+		next = null;
+		continue;
+	    }
+
+	    int size = bp.childBPs.size();
+	    next = (BreakPoint) bp.childBPs.elementAt(region.nextChild++);
+	    if (region.nextChild < size)
+		limit = ((BreakPoint) bp.childBPs.elementAt(region.nextChild))
+		    .breakPos;
+	    else
+		limit = region.limit;
+	    if (region.nextChild > 1 && region.broken) {
+		pw.print(line.substring(cur, next.breakPos));
+		column += next.breakPos - cur;
+		cur = next.breakPos;
+		if (column + limit - cur > lineWidth
+		    && column > region.indent) {
+		    if (region.indentStr == null)
+			region.indentStr = makeIndentStr(region.indent);
+		    pw.println();
+		    pw.print(region.indentStr);
+		    column = region.indent;
+		    if (cur < bp.endPos && line.charAt(cur) == ' ')
+			cur++;
+		}
+	    }
+	}
+	pw.print(line.substring(cur));
     }
 
     public void println() {
@@ -666,7 +854,7 @@ public class TabbedPrintWriter {
 	} catch (IOException ex) {
 	    clazz.guess(ClassInfo.OUTERCLASS);
 	}
-	if ((Options.options & Options.OPTION_INNER) != 0
+	if ((Options.getOptions() & Options.OPTION_INNER) != 0
 	    && clazz.getOuterClass() != null) {
 	    
 	    String className = clazz.getClassName();
@@ -679,7 +867,7 @@ public class TabbedPrintWriter {
 		+ "." + className;
 	}
 
-	if ((Options.options & Options.OPTION_ANON) != 0
+	if ((Options.getOptions() & Options.OPTION_ANON) != 0
 	    && clazz.isMethodScoped()) {
 
 	    String className = clazz.getClassName();
@@ -820,6 +1008,22 @@ public class TabbedPrintWriter {
 	pw.flush();
     }
 
+    /**
+     * Writes source that was printed before by a writer with the
+     * same settings and the default encoding, e.g. a cached source.
+     * @param source the bytes of the source.
+     * @exception IOException if the stream throws an exception.
+     * @exception IllegalStateException if this writer doesn't write
+     * to an output stream.
+     */
+    public void writeSource(byte[] source) throws IOException {
+	if (os == null)
+	    throw new IllegalStateException("writer has no output stream");
+	flush();
+	os.write(source);
+	os.flush();
+    }
+
     public void close() {
 	flushLine();
 	pw.close();
@@ -39,12 +39,11 @@ public abstract class Expression {
 	if (type.equals(newType))
 	    return;
 	if (newType == Type.tError && otherType != Type.tError) {
-	    GlobalOptions.err.println("setType: Type error in "+this
+	    GlobalOptions.getErr().println("setType: Type error in "+this
 				      +": merging "+type+" and "+otherType);
 	    if (parent != null)
-		GlobalOptions.err.println("\tparent is "+parent);
-	    if ((GlobalOptions.debuggingFlags
-		 & GlobalOptions.DEBUG_TYPES) != 0)
+		GlobalOptions.getErr().println("\tparent is "+parent);
+	    if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_TYPES))
 		Thread.dumpStack();
 	}
 	type = newType;
@@ -244,8 +243,7 @@ public abstract class Expression {
 
 	if (type == Type.tError)
 	    typecast = "/*TYPE_ERROR*/";
-	else if ((GlobalOptions.debuggingFlags
-		  & GlobalOptions.DEBUG_TYPES) != 0)
+	else if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_TYPES))
 	    typecast = "(TYPE "+type+")";
 
 	if (typecast != "") {
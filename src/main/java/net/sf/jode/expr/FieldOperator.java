@@ -70,8 +70,8 @@ public abstract class FieldOperator extends Operator {
 	callerPackage = callerPackage.substring(0, dot);
 	if (classType instanceof ClassInfoType) {
 	    classInfo = ((ClassInfoType) classType).getClassInfo();
-	    if ((Options.options & Options.OPTION_ANON) != 0
-		|| (Options.options & Options.OPTION_INNER) != 0) {
+	    if ((Options.getOptions() & Options.OPTION_ANON) != 0
+		|| (Options.getOptions() & Options.OPTION_INNER) != 0) {
 		try {
 		    classInfo.load(ClassInfo.OUTERCLASS);
 		} catch (IOException ex) {
@@ -228,7 +228,7 @@ public abstract class FieldOperator extends Operator {
 	ClassInfo clazz = getClassInfo();
 	ClassAnalyzer clazzAna = methodAnalyzer.getClassAnalyzer(clazz);
 
-	if ((Options.options & Options.OPTION_ANON) != 0
+	if ((Options.getOptions() & Options.OPTION_ANON) != 0
 	    && clazz != null
 	    && clazz.isMethodScoped() && clazz.getClassName() != null
 	    && clazzAna != null
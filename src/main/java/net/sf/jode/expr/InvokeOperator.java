@@ -182,8 +182,8 @@ public final class InvokeOperator extends Operator
 	callerPackage = callerPackage.substring(0, dot);
 	if (classType instanceof ClassInfoType) {
 	    classInfo = ((ClassInfoType) classType).getClassInfo();
-	    if ((Options.options & Options.OPTION_ANON) != 0
-		|| (Options.options & Options.OPTION_INNER) != 0) {
+	    if ((Options.getOptions() & Options.OPTION_ANON) != 0
+		|| (Options.getOptions() & Options.OPTION_INNER) != 0) {
 		try {
 		    classInfo.load(ClassInfo.OUTERCLASS);
 		} catch (IOException ex) {
@@ -245,7 +245,7 @@ public final class InvokeOperator extends Operator
 
     public void checkAnonymousClasses() {
 	if (methodFlag != CONSTRUCTOR
-	    || (Options.options & Options.OPTION_ANON) == 0)
+	    || (Options.getOptions() & Options.OPTION_ANON) == 0)
 	    return;
 	if (classInfo != null
 	    && classInfo.isMethodScoped())
@@ -312,11 +312,11 @@ public final class InvokeOperator extends Operator
     private ClassAnalyzer getClassAnalyzer(ClassInfo callee) {
 	if (callee == null)
 	    return null;
-	if ((Options.options & 
+	if ((Options.getOptions() & 
 	     (Options.OPTION_ANON | Options.OPTION_INNER)) == 0)
 	    return null;
 
-	if ((Options.options & Options.OPTION_INNER) != 0
+	if ((Options.getOptions() & Options.OPTION_INNER) != 0
 	    && callee.getOuterClass() != null) {
 	    /* If the callee class is an inner class we get the
 	     * analyzer of its parent instead and ask it for the inner
@@ -339,11 +339,11 @@ public final class InvokeOperator extends Operator
 		if (ana.getParent() == null)
 		    return null;
 		if (ana.getParent() instanceof MethodAnalyzer
-		    && (Options.options & Options.OPTION_ANON) != 0)
+		    && (Options.getOptions() & Options.OPTION_ANON) != 0)
 		    ana = ((MethodAnalyzer) ana.getParent())
 			.getClassAnalyzer();
 		else if (ana.getParent() instanceof ClassAnalyzer
-			 && (Options.options 
+			 && (Options.getOptions() 
 			 & Options.OPTION_INNER) != 0)
 		    ana = (ClassAnalyzer) ana.getParent();
 		else 
@@ -378,11 +378,11 @@ public final class InvokeOperator extends Operator
 		if (ana.getParent() == null)
 		    break;
 		if (ana.getParent() instanceof MethodAnalyzer
-		    && (Options.options & Options.OPTION_ANON) != 0)
+		    && (Options.getOptions() & Options.OPTION_ANON) != 0)
 		    ana = ((MethodAnalyzer) ana.getParent())
 			.getClassAnalyzer();
 		else if (ana.getParent() instanceof ClassAnalyzer
-			 && (Options.options 
+			 && (Options.getOptions() 
 			     & Options.OPTION_INNER) != 0)
 		    ana = (ClassAnalyzer) ana.getParent();
 		else 
@@ -416,7 +416,7 @@ public final class InvokeOperator extends Operator
     }
 
     public boolean isConstant() {
-	if ((Options.options & Options.OPTION_ANON) == 0)
+	if ((Options.getOptions() & Options.OPTION_ANON) == 0)
 	    return super.isConstant();
 
 	ClassInfo clazz = classInfo;
@@ -495,19 +495,17 @@ public final class InvokeOperator extends Operator
 	    result = (String) interpreter.interpretMethod
 		(ma.getBasicBlocks(), null, new Object[] { op.getValue() });
 	} catch (InterpreterException ex) {
-	    if ((GlobalOptions.debuggingFlags & 
-		 GlobalOptions.DEBUG_INTERPRT) != 0) {
-		GlobalOptions.err.println("Warning: Can't interpret method "
+	    if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_INTERPRT)) {
+		GlobalOptions.getErr().println("Warning: Can't interpret method "
 					  +methodName);
-		ex.printStackTrace(GlobalOptions.err);
+		ex.printStackTrace(GlobalOptions.getErr());
 	    }
 	    return null;
 	} catch (InvocationTargetException ex) {
-	    if ((GlobalOptions.debuggingFlags & 
-		 GlobalOptions.DEBUG_INTERPRT) != 0) {
-		GlobalOptions.err.println("Warning: Interpreted method throws"
+	    if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_INTERPRT)) {
+		GlobalOptions.getErr().println("Warning: Interpreted method throws"
 					  +" an uncaught exception: ");
-		ex.getTargetException().printStackTrace(GlobalOptions.err);
+		ex.getTargetException().printStackTrace(GlobalOptions.getErr());
 	    }
 	    return null;
 	}
@@ -602,7 +600,7 @@ public final class InvokeOperator extends Operator
 	    result.addOperand(right);
 	    result.addOperand(subExpressions[0].simplify());
 	} 
-	else if ((Options.options & Options.OPTION_DECRYPT) != 0
+	else if ((Options.getOptions() & Options.OPTION_DECRYPT) != 0
 		 && isThis() && isStatic()
 		 && methodType.getParameterTypes().length == 1
 		 && methodType.getParameterTypes()[0].equals(Type.tString)
@@ -695,7 +693,7 @@ public final class InvokeOperator extends Operator
 	try {
 	    clazz.load(howMuch);
 	} catch (IOException ex) {
-	    GlobalOptions.err.println("Warning: Can't find methods of "
+	    GlobalOptions.getErr().println("Warning: Can't find methods of "
 				      +clazz+" to detect overload conflicts");
 	    clazz.guess(howMuch);
 	}
@@ -807,7 +805,7 @@ public final class InvokeOperator extends Operator
 	ClassInfo clazz = classInfo;
 	ClassAnalyzer clazzAna = methodAnalyzer.getClassAnalyzer(clazz);
 
-	if ((Options.options & Options.OPTION_ANON) != 0
+	if ((Options.getOptions() & Options.OPTION_ANON) != 0
 	    && clazz != null
 	    && clazz.isMethodScoped() && clazz.getClassName() != null) {
 
@@ -830,7 +828,7 @@ public final class InvokeOperator extends Operator
 	boolean jikesAnonymousInner = false;
 	boolean implicitOuterClass = false;
 
-	if ((Options.options & Options.OPTION_ANON) != 0
+	if ((Options.getOptions() & Options.OPTION_ANON) != 0
 	    && clazzAna != null && clazz.isMethodScoped()) {
 
 	    OuterValues ov = clazzAna.getOuterValues();
@@ -861,7 +859,7 @@ public final class InvokeOperator extends Operator
 	    }
 	}
 
-	if ((~Options.options & (Options.OPTION_INNER
+	if ((~Options.getOptions() & (Options.OPTION_INNER
 				 | Options.OPTION_CONTRAFO)) == 0
 	    && clazz.getOuterClass() != null
 	    && !Modifier.isStatic(clazz.getModifiers())
@@ -889,7 +887,7 @@ public final class InvokeOperator extends Operator
 	super.makeDeclaration(done);
 
 	if (isConstructor() && !isStatic()
-	    && (Options.options & Options.OPTION_ANON) != 0) {
+	    && (Options.getOptions() & Options.OPTION_ANON) != 0) {
 	    ClassInfo clazz = classInfo;
 	    if (clazz != null
 		&& clazz.isMethodScoped() && clazz.getClassName() == null) {
@@ -955,7 +953,7 @@ public final class InvokeOperator extends Operator
 	    /* clazz != null, since an array doesn't have a constructor */
 	    
 	    clazzAna = methodAnalyzer.getClassAnalyzer(clazz);
-	    if ((Options.options & Options.OPTION_ANON) != 0
+	    if ((Options.getOptions() & Options.OPTION_ANON) != 0
 		&& clazzAna != null && clazz.isMethodScoped()) {
 		
 		/* This is a known method scoped class, skip the outerValues */
@@ -998,7 +996,7 @@ public final class InvokeOperator extends Operator
 	     */
 	    if (clazz.getOuterClass() != null
 		&& !Modifier.isStatic(clazz.getModifiers())
-		&& (~Options.options & 
+		&& (~Options.getOptions() & 
 		    (Options.OPTION_INNER
 		     | Options.OPTION_CONTRAFO)) == 0) {
 
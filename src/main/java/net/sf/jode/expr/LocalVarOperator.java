@@ -40,8 +40,8 @@ public abstract class LocalVarOperator extends Operator {
 
     public void updateSubTypes() {
 	if (parent != null
-	    && (GlobalOptions.debuggingFlags & GlobalOptions.DEBUG_TYPES) != 0)
-	    GlobalOptions.err.println("local type changed in: "+parent);
+	    && GlobalOptions.isDebugging(GlobalOptions.DEBUG_TYPES))
+	    GlobalOptions.getErr().println("local type changed in: "+parent);
         local.setType(type);
     }
 
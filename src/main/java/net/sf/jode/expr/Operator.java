@@ -239,7 +239,7 @@ public abstract class Operator extends Expression {
      * is not a CombineableOperator.
      */
     public int canCombine(CombineableOperator combOp) {
-//  	GlobalOptions.err.println("Try to combine "+e+" into "+this);
+//  	GlobalOptions.getErr().println("Try to combine "+e+" into "+this);
 	if (combOp.getLValue() instanceof LocalStoreOperator
 	    && ((Operator)combOp).getFreeOperandCount() == 0) {
 	    // Special case for locals created on inlining methods, which may
@@ -44,8 +44,8 @@ public class OuterLocalOperator extends Operator {
     }
 
     public void updateSubTypes() {
-        if ((GlobalOptions.debuggingFlags & GlobalOptions.DEBUG_TYPES) != 0)
-	    GlobalOptions.err.println("setType of "+local.getName()+": "
+        if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_TYPES))
+	    GlobalOptions.getErr().println("setType of "+local.getName()+": "
 				      +local.getType());
 	local.setType(type);
     }
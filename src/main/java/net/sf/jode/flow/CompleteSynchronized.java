@@ -51,8 +51,8 @@ public class CompleteSynchronized {
 		!= synBlock.local.getLocalInfo()))
                 return false;
             
-        if (GlobalOptions.verboseLevel > 0)
-            GlobalOptions.err.print('s');
+        if (GlobalOptions.getVerboseLevel() > 0)
+            GlobalOptions.getErr().print('s');
         
         synBlock.isEntered = true;
         synBlock.moveDefinitions(last.outer,last);
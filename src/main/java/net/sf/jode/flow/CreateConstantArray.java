@@ -85,8 +85,8 @@ public class CreateConstantArray {
                 if (arraylength <= index)
                     return false;
 
-                if (GlobalOptions.verboseLevel > 0)
-                    GlobalOptions.err.print('a');
+                if (GlobalOptions.getVerboseLevel() > 0)
+                    GlobalOptions.getErr().print('a');
 
                 ConstantArrayOperator cao 
                     = new ConstantArrayOperator(newArray.getType(), 
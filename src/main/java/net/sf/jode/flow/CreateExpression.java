@@ -107,9 +107,9 @@ public class CreateExpression {
             sequBlock = (SequentialBlock)sequBlock.outer;
         }
 
-        if (GlobalOptions.verboseLevel > 0
+        if (GlobalOptions.getVerboseLevel() > 0
 	    && lastExpression.getFreeOperandCount() == 0)
-            GlobalOptions.err.print('x');
+            GlobalOptions.getErr().print('x');
 
 	ic.setInstruction(lastExpression);
         ic.moveDefinitions(sequBlock, last);
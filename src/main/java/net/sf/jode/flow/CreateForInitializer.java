@@ -46,8 +46,8 @@ public class CreateForInitializer {
 					  init.getInstruction()))
             return false;
 
-        if (GlobalOptions.verboseLevel > 0)
-            GlobalOptions.err.print('f');
+        if (GlobalOptions.getVerboseLevel() > 0)
+            GlobalOptions.getErr().print('f');
 
         forBlock.setInit((InstructionBlock) sequBlock.subBlocks[0]);
         return true;
@@ -60,8 +60,8 @@ public class CreateIfThenElseOperator {
                 | !createFunnyHelper(trueDest, falseDest, ifBlock.elseBlock))
                 return false;
 
-            if (GlobalOptions.verboseLevel > 0)
-                GlobalOptions.err.print('?');
+            if (GlobalOptions.getVerboseLevel() > 0)
+                GlobalOptions.getErr().print('?');
 
             Expression iteo = new IfThenElseOperator(Type.tBoolean)
 		.addOperand(((InstructionBlock) ifBlock.elseBlock)
@@ -209,8 +209,8 @@ public class CreateIfThenElseOperator {
             return false;
         cond = ifBlock.cond;
         
-        if (GlobalOptions.verboseLevel > 0)
-            GlobalOptions.err.print('?');
+        if (GlobalOptions.getVerboseLevel() > 0)
+            GlobalOptions.getErr().print('?');
 
         thenBlock.flowBlock.removeSuccessor(thenBlock.jump);
         thenBlock.removeJump();
@@ -0,0 +1,481 @@
+/* DominatorAnalysis Copyright (C) 2026 agent.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; see the file COPYING.LESSER.  If not, write to
+ * the Free Software Foundation, 675 Mass Ave, Cambridge, MA 02139, USA.
+ *
+ * $Id$
+ */
+
+package net.sf.jode.flow;
+import net.sf.jode.GlobalOptions;
+import net.sf.jode.decompiler.DecompilerContext;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Does the T1/T2 analysis of a method in a single ordered pass over
+ * the flow graph.  The flow blocks are numbered in reverse
+ * postorder, then the dominator tree and the loop nesting are
+ * computed. <br>
+ *
+ * The blocks are visited in reverse postorder.  Like {@link
+ * FlowBlock#analyze(int,int)} a block merges its successor with the
+ * smallest block number as long as that is adjacent and has no other
+ * predecessor.  If that successor has other predecessors, it is
+ * analyzed first, once all of them wait for it, and then the block
+ * tries again.  A loop is closed as soon as its whole body was
+ * merged into its head; after that the block before the loop
+ * continues.  Blocks that may still be merged into their only
+ * predecessor are never analyzed on their own. <br>
+ *
+ * So the transformations are the same and are done in the same
+ * order as in the normal analysis, but every block is analyzed only
+ * once, instead of again and again by the recursive search over
+ * block number ranges.  The result is the same, too; the runtime
+ * library and the jode classes decompile exactly like with the
+ * normal analysis.  Switches and whatever else isn't reduced this
+ * way is left to the normal analysis. <br>
+ *
+ * Computing the dominators costs some time and memory, which isn't
+ * worth it for small methods, where the normal analysis is fast
+ * anyway.  So the prepass is only used for methods with at least
+ * {@link #minBlocks} blocks.
+ *
+ * @author agent
+ */
+final class DominatorAnalysis {
+    /**
+     * The number of flow blocks a method needs for the prepass.  The
+     * tests lower it, so that the prepass runs on ordinary methods.
+     */
+    static int minBlocks = 2000;
+
+    private DecompilerContext context;
+
+    /**
+     * The reachable flow blocks in reverse postorder.
+     */
+    private FlowBlock[] order;
+
+    /**
+     * Maps the flow blocks to their index in order.
+     */
+    private Map indices;
+
+    /**
+     * The indices of the predecessors of each flow block.
+     */
+    private int[][] preds;
+
+    /**
+     * The index of the immediate dominator of each flow block.  The
+     * start block is its own dominator.
+     */
+    private int[] idom;
+
+    /**
+     * The preorder number of each block in the dominator tree and
+     * the highest preorder number in its subtree.  A block dominates
+     * another iff its interval contains the interval of the other
+     * block.
+     */
+    private int[] domFirst, domLast;
+
+    /**
+     * Tells for each block if it is the target of a back edge.
+     */
+    private boolean[] loopHeader;
+
+    /**
+     * The index of the head of the innermost loop containing each
+     * block, not counting the loop the block is the head of, or -1
+     * if the block isn't in a loop.
+     */
+    private int[] loopParent;
+
+    /**
+     * The number of blocks in the body of the loop of each loop
+     * head, that weren't merged into another block yet.
+     */
+    private int[] loopRemaining;
+
+    /**
+     * Tells for each block if it was merged into another block.
+     */
+    private boolean[] merged;
+
+    /**
+     * Tells for each block if it was analyzed.
+     */
+    private boolean[] analyzed;
+
+    /**
+     * Creates the analysis for the method starting with the given
+     * flow block.  This only numbers the blocks, the dominators are
+     * computed by {@link #reduce()}.
+     */
+    public DominatorAnalysis(FlowBlock start) {
+	context = start.context;
+	computeOrder(start);
+    }
+
+    private int indexOf(FlowBlock flow) {
+	Integer index = (Integer) indices.get(flow);
+	return index != null ? index.intValue() : -1;
+    }
+
+    /**
+     * Numbers the flow blocks in reverse postorder.  This uses an
+     * explicit stack, since the generated methods we care about are
+     * too deep for recursion.
+     */
+    private void computeOrder(FlowBlock start) {
+	List postOrder = new ArrayList();
+	Map visited = new HashMap();
+	List stack = new ArrayList();
+	List iters = new ArrayList();
+	visited.put(start, start);
+	stack.add(start);
+	iters.add(start.getSuccessors().iterator());
+	while (!stack.isEmpty()) {
+	    int top = stack.size() - 1;
+	    Iterator iter = (Iterator) iters.get(top);
+	    if (iter.hasNext()) {
+		FlowBlock succ = (FlowBlock) iter.next();
+		if (succ != FlowBlock.END_OF_METHOD
+		    && !visited.containsKey(succ)) {
+		    visited.put(succ, succ);
+		    stack.add(succ);
+		    iters.add(succ.getSuccessors().iterator());
+		}
+	    } else {
+		postOrder.add(stack.remove(top));
+		iters.remove(top);
+	    }
+	}
+	int count = postOrder.size();
+	order = new FlowBlock[count];
+	indices = new HashMap();
+	for (int i = 0; i < count; i++) {
+	    order[i] = (FlowBlock) postOrder.get(count - 1 - i);
+	    indices.put(order[i], new Integer(i));
+	}
+    }
+
+    private int intersect(int first, int second) {
+	while (first != second) {
+	    while (first > second)
+		first = idom[first];
+	    while (second > first)
+		second = idom[second];
+	}
+	return first;
+    }
+
+    /**
+     * Computes the immediate dominators with the iterative algorithm
+     * of Cooper, Harvey and Kennedy.  Processing the blocks in
+     * reverse postorder, it needs only two iterations for the
+     * reducible graphs java compilers produce.
+     */
+    private void computeDominators() {
+	int count = order.length;
+	preds = new int[count][];
+	for (int i = 0; i < count; i++) {
+	    List predList = order[i].predecessors;
+	    int[] predIndices = new int[predList.size()];
+	    int numPreds = 0;
+	    for (Iterator iter = predList.iterator(); iter.hasNext(); ) {
+		FlowBlock pred = (FlowBlock) iter.next();
+		int index = pred != null ? indexOf(pred) : -1;
+		if (index >= 0)
+		    predIndices[numPreds++] = index;
+	    }
+	    preds[i] = new int[numPreds];
+	    System.arraycopy(predIndices, 0, preds[i], 0, numPreds);
+	}
+
+	idom = new int[count];
+	for (int i = 1; i < count; i++)
+	    idom[i] = -1;
+	boolean changed = true;
+	while (changed) {
+	    changed = false;
+	    for (int i = 1; i < count; i++) {
+		int newIdom = -1;
+		for (int j = 0; j < preds[i].length; j++) {
+		    int pred = preds[i][j];
+		    if (idom[pred] < 0)
+			continue;
+		    newIdom = newIdom < 0 ? pred : intersect(pred, newIdom);
+		}
+		if (idom[i] != newIdom) {
+		    idom[i] = newIdom;
+		    changed = true;
+		}
+	    }
+	}
+    }
+
+    /**
+     * Numbers the dominator tree in preorder.
+     */
+    private void computeDominatorTree() {
+	int count = order.length;
+	/* Build the child lists as linked lists in two arrays. */
+	int[] firstChild = new int[count];
+	int[] nextSibling = new int[count];
+	for (int i = 0; i < count; i++)
+	    firstChild[i] = -1;
+	for (int i = count - 1; i > 0; i--) {
+	    nextSibling[i] = firstChild[idom[i]];
+	    firstChild[idom[i]] = i;
+	}
+
+	domFirst = new int[count];
+	domLast = new int[count];
+	int[] stack = new int[count];
+	int[] next = new int[count];
+	int depth = 0;
+	int number = 0;
+	stack[0] = 0;
+	next[0] = firstChild[0];
+	domFirst[0] = number++;
+	while (depth >= 0) {
+	    int node = stack[depth];
+	    int child = next[depth];
+	    if (child >= 0) {
+		next[depth] = nextSibling[child];
+		depth++;
+		stack[depth] = child;
+		next[depth] = firstChild[child];
+		domFirst[child] = number++;
+	    } else {
+		domLast[node] = number - 1;
+		depth--;
+	    }
+	}
+    }
+
+    private boolean dominates(int dom, int node) {
+	return domFirst[dom] <= domFirst[node]
+	    && domLast[node] <= domLast[dom];
+    }
+
+    /**
+     * Returns the outermost loop head, whose loop was already
+     * computed, containing the given block.
+     */
+    private int findOutermostLoop(int index) {
+	while (loopParent[index] >= 0)
+	    index = loopParent[index];
+	return index;
+    }
+
+    /**
+     * Computes the loop nesting.  The targets of back edges, i.e. of
+     * edges whose target dominates their source, are the loop heads.
+     * The body of a loop are the blocks from which the source of a
+     * back edge can be reached without passing the head.  The loops
+     * are computed from the inside out, i.e. in reverse order of
+     * their heads; the body of an inner loop is only searched once,
+     * since the search continues at its head.
+     */
+    private void computeLoops() {
+	int count = order.length;
+	loopHeader = new boolean[count];
+	loopParent = new int[count];
+	loopRemaining = new int[count];
+	for (int i = 0; i < count; i++)
+	    loopParent[i] = -1;
+
+	int edges = 0;
+	for (int i = 0; i < count; i++)
+	    edges += preds[i].length;
+	int[] stack = new int[edges];
+	for (int head = count - 1; head >= 0; head--) {
+	    int depth = 0;
+	    for (int j = 0; j < preds[head].length; j++) {
+		int pred = preds[head][j];
+		if (dominates(head, pred)) {
+		    loopHeader[head] = true;
+		    if (pred != head)
+			stack[depth++] = pred;
+		}
+	    }
+	    while (depth > 0) {
+		int block = findOutermostLoop(stack[--depth]);
+		if (block == head)
+		    continue;
+		loopParent[block] = head;
+		for (int j = 0; j < preds[block].length; j++) {
+		    int pred = preds[block][j];
+		    /* Back edges of the inner loop were already
+		     * searched, and entries to the loop from outside
+		     * aren't dominated by the head.
+		     */
+		    if (dominates(head, pred) && !dominates(block, pred))
+			stack[depth++] = pred;
+		}
+	    }
+	}
+
+	/* Inner loops have higher indices than their heads. */
+	for (int i = count - 1; i >= 0; i--) {
+	    int parent = loopParent[i];
+	    if (parent >= 0)
+		loopRemaining[parent] += 1 + loopRemaining[i];
+	}
+    }
+
+    /**
+     * Marks the given block as merged into another block, and removes
+     * it from the loops containing it.
+     */
+    private void setMerged(int index) {
+	merged[index] = true;
+	for (int head = loopParent[index]; head >= 0; head = loopParent[head])
+	    loopRemaining[head]--;
+    }
+
+    /**
+     * Returns the successor with the smallest block number, which is
+     * the one the normal analysis tries first, or null if there isn't
+     * any.
+     */
+    private FlowBlock getFirstSuccessor(FlowBlock flow) {
+	FlowBlock result = null;
+	Iterator iter = flow.getSuccessors().iterator();
+	while (iter.hasNext()) {
+	    FlowBlock succ = (FlowBlock) iter.next();
+	    if (succ == flow || succ == FlowBlock.END_OF_METHOD)
+		continue;
+	    if (result == null || succ.getBlockNr() < result.getBlockNr())
+		result = succ;
+	}
+	return result;
+    }
+
+    /**
+     * Tells if the given block will be merged into its only
+     * predecessor, before it is analyzed.
+     */
+    private boolean hasSinglePredecessor(FlowBlock flow) {
+	if (flow.predecessors.size() != 1)
+	    return false;
+	FlowBlock pred = (FlowBlock) flow.predecessors.get(0);
+	return pred != null && pred != flow;
+    }
+
+    /**
+     * Tells if the given block is ready to be analyzed, i.e. it can't
+     * be merged into its predecessor and all predecessors outside of
+     * its loop were analyzed and wait for it.
+     */
+    private boolean isReady(int index) {
+	FlowBlock flow = order[index];
+	if (merged[index] || analyzed[index] || hasSinglePredecessor(flow))
+	    return false;
+	for (Iterator iter = flow.predecessors.iterator(); iter.hasNext(); ) {
+	    FlowBlock pred = (FlowBlock) iter.next();
+	    if (pred == null || pred == flow)
+		continue;
+	    int predIndex = indexOf(pred);
+	    if (predIndex >= 0 && dominates(index, predIndex))
+		continue;
+	    if (predIndex < 0 || !analyzed[predIndex]
+		|| getFirstSuccessor(pred) != flow)
+		return false;
+	}
+	return true;
+    }
+
+    /**
+     * Applies the T1 and T2 transformations to the given block, until
+     * it must wait for a successor or closed its loop.
+     * @return the successor it waits for, or null.
+     */
+    private FlowBlock reduce(int index) {
+	FlowBlock flow = order[index];
+	while (!(flow.lastModified instanceof SwitchBlock)) {
+	    if (loopHeader[index] && loopRemaining[index] == 0
+		&& flow.isLoopCandidate()
+		&& flow.doT1(flow.getBlockNr(), flow.getNextBlockNr())) {
+		if (context.getMetrics() != null)
+		    context.getMetrics().addCount(1);
+		if (context.isDebugging(GlobalOptions.DEBUG_FLOW))
+		    context.getErr().println("after T1: "+flow);
+		/* Like the normal analysis let the block before the
+		 * loop continue.
+		 */
+		return null;
+	    }
+	    FlowBlock succ = getFirstSuccessor(flow);
+	    if (succ == null || succ.predecessors.size() != 1
+		|| (flow.nextByCodeOrder != succ
+		    && succ.nextByCodeOrder != flow)
+		|| !flow.doT2(succ))
+		return succ;
+	    setMerged(indexOf(succ));
+	    if (context.getMetrics() != null)
+		context.getMetrics().addCount(1);
+	    if (context.isDebugging(GlobalOptions.DEBUG_FLOW))
+		context.getErr().println("after T2: "+flow);
+	}
+	return null;
+    }
+
+    /**
+     * Visits the blocks in reverse postorder and reduces each block,
+     * that is ready.  When a block has to wait for a successor, that
+     * successor is analyzed first, if it is ready.  This needs an
+     * explicit stack, since the chains of successors are too long for
+     * recursion.
+     */
+    public void reduce() {
+	if (context.isDebugging(GlobalOptions.DEBUG_ANALYZE))
+	    context.getErr().println("dominator analysis of "
+				     + order.length + " blocks");
+	computeDominators();
+	computeDominatorTree();
+	computeLoops();
+	merged = new boolean[order.length];
+	analyzed = new boolean[order.length];
+	int[] stack = new int[order.length];
+	for (int i = 0; i < order.length; i++) {
+	    if (!isReady(i))
+		continue;
+	    int depth = 0;
+	    stack[0] = i;
+	    while (depth >= 0) {
+		int top = stack[depth];
+		if (merged[top]) {
+		    depth--;
+		    continue;
+		}
+		analyzed[top] = true;
+		FlowBlock succ = reduce(top);
+		int succIndex = succ != null ? indexOf(succ) : -1;
+		if (succIndex >= 0 && isReady(succIndex))
+		    stack[++depth] = succIndex;
+		else
+		    depth--;
+	    }
+	}
+    }
+}
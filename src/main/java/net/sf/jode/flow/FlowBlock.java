@@ -19,8 +19,10 @@
 
 package net.sf.jode.flow;
 import net.sf.jode.GlobalOptions;
+import net.sf.jode.decompiler.DecompilerContext;
 import net.sf.jode.decompiler.TabbedPrintWriter;
 import net.sf.jode.decompiler.MethodAnalyzer;
+import net.sf.jode.decompiler.Options;
 import net.sf.jode.decompiler.LocalInfo;
 import net.sf.jode.expr.Expression;
 import net.sf.jode.expr.CombineableOperator;
@@ -65,6 +67,12 @@ public class FlowBlock {
      */
     MethodAnalyzer method;
 
+    /**
+     * The context of the decompilation.  It holds the options and
+     * the debugging flags.
+     */
+    DecompilerContext context;
+
     /**
      * The in locals.  This are the locals, which are used in this
      * flow block and whose values may be the result of a assignment
@@ -115,6 +123,14 @@ public class FlowBlock {
      */
     StructuredBlock lastModified;
 
+    /**
+     * Tells if the block may contain a TryBlock.  This is set by the
+     * TryBlock when it is added to this flow block, so that
+     * resolveSomeJumps need not search the outer blocks of huge
+     * methods without exception handlers for one.
+     */
+    boolean mayHaveTryBlock;
+
     /**
      * This contains a map of all successing flow blocks and there
      * jumps.  The key of this map are the flow blocks, while
@@ -189,6 +205,8 @@ public class FlowBlock {
      */
     public FlowBlock(MethodAnalyzer method, int blockNr, FlowBlock lastFlow) {
 	this.method = method;
+	this.context = method != null ? method.getContext()
+	    : DecompilerContext.getCurrent();
 	this.blockNr = blockNr;
 
 	length = 1;
@@ -215,8 +233,8 @@ public class FlowBlock {
      * @return The remaining jumps, that couldn't be resolved.
      */
     public Jump resolveSomeJumps(Jump jumps, FlowBlock succ) {
-        if ((GlobalOptions.debuggingFlags & GlobalOptions.DEBUG_FLOW) != 0)
-            GlobalOptions.err.println("before Resolve: "+this);
+        if (context.isDebugging(GlobalOptions.DEBUG_FLOW))
+            context.getErr().println("before Resolve: "+this);
 
 	/* We will put all jumps that we can not resolve into this
 	 * linked list.
@@ -231,7 +249,7 @@ public class FlowBlock {
             while (!lastModified.contains(jump.prev))
         	lastModified = lastModified.outer;
         }
-        StructuredBlock b = lastModified.outer;
+        StructuredBlock b = mayHaveTryBlock ? lastModified.outer : null;
         while (b != null) {
             if (b.outer instanceof TryBlock
         	&& ((TryBlock)b.outer).getSubBlocks()[0] == b) {
@@ -417,7 +435,11 @@ public class FlowBlock {
                     newIfBlock.replace(sequBlock);
                     newIfBlock.setThenBlock(thenBlock);
 
-                    if (thenBlock.contains(lastModified)) {
+		    /* lastModified may be the replaced sequBlock itself,
+		     * if it is the smallest block containing the jumps.
+		     */
+                    if (lastModified == sequBlock
+			|| thenBlock.contains(lastModified)) {
                         if (lastModified.jump.destination == succ) {
                             newIfBlock.moveJump(lastModified.jump);
                             lastModified = newIfBlock;
@@ -531,7 +553,11 @@ public class FlowBlock {
                         ifBlock.replace(sequBlock);
                         ifBlock.setElseBlock(elseBlock);
 
-                        if (elseBlock.contains(lastModified)) {
+			/* lastModified may be the replaced sequBlock itself,
+			 * if it is the smallest block containing the jumps.
+			 */
+                        if (lastModified == sequBlock
+			    || elseBlock.contains(lastModified)) {
                             if (lastModified.jump.destination == succ) {
                                 ifBlock.moveJump(lastModified.jump);
                                 lastModified = ifBlock;
@@ -767,11 +793,11 @@ public class FlowBlock {
         this.in.addAll(newIn);
         this.used.addAll(successor.used);
 
-        if ((GlobalOptions.debuggingFlags & GlobalOptions.DEBUG_INOUT) != 0) {
-            GlobalOptions.err.println("UpdateInOut: gens : "+gens);
-            GlobalOptions.err.println("             kills: "+kills);
-            GlobalOptions.err.println("             s.in : "+successor.in);
-            GlobalOptions.err.println("             in   : "+in);
+        if (context.isDebugging(GlobalOptions.DEBUG_INOUT)) {
+            context.getErr().println("UpdateInOut: gens : "+gens);
+            context.getErr().println("             kills: "+kills);
+            context.getErr().println("             s.in : "+successor.in);
+            context.getErr().println("             in   : "+in);
         }
     }
 
@@ -814,10 +840,10 @@ public class FlowBlock {
         in.addAll(catchFlow.in);
         used.addAll(catchFlow.used);
     
-        if ((GlobalOptions.debuggingFlags & GlobalOptions.DEBUG_INOUT) != 0) {
-            GlobalOptions.err.println("UpdateInOutCatch: gens : "+gens);
-            GlobalOptions.err.println("                  s.in : "+catchFlow.in);
-            GlobalOptions.err.println("                  in   : "+in);
+        if (context.isDebugging(GlobalOptions.DEBUG_INOUT)) {
+            context.getErr().println("UpdateInOutCatch: gens : "+gens);
+            context.getErr().println("                  s.in : "+catchFlow.in);
+            context.getErr().println("                  in   : "+in);
         }
     }
 
@@ -832,7 +858,7 @@ public class FlowBlock {
         /* This checks are very time consuming, so don't do them
          * normally.
          */
-        if ((GlobalOptions.debuggingFlags & GlobalOptions.DEBUG_CHECK) == 0)
+        if (!context.isDebugging(GlobalOptions.DEBUG_CHECK))
             return;
 
 	try {
@@ -909,7 +935,7 @@ public class FlowBlock {
             }
         }
 	} catch (InternalError err) {
-	    GlobalOptions.err.println("Inconsistency in: "+this);
+	    context.getErr().println("Inconsistency in: "+this);
 	    throw err;
 	}
     }
@@ -1035,9 +1061,8 @@ public class FlowBlock {
         unifyCatchSuccessors(succ);
         succ.unifyCatchSuccessors(this);
 
-	if ((GlobalOptions.debuggingFlags
-	     & GlobalOptions.DEBUG_ANALYZE) != 0)
-	    GlobalOptions.err.println
+	if (context.isDebugging(GlobalOptions.DEBUG_ANALYZE))
+	    context.getErr().println
 		("T2(["+blockNr+","+getNextBlockNr()+"],["
 		 +succ.blockNr+","+succ.getNextBlockNr()+"])");
 
@@ -1049,15 +1074,24 @@ public class FlowBlock {
         /* Try to eliminate as many jumps as possible.
          */
         Jump jumps = resolveSomeJumps(succInfo.jumps, succ);
-        if ((GlobalOptions.debuggingFlags & GlobalOptions.DEBUG_FLOW) != 0)
-            GlobalOptions.err.println("before Remaining: "+this);
+        if (context.isDebugging(GlobalOptions.DEBUG_FLOW))
+            context.getErr().println("before Remaining: "+this);
         resolveRemaining(jumps);
-        if ((GlobalOptions.debuggingFlags & GlobalOptions.DEBUG_FLOW) != 0)
-            GlobalOptions.err.println("after Resolve: "+this);
+        if (context.isDebugging(GlobalOptions.DEBUG_FLOW))
+            context.getErr().println("after Resolve: "+this);
 
         /* Now unify the blocks.
          */
         lastModified = lastModified.appendBlock(succ.block);
+	if (lastModified.outer instanceof IfThenElseBlock) {
+	    /* The only jump to succ was in a conditional block that
+	     * isn't the last block, so succ became the then part of a
+	     * new if block.  Continue with the blocks following it.
+	     */
+	    lastModified = lastModified.outer;
+	    if (lastModified.outer instanceof SequentialBlock)
+		lastModified = lastModified.outer;
+	}
         mergeSuccessors(succ);
 
         /* This will also set last modified to the new correct value.  */
@@ -1103,8 +1137,8 @@ public class FlowBlock {
          */
         jumps = resolveSomeJumps(jumps, END_OF_METHOD);
             
-        if ((GlobalOptions.debuggingFlags & GlobalOptions.DEBUG_FLOW) != 0)
-            GlobalOptions.err.println("before remaining: "+this);
+        if (context.isDebugging(GlobalOptions.DEBUG_FLOW))
+            context.getErr().println("before remaining: "+this);
 
         for (; jumps != null; jumps = jumps.next) {
 
@@ -1145,13 +1179,13 @@ public class FlowBlock {
             && lastModified.jump.destination == END_OF_METHOD)
             lastModified.removeJump();
 
-        if ((GlobalOptions.debuggingFlags & GlobalOptions.DEBUG_FLOW) != 0)
-            GlobalOptions.err.println("before Transformation: "+this);
+        if (context.isDebugging(GlobalOptions.DEBUG_FLOW))
+            context.getErr().println("before Transformation: "+this);
 
         doTransformations();
 
-        if ((GlobalOptions.debuggingFlags & GlobalOptions.DEBUG_FLOW) != 0)
-            GlobalOptions.err.println("after Transformation: "+this);
+        if (context.isDebugging(GlobalOptions.DEBUG_FLOW))
+            context.getErr().println("after Transformation: "+this);
 
         /* transformation succeeded */
         checkConsistent();
@@ -1175,8 +1209,8 @@ public class FlowBlock {
 
         checkConsistent();
 
-	if ((GlobalOptions.debuggingFlags & GlobalOptions.DEBUG_ANALYZE) != 0)
-	    GlobalOptions.err.println("T1(["+blockNr+","+getNextBlockNr()+"])");
+	if (context.isDebugging(GlobalOptions.DEBUG_ANALYZE))
+	    context.getErr().println("T1(["+blockNr+","+getNextBlockNr()+"])");
         SuccessorInfo succInfo = (SuccessorInfo) successors.remove(this);
 
         /* Update the in/out-Vectors now */
@@ -1317,13 +1351,13 @@ public class FlowBlock {
         predecessors.remove(this);
         lastModified = block;
 
-        if ((GlobalOptions.debuggingFlags & GlobalOptions.DEBUG_FLOW) != 0)
-            GlobalOptions.err.println("before Transformation: "+this);
+        if (context.isDebugging(GlobalOptions.DEBUG_FLOW))
+            context.getErr().println("before Transformation: "+this);
 
         doTransformations();
 
-        if ((GlobalOptions.debuggingFlags & GlobalOptions.DEBUG_FLOW) != 0)
-            GlobalOptions.err.println("after Transformation: "+this);
+        if (context.isDebugging(GlobalOptions.DEBUG_FLOW))
+            context.getErr().println("after Transformation: "+this);
 
         /* T1 analysis succeeded */
         checkConsistent();
@@ -1332,6 +1366,7 @@ public class FlowBlock {
     }
 
     public void doTransformations() {
+	context.checkMethodBudget();
         while (lastModified instanceof SequentialBlock) {
             if (lastModified.getSubBlocks()[0].doTransformations())
 		continue;
@@ -1367,14 +1402,40 @@ public class FlowBlock {
     /**
      * The main analyzation.  This calls doT1 and doT2 on apropriate
      * regions until the whole function is transformed to a single
-     * block.  
+     * block.  With the dominators option most transformations of
+     * huge methods are done first by a {@link DominatorAnalysis}, in
+     * the same order.
      */
     public void analyze() {
+	if (context.isOption(Options.OPTION_DOMINATORS)) {
+	    /* Count the blocks in code order, but stop at the limit. */
+	    int count = 0;
+	    for (FlowBlock flow = this;
+		 flow != null && count < DominatorAnalysis.minBlocks;
+		 flow = flow.nextByCodeOrder)
+		count++;
+	    if (count >= DominatorAnalysis.minBlocks)
+		new DominatorAnalysis(this).reduce();
+	}
 	while (analyze(0, Integer.MAX_VALUE)) 
 	    { }
         mergeEndBlock();
     }
 
+    /**
+     * Tells if a T1 transformation should be tried.  There must be a
+     * loop, and it must have only one exit (plus returns) or the
+     * successor block doesn't belong to the loop.  See the comment
+     * in {@link #analyze(int,int)}.
+     */
+    boolean isLoopCandidate() {
+	return successors.containsKey(this)
+	    && (!successors.containsKey(nextByCodeOrder)
+		|| successors.size() == 2
+		|| (successors.size() == 3
+		    && successors.containsKey(END_OF_METHOD)));
+    }
+
     /**
      * The main analysis.  This calls doT1 and doT2 on appropriate
      * regions.  Only blocks whose block number lies in the given block number
@@ -1383,13 +1444,14 @@ public class FlowBlock {
      * @param end the end of the block number range.
      */
     public boolean analyze(int start, int end) {
-        if ((GlobalOptions.debuggingFlags & GlobalOptions.DEBUG_ANALYZE) != 0)
-            GlobalOptions.err.println("analyze("+start+", "+end+")");
+        if (context.isDebugging(GlobalOptions.DEBUG_ANALYZE))
+            context.getErr().println("analyze("+start+", "+end+")");
 
 	checkConsistent();
         boolean changed = false;
 
         while (true) {
+	    context.checkMethodBudget();
 
             if (lastModified instanceof SwitchBlock) {
                 /* analyze the switch first.
@@ -1420,15 +1482,12 @@ public class FlowBlock {
 	     *   return
 	     * } while(false)
 	     */
-	    if (successors.containsKey(this)
-		&& (!successors.containsKey(nextByCodeOrder)
-		    || successors.size() == 2
-		    || (successors.size() == 3
-			&& successors.containsKey(END_OF_METHOD)))
-		&& doT1(start, end)) {
+	    if (isLoopCandidate() && doT1(start, end)) {
 		
-		if ((GlobalOptions.debuggingFlags & GlobalOptions.DEBUG_FLOW) != 0)
-		    GlobalOptions.err.println("after T1: "+this);
+		if (context.getMetrics() != null)
+		    context.getMetrics().addCount(1);
+		if (context.isDebugging(GlobalOptions.DEBUG_FLOW))
+		    context.getErr().println("after T1: "+this);
 		
 		/* T1 transformation succeeded.  This may
 		 * make another T2 analysis in the previous
@@ -1443,9 +1502,8 @@ public class FlowBlock {
                     /* the Block has no successor where T2 is applicable.
                      * Finish this analyzation.
                      */
-                    if ((GlobalOptions.debuggingFlags
-			 & GlobalOptions.DEBUG_ANALYZE) != 0)
-                        GlobalOptions.err.println
+                    if (context.isDebugging(GlobalOptions.DEBUG_ANALYZE))
+                        context.getErr().println
                             ("No more successors applicable: "
                              + start + " - " + end + "; "
                              + blockNr + " - " + getNextBlockNr());
@@ -1458,10 +1516,11 @@ public class FlowBlock {
 			   && doT2(succ)) {
 		    /* T2 transformation succeeded. */
 		    changed = true;
+		    if (context.getMetrics() != null)
+			context.getMetrics().addCount(1);
 		    
-		    if ((GlobalOptions.debuggingFlags
-			 & GlobalOptions.DEBUG_FLOW) != 0)
-			GlobalOptions.err.println("after T2: "+this);
+		    if (context.isDebugging(GlobalOptions.DEBUG_FLOW))
+			context.getErr().println("after T2: "+this);
 		    break;
 
 		} else {
@@ -1475,10 +1534,9 @@ public class FlowBlock {
 			FlowBlock pred = (FlowBlock)i.next();
                         if (pred == null /* the start marker */
 			    || pred.blockNr < start || pred.blockNr >= end) {
-			    if ((GlobalOptions.debuggingFlags
-				 & GlobalOptions.DEBUG_ANALYZE) != 0)
+			    if (context.isDebugging(GlobalOptions.DEBUG_ANALYZE))
 				
-				GlobalOptions.err.println
+				context.getErr().println
 				    ("breaking analyze("
 				     + start + ", " + end + "); "
 				     + blockNr + " - " + getNextBlockNr());
@@ -1515,8 +1573,8 @@ public class FlowBlock {
      * @param end the end of the block number range.
      */
     public boolean analyzeSwitch(int start, int end) {
-        if ((GlobalOptions.debuggingFlags & GlobalOptions.DEBUG_ANALYZE) != 0)
-            GlobalOptions.err.println("analyzeSwitch("+start+", "+end+")");
+        if (context.isDebugging(GlobalOptions.DEBUG_ANALYZE))
+            context.getErr().println("analyzeSwitch("+start+", "+end+")");
 
         SwitchBlock switchBlock = (SwitchBlock) lastModified;
         boolean changed = false;
@@ -1606,11 +1664,10 @@ public class FlowBlock {
             mergeSuccessors(lastFlow);
         }
 	
-	if ((GlobalOptions.debuggingFlags & GlobalOptions.DEBUG_FLOW) != 0)
-	    GlobalOptions.err.println("after analyzeSwitch: "+this);
-	if ((GlobalOptions.debuggingFlags
-	     & GlobalOptions.DEBUG_ANALYZE) != 0)
-	    GlobalOptions.err.println
+	if (context.isDebugging(GlobalOptions.DEBUG_FLOW))
+	    context.getErr().println("after analyzeSwitch: "+this);
+	if (context.isDebugging(GlobalOptions.DEBUG_ANALYZE))
+	    context.getErr().println
 		("analyzeSwitch done: " + start + " - " + end + "; "
 		 + blockNr + " - " + getNextBlockNr());
         checkConsistent();
@@ -1715,7 +1772,7 @@ public class FlowBlock {
 	    stack = succ.stackMap;
 	    for (/**/; jumps != null; jumps = jumps.next) {
 		if (jumps.stackMap == null)
-		    GlobalOptions.err.println("Dead jump? "+jumps.prev
+		    context.getErr().println("Dead jump? "+jumps.prev
 					      +" in "+this);
 		
 		stack = VariableStack.merge(stack, jumps.stackMap);
@@ -1824,14 +1881,13 @@ public class FlowBlock {
             writer.tab();
         }
 
-        if ((GlobalOptions.debuggingFlags & GlobalOptions.DEBUG_INOUT) != 0) {
+        if (context.isDebugging(GlobalOptions.DEBUG_INOUT)) {
             writer.println("in: "+in);
         }
 
         block.dumpSource(writer);
 
-        if ((GlobalOptions.debuggingFlags
-	     & GlobalOptions.DEBUG_INOUT) != 0) {
+        if (context.isDebugging(GlobalOptions.DEBUG_INOUT)) {
 	    
 	    Iterator iter = successors.entrySet().iterator();
 	    while (iter.hasNext()) {
@@ -1848,11 +1904,6 @@ public class FlowBlock {
 	    nextByCodeOrder.dumpSource(writer);
     }
 
-    /**
-     * The serial number for labels.
-     */
-    static int serialno = 0;
-
     /**
      * The label of this instruction, or null if it needs no label.
      */
@@ -1871,7 +1922,8 @@ public class FlowBlock {
      */
     public String getLabel() {
         if (label == null)
-            label = "flow_"+blockNr+"_"+(serialno++)+"_";
+            label = "flow_"+blockNr+"_"
+		+ context.nextSerial(DecompilerContext.SERIAL_FLOW)+"_";
         return label;
     }
 
@@ -1887,14 +1939,13 @@ public class FlowBlock {
             java.io.StringWriter strw = new java.io.StringWriter();
             TabbedPrintWriter writer = new TabbedPrintWriter(strw);
             writer.println(super.toString() + ": "+blockNr);
-	    if ((GlobalOptions.debuggingFlags & GlobalOptions.DEBUG_INOUT) != 0) {
+	    if (context.isDebugging(GlobalOptions.DEBUG_INOUT)) {
 		writer.println("in: "+in);
 	    }
             writer.tab();
             block.dumpSource(writer);
             writer.untab();
-	    if ((GlobalOptions.debuggingFlags
-		 & GlobalOptions.DEBUG_INOUT) != 0) {
+	    if (context.isDebugging(GlobalOptions.DEBUG_INOUT)) {
 		
 		Iterator iter = successors.entrySet().iterator();
 		while (iter.hasNext()) {
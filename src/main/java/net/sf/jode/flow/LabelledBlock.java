@@ -18,6 +18,7 @@
  */
 
 package net.sf.jode.flow;
+import net.sf.jode.decompiler.DecompilerContext;
 import net.sf.jode.decompiler.TabbedPrintWriter;
 
 /**
@@ -35,11 +36,6 @@ public class LabelledBlock extends StructuredBlock implements BreakableBlock {
      */
     VariableStack breakedStack;
 
-    /**
-     * The serial number for labels.
-     */
-    static int serialno = 0;
-
     /**
      * The label of this instruction, or null if it needs no label.
      */
@@ -109,7 +105,8 @@ public class LabelledBlock extends StructuredBlock implements BreakableBlock {
      */
     public String getLabel() {
         if (label == null)
-            label = "label_"+(serialno++);
+            label = "label_"+DecompilerContext.getCurrent()
+		.nextSerial(DecompilerContext.SERIAL_LABEL);
         return label;
     }
 
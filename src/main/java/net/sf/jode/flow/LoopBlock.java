@@ -18,6 +18,7 @@
  */
 
 package net.sf.jode.flow;
+import net.sf.jode.decompiler.DecompilerContext;
 import net.sf.jode.decompiler.TabbedPrintWriter;
 import net.sf.jode.decompiler.LocalInfo;
 import net.sf.jode.expr.Expression;
@@ -370,11 +371,6 @@ public class LoopBlock extends StructuredBlock implements BreakableBlock {
 
     boolean mayChangeJump = true;
 
-    /**
-     * The serial number for labels.
-     */
-    static int serialno = 0;
-
     /**
      * The label of this instruction, or null if it needs no label.
      */
@@ -386,7 +382,8 @@ public class LoopBlock extends StructuredBlock implements BreakableBlock {
      */
     public String getLabel() {
         if (label == null)
-            label = "while_"+(serialno++)+"_";
+            label = "while_"+DecompilerContext.getCurrent()
+		.nextSerial(DecompilerContext.SERIAL_LOOP)+"_";
         return label;
     }
 
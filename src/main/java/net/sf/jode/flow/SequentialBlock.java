@@ -65,12 +65,12 @@ public class SequentialBlock extends StructuredBlock {
      */
     public VariableStack mapStackToLocal(VariableStack stack) {
 	if (stack == null)
-	    net.sf.jode.GlobalOptions.err.println("map stack to local called with null: " + this+ " in "+this.flowBlock);
+	    net.sf.jode.GlobalOptions.getErr().println("map stack to local called with null: " + this+ " in "+this.flowBlock);
 	VariableStack middle = subBlocks[0].mapStackToLocal(stack);
 	if (middle != null)
 	    // Otherwise the second block is at least "logical" dead code
 	    return subBlocks[1].mapStackToLocal(middle);
-	net.sf.jode.GlobalOptions.err.println("Dead code after Block " + subBlocks[0]);
+	net.sf.jode.GlobalOptions.getErr().println("Dead code after Block " + subBlocks[0]);
 	return null;
     }
 
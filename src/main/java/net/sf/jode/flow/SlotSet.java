@@ -21,6 +21,7 @@ package net.sf.jode.flow;
 import net.sf.jode.decompiler.LocalInfo;
 
 import java.util.AbstractSet;
+import java.util.Collection;
 import java.util.Set;
 import java.util.Iterator;
 
@@ -30,11 +31,26 @@ import java.util.Iterator;
  *
  * Its add method will automatically merge any localinfo that have
  * the same slot and is in the method. <p>
+ *
+ * Besides the array of locals, that gives the iteration order, the
+ * set has a bit set of the used slots and a table that maps each slot
+ * to its local.  So looking up a slot takes constant time and the
+ * bulk operations on two slot sets work on whole words of slots.
+ * Locals with an anonymous (negative) slot are only in the array.
  */
 public final class SlotSet extends AbstractSet implements Cloneable {
     LocalInfo[] locals;
     int count;
 
+    /**
+     * The bit set of the non negative slots in this set.
+     */
+    long[] slots;
+    /**
+     * Maps the non negative slots in this set to their local info.
+     */
+    LocalInfo[] slotLocals;
+
     /**
      * Creates a new empty variable set
      */
@@ -49,6 +65,8 @@ public final class SlotSet extends AbstractSet implements Cloneable {
     public SlotSet(LocalInfo[] locals) {
         count = locals.length;
         this.locals = locals;
+	for (int i = 0; i < count; i++)
+	    setSlot(locals[i]);
     }
 
     public final void grow(int size) {
@@ -56,7 +74,7 @@ public final class SlotSet extends AbstractSet implements Cloneable {
             size += count;
             if (size > locals.length) {
                 int nextSize = locals.length * 2;
-//              GlobalOptions.err.println("wanted: "+size+" next: "+nextSize);
+//              GlobalOptions.getErr().println("wanted: "+size+" next: "+nextSize);
                 LocalInfo[] newLocals
                     = new LocalInfo[nextSize > size ? nextSize : size];
                 System.arraycopy(locals, 0, newLocals, 0, count);
@@ -66,6 +84,35 @@ public final class SlotSet extends AbstractSet implements Cloneable {
             locals = new LocalInfo[size];
     }
 
+    private void setSlot(LocalInfo li) {
+	int slot = li.getSlot();
+	if (slot < 0)
+	    return;
+	if (slotLocals == null || slot >= slotLocals.length) {
+	    int size = slotLocals == null ? 16 : slotLocals.length * 2;
+	    while (size <= slot)
+		size *= 2;
+	    LocalInfo[] newSlotLocals = new LocalInfo[size];
+	    long[] newSlots = new long[(size + 63) >> 6];
+	    if (slotLocals != null) {
+		System.arraycopy(slotLocals, 0, newSlotLocals, 0,
+				 slotLocals.length);
+		System.arraycopy(slots, 0, newSlots, 0, slots.length);
+	    }
+	    slotLocals = newSlotLocals;
+	    slots = newSlots;
+	}
+	slotLocals[slot] = li;
+	slots[slot >> 6] |= 1L << slot;
+    }
+
+    private void clearSlot(int slot) {
+	if (slot >= 0) {
+	    slotLocals[slot] = null;
+	    slots[slot >> 6] &= ~(1L << slot);
+	}
+    }
+
     /**
      * Adds a local info to this variable set.
      */
@@ -78,6 +125,7 @@ public final class SlotSet extends AbstractSet implements Cloneable {
 	} else {
 	    grow(1);
 	    locals[count++] = li;
+	    setSlot(li);
 	    return true;
 	}
     }
@@ -90,6 +138,9 @@ public final class SlotSet extends AbstractSet implements Cloneable {
      * Checks if the variable set contains a local with the given name.
      */
     public final boolean containsSlot(int slot) {
+	if (slot >= 0)
+	    return slots != null && (slot >> 6) < slots.length
+		&& (slots[slot >> 6] & (1L << slot)) != 0;
 	return findSlot(slot) != null;
     }
 
@@ -97,6 +148,9 @@ public final class SlotSet extends AbstractSet implements Cloneable {
      * Checks if the variable set contains a local with the given slot.
      */
     public LocalInfo findSlot(int slot) {
+	if (slot >= 0)
+	    return slotLocals != null && slot < slotLocals.length
+		? slotLocals[slot] : null;
         for (int i=0; i<count;i++)
             if (locals[i].getSlot() == slot)
                 return locals[i];
@@ -108,8 +162,11 @@ public final class SlotSet extends AbstractSet implements Cloneable {
      */
     public boolean remove(Object li) {
         int slot = ((LocalInfo) li).getSlot();
+	if (slot >= 0 && !containsSlot(slot))
+	    return false;
         for (int i=0; i<count;i++) {
             if (locals[i].getSlot() == slot) {
+		clearSlot(slot);
                 locals[i] = locals[--count];
 		locals[count] = null;
 		return true;
@@ -118,6 +175,73 @@ public final class SlotSet extends AbstractSet implements Cloneable {
 	return false;
     }
 
+    /**
+     * Removes the slots that are in the given set, or that are not
+     * in the given set.  The order of the remaining locals is kept.
+     * @param other the slots to remove or to keep.
+     * @param keep true, if the slots in other should be kept.
+     * @return true, if this set changed.
+     */
+    private boolean filter(SlotSet other, boolean keep) {
+	int newCount = 0;
+	for (int i = 0; i < count; i++) {
+	    LocalInfo li = locals[i];
+	    if (other.containsSlot(li.getSlot()) == keep)
+		locals[newCount++] = li;
+	    else
+		clearSlot(li.getSlot());
+	}
+	if (newCount == count)
+	    return false;
+	for (int i = newCount; i < count; i++)
+	    locals[i] = null;
+	count = newCount;
+	return true;
+    }
+
+    /**
+     * Checks if this set shares a non negative slot with the other
+     * set.
+     */
+    private boolean intersectsSlots(SlotSet other) {
+	if (slots == null || other.slots == null)
+	    return false;
+	int length = Math.min(slots.length, other.slots.length);
+	for (int i = 0; i < length; i++) {
+	    if ((slots[i] & other.slots[i]) != 0)
+		return true;
+	}
+	return false;
+    }
+
+    /**
+     * Checks if a local of this set has an anonymous slot.
+     */
+    private boolean hasAnonymousSlots() {
+	for (int i = 0; i < count; i++)
+	    if (locals[i].getSlot() < 0)
+		return true;
+	return false;
+    }
+
+    public boolean removeAll(Collection c) {
+	if (!(c instanceof SlotSet))
+	    return super.removeAll(c);
+	SlotSet other = (SlotSet) c;
+	if (count == 0 || other.count == 0)
+	    return false;
+	if (!intersectsSlots(other) 
+	    && !(hasAnonymousSlots() && other.hasAnonymousSlots()))
+	    return false;
+	return filter(other, false);
+    }
+
+    public boolean retainAll(Collection c) {
+	if (!(c instanceof SlotSet))
+	    return super.retainAll(c);
+	return filter((SlotSet) c, true);
+    }
+
     public int size() {
 	return count;
     }
@@ -135,11 +259,13 @@ public final class SlotSet extends AbstractSet implements Cloneable {
 	    }
 	  
 	    public void remove() {
+		clearSlot(locals[pos-1].getSlot());
 		if (pos < count)
 		    System.arraycopy(locals, pos, 
 				     locals, pos-1, count - pos);
 		count--;
 		pos--;
+		locals[count] = null;
 	    }
 	};
     }
@@ -150,6 +276,8 @@ public final class SlotSet extends AbstractSet implements Cloneable {
     public void clear() {
         locals = null;
         count = 0;
+	slots = null;
+	slotLocals = null;
     }
 
     public Object clone() {
@@ -159,6 +287,10 @@ public final class SlotSet extends AbstractSet implements Cloneable {
                 other.locals = new LocalInfo[count];
                 System.arraycopy(locals, 0, other.locals, 0, count);
             }
+	    if (slots != null) {
+		other.slots = (long[]) slots.clone();
+		other.slotLocals = (LocalInfo[]) slotLocals.clone();
+	    }
             return other;
         } catch (CloneNotSupportedException ex) {
             throw new InternalError("Clone?");
@@ -172,9 +304,26 @@ public final class SlotSet extends AbstractSet implements Cloneable {
      * @return The merged variables.
      * @param vs the other variable set.  */
     public void merge(VariableSet vs) {
+	if (count == 0 || vs.count == 0)
+	    return;
+	/* For every slot of this set combine the locals of vs in
+	 * their order.  Different slots are independent, so it is
+	 * enough to walk through vs once.
+	 */
+	for (int j=0; j<vs.count; j++) {
+	    LocalInfo vsLocal = vs.locals[j];
+	    int slot = vsLocal.getSlot();
+	    if (slot >= 0) {
+		LocalInfo li = findSlot(slot);
+		if (li != null)
+		    li.combineWith(vsLocal);
+	    }
+	}
         for (int i=0; i<count; i++) {
             LocalInfo li = locals[i];
             int slot = li.getSlot();
+	    if (slot >= 0)
+		continue;
 	    for (int j=0; j<vs.count; j++) {
 		if (slot == vs.locals[j].getSlot())
 		    li.combineWith(vs.locals[j]);
@@ -600,8 +600,7 @@ public abstract class StructuredBlock {
     public void dumpSource(TabbedPrintWriter writer)
         throws java.io.IOException
     {
-	if ((GlobalOptions.debuggingFlags
-	     & GlobalOptions.DEBUG_LOCALS) != 0) {
+	if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_LOCALS)) {
 	    if (declare != null)
 		writer.println("declaring: "+declare);
 	    if (done != null)
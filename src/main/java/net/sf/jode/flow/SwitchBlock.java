@@ -18,6 +18,7 @@
  */
 
 package net.sf.jode.flow;
+import net.sf.jode.decompiler.DecompilerContext;
 import net.sf.jode.decompiler.TabbedPrintWriter;
 import net.sf.jode.expr.Expression;
 
@@ -241,11 +242,6 @@ implements BreakableBlock {
 
     boolean isBreaked = false;
 
-    /**
-     * The serial number for labels.
-     */
-    static int serialno = 0;
-
     /**
      * The label of this instruction, or null if it needs no label.
      */
@@ -257,7 +253,8 @@ implements BreakableBlock {
      */
     public String getLabel() {
         if (label == null)
-            label = "switch_"+(serialno++)+"_";
+            label = "switch_"+DecompilerContext.getCurrent()
+		.nextSerial(DecompilerContext.SERIAL_SWITCH)+"_";
         return label;
     }
 
@@ -161,7 +161,7 @@ public class TransformConstructors {
         for (int i=0; i< type01Count; ) {
 	    MethodAnalyzer current = cons[i];
 	    if (!isStatic
-		&& (Options.options & Options.OPTION_CONTRAFO) != 0
+		&& (Options.getOptions() & Options.OPTION_CONTRAFO) != 0
 		&& clazzAnalyzer.getOuterInstance() != null)
 		current.getParamInfo(1).setExpression
 		    (clazzAnalyzer.getOuterInstance());
@@ -173,9 +173,8 @@ public class TransformConstructors {
 
 	    StructuredBlock body = cons[i].getMethodHeader().block;
 	    int type = isStatic ? 0 : getConstructorType(body);
-	    if ((GlobalOptions.debuggingFlags
-		 & GlobalOptions.DEBUG_CONSTRS) != 0)
-		GlobalOptions.err.println("constr "+i+": type"+type+" "+body);
+	    if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_CONSTRS))
+		GlobalOptions.getErr().println("constr "+i+": type"+type+" "+body);
 
 	    switch(type) {
 	    case 0:
@@ -214,9 +213,8 @@ public class TransformConstructors {
 	    || clazzAnalyzer.getName() != null)
 	    return;
 
-	if ((GlobalOptions.debuggingFlags
-	     & GlobalOptions.DEBUG_CONSTRS) != 0)
-	    GlobalOptions.err.println("checkAnonymousConstructor of "
+	if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_CONSTRS))
+	    GlobalOptions.getErr().println("checkAnonymousConstructor of "
 				      +clazzAnalyzer.getClazz());
 
 	StructuredBlock sb = cons[0].getMethodHeader().block;
@@ -283,9 +281,8 @@ public class TransformConstructors {
 	while (sub >= start) {
 	    LocalLoadOperator llop = (LocalLoadOperator) subExpr[sub];
 
-	    if ((GlobalOptions.debuggingFlags
-		 & GlobalOptions.DEBUG_CONSTRS) != 0)
-		GlobalOptions.err.println("  pos "+sub+": "+slot+","
+	    if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_CONSTRS))
+		GlobalOptions.getErr().println("  pos "+sub+": "+slot+","
 					  + llop.getLocalInfo().getSlot()+
 					  "; "+minOuter);
 	    
@@ -309,17 +306,15 @@ public class TransformConstructors {
 	    superOV = superAna.getOuterValues();
 	}
 	int minSuperOuter = sub - start + 1;
-	if ((GlobalOptions.debuggingFlags
-	     & GlobalOptions.DEBUG_CONSTRS) != 0)
-	    GlobalOptions.err.println("  super outer: " + superOV);
+	if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_CONSTRS))
+	    GlobalOptions.getErr().println("  super outer: " + superOV);
 
 	/* The remaining sub expressions must be outerValues. */
 	for (; sub >= start; sub--) {
 	    LocalLoadOperator llop = (LocalLoadOperator) subExpr[sub];
 	    if (llop.getLocalInfo().getSlot() >= slot) {
-		if ((GlobalOptions.debuggingFlags
-		     & GlobalOptions.DEBUG_CONSTRS) != 0)
-		    GlobalOptions.err.println("  Illegal slot at "+sub+":"
+		if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_CONSTRS))
+		    GlobalOptions.getErr().println("  Illegal slot at "+sub+":"
 					      + llop.getLocalInfo().getSlot());
 		return;
 	    }
@@ -338,9 +333,8 @@ public class TransformConstructors {
 
 	if (minSuperOuter > 0) {		
 	    if (superOV == null || superOV.getCount() < minSuperOuter) {
-		if ((GlobalOptions.debuggingFlags
-		     & GlobalOptions.DEBUG_CONSTRS) != 0)
-		    GlobalOptions.err.println("  super outer doesn't match: "
+		if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_CONSTRS))
+		    GlobalOptions.getErr().println("  super outer doesn't match: "
 					      + minSuperOuter);
 		return;
 	    }
@@ -362,9 +356,8 @@ public class TransformConstructors {
 
 	if (jikesAnon)
 	    outerValues.setJikesAnonymousInner(true);
-	if ((GlobalOptions.debuggingFlags
-	     & GlobalOptions.DEBUG_CONSTRS) != 0)
-	    GlobalOptions.err.println("  succeeded: "+outerValues);
+	if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_CONSTRS))
+	    GlobalOptions.getErr().println("  succeeded: "+outerValues);
 	cons[0].setAnonymousConstructor(true);
 	superBlock.removeBlock();
 	type0Count++;
@@ -423,14 +416,12 @@ public class TransformConstructors {
     }
 
     private void checkJikesContinuation() {
-	if ((GlobalOptions.debuggingFlags
-	     & GlobalOptions.DEBUG_CONSTRS) != 0)
+	if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_CONSTRS))
 	    System.err.println("checkJikesContinuation: "+outerValues);
     constr_loop:
 	for (int i=0; i < cons.length; i++) {
-	    if ((GlobalOptions.debuggingFlags
-		 & GlobalOptions.DEBUG_CONSTRS) != 0)
-		GlobalOptions.err.println("constr "+i+" type"
+	    if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_CONSTRS))
+		GlobalOptions.getErr().println("constr "+i+" type"
 					  + (i < type0Count ? 0 :
 					     i < type01Count ? 1 : 2) + " : "
 					  + cons[i].getMethodHeader());
@@ -575,9 +566,8 @@ public class TransformConstructors {
 		methodAna.getMethodHeader().simplify();
 	    }
 
-	    if ((GlobalOptions.debuggingFlags
-		 & GlobalOptions.DEBUG_CONSTRS) != 0)
-		GlobalOptions.err.println("  succeeded");
+	    if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_CONSTRS))
+		GlobalOptions.getErr().println("  succeeded");
 
 	    constr.setJikesConstructor(constr);
 	    methodAna.setJikesConstructor(constr);
@@ -597,21 +587,19 @@ public class TransformConstructors {
 						 Expression expr) {
 	if (expr instanceof LocalVarOperator) {
 	    if (!(expr instanceof LocalLoadOperator)) {
-		if ((GlobalOptions.debuggingFlags
-		     & GlobalOptions.DEBUG_CONSTRS) != 0)
-		    GlobalOptions.err.println("illegal local op: "+expr);
+		if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_CONSTRS))
+		    GlobalOptions.getErr().println("illegal local op: "+expr);
 		return null;
 	    }
 	    if (outerValues != null
-		&& (Options.options & Options.OPTION_CONTRAFO) != 0) {
+		&& (Options.getOptions() & Options.OPTION_CONTRAFO) != 0) {
 		int slot = ((LocalLoadOperator)expr).getLocalInfo().getSlot();
 		Expression outExpr = outerValues.getValueBySlot(slot);
 		if (outExpr != null)
 		    return outExpr;
             }
-	    if ((GlobalOptions.debuggingFlags
-		 & GlobalOptions.DEBUG_CONSTRS) != 0)
-		GlobalOptions.err.println("not outerValue: "+expr
+	    if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_CONSTRS))
+		GlobalOptions.getErr().println("not outerValue: "+expr
 					  +" "+outerValues);
 	    return null;
 	}
@@ -668,16 +656,15 @@ public class TransformConstructors {
      * after the constructors are analyzed.
      */
     public void removeSynthInitializers() {
-	if ((Options.options & Options.OPTION_CONTRAFO) == 0
+	if ((Options.getOptions() & Options.OPTION_CONTRAFO) == 0
 	    || isStatic || type01Count == 0)
 	    return;
 	
-	if ((Options.options & Options.OPTION_ANON) != 0)
+	if ((Options.getOptions() & Options.OPTION_ANON) != 0)
 	    checkAnonymousConstructor();
 
-	if ((GlobalOptions.debuggingFlags
-	     & GlobalOptions.DEBUG_CONSTRS) != 0)
-	    GlobalOptions.err.println("removeSynthInitializers of "
+	if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_CONSTRS))
+	    GlobalOptions.getErr().println("removeSynthInitializers of "
 				      +clazzAnalyzer.getClazz());
 	
 	/* sb will iterate the instructions of the constructor. */
@@ -746,9 +733,8 @@ public class TransformConstructors {
                 if (!(ib instanceof InstructionBlock)
                     || !(((InstructionBlock)ib).getInstruction().simplify()
 			 .equals(instr))) {
-		    if ((GlobalOptions.debuggingFlags
-			 & GlobalOptions.DEBUG_CONSTRS) != 0)
-			GlobalOptions.err.println("  constr 0 and "+i
+		    if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_CONSTRS))
+			GlobalOptions.getErr().println("  constr 0 and "+i
 						  +" differ: "
 						  +instr+"<-/->"+ib);
                     break big_loop;
@@ -756,15 +742,13 @@ public class TransformConstructors {
             }
 
 
-	    if ((GlobalOptions.debuggingFlags
-		 & GlobalOptions.DEBUG_CONSTRS) != 0)
-		GlobalOptions.err.println("  field " + pfo.getFieldName()
+	    if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_CONSTRS))
+		GlobalOptions.getErr().println("  field " + pfo.getFieldName()
 					  + " = " + expr);
 
             if (!(fieldAna.setInitializer(expr))) {
-		if ((GlobalOptions.debuggingFlags
-		     & GlobalOptions.DEBUG_CONSTRS) != 0)
-		    GlobalOptions.err.println("    setField failed");
+		if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_CONSTRS))
+		    GlobalOptions.getErr().println("    setField failed");
                 break big_loop;
             }
 	    
@@ -783,9 +767,8 @@ public class TransformConstructors {
             }
 
 	    if  (done) {
-		if ((GlobalOptions.debuggingFlags
-		     & GlobalOptions.DEBUG_CONSTRS) != 0)
-		    GlobalOptions.err.println("one constr is over");
+		if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_CONSTRS))
+		    GlobalOptions.getErr().println("one constr is over");
 		break;
 	    }
         }
@@ -815,9 +798,8 @@ public class TransformConstructors {
 	if (!isStatic) {
 	    if (!isThis(pfo.getSubExpressions()[0], 
 			clazzAnalyzer.getClazz())) {
-		if ((GlobalOptions.debuggingFlags
-		     & GlobalOptions.DEBUG_CONSTRS) != 0)
-		    GlobalOptions.err.println("  not this: "+instr);
+		if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_CONSTRS))
+		    GlobalOptions.getErr().println("  not this: "+instr);
 		return -1;
 	    }
 	}
@@ -833,17 +815,15 @@ public class TransformConstructors {
 	if (expr == null)
 	    return -1;
 	
-	if ((GlobalOptions.debuggingFlags
-	     & GlobalOptions.DEBUG_CONSTRS) != 0)
-	    GlobalOptions.err.println("  field " + pfo.getFieldName()
+	if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_CONSTRS))
+	    GlobalOptions.getErr().println("  field " + pfo.getFieldName()
 				      + " = " + expr);
 	
 	// if field does not exists: -1 <= lastField.
 	if (field <= lastField
 	    || !(clazzAnalyzer.getField(field).setInitializer(expr))) {
-	    if ((GlobalOptions.debuggingFlags
-		 & GlobalOptions.DEBUG_CONSTRS) != 0)
-		GlobalOptions.err.println("set field failed");
+	    if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_CONSTRS))
+		GlobalOptions.getErr().println("set field failed");
 	    return -1;
 	}
 	return field;
@@ -893,16 +873,15 @@ public class TransformConstructors {
     /* Checks if superInvoke is the default super call. 
      */
     private boolean isDefaultSuper(InvokeOperator superInvoke) {
-	if ((GlobalOptions.debuggingFlags
-	     & GlobalOptions.DEBUG_CONSTRS) != 0)
-	    GlobalOptions.err.println("isDefaultSuper: "+superInvoke);
+	if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_CONSTRS))
+	    GlobalOptions.getErr().println("isDefaultSuper: "+superInvoke);
 
 	ClassInfo superClazz = superInvoke.getClassInfo();
 	Expression[] params = superInvoke.getSubExpressions();
 	if (superClazz == null)
 	    return false;
 
-	if ((Options.options & Options.OPTION_INNER) != 0
+	if ((Options.getOptions() & Options.OPTION_INNER) != 0
 	    && superClazz.getOuterClass() != null
 	    && !Modifier.isStatic(superClazz.getModifiers())) {
 
@@ -916,9 +895,8 @@ public class TransformConstructors {
 	    if (superOuterExpr instanceof ThisOperator
 		&& (((ThisOperator) superOuterExpr).getClassInfo()
 		    == superClazz.getOuterClass())) {
-		if ((GlobalOptions.debuggingFlags
-		     & GlobalOptions.DEBUG_CONSTRS) != 0)
-		    GlobalOptions.err.println("  isDefaultSuper success");
+		if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_CONSTRS))
+		    GlobalOptions.getErr().println("  isDefaultSuper success");
 		return true;
 	    }
 	    return false;
@@ -939,9 +917,8 @@ public class TransformConstructors {
 	if (params.length != outerValCount + 1)
 	    return false;
 
-	if ((GlobalOptions.debuggingFlags
-	     & GlobalOptions.DEBUG_CONSTRS) != 0)
-	    GlobalOptions.err.println("  isDefaultSuper success");
+	if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_CONSTRS))
+	    GlobalOptions.getErr().println("  isDefaultSuper success");
 	return true;
     }
 
@@ -976,9 +953,8 @@ public class TransformConstructors {
 	if (type01Count == 0)
 	    return;
 
-	if ((GlobalOptions.debuggingFlags
-	     & GlobalOptions.DEBUG_CONSTRS) != 0)
-	    GlobalOptions.err.println("removeInitializers");
+	if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_CONSTRS))
+	    GlobalOptions.getErr().println("removeInitializers");
 	
         StructuredBlock[] sb = new StructuredBlock[type01Count];
         for (int i=0; i< type01Count; i++) {
@@ -1002,9 +978,8 @@ public class TransformConstructors {
                 ? sb[0].getSubBlocks()[0]
                 : sb[0];
 
-	    if ((GlobalOptions.debuggingFlags
-		 & GlobalOptions.DEBUG_CONSTRS) != 0)
-		GlobalOptions.err.println("Instruction: "+ib);
+	    if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_CONSTRS))
+		GlobalOptions.getErr().println("Instruction: "+ib);
 
             if (!(ib instanceof InstructionBlock))
                 break big_loop;
@@ -1019,9 +994,8 @@ public class TransformConstructors {
                 if (!(ib instanceof InstructionBlock)
                     || !(((InstructionBlock)ib).getInstruction().simplify()
 			 .equals(instr))) {
-		    if ((GlobalOptions.debuggingFlags
-			 & GlobalOptions.DEBUG_CONSTRS) != 0)
-			GlobalOptions.err.println("constr "+i+" differs: "+ib);
+		    if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_CONSTRS))
+			GlobalOptions.getErr().println("constr "+i+" differs: "+ib);
                     break big_loop;
                 }
             }
@@ -1061,9 +1035,8 @@ public class TransformConstructors {
             }
 
 	    if  (done) {
-		if ((GlobalOptions.debuggingFlags
-		     & GlobalOptions.DEBUG_CONSTRS) != 0)
-		    GlobalOptions.err.println("one constr is over");
+		if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_CONSTRS))
+		    GlobalOptions.getErr().println("one constr is over");
 		break;
 	    }
         }
@@ -1082,7 +1055,7 @@ public class TransformConstructors {
      * outerValue - locals).
      */
     public void transform() {
-	if ((Options.options & Options.OPTION_CONTRAFO) == 0
+	if ((Options.getOptions() & Options.OPTION_CONTRAFO) == 0
 	    || cons.length == 0)
 	    return;
 
@@ -111,9 +111,8 @@ public class TransformExceptionHandlers {
      * @param catchFlow the flow block containing the catch handler.
      */
     static void mergeTryCatch(FlowBlock tryFlow, FlowBlock catchFlow) {
-	if ((GlobalOptions.debuggingFlags
-	     & GlobalOptions.DEBUG_ANALYZE) != 0)
-	    GlobalOptions.err.println
+	if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_ANALYZE))
+	    GlobalOptions.getErr().println
 		("mergeTryCatch(" + tryFlow.getBlockNr()
 		 + ", " + catchFlow.getBlockNr() + ")");
 	tryFlow.updateInOutCatch(catchFlow);
@@ -604,9 +603,8 @@ public class TransformExceptionHandlers {
 	    ((LocalLoadOperator)monexit.getSubExpressions()[0])
 	    .getLocalInfo();
 	
-	if ((GlobalOptions.debuggingFlags
-	     & GlobalOptions.DEBUG_ANALYZE) != 0)
-	    GlobalOptions.err.println
+	if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_ANALYZE))
+	    GlobalOptions.getErr().println
 		("analyzeSynchronized(" + tryFlow.getBlockNr()
 		 + "," + tryFlow.getNextBlockNr() + "," + endHandler + ")");
 	
@@ -914,9 +912,8 @@ public class TransformExceptionHandlers {
 		/* The last handler does catch another range. 
 		 * Create a new try block.
 		 */
-		if ((GlobalOptions.debuggingFlags
-		     & GlobalOptions.DEBUG_ANALYZE) != 0)
-		    GlobalOptions.err.println
+		if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_ANALYZE))
+		    GlobalOptions.getErr().println
 			("analyzeTry(" + startNr + ", " + endNr+")");
 		while(true) {
 		    while (tryFlow.analyze(startNr, endNr+1));
@@ -926,7 +923,7 @@ public class TransformExceptionHandlers {
 		    tryFlow = flowBlocks[nextNr];
 		}
 		if (tryFlow.getBlockNr() != startNr) {
-		    GlobalOptions.err.println
+		    GlobalOptions.getErr().println
 			("Warning: Can't completely analyze try.");
 		}
 		new TryBlock(tryFlow);
@@ -959,9 +956,8 @@ public class TransformExceptionHandlers {
 		catchFlow.prevByCodeOrder = newFlow;
 		catchFlow = newFlow;
 	    } else {
-		if ((GlobalOptions.debuggingFlags
-		     & GlobalOptions.DEBUG_ANALYZE) != 0)
-		    GlobalOptions.err.println
+		if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_ANALYZE))
+		    GlobalOptions.getErr().println
 			("analyzeCatch("
 			 + catchFlow.getBlockNr() + ", " + endHandler + ")");
 		while (catchFlow.analyze(catchFlow.getBlockNr(), 
@@ -982,9 +978,8 @@ public class TransformExceptionHandlers {
 		analyzeCatchBlock(Type.tObject, tryFlow, catchFlow);
 	    
 	    tryFlow.checkConsistent();
-	    if ((GlobalOptions.debuggingFlags
-		 & GlobalOptions.DEBUG_ANALYZE) != 0)
-		GlobalOptions.err.println
+	    if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_ANALYZE))
+		GlobalOptions.getErr().println
 		    ("analyzeTryCatch(" + tryFlow.getBlockNr() + ", "
 		     + tryFlow.getNextBlockNr() + ") done.");
 	}
@@ -51,6 +51,7 @@ public class TryBlock extends StructuredBlock {
     public TryBlock(FlowBlock tryFlow) {
         this.gen = (VariableSet) tryFlow.used.clone();
         this.flowBlock = tryFlow;
+        tryFlow.mayHaveTryBlock = true;
 
         StructuredBlock bodyBlock = tryFlow.block;
         replace(bodyBlock);
@@ -60,6 +61,17 @@ public class TryBlock extends StructuredBlock {
 	tryFlow.checkConsistent();
     }
 
+    /**
+     * Set the flow block of this block and all sub blocks.  This
+     * also tells the flow block, that it contains a try block.
+     * @param flowBlock the new flow block
+     */
+    public void setFlowBlock(FlowBlock flowBlock) {
+        super.setFlowBlock(flowBlock);
+        if (flowBlock != null)
+            flowBlock.mayHaveTryBlock = true;
+    }
+
     public void addCatchBlock(StructuredBlock catchBlock) {
         StructuredBlock[] newSubBlocks = 
             new StructuredBlock[subBlocks.length+1];
@@ -33,12 +33,23 @@ import java.util.Iterator;
  * and difference.  <p>
  *
  * Note that a variable set can contain LocalInfos that use the same
- * slot, but are different.
+ * slot, but are different.  To find the locals of a slot fast, the set
+ * counts the locals of each non negative slot and keeps a bit set of
+ * the slots whose count isn't zero.
  */
 public final class VariableSet extends AbstractSet implements Cloneable {
     LocalInfo[] locals;
     int count;
 
+    /**
+     * The bit set of the non negative slots used by this set.
+     */
+    long[] slots;
+    /**
+     * The number of locals in this set for each non negative slot.
+     */
+    int[] slotCounts;
+
     /**
      * Creates a new empty variable set
      */
@@ -53,6 +64,8 @@ public final class VariableSet extends AbstractSet implements Cloneable {
     public VariableSet(LocalInfo[] locals) {
         count = locals.length;
         this.locals = locals;
+	for (int i = 0; i < count; i++)
+	    countSlot(locals[i].getSlot());
     }
 
     public final void grow(int size) {
@@ -60,7 +73,7 @@ public final class VariableSet extends AbstractSet implements Cloneable {
             size += count;
             if (size > locals.length) {
                 int nextSize = locals.length * 2;
-//                 GlobalOptions.err.println("wanted: "+size+" next: "+nextSize);
+//                 GlobalOptions.getErr().println("wanted: "+size+" next: "+nextSize);
                 LocalInfo[] newLocals
                     = new LocalInfo[nextSize > size ? nextSize : size];
                 System.arraycopy(locals, 0, newLocals, 0, count);
@@ -70,6 +83,32 @@ public final class VariableSet extends AbstractSet implements Cloneable {
             locals = new LocalInfo[size];
     }
 
+    private void countSlot(int slot) {
+	if (slot < 0)
+	    return;
+	if (slotCounts == null || slot >= slotCounts.length) {
+	    int size = slotCounts == null ? 16 : slotCounts.length * 2;
+	    while (size <= slot)
+		size *= 2;
+	    int[] newSlotCounts = new int[size];
+	    long[] newSlots = new long[(size + 63) >> 6];
+	    if (slotCounts != null) {
+		System.arraycopy(slotCounts, 0, newSlotCounts, 0,
+				 slotCounts.length);
+		System.arraycopy(slots, 0, newSlots, 0, slots.length);
+	    }
+	    slotCounts = newSlotCounts;
+	    slots = newSlots;
+	}
+	if (slotCounts[slot]++ == 0)
+	    slots[slot >> 6] |= 1L << slot;
+    }
+
+    private void uncountSlot(int slot) {
+	if (slot >= 0 && --slotCounts[slot] == 0)
+	    slots[slot >> 6] &= ~(1L << slot);
+    }
+
     /**
      * Adds a local info to this variable set.
      */
@@ -78,14 +117,18 @@ public final class VariableSet extends AbstractSet implements Cloneable {
 	    return false;
         grow(1);
         locals[count++] = (LocalInfo) li;
+	countSlot(((LocalInfo) li).getSlot());
 	return true;
     }
 
     /**
      * Checks if the variable set contains the given local info.
      */
-    public boolean contains(Object li) {
-        li = ((LocalInfo) li).getLocalInfo();
+    public boolean contains(Object o) {
+	LocalInfo li = ((LocalInfo) o).getLocalInfo();
+	int slot = li.getSlot();
+	if (slot >= 0 && !containsSlot(slot))
+	    return false;
         for (int i=0; i<count;i++)
             if (locals[i].getLocalInfo() == li)
                 return true;
@@ -96,6 +139,9 @@ public final class VariableSet extends AbstractSet implements Cloneable {
      * Checks if the variable set contains a local with the given name.
      */
     public final boolean containsSlot(int slot) {
+	if (slot >= 0)
+	    return slots != null && (slot >> 6) < slots.length
+		&& (slots[slot >> 6] & (1L << slot)) != 0;
 	return findSlot(slot) != null;
     }
 
@@ -113,6 +159,8 @@ public final class VariableSet extends AbstractSet implements Cloneable {
      * Checks if the variable set contains a local with the given slot.
      */
     public LocalInfo findSlot(int slot) {
+	if (slot >= 0 && !containsSlot(slot))
+	    return null;
         for (int i=0; i<count;i++)
             if (locals[i].getSlot() == slot)
                 return locals[i];
@@ -122,10 +170,14 @@ public final class VariableSet extends AbstractSet implements Cloneable {
     /**
      * Removes a local info from this variable set.  
      */
-    public boolean remove(Object li) {
-        li = ((LocalInfo) li).getLocalInfo();
+    public boolean remove(Object o) {
+	LocalInfo li = ((LocalInfo) o).getLocalInfo();
+	int slot = li.getSlot();
+	if (slot >= 0 && !containsSlot(slot))
+	    return false;
         for (int i=0; i<count;i++) {
             if (locals[i].getLocalInfo() == li) {
+		uncountSlot(locals[i].getSlot());
                 locals[i] = locals[--count];
 		locals[count] = null;
 		return true;
@@ -151,6 +203,7 @@ public final class VariableSet extends AbstractSet implements Cloneable {
 	    }
 	  
 	    public void remove() {
+		uncountSlot(locals[pos-1].getSlot());
 		if (pos < count)
 		    System.arraycopy(locals, pos, 
 				     locals, pos-1, count - pos);
@@ -167,6 +220,8 @@ public final class VariableSet extends AbstractSet implements Cloneable {
     public void clear() {
         locals = null;
         count = 0;
+	slots = null;
+	slotCounts = null;
     }
 
     public Object clone() {
@@ -176,6 +231,10 @@ public final class VariableSet extends AbstractSet implements Cloneable {
                 other.locals = new LocalInfo[count];
                 System.arraycopy(locals, 0, other.locals, 0, count);
             }
+	    if (slots != null) {
+		other.slots = (long[]) slots.clone();
+		other.slotCounts = (int[]) slotCounts.clone();
+	    }
             return other;
         } catch (CloneNotSupportedException ex) {
             throw new InternalError("Clone?");
@@ -189,13 +248,17 @@ public final class VariableSet extends AbstractSet implements Cloneable {
      */
     public VariableSet intersect(VariableSet vs) {
         VariableSet intersection = new VariableSet();
+	if (count == 0 || vs.count == 0)
+	    return intersection;
         intersection.grow(Math.min(count, vs.count));
         for (int i=0; i<count; i++) {
             LocalInfo li = locals[i];
             int slot = li.getSlot();
 	    if (vs.containsSlot(slot)
-		&& !intersection.containsSlot(slot))
+		&& !intersection.containsSlot(slot)) {
 		intersection.locals[intersection.count++] = li.getLocalInfo();
+		intersection.countSlot(slot);
+	    }
         }
         return intersection;
     }
@@ -223,9 +286,10 @@ public final class VariableSet extends AbstractSet implements Cloneable {
      */
     public void mergeRead(LocalInfo li) {
 	int slot = li.getSlot();
-	for (int i=0; i < count; ) {
+	for (int i=0; i < count && (slot < 0 || containsSlot(slot)); ) {
 	    if (locals[i].getSlot() == slot) {
 		li.combineWith(locals[i]);
+		uncountSlot(slot);
 		locals[i] = locals[--count];
 	    } else
 		i++;
@@ -240,10 +304,11 @@ public final class VariableSet extends AbstractSet implements Cloneable {
      */
     public void mergeWrite(LocalInfo li) {
 	int slot = li.getSlot();
-	for (int i=0; i < count; ) {
-	    if (locals[i].getSlot() == slot)
+	for (int i=0; i < count && (slot < 0 || containsSlot(slot)); ) {
+	    if (locals[i].getSlot() == slot) {
+		uncountSlot(slot);
 		locals[i] = locals[--count];
-	    else
+	    } else
 		i++;
 	}
 	add(li);
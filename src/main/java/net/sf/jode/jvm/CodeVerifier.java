@@ -49,6 +49,10 @@ public class CodeVerifier implements Opcodes {
     ClassPath classpath;
 
     String methodType;
+    /**
+     * True if DEBUG_VERIFIER is set, read once per verify call.
+     */
+    boolean debug;
 
     Type returnType;
     Type tInt;
@@ -60,9 +64,44 @@ public class CodeVerifier implements Opcodes {
 
     Type tString;
     Type tObject;
+    Type tNull;
+    Type tAnyObject;
+    Type tAnyArray;
+    Type tReturnAddress;
+    Type tThrowable;
+    Type tBooleanArray;
 
     Map typeHash = new HashMap();
 
+    /**
+     * The interned types indexed by their id.  Id 0 is unused, so
+     * that a zero entry in a frame means no type.
+     */
+    Type[] typeTable = new Type[64];
+    int typeCount = 1;
+
+    /**
+     * The results of mergeType and isOfType for pairs of type ids.
+     */
+    PairCache mergeCache = new PairCache();
+    PairCache ofTypeCache = new PairCache();
+
+    private Type intern(Object key, Type type) {
+	if (typeCount == typeTable.length) {
+	    Type[] newTable = new Type[typeCount * 2];
+	    System.arraycopy(typeTable, 0, newTable, 0, typeCount);
+	    typeTable = newTable;
+	}
+	type.id = typeCount;
+	typeTable[typeCount++] = type;
+	typeHash.put(key, type);
+	return type;
+    }
+
+    final Type getType(int id) {
+	return typeTable[id];
+    }
+
     private Type tType(String typeSig) {
 	Type type = (Type) typeHash.get(typeSig);
 	if (type == null) {
@@ -77,7 +116,7 @@ public class CodeVerifier implements Opcodes {
 		type = new Type(subTypeSig, classInfo, null);
 	    } else
 		type = new Type(typeSig, null, null);
-	    typeHash.put(typeSig, type);
+	    intern(typeSig, type);
 	}
 	return type;
     }
@@ -85,8 +124,7 @@ public class CodeVerifier implements Opcodes {
     private Type tType(Block jsrTarget) {
 	Type type = (Type) typeHash.get(jsrTarget);
 	if (type == null) {
-	    type = new Type("R", null, jsrTarget);
-	    typeHash.put(jsrTarget, type);
+	    type = intern(jsrTarget, new Type("R", null, jsrTarget));
 	}
 	return type;
     }
@@ -95,16 +133,17 @@ public class CodeVerifier implements Opcodes {
 	String typeSig = head + classInfo.getName().replace('.', '/') + ';';
 	Type type = (Type) typeHash.get(typeSig);
 	if (type == null) {
-	    type = new Type(head, classInfo, null);
-	    typeHash.put(typeSig, type);
+	    type = intern(typeSig, new Type(head, classInfo, null));
 	}
 	return type;
     }
 
     /**
-     * We need some more types, than mentioned in jvm.
+     * We need some more types, than mentioned in jvm.  The types are
+     * interned by the tType methods, so two types are equal iff they
+     * have the same id.
      */
-    private static class Type {
+    private class Type {
 	/* "ZBCSIFJD" are the normal primitive types.
 	 * "V" stands for void type.
 	 * "L" is normal class type, the class is in classInfo field.
@@ -130,6 +169,11 @@ public class CodeVerifier implements Opcodes {
 	 */
 	private Block jsrTarget;
 
+	/**
+	 * The index of this type in the typeTable.
+	 */
+	int id;
+
 	public Type(String typeSig, ClassInfo classInfo, Block jsrTarget) {
 	    if ((typeSig.indexOf('L') >= 0 || typeSig.charAt(0) == 'N')
 		&& classInfo == null)
@@ -158,11 +202,22 @@ public class CodeVerifier implements Opcodes {
 	 * @return true, iff this is castable to t2 by a
 	 * widening cast.  */
 	public boolean isOfType(Type destType) {
+	    if (debug)
+		GlobalOptions.getErr().println("isOfType("+typeSig+","
+					       +destType.typeSig+")");
+	    if (this == destType)
+		return true;
+	    int result = ofTypeCache.get(id, destType.id);
+	    if (result < 0) {
+		result = computeIsOfType(destType) ? 1 : 0;
+		ofTypeCache.put(id, destType.id, result);
+	    }
+	    return result != 0;
+	}
+
+	private boolean computeIsOfType(Type destType) {
 	    String thisSig = typeSig;
 	    String destSig = destType.typeSig;
-	    if ((GlobalOptions.debuggingFlags
-		 & GlobalOptions.DEBUG_VERIFIER) != 0)
-		GlobalOptions.err.println("isOfType("+thisSig+","+destSig+")");
 	    if (thisSig.equals(destSig))
 		return true;
 	    
@@ -212,7 +267,7 @@ public class CodeVerifier implements Opcodes {
 		    if (c1 == 'L')
 			return wantedType.superClassOf(classInfo);
 		} catch (IOException ex) {
-		    GlobalOptions.err.println
+		    GlobalOptions.getErr().println
 			("WARNING: Can't get full hierarchy of "
 			 + wantedType + ".");
 		    return true;
@@ -245,12 +300,20 @@ public class CodeVerifier implements Opcodes {
 	 * @return The common super type of this and type2.
 	 */
 	public Type mergeType(CodeVerifier cv, Type type2) {
+	    if (this == type2)
+		return this;
+	    int result = mergeCache.get(id, type2.id);
+	    if (result < 0) {
+		result = computeMergeType(cv, type2).id;
+		mergeCache.put(id, type2.id, result);
+	    }
+	    return getType(result);
+	}
+
+	private Type computeMergeType(CodeVerifier cv, Type type2) {
 	    String sig1 = typeSig;
 	    String sig2 = type2.typeSig;
 	    
-	    if (this.equals(type2))
-		return this;
-	    
 	    char c1 = sig1.charAt(0);
 	    char c2 = sig2.charAt(0);
 	    if (c1 == '*')
@@ -345,16 +408,6 @@ public class CodeVerifier implements Opcodes {
 	    return cv.tNone;
 	}
 
-	public boolean equals(Object other) {
-	    if (other instanceof Type) {
-		Type type2 = (Type) other;
-		return typeSig.equals(type2.typeSig)
-		    && classInfo == type2.classInfo
-		    && jsrTarget == type2.jsrTarget;
-	    }
-	    return false;
-	}
-
 	public String toString() {
 	    StringBuffer sb = new StringBuffer(typeSig);
 	    if (classInfo != null)
@@ -365,6 +418,61 @@ public class CodeVerifier implements Opcodes {
 	}
     }
 
+    /**
+     * A small open hash table that maps a pair of type ids to a
+     * non-negative int.
+     */
+    private static final class PairCache {
+	/* The pair (id1, id2) is stored as id1 << 32 | id2.  Ids are
+	 * never zero, so zero marks an empty slot.
+	 */
+	private long[] keys = new long[64];
+	private int[] values = new int[64];
+	private int size;
+
+	private static int hash(long key, int mask) {
+	    int h = (int) (key ^ (key >>> 29));
+	    return (h * 0x9e3779b9 >>> 8) & mask;
+	}
+
+	/**
+	 * @return the value for the pair, or -1 if there is none.
+	 */
+	int get(int id1, int id2) {
+	    long key = ((long) id1 << 32) | id2;
+	    int mask = keys.length - 1;
+	    for (int i = hash(key, mask); keys[i] != 0; i = (i + 1) & mask) {
+		if (keys[i] == key)
+		    return values[i];
+	    }
+	    return -1;
+	}
+
+	void put(int id1, int id2, int value) {
+	    if (2 * (size + 1) > keys.length) {
+		long[] oldKeys = keys;
+		int[] oldValues = values;
+		keys = new long[oldKeys.length * 2];
+		values = new int[oldKeys.length * 2];
+		size = 0;
+		for (int i = 0; i < oldKeys.length; i++) {
+		    if (oldKeys[i] != 0)
+			put((int) (oldKeys[i] >>> 32), (int) oldKeys[i],
+			    oldValues[i]);
+		}
+	    }
+	    long key = ((long) id1 << 32) | id2;
+	    int mask = keys.length - 1;
+	    int i = hash(key, mask);
+	    while (keys[i] != 0 && keys[i] != key)
+		i = (i + 1) & mask;
+	    if (keys[i] == 0)
+		size++;
+	    keys[i] = key;
+	    values[i] = value;
+	}
+    }
+
     /**
      * JLS 4.9.6: Verifying code that contains a finally clause:
      *  - Each instruction keeps track of the list of jsr targets.
@@ -472,24 +580,35 @@ public class CodeVerifier implements Opcodes {
 	 */
 	int stackHeight = 0;
 	/**
-	 * The types currently on the stack. The entries at indices 
-	 * bigger or equal stackHeight are _undefined_.
+	 * The ids of the types currently on the stack. The entries at
+	 * indices bigger or equal stackHeight are _undefined_.
 	 * @see Type
 	 */
-	Type[] stack = new Type[bb.getMaxStack()];
+	int[] stack;
 
 	/**
-	 * The types currently in local slots.  An entry is null, if
-	 * the local may not be used.
+	 * The ids of the types currently in local slots.
 	 * @see Type
 	 */
-	Type[] locals = new Type[bb.getMaxLocals()];
+	int[] locals;
+
+	/**
+	 * Tells if the stack resp. locals array may be shared with
+	 * another VerifyInfo.  A clone shares the arrays, they are
+	 * copied when one of them is changed.
+	 */
+	boolean stackShared, localsShared;
+
+	VerifyInfo() {
+	    stack = new int[bb.getMaxStack()];
+	    locals = new int[bb.getMaxLocals()];
+	}
 
 	public Object clone() {
 	    try {
 		VerifyInfo result = (VerifyInfo) super.clone();
-		result.stack = (Type[]) stack.clone();
-		result.locals = (Type[]) locals.clone();
+		stackShared = localsShared = true;
+		result.stackShared = result.localsShared = true;
 		if (jsrInfo != null)
 		    result.jsrInfo = new JsrUsedInfo(jsrInfo);
 		return result;
@@ -498,6 +617,53 @@ public class CodeVerifier implements Opcodes {
 	    }
 	}
 
+	/**
+	 * Returns the stack array for writing, copying it if it is shared.
+	 */
+	public final int[] writeStack() {
+	    if (stackShared) {
+		stack = (int[]) stack.clone();
+		stackShared = false;
+	    }
+	    return stack;
+	}
+
+	/**
+	 * Returns the locals array for writing, copying it if it is shared.
+	 */
+	public final int[] writeLocals() {
+	    if (localsShared) {
+		locals = (int[]) locals.clone();
+		localsShared = false;
+	    }
+	    return locals;
+	}
+
+	/**
+	 * Takes over the stack of another info.
+	 */
+	public final void shareStack(VerifyInfo other) {
+	    stack = other.stack;
+	    stackHeight = other.stackHeight;
+	    stackShared = other.stackShared = true;
+	}
+
+	public final Type getLocal(int slot) {
+	    return typeTable[locals[slot]];
+	}
+
+	public final void setLocal(int slot, Type type) {
+	    writeLocals()[slot] = type.id;
+	}
+
+	/**
+	 * Returns the type at the given depth below the top of stack,
+	 * 0 being the topmost type.
+	 */
+	public final Type peek(int depth) {
+	    return typeTable[stack[stackHeight - 1 - depth]];
+	}
+
 	public final void reserve(int count) throws VerifyException {
 	    if (stackHeight + count > stack.length)
 		throw new VerifyException("stack overflow");
@@ -510,12 +676,12 @@ public class CodeVerifier implements Opcodes {
 	
 	public final void push(Type type) throws VerifyException {
 	    reserve(1);
-	    stack[stackHeight++] = type; 
+	    writeStack()[stackHeight++] = type.id;
 	}
 	
 	public final Type pop() throws VerifyException {
 	    need(1);
-	    return stack[--stackHeight];
+	    return typeTable[stack[--stackHeight]];
 	}
 	
 	public String toString() {
@@ -523,13 +689,13 @@ public class CodeVerifier implements Opcodes {
 	    String comma = "";
 	    for (int i=0; i<locals.length; i++) {
 		result.append(comma).append(i).append(':');
-		result.append(locals[i]);
+		result.append(typeTable[locals[i]]);
 		comma = ",";
 	    }
 	    result.append("], stack:[");
 	    comma = "";
 	    for (int i=0; i<stackHeight; i++) {
-		result.append(comma).append(stack[i]);
+		result.append(comma).append(typeTable[stack[i]]);
 		comma = ",";
 	    }
 	    if (jsrInfo != null) {
@@ -568,9 +734,15 @@ public class CodeVerifier implements Opcodes {
 	tSecondPart = tType("2");
 	tString     = tType("Ljava/lang/String;");
 	tObject     = tType("Ljava/lang/Object;");
+	tNull       = tType("0");
+	tAnyObject  = tType("+");
+	tAnyArray   = tType("[*");
+	tReturnAddress = tType("R");
+	tThrowable  = tType("Ljava/lang/Throwable;");
+	tBooleanArray = tType("[Z");
 	types = new Type[] { 
 	    tInt, tLong, tFloat, tDouble,
-	    tType("+"), 
+	    tAnyObject, 
 	    tType("B"), tType("C"), tType("S")
 	};
 	arrayTypes = new Type[] {
@@ -584,7 +756,7 @@ public class CodeVerifier implements Opcodes {
     private void dumpInfo(java.io.PrintWriter output) {
 	Block[] blocks = bb.getBlocks();
 	for (int i=0; i< blocks.length; i++) {
-	    GlobalOptions.err.println("Block "+i+": "+verifyInfos[i]);
+	    GlobalOptions.getErr().println("Block "+i+": "+verifyInfos[i]);
 	    blocks[i].dumpCode(output);
 	}
     }
@@ -596,24 +768,24 @@ public class CodeVerifier implements Opcodes {
 	    if (slot >= bb.getMaxLocals())
 		throw new VerifyException("Too few local slots");
 	    if (mi.getName().equals("<init>"))
-		info.locals[slot++] = tType("N", ci);
+		info.locals[slot++] = tType("N", ci).id;
 	    else
-		info.locals[slot++] = tType("L", ci);
+		info.locals[slot++] = tType("L", ci).id;
 	}
 
 	String[] paramTypes = TypeSignature.getParameterTypes(methodType);
 	for (int i = 0; i < paramTypes.length; i++) {
 	    if (slot >= bb.getMaxLocals())
 		throw new VerifyException("Too few local slots");
-	    info.locals[slot++] = tType(paramTypes[i]);
+	    info.locals[slot++] = tType(paramTypes[i]).id;
 	    if (TypeSignature.getTypeSize(paramTypes[i]) == 2) {
 		if (slot >= bb.getMaxLocals())
 		    throw new VerifyException("Too few local slots");
-		info.locals[slot++] = tSecondPart;
+		info.locals[slot++] = tSecondPart.id;
 	    }
 	}
 	while (slot < bb.getMaxLocals())
-	    info.locals[slot++] = tNone;
+	    info.locals[slot++] = tNone.id;
 	return info;
     }
 
@@ -692,21 +864,32 @@ public class CodeVerifier implements Opcodes {
 	if (oldInfo.stackHeight != info.stackHeight)
 	    throw new VerifyException("Stack height differ at: " + blockNr);
 	for (int i=0; i < oldInfo.stackHeight; i++) {
-	    Type newType = oldInfo.stack[i].mergeType(this, info.stack[i]);
-	    if (!newType.equals(oldInfo.stack[i])) {
+	    int oldId = oldInfo.stack[i];
+	    int otherId = info.stack[i];
+	    if (oldId == otherId)
+		continue;
+	    Type newType = typeTable[oldId].mergeType(this, typeTable[otherId]);
+	    if (newType.id != oldId) {
 		if (newType == tNone)
 		    throw new VerifyException("Type error while merging: "
-					      + oldInfo.stack[i]
-					      + " and " + info.stack[i]);
+					      + typeTable[oldId]
+					      + " and " + typeTable[otherId]);
 		changed = true;
-		oldInfo.stack[i] = newType;
+		oldInfo.writeStack()[i] = newType.id;
 	    }
 	}
-	for (int i=0; i < bb.getMaxLocals(); i++) {
-	    Type newType = oldInfo.locals[i].mergeType(this, info.locals[i]);
-	    if (!newType.equals(oldInfo.locals[i])) {
-		changed = true;
-		oldInfo.locals[i] = newType;
+	if (oldInfo.locals != info.locals) {
+	    for (int i=0; i < bb.getMaxLocals(); i++) {
+		int oldId = oldInfo.locals[i];
+		int otherId = info.locals[i];
+		if (oldId == otherId)
+		    continue;
+		Type newType
+		    = typeTable[oldId].mergeType(this, typeTable[otherId]);
+		if (newType.id != oldId) {
+		    changed = true;
+		    oldInfo.writeLocals()[i] = newType.id;
+		}
 	    }
 	}
 	if (oldInfo.jsrInfo != null) {
@@ -724,9 +907,8 @@ public class CodeVerifier implements Opcodes {
 
     private void modelEffect(Instruction instr, VerifyInfo info) 
 	throws VerifyException {
-	if ((GlobalOptions.debuggingFlags
-	     & GlobalOptions.DEBUG_VERIFIER) != 0)
-	    GlobalOptions.err.println(""+info+instr);
+	if (debug)
+	    GlobalOptions.getErr().println(""+info+instr);
 	int opcode = instr.getOpcode();
 	switch (opcode) {
 	case opc_nop:
@@ -736,7 +918,7 @@ public class CodeVerifier implements Opcodes {
 	    Type type;
 	    Object constant = instr.getConstant();
 	    if (constant == null)
-		type = tType("0");
+		type = tNull;
 	    else if (constant instanceof Integer)
 		type = tInt;
 	    else if (constant instanceof Float)
@@ -768,9 +950,9 @@ public class CodeVerifier implements Opcodes {
 		    info.jsrInfo.jsrUsed.set(instr.getLocalSlot() + 1);
 	    }
 	    if ((opcode & 0x1) == 0
-		&& info.locals[instr.getLocalSlot()+1] != tSecondPart)
+		&& info.getLocal(instr.getLocalSlot()+1) != tSecondPart)
 		throw new VerifyException(instr.getDescription());
-	    Type type = info.locals[instr.getLocalSlot()];
+	    Type type = info.getLocal(instr.getLocalSlot());
 	    if (!type.isOfType(types[opcode - opc_iload]))
 		throw new VerifyException(instr.getDescription());
 	    info.push(type);
@@ -786,7 +968,7 @@ public class CodeVerifier implements Opcodes {
 	    Type arrType = info.pop(); 
 	    if (!arrType.isOfType(arrayTypes[opcode - opc_iaload])
 		&& (opcode != opc_baload
-		    || !arrType.isOfType(tType("[Z"))))
+		    || !arrType.isOfType(tBooleanArray)))
 		throw new VerifyException(instr.getDescription());
 	    
 	    String typeSig = arrType.getTypeSig();
@@ -797,7 +979,7 @@ public class CodeVerifier implements Opcodes {
 		else
 		    elemType = tType(typeSig.substring(1));
 	    } else if(opcode == opc_aaload)
-		elemType = tType("0");
+		elemType = tNull;
 	    else
 		elemType = types[opcode - opc_iaload];
 	    info.push(elemType);
@@ -817,11 +999,11 @@ public class CodeVerifier implements Opcodes {
 		throw new VerifyException(instr.getDescription());
 	    Type type = info.pop();
 	    if (!type.isOfType(types[opcode - opc_istore]))
-		if (opcode != opc_astore || !type.isOfType(tType("R")))
+		if (opcode != opc_astore || !type.isOfType(tReturnAddress))
 		    throw new VerifyException(instr.getDescription());
-	    info.locals[instr.getLocalSlot()] = type;
+	    info.setLocal(instr.getLocalSlot(), type);
 	    if ((opcode & 0x1) != 0)
-		info.locals[instr.getLocalSlot()+1] = tSecondPart;
+		info.setLocal(instr.getLocalSlot()+1, tSecondPart);
 	    break;
 	}
 	case opc_iastore: case opc_lastore:
@@ -835,7 +1017,7 @@ public class CodeVerifier implements Opcodes {
 		throw new VerifyException(instr.getDescription());
 	    Type arrType = info.pop();
 	    if (!arrType.isOfType(arrayTypes[opcode - opc_iastore])
-		&& (opcode != opc_bastore || !arrType.isOfType(tType("[Z"))))
+		&& (opcode != opc_bastore || !arrType.isOfType(tBooleanArray)))
 		throw new VerifyException(instr.getDescription());
 	    Type elemType = opcode >= opc_bastore ? tInt 
 		: types[opcode - opc_iastore];
@@ -853,47 +1035,49 @@ public class CodeVerifier implements Opcodes {
 	    int depth = opcode - opc_dup;
 	    info.reserve(1);
 	    info.need(depth+1);
-	    if (info.stack[info.stackHeight-1] == tSecondPart)
+	    int[] stack = info.writeStack();
+	    if (stack[info.stackHeight-1] == tSecondPart.id)
 		throw new VerifyException(instr.getDescription());
 	    
 	    int stackdepth = info.stackHeight - (depth + 1);
-	    if (info.stack[stackdepth] == tSecondPart)
+	    if (stack[stackdepth] == tSecondPart.id)
 		throw new VerifyException(instr.getDescription()
 					  + " on long or double");
 	    for (int i=info.stackHeight; i > stackdepth; i--)
-		info.stack[i] = info.stack[i-1];
-	    info.stack[stackdepth] = info.stack[info.stackHeight++];
+		stack[i] = stack[i-1];
+	    stack[stackdepth] = stack[info.stackHeight++];
 	    break;
 	}
 	case opc_dup2: case opc_dup2_x1: case opc_dup2_x2: {
 	    int depth = opcode - opc_dup2;
 	    info.reserve(2);
 	    info.need(depth+2);
-	    if (info.stack[info.stackHeight-2] == tSecondPart)
+	    int[] stack = info.writeStack();
+	    if (stack[info.stackHeight-2] == tSecondPart.id)
 		throw new VerifyException(instr.getDescription()
 					  + " on misaligned long or double");
 	    int stacktop = info.stackHeight;
 	    int stackdepth = stacktop - (depth + 2);
-	    if (info.stack[stackdepth] == tSecondPart)
+	    if (stack[stackdepth] == tSecondPart.id)
 		throw new VerifyException(instr.getDescription()
 					  + " on long or double");
 	    for (int i=stacktop; i > stackdepth; i--)
-		info.stack[i+1] = info.stack[i-1];
-	    info.stack[stackdepth+1] = info.stack[stacktop+1];
-	    info.stack[stackdepth] = info.stack[stacktop];
+		stack[i+1] = stack[i-1];
+	    stack[stackdepth+1] = stack[stacktop+1];
+	    stack[stackdepth] = stack[stacktop];
 	    info.stackHeight+=2;
 	    break;
 	}
 	case opc_swap: {
 	    info.need(2);
-	    if (info.stack[info.stackHeight-2] == tSecondPart
-		|| info.stack[info.stackHeight-1] == tSecondPart)
+	    if (info.peek(1) == tSecondPart
+		|| info.peek(0) == tSecondPart)
 		throw new VerifyException(instr.getDescription()
 					  + " on misaligned long or double");
-	    Type tmp = info.stack[info.stackHeight-1];
-	    info.stack[info.stackHeight-1] = 
-		info.stack[info.stackHeight-2];
-	    info.stack[info.stackHeight-2] = tmp;
+	    int[] stack = info.writeStack();
+	    int tmp = stack[info.stackHeight-1];
+	    stack[info.stackHeight-1] = stack[info.stackHeight-2];
+	    stack[info.stackHeight-2] = tmp;
 	    break;
 	}
         case opc_iadd: case opc_ladd: case opc_fadd: case opc_dadd:
@@ -909,12 +1093,12 @@ public class CodeVerifier implements Opcodes {
 		throw new VerifyException(instr.getDescription());
 	    if ((opcode & 1) != 0) {
 		info.need(2);
-		if (info.stack[info.stackHeight-1] != tSecondPart
-		    || !info.stack[info.stackHeight-2].isOfType(type))
+		if (info.peek(0) != tSecondPart
+		    || !info.peek(1).isOfType(type))
 		    throw new VerifyException(instr.getDescription());
 	    } else {
 		info.need(1);
-		if (!info.stack[info.stackHeight-1].isOfType(type))
+		if (!info.peek(0).isOfType(type))
 		    throw new VerifyException(instr.getDescription());
 	    }
 	    break;
@@ -923,12 +1107,12 @@ public class CodeVerifier implements Opcodes {
 	    Type type = types[(opcode - opc_ineg) & 3];
 	    if ((opcode & 1) != 0) {
 		info.need(2);
-		if (info.stack[info.stackHeight-1] != tSecondPart
-		    || !info.stack[info.stackHeight-2].isOfType(type))
+		if (info.peek(0) != tSecondPart
+		    || !info.peek(1).isOfType(type))
 		    throw new VerifyException(instr.getDescription());
 	    } else {
 		info.need(1);
-		if (!info.stack[info.stackHeight-1].isOfType(type))
+		if (!info.peek(0).isOfType(type))
 		    throw new VerifyException(instr.getDescription());
 	    }
 	    break;
@@ -941,12 +1125,12 @@ public class CodeVerifier implements Opcodes {
 	    
 	    if ((opcode & 1) != 0) {
 		info.need(2);
-		if (info.stack[info.stackHeight-1] != tSecondPart ||
-		    !info.stack[info.stackHeight-2].isOfType(tLong))
+		if (info.peek(0) != tSecondPart ||
+		    !info.peek(1).isOfType(tLong))
 		    throw new VerifyException(instr.getDescription());
 	    } else {
 		info.need(1);
-		if (!info.stack[info.stackHeight-1].isOfType(tInt))
+		if (!info.peek(0).isOfType(tInt))
 		    throw new VerifyException(instr.getDescription());
 	    }
 	    break;
@@ -961,18 +1145,18 @@ public class CodeVerifier implements Opcodes {
 		throw new VerifyException(instr.getDescription());
 	    if ((opcode & 1) != 0) {
 		info.need(2);
-		if (info.stack[info.stackHeight-1] != tSecondPart
-		    || !info.stack[info.stackHeight-2].isOfType(tLong))
+		if (info.peek(0) != tSecondPart
+		    || !info.peek(1).isOfType(tLong))
 		    throw new VerifyException(instr.getDescription());
 	    } else {
 		info.need(1);
-		if (!info.stack[info.stackHeight-1].isOfType(tInt))
+		if (!info.peek(0).isOfType(tInt))
 		    throw new VerifyException(instr.getDescription());
 	    }
 	    break;
 
 	case opc_iinc:
-	    if (!info.locals[instr.getLocalSlot()].isOfType(tInt))
+	    if (!info.getLocal(instr.getLocalSlot()).isOfType(tInt))
 		throw new VerifyException(instr.getDescription());
 	    break;
         case opc_i2l: case opc_i2f: case opc_i2d:
@@ -996,7 +1180,7 @@ public class CodeVerifier implements Opcodes {
 	}
         case opc_i2b: case opc_i2c: case opc_i2s:
 	    info.need(1);
-	    if (!info.stack[info.stackHeight-1].isOfType(tInt))
+	    if (!info.peek(0).isOfType(tInt))
 		throw new VerifyException(instr.getDescription());
 	    break;
 
@@ -1048,13 +1232,13 @@ public class CodeVerifier implements Opcodes {
 		throw new VerifyException(instr.getDescription());
 	    break;
 	case opc_if_acmpeq: case opc_if_acmpne:
-	    if (!info.pop().isOfType(tType("+")))
+	    if (!info.pop().isOfType(tAnyObject))
 		throw new VerifyException(instr.getDescription());
-	    if (!info.pop().isOfType(tType("+")))
+	    if (!info.pop().isOfType(tAnyObject))
 		throw new VerifyException(instr.getDescription());
 	    break;
 	case opc_ifnull: case opc_ifnonnull:
-	    if (!info.pop().isOfType(tType("+")))
+	    if (!info.pop().isOfType(tAnyObject))
 		throw new VerifyException(instr.getDescription());
 	    break;
 
@@ -1149,11 +1333,11 @@ public class CodeVerifier implements Opcodes {
 		Type newType = tType("L" + clazz.classInfo.getName()
 				     .replace('.','/')+";");
 		for (int i=0; i< info.stackHeight; i++)
-		    if (info.stack[i] == clazz)
-			info.stack[i] = newType;
+		    if (info.stack[i] == clazz.id)
+			info.writeStack()[i] = newType.id;
 		for (int i=0; i< info.locals.length; i++)
-		    if (info.locals[i] == clazz)
-			info.locals[i] = newType;
+		    if (info.locals[i] == clazz.id)
+			info.writeLocals()[i] = newType.id;
 	    } else if (opcode != opc_invokestatic) {
 		Type classType = tType(ref.getClazz());
 		if (!info.pop().isOfType(classType))
@@ -1169,37 +1353,37 @@ public class CodeVerifier implements Opcodes {
 	}
 	case opc_new: {
 	    String clName = instr.getClazzType();
-	    info.stack[info.stackHeight++] = 
-		tType("N" + clName.substring(1) + instr.hashCode());
+	    info.writeStack()[info.stackHeight++] = 
+		tType("N" + clName.substring(1) + instr.hashCode()).id;
 	    break;
 	}
 	case opc_arraylength: {
-	    if (!info.pop().isOfType(tType("[*")))
+	    if (!info.pop().isOfType(tAnyArray))
 		throw new VerifyException(instr.getDescription());
 	    info.push(tInt);
 	    break;
 	}
 	case opc_athrow: {
-	    if (!info.pop().isOfType(tType("Ljava/lang/Throwable;")))
+	    if (!info.pop().isOfType(tThrowable))
 		throw new VerifyException(instr.getDescription());
 	    break;
 	}
 	case opc_checkcast: {
 	    Type classType = tType(instr.getClazzType());
-	    if (!info.pop().isOfType(tType("+")))
+	    if (!info.pop().isOfType(tAnyObject))
 		throw new VerifyException(instr.getDescription());
 	    info.push(classType);
 	    break;
 	}
 	case opc_instanceof: {
-	    if (!info.pop().isOfType(tType("Ljava/lang/Object;")))
+	    if (!info.pop().isOfType(tObject))
 		throw new VerifyException(instr.getDescription());
 	    info.push(tInt);
 	    break;
 	}
 	case opc_monitorenter:
 	case opc_monitorexit:
-	    if (!info.pop().isOfType(tType("Ljava/lang/Object;")))
+	    if (!info.pop().isOfType(tObject))
 		throw new VerifyException(instr.getDescription());
 	    break;
 	case opc_multianewarray: {
@@ -1290,11 +1474,10 @@ public class CodeVerifier implements Opcodes {
 		for (int i=0; i < handlers.length; i++) {
 		    String type = handlers[i].getType();
 		    if (type != null)
-			excInfo.stack[0] = 
-			    tType("L" + type.replace('.', '/') + ";");
+			excInfo.writeStack()[0] = 
+			    tType("L" + type.replace('.', '/') + ";").id;
 		    else
-			excInfo.stack[0]
-			    = tType("Ljava/lang/Throwable;");
+			excInfo.writeStack()[0] = tThrowable.id;
 		    Block catcher = handlers[i].getCatcher();
 		    if (mergeInfo(catcher, excInfo))
 			todoSet.set(catcher.getBlockNr());
@@ -1314,10 +1497,11 @@ public class CodeVerifier implements Opcodes {
 			Block catcher = handlers[i].getCatcher();
 			int catcherNr = catcher.getBlockNr();
 			VerifyInfo oldInfo = verifyInfos[catcherNr];
-			Type newType = oldInfo.locals[slot]
-			    .mergeType(this, info.locals[slot]);
-			if (!newType.equals(oldInfo.locals[slot])) {
-			    oldInfo.locals[slot] = newType;
+			Type oldType = oldInfo.getLocal(slot);
+			Type newType
+			    = oldType.mergeType(this, info.getLocal(slot));
+			if (newType != oldType) {
+			    oldInfo.setLocal(slot, newType);
 			    todoSet.set(catcherNr);
 			}
 		    }
@@ -1391,8 +1575,7 @@ public class CodeVerifier implements Opcodes {
 			// The jsr target already knows its return
 			// instruction, we do the ret merging immediately
 			VerifyInfo retInfo = subInfo.retInfo;
-			info.stack = retInfo.stack;
-			info.stackHeight = retInfo.stackHeight;
+			info.shareStack(retInfo);
 			if (subInfo.prevInfo != null)
 			    info.jsrInfo = new JsrUsedInfo(subInfo.prevInfo);
 			else
@@ -1400,7 +1583,7 @@ public class CodeVerifier implements Opcodes {
 			BitSet usedLocals = subInfo.usedLocals;
 			for (int j = 0; j < bb.getMaxLocals(); j++) {
 			    if (usedLocals.get(j))
-				info.locals[j] = retInfo.locals[j];
+				info.writeLocals()[j] = retInfo.locals[j];
 			}
 			if (mergeInfo(nextBlock, info))
 			    todoSet.set(nextBlock.getBlockNr());
@@ -1409,8 +1592,9 @@ public class CodeVerifier implements Opcodes {
 		    }
 		} 
 	    } else if (opcode == opc_ret) {
-		Type retVarType = info.locals[instr.getLocalSlot()];
-		if (info.jsrInfo == null || !retVarType.isOfType(tType("R")))
+		Type retVarType = info.getLocal(instr.getLocalSlot());
+		if (info.jsrInfo == null
+		    || !retVarType.isOfType(tReturnAddress))
 		    throw new VerifyException(instr.getDescription());
 		Block jsrTarget = retVarType.getJsrTarget();
 		BitSet usedLocals = info.jsrInfo.jsrUsed;
@@ -1450,8 +1634,10 @@ public class CodeVerifier implements Opcodes {
 				    ("Stack height differ after jsr to: "
 				     + jsrTarget);
 			    for (int k = 0; k < info.stackHeight; k++) {
-				if (info.stack[i].mergeType
-				    (this, afterJsrInfo.stack[k]) == tNone)
+				Type stackType = getType(info.stack[k]);
+				if (stackType.mergeType
+				    (this, getType(afterJsrInfo.stack[k]))
+				    == tNone)
 				    throw new VerifyException
 					("Type error while"+
 					 " merging stacks after jsr");
@@ -1459,8 +1645,7 @@ public class CodeVerifier implements Opcodes {
 			} else
 			    afterJsrInfo = (VerifyInfo) verifyInfos[i].clone();
 
-			afterJsrInfo.stack = info.stack;
-			afterJsrInfo.stackHeight = info.stackHeight;
+			afterJsrInfo.shareStack(info);
 			afterJsrInfo.jsrInfo = subInfo.prevInfo;
 			if (subInfo.prevInfo != null)
 			    afterJsrInfo.jsrInfo
@@ -1469,7 +1654,7 @@ public class CodeVerifier implements Opcodes {
 			    afterJsrInfo.jsrInfo = null;
 			for (int j = 0; j < bb.getMaxLocals(); j++) {
 			    if (usedLocals.get(j))
-				afterJsrInfo.locals[j] = info.locals[j];
+				afterJsrInfo.writeLocals()[j] = info.locals[j];
 			}
 			if (mergeInfo(blocks[i], afterJsrInfo))
 			    todoSet.set(i);
@@ -1500,20 +1685,20 @@ public class CodeVerifier implements Opcodes {
 	    }
 	}
 	
-	if ((GlobalOptions.debuggingFlags
-	     & GlobalOptions.DEBUG_VERIFIER) != 0) {
-	    dumpInfo(GlobalOptions.err);
+	if (debug) {
+	    dumpInfo(GlobalOptions.getErr());
 	}
     }
 
     public void verify() throws VerifyException {
+	debug = GlobalOptions.isDebugging(GlobalOptions.DEBUG_VERIFIER);
 	try {
 	    doVerify();
 	} catch (VerifyException ex) {
-	    dumpInfo(GlobalOptions.err);
+	    dumpInfo(GlobalOptions.getErr());
 	    throw ex;
 	} catch (RuntimeException ex) {
-	    dumpInfo(GlobalOptions.err);
+	    dumpInfo(GlobalOptions.getErr());
 	    throw ex;
 	}
     }
@@ -0,0 +1,253 @@
+/* DecodedCode Copyright (C) 2026 agent.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; see the file COPYING.LESSER.  If not, write to
+ * the Free Software Foundation, 675 Mass Ave, Cambridge, MA 02139, USA.
+ *
+ * $Id$
+ */
+
+package net.sf.jode.jvm;
+import net.sf.jode.bytecode.BasicBlocks;
+import net.sf.jode.bytecode.Block;
+import net.sf.jode.bytecode.Handler;
+import net.sf.jode.bytecode.Instruction;
+import net.sf.jode.bytecode.Opcodes;
+import net.sf.jode.bytecode.TypeSignature;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * The code of a method in the form the interpreter executes it.  The
+ * instructions of all blocks are put into one array, followed by a
+ * pseudo instruction at the end of every block that jumps to the
+ * next block.  Jump targets, switch tables and exception handlers
+ * are resolved to indices into this array, and the types of the
+ * referenced fields and methods are split up in advance.  <br>
+ *
+ * The decoded code is cached for every BasicBlocks object.  It is
+ * decoded again, if the blocks or their code are replaced.  The
+ * instructions themselves are only referenced, so changing an
+ * instruction, e.g. to point to a field in a super class, is fine as
+ * long as its type and local slot stay the same.
+ *
+ * @author agent
+ */
+final class DecodedCode implements Opcodes {
+    /**
+     * The pseudo opcode at the end of a block.  Its target is the
+     * first instruction of the next block.
+     */
+    static final int OPC_NEXTBLOCK = -1;
+
+    private static final Map cache = new WeakHashMap();
+
+    /* The state of the BasicBlocks, when the code was decoded. */
+    private Block[] blocks;
+    private Block startBlock;
+    private Instruction[][] blockInstrs;
+    private Block[][] blockSuccs;
+    private Handler[][] blockHandlers;
+
+    int maxStack;
+    int maxLocals;
+    boolean isStatic;
+    /**
+     * The parameter types of the method.
+     */
+    String[] methodParamTypes;
+    /**
+     * The index of the first instruction, -1 if the method has no
+     * code.
+     */
+    int startPc;
+
+    int[] opcodes;
+    Instruction[] instrs;
+    /**
+     * The local slot for load, store, iinc and ret instructions.
+     */
+    int[] slots;
+    /**
+     * The index of the first instruction of the target block for
+     * conditional jumps, jsr and the OPC_NEXTBLOCK pseudo
+     * instruction, -1 if the method returns there.
+     */
+    int[] targets;
+    /**
+     * The targets for the values of a lookupswitch.  The default
+     * target is the target of the following OPC_NEXTBLOCK.
+     */
+    int[][] switchTargets;
+    /**
+     * The field type for field instructions, the return type for
+     * method invocations.
+     */
+    String[] types;
+    /**
+     * The parameter types for method invocations.
+     */
+    String[][] paramTypes;
+    /**
+     * The block number of every instruction.
+     */
+    int[] blockNrs;
+
+    /**
+     * The exception types of the handlers of every block, null
+     * for any exception.
+     */
+    String[][] handlerTypes;
+    /**
+     * The indices of the catch blocks of the handlers of every block.
+     */
+    int[][] handlerPcs;
+
+    private DecodedCode(BasicBlocks bb) {
+	blocks = bb.getBlocks();
+	startBlock = bb.getStartBlock();
+	maxStack = bb.getMaxStack();
+	maxLocals = bb.getMaxLocals();
+	isStatic = bb.getMethodInfo().isStatic();
+	methodParamTypes = TypeSignature.getParameterTypes
+	    (bb.getMethodInfo().getType());
+
+	int[] blockStarts = new int[blocks.length];
+	blockInstrs = new Instruction[blocks.length][];
+	blockSuccs = new Block[blocks.length][];
+	blockHandlers = new Handler[blocks.length][];
+	int count = 0;
+	for (int i = 0; i < blocks.length; i++) {
+	    blockInstrs[i] = blocks[i].getInstructions();
+	    blockSuccs[i] = blocks[i].getSuccs();
+	    blockHandlers[i] = blocks[i].getHandlers();
+	    blockStarts[i] = count;
+	    count += blockInstrs[i].length + 1;
+	}
+	startPc = startBlock != null
+	    ? blockStarts[startBlock.getBlockNr()] : -1;
+
+	opcodes = new int[count];
+	instrs = new Instruction[count];
+	slots = new int[count];
+	targets = new int[count];
+	switchTargets = new int[count][];
+	types = new String[count];
+	paramTypes = new String[count][];
+	blockNrs = new int[count];
+	handlerTypes = new String[blocks.length][];
+	handlerPcs = new int[blocks.length][];
+
+	int pc = 0;
+	for (int i = 0; i < blocks.length; i++) {
+	    Instruction[] blockCode = blockInstrs[i];
+	    Block[] succs = blockSuccs[i];
+	    for (int j = 0; j < blockCode.length; j++) {
+		Instruction instr = blockCode[j];
+		int opcode = instr.getOpcode();
+		opcodes[pc] = opcode;
+		instrs[pc] = instr;
+		blockNrs[pc] = i;
+		if (instr.hasLocal())
+		    slots[pc] = instr.getLocalSlot();
+		switch (opcode) {
+		case opc_ifeq: case opc_ifne: 
+		case opc_iflt: case opc_ifge: 
+		case opc_ifgt: case opc_ifle:
+		case opc_if_icmpeq: case opc_if_icmpne:
+		case opc_if_icmplt: case opc_if_icmpge: 
+		case opc_if_icmpgt: case opc_if_icmple: 
+		case opc_if_acmpeq: case opc_if_acmpne:
+		case opc_ifnull: case opc_ifnonnull:
+		case opc_jsr:
+		case opc_jsr_w:
+		    targets[pc] = getStart(blockStarts, succs[0]);
+		    break;
+		case opc_lookupswitch: {
+		    int[] switchPcs = new int[succs.length - 1];
+		    for (int k = 0; k < switchPcs.length; k++)
+			switchPcs[k] = getStart(blockStarts, succs[k]);
+		    switchTargets[pc] = switchPcs;
+		    break;
+		}
+		case opc_getstatic: case opc_getfield:
+		case opc_putstatic: case opc_putfield:
+		    types[pc] = instr.getReference().getType();
+		    break;
+		case opc_invokevirtual: case opc_invokespecial:
+		case opc_invokestatic: case opc_invokeinterface: {
+		    String type = instr.getReference().getType();
+		    types[pc] = TypeSignature.getReturnType(type);
+		    paramTypes[pc] = TypeSignature.getParameterTypes(type);
+		    break;
+		}
+		}
+		pc++;
+	    }
+	    opcodes[pc] = OPC_NEXTBLOCK;
+	    blockNrs[pc] = i;
+	    targets[pc] = succs.length > 0
+		? getStart(blockStarts, succs[succs.length - 1]) : -1;
+	    pc++;
+
+	    Handler[] handlers = blockHandlers[i];
+	    handlerTypes[i] = new String[handlers.length];
+	    handlerPcs[i] = new int[handlers.length];
+	    for (int k = 0; k < handlers.length; k++) {
+		handlerTypes[i][k] = handlers[k].getType();
+		handlerPcs[i][k] = 
+		    getStart(blockStarts, handlers[k].getCatcher());
+	    }
+	}
+    }
+
+    private static int getStart(int[] blockStarts, Block block) {
+	return block != null ? blockStarts[block.getBlockNr()] : -1;
+    }
+
+    /**
+     * Checks if the code was decoded from the current state of the
+     * basic blocks.
+     */
+    private boolean isValid(BasicBlocks bb) {
+	if (bb.getBlocks() != blocks || bb.getStartBlock() != startBlock
+	    || bb.getMaxStack() != maxStack || bb.getMaxLocals() != maxLocals)
+	    return false;
+	for (int i = 0; i < blocks.length; i++) {
+	    if (blocks[i].getInstructions() != blockInstrs[i]
+		|| blocks[i].getSuccs() != blockSuccs[i]
+		|| blocks[i].getHandlers() != blockHandlers[i])
+		return false;
+	}
+	return true;
+    }
+
+    /**
+     * Returns the decoded code of the given basic blocks.  This may be
+     * called by several threads at the same time.
+     */
+    static DecodedCode getCode(BasicBlocks bb) {
+	DecodedCode code;
+	synchronized (cache) {
+	    code = (DecodedCode) cache.get(bb);
+	}
+	if (code != null && code.isValid(bb))
+	    return code;
+	code = new DecodedCode(bb);
+	synchronized (cache) {
+	    cache.put(bb, code);
+	}
+	return code;
+    }
+}
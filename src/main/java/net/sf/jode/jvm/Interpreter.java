@@ -20,22 +20,24 @@
 package net.sf.jode.jvm;
 import net.sf.jode.GlobalOptions;
 import net.sf.jode.bytecode.BasicBlocks;
-import net.sf.jode.bytecode.Block;
-import net.sf.jode.bytecode.Handler;
 import net.sf.jode.bytecode.Instruction;
 import net.sf.jode.bytecode.Opcodes;
 import net.sf.jode.bytecode.Reference;
 import net.sf.jode.bytecode.TypeSignature;
 
+import java.io.PrintWriter;
 import java.lang.reflect.Array;
 import java.lang.reflect.InvocationTargetException;
 import java.util.Arrays;
-import java.util.Iterator;
 
 /**
  * This class is a java virtual machine written in java :-).  Well not
  * exactly.  It is only a bytecode interpreter, you have to supply the
- * rest of the VM (the runtime environment).
+ * rest of the VM (the runtime environment). <br>
+ *
+ * The interpreter runs on the {@link DecodedCode decoded form} of the
+ * basic blocks, which is cached, so that a method that is
+ * interpreted many times is only decoded once.
  *
  * @author Jochen Hoenicke
  */
@@ -60,115 +62,204 @@ public class Interpreter implements Opcodes {
 	this.env = env;
     }
 
-    private Value[] fillParameters(BasicBlocks bb, 
-				   Object cls, Object[] params) {
-	Value[] locals = new Value[bb.getMaxLocals()];
-	for (int i=0; i< locals.length; i++)
-	    locals[i] = new Value();
+    /* The stack and the locals are kept in two arrays each.
+     * Primitive values are stored in the long array, floats and
+     * doubles by their bit pattern.  Objects are stored in the object
+     * array, an object that was created but not yet initialized is
+     * represented by its NewObject.  Long and double values take two
+     * slots, the value is stored in the first one.
+     */
 
-	String myType = bb.getMethodInfo().getType();
-	String[] myParamTypes = TypeSignature.getParameterTypes(myType);
-	int slot = 0;
-	if (!bb.getMethodInfo().isStatic())
-	    locals[slot++].setObject(cls);
-	for (int i=0; i< myParamTypes.length; i++) {
-	    locals[slot].setObject(params[i]);
-	    slot += TypeSignature.getTypeSize(myParamTypes[i]);
+    private static float toFloat(long bits) {
+	return Float.intBitsToFloat((int) bits);
+    }
+
+    private static long fromFloat(float value) {
+	return Float.floatToRawIntBits(value);
+    }
+
+    private static double toDouble(long bits) {
+	return Double.longBitsToDouble(bits);
+    }
+
+    private static long fromDouble(double value) {
+	return Double.doubleToRawLongBits(value);
+    }
+
+    private static Object objectValue(Object obj) {
+	if (obj instanceof NewObject)
+	    return ((NewObject) obj).objectValue();
+	return obj;
+    }
+
+    /**
+     * Stores a value that comes from the runtime environment.
+     * @param typeSig the type signature of the value.
+     */
+    private static void setValue(long[] prims, Object[] objs, int slot,
+				 String typeSig, Object value) {
+	switch (typeSig.charAt(0)) {
+	case 'Z': case 'B': case 'S': case 'C': case 'I':
+	    prims[slot] = ((Integer) value).intValue();
+	    break;
+	case 'J':
+	    prims[slot] = ((Long) value).longValue();
+	    break;
+	case 'F':
+	    prims[slot] = fromFloat(((Float) value).floatValue());
+	    break;
+	case 'D':
+	    prims[slot] = fromDouble(((Double) value).doubleValue());
+	    break;
+	default:
+	    objs[slot] = value;
+	}
+    }
+
+    /**
+     * Gets a value in the form the runtime environment uses.
+     * @param typeSig the type signature of the value.
+     */
+    private static Object getValue(long[] prims, Object[] objs, int slot,
+				   String typeSig) {
+	switch (typeSig.charAt(0)) {
+	case 'Z': case 'B': case 'S': case 'C': case 'I':
+	    return new Integer((int) prims[slot]);
+	case 'J':
+	    return new Long(prims[slot]);
+	case 'F':
+	    return new Float(toFloat(prims[slot]));
+	case 'D':
+	    return new Double(toDouble(prims[slot]));
+	default:
+	    return objectValue(objs[slot]);
 	}
-	return locals;
+    }
+
+    private static void printValues(String name, long[] prims, Object[] objs,
+				    int count) {
+	PrintWriter err = GlobalOptions.getErr();
+	err.print(name+": [");
+	for (int i=0; i < count; i++) {
+	    if (i>0)
+		err.print(",");
+	    if (objs[i] == null)
+		err.print(prims[i]);
+	    else if (objs[i] instanceof char[])
+		err.print(new String((char[]) objs[i]));
+	    else
+		err.print(objs[i]);
+	}
+	err.println("]");
     }
 
     public Object interpretMethod(BasicBlocks bb, 
 				  Object instance, Object[] myParams)
 	throws InterpreterException, InvocationTargetException {
-	if ((GlobalOptions.debuggingFlags 
-	     & GlobalOptions.DEBUG_INTERPRT) != 0)
-	    GlobalOptions.err.println("Interpreting "+bb);
+	boolean debug
+	    = GlobalOptions.isDebugging(GlobalOptions.DEBUG_INTERPRT);
+	if (debug)
+	    GlobalOptions.getErr().println("Interpreting "+bb);
 
-	Value[] locals = fillParameters(bb, instance, myParams);
-	Value[] stack = new Value[bb.getMaxStack()];
-	for (int i=0; i < stack.length; i++)
-	    stack[i] = new Value();
+	DecodedCode code = DecodedCode.getCode(bb);
+	int[] opcodes = code.opcodes;
+	Instruction[] instrs = code.instrs;
+	int[] slots = code.slots;
+	int[] targets = code.targets;
+	String[] types = code.types;
 
-	Block nextBlock = bb.getStartBlock();
+	long[] locals = new long[code.maxLocals];
+	Object[] localObjs = new Object[code.maxLocals];
+	String[] myParamTypes = code.methodParamTypes;
+	int slot = 0;
+	if (!code.isStatic)
+	    localObjs[slot++] = instance;
+	for (int i=0; i< myParamTypes.length; i++) {
+	    setValue(locals, localObjs, slot, myParamTypes[i], myParams[i]);
+	    slot += TypeSignature.getTypeSize(myParamTypes[i]);
+	}
 
+	long[] stack = new long[code.maxStack];
+	Object[] stackObjs = new Object[code.maxStack];
 	int stacktop = 0;
-	Block[] succs = null;
-	Handler[] handlers = null;
-	Iterator iter = null;
+	int pc = code.startPc;
 
 	big_loop:
 	for(;;) {
-	    if (iter == null || !iter.hasNext()) {
-		/* If block is over continue with the next block */
-		if (nextBlock == null)
-		    return Void.TYPE;
-		iter = Arrays.asList(nextBlock.getInstructions()).iterator();
-		succs = nextBlock.getSuccs();
-		handlers = nextBlock.getHandlers();
-		nextBlock = succs.length > 0 ? succs[succs.length - 1] : null;
-	    }
+	    if (pc < 0)
+		return Void.TYPE;
+	    int opcode = opcodes[pc];
 	    try {
-		Instruction instr = (Instruction) iter.next();
-		if ((GlobalOptions.debuggingFlags 
-		     & GlobalOptions.DEBUG_INTERPRT) != 0) {
-		    GlobalOptions.err.println(instr.getDescription());
-		    GlobalOptions.err.print("stack: [");
-		    for (int i=0; i<stacktop; i++) {
-			if (i>0)
-			    GlobalOptions.err.print(",");
-			GlobalOptions.err.print(stack[i]);
-			if (stack[i].objectValue() instanceof char[]) {
-			    GlobalOptions.err.print
-				(new String((char[])stack[i].objectValue()));
-			}
-		    }
-		    GlobalOptions.err.println("]");
-		    GlobalOptions.err.print("local: [");
-		    for (int i=0; i<locals.length; i++)
-			GlobalOptions.err.print(locals[i]+",");
-		    GlobalOptions.err.println("]");
+		if (debug && opcode != DecodedCode.OPC_NEXTBLOCK) {
+		    GlobalOptions.getErr().println(instrs[pc].getDescription());
+		    printValues("stack", stack, stackObjs, stacktop);
+		    printValues("local", locals, localObjs, locals.length);
 		}
-		int opcode = instr.getOpcode();
 		switch (opcode) {
+		case DecodedCode.OPC_NEXTBLOCK:
+		    pc = targets[pc];
+		    continue big_loop;
 		case opc_nop:
 		    break;
 		case opc_ldc:
-		    stack[stacktop++].setObject(instr.getConstant());
-		    break;
-		case opc_ldc2_w:
-		    stack[stacktop].setObject(instr.getConstant());
-		    stacktop += 2;
-		    break;
-		case opc_iload:	case opc_fload: case opc_aload:
-		    stack[stacktop++].setValue(locals[instr.getLocalSlot()]);
+		case opc_ldc2_w: {
+		    Object constant = instrs[pc].getConstant();
+		    if (constant instanceof Integer)
+			stack[stacktop] = ((Integer) constant).intValue();
+		    else if (constant instanceof Long)
+			stack[stacktop] = ((Long) constant).longValue();
+		    else if (constant instanceof Float)
+			stack[stacktop] 
+			    = fromFloat(((Float) constant).floatValue());
+		    else if (constant instanceof Double)
+			stack[stacktop] 
+			    = fromDouble(((Double) constant).doubleValue());
+		    else
+			stackObjs[stacktop] = constant;
+		    stacktop += (opcode == opc_ldc2_w) ? 2 : 1;
 		    break;
+		}
+		case opc_iload: case opc_fload: case opc_aload:
 		case opc_lload: case opc_dload: 
-		    stack[stacktop].setValue(locals[instr.getLocalSlot()]);
-		    stacktop += 2;
+		    stack[stacktop] = locals[slots[pc]];
+		    stackObjs[stacktop] = localObjs[slots[pc]];
+		    stacktop += (opcode == opc_lload || opcode == opc_dload)
+			? 2 : 1;
 		    break;
 		case opc_iaload: case opc_laload: 
 		case opc_faload: case opc_daload: case opc_aaload:
 		case opc_baload: case opc_caload: case opc_saload: {
-		    int index = stack[--stacktop].intValue();
-		    Object array = stack[--stacktop].objectValue();
-		    Object result;
+		    int index = (int) stack[--stacktop];
+		    Object array = objectValue(stackObjs[--stacktop]);
 		    try {
 			switch(opcode) {
+			case opc_iaload:
+			    stack[stacktop] = ((int[])array)[index];
+			    break;
+			case opc_laload:
+			    stack[stacktop] = ((long[])array)[index];
+			    break;
+			case opc_faload:
+			    stack[stacktop]
+				= fromFloat(((float[])array)[index]);
+			    break;
+			case opc_daload:
+			    stack[stacktop]
+				= fromDouble(((double[])array)[index]);
+			    break;
+			case opc_aaload:
+			    stackObjs[stacktop] = ((Object[])array)[index];
+			    break;
 			case opc_baload:
-			    result = new Integer
-				(array instanceof byte[]
-				 ? ((byte[])array)[index]
-				 : ((boolean[])array)[index] ? 1 : 0);
+			    stack[stacktop] = array instanceof byte[]
+				? ((byte[])array)[index]
+				: ((boolean[])array)[index] ? 1 : 0;
 			    break;
 			case opc_caload: 
-			    result = new Integer(((char[])array)[index]);
+			    stack[stacktop] = ((char[])array)[index];
 			    break;
 			case opc_saload:
-			    result = new Integer(((short[])array)[index]);
-			    break;
-			default:
-			    result = Array.get(array, index);
+			    stack[stacktop] = ((short[])array)[index];
 			    break;
 			}
 		    } catch (NullPointerException ex) {
@@ -176,44 +267,56 @@ public class Interpreter implements Opcodes {
 		    } catch (ArrayIndexOutOfBoundsException ex) {
 			throw new InvocationTargetException(ex);
 		    }
-		    stack[stacktop++].setObject(result);
-		    if (opcode == opc_laload || opcode == opc_daload)
-			stacktop++;
+		    stacktop += (opcode == opc_laload || opcode == opc_daload)
+			? 2 : 1;
 		    break;
 		}
 		case opc_istore: case opc_fstore: case opc_astore:
-		    locals[instr.getLocalSlot()].setValue(stack[--stacktop]);
-		    break;
 		case opc_lstore: case opc_dstore: 
-		    locals[instr.getLocalSlot()].setValue(stack[stacktop -= 2]);
+		    stacktop -= (opcode == opc_lstore || opcode == opc_dstore)
+			? 2 : 1;
+		    locals[slots[pc]] = stack[stacktop];
+		    localObjs[slots[pc]] = stackObjs[stacktop];
 		    break;
 
-		case opc_lastore: case opc_dastore: 
-		    stacktop--;
-		    /* fall through */
-		case opc_iastore: case opc_fastore: case opc_aastore:
+		case opc_iastore: case opc_lastore:
+		case opc_fastore: case opc_dastore: case opc_aastore:
 		case opc_bastore: case opc_castore: case opc_sastore: {
-		    Value value = stack[--stacktop];
-		    int index = stack[--stacktop].intValue();
-		    Object array = stack[--stacktop].objectValue();
+		    stacktop -= (opcode == opc_lastore || opcode == opc_dastore)
+			? 2 : 1;
+		    long value = stack[stacktop];
+		    Object objValue = stackObjs[stacktop];
+		    int index = (int) stack[--stacktop];
+		    Object array = objectValue(stackObjs[--stacktop]);
 		    try {
 			switch(opcode) {
+			case opc_iastore:
+			    ((int[])array)[index] = (int) value;
+			    break;
+			case opc_lastore:
+			    ((long[])array)[index] = value;
+			    break;
+			case opc_fastore:
+			    ((float[])array)[index] = toFloat(value);
+			    break;
+			case opc_dastore:
+			    ((double[])array)[index] = toDouble(value);
+			    break;
+			case opc_aastore:
+			    ((Object[])array)[index] = objectValue(objValue);
+			    break;
 			case opc_bastore: 
 			    if (array instanceof byte[]) 
-				((byte[])array)[index] 
-				    = (byte) value.intValue();
+				((byte[])array)[index] = (byte) value;
 			    else
-				((boolean[])array)[index]
-				    = value.intValue() != 0;
+				((boolean[])array)[index] = (int) value != 0;
 			    break;
 			case opc_castore: 
-			    ((char[])array)[index] = (char) value.intValue();
+			    ((char[])array)[index] = (char) value;
 			    break;
 			case opc_sastore:
-			    ((short[])array)[index] = (short) value.intValue();
+			    ((short[])array)[index] = (short) value;
 			    break;
-			default:
-			    Array.set(array, index, value.objectValue());
 			}
 		    } catch (NullPointerException ex) {
 			throw new InvocationTargetException(ex);
@@ -229,47 +332,56 @@ public class Interpreter implements Opcodes {
 		    break;
 		case opc_dup: case opc_dup_x1: case opc_dup_x2: {
 		    int depth = opcode - opc_dup;
-		    for (int i=0; i < depth+1; i++)
-			stack[stacktop-i].setValue(stack[stacktop-i-1]);
-		    stack[stacktop-depth-1].setValue(stack[stacktop]);
+		    for (int i=0; i < depth+1; i++) {
+			stack[stacktop-i] = stack[stacktop-i-1];
+			stackObjs[stacktop-i] = stackObjs[stacktop-i-1];
+		    }
+		    stack[stacktop-depth-1] = stack[stacktop];
+		    stackObjs[stacktop-depth-1] = stackObjs[stacktop];
 		    stacktop++;
 		    break;
 		}
 		case opc_dup2: case opc_dup2_x1: case opc_dup2_x2: {
 		    int depth = opcode - opc_dup2;
-		    for (int i=0; i < depth+2; i++)
-			stack[stacktop+1-i].setValue(stack[stacktop-1-i]);
-		    stack[stacktop-depth-1].setValue(stack[stacktop+1]);
-		    stack[stacktop-depth-2].setValue(stack[stacktop]);
+		    for (int i=0; i < depth+2; i++) {
+			stack[stacktop+1-i] = stack[stacktop-1-i];
+			stackObjs[stacktop+1-i] = stackObjs[stacktop-1-i];
+		    }
+		    stack[stacktop-depth-1] = stack[stacktop+1];
+		    stackObjs[stacktop-depth-1] = stackObjs[stacktop+1];
+		    stack[stacktop-depth-2] = stack[stacktop];
+		    stackObjs[stacktop-depth-2] = stackObjs[stacktop];
 		    stacktop += 2;
 		    break;
 		}
 		case opc_swap: {
-		    Value tmp = stack[stacktop-1];
+		    long tmp = stack[stacktop-1];
 		    stack[stacktop-1] = stack[stacktop-2];
 		    stack[stacktop-2] = tmp;
+		    Object tmpObj = stackObjs[stacktop-1];
+		    stackObjs[stacktop-1] = stackObjs[stacktop-2];
+		    stackObjs[stacktop-2] = tmpObj;
 		    break;
 		}
 		case opc_iadd: 
-		    stack[stacktop-2].setInt(stack[stacktop-2].intValue()
-					     + stack[stacktop-1].intValue());
+		    stack[stacktop-2] = (int) stack[stacktop-2]
+			+ (int) stack[stacktop-1];
 		    stacktop--;
 		    break;
 		case opc_isub: 
-		    stack[stacktop-2].setInt(stack[stacktop-2].intValue()
-					     - stack[stacktop-1].intValue());
+		    stack[stacktop-2] = (int) stack[stacktop-2]
+			- (int) stack[stacktop-1];
 		    stacktop--;
 		    break;
 		case opc_imul: 
-		    stack[stacktop-2].setInt(stack[stacktop-2].intValue()
-					     * stack[stacktop-1].intValue());
+		    stack[stacktop-2] = (int) stack[stacktop-2]
+			* (int) stack[stacktop-1];
 		    stacktop--;
 		    break;
 		case opc_idiv: 
 		    try {
-			stack[stacktop-2].setInt
-			    (stack[stacktop-2].intValue()
-			     / stack[stacktop-1].intValue());
+			stack[stacktop-2] = (int) stack[stacktop-2]
+			    / (int) stack[stacktop-1];
 		    } catch (ArithmeticException ex) {
 			throw new InvocationTargetException(ex);
 		    }
@@ -277,9 +389,8 @@ public class Interpreter implements Opcodes {
 		    break;
 		case opc_irem: 
 		    try {
-			stack[stacktop-2].setInt
-			    (stack[stacktop-2].intValue()
-			     % stack[stacktop-1].intValue());
+			stack[stacktop-2] = (int) stack[stacktop-2]
+			    % (int) stack[stacktop-1];
 		    } catch (ArithmeticException ex) {
 			throw new InvocationTargetException(ex);
 		    }
@@ -288,25 +399,20 @@ public class Interpreter implements Opcodes {
 
 		case opc_ladd: 
 		    stacktop-=2;
-		    stack[stacktop-2].setLong(stack[stacktop-2].longValue()
-					      + stack[stacktop].longValue());
+		    stack[stacktop-2] += stack[stacktop];
 		    break;
 		case opc_lsub: 
 		    stacktop-=2;
-		    stack[stacktop-2].setLong(stack[stacktop-2].longValue()
-					      - stack[stacktop].longValue());
+		    stack[stacktop-2] -= stack[stacktop];
 		    break;
 		case opc_lmul: 
 		    stacktop-=2;
-		    stack[stacktop-2].setLong(stack[stacktop-2].longValue()
-					      * stack[stacktop].longValue());
+		    stack[stacktop-2] *= stack[stacktop];
 		    break;
 		case opc_ldiv: 
 		    stacktop-=2;
 		    try {
-			stack[stacktop-2].setLong
-			    (stack[stacktop-2].longValue()
-			     / stack[stacktop].longValue());
+			stack[stacktop-2] /= stack[stacktop];
 		    } catch (ArithmeticException ex) {
 			throw new InvocationTargetException(ex);
 		    }
@@ -314,229 +420,210 @@ public class Interpreter implements Opcodes {
 		case opc_lrem: 
 		    stacktop-=2;
 		    try {
-			stack[stacktop-2].setLong
-			    (stack[stacktop-2].longValue()
-			     % stack[stacktop].longValue());
+			stack[stacktop-2] %= stack[stacktop];
 		    } catch (ArithmeticException ex) {
 			throw new InvocationTargetException(ex);
 		    }
 		    break;
 
 		case opc_fadd: 
-		    stack[stacktop-2].setFloat(stack[stacktop-2].floatValue()
-					       + stack[stacktop-1].floatValue());
+		    stack[stacktop-2] = fromFloat(toFloat(stack[stacktop-2])
+						  + toFloat(stack[stacktop-1]));
 		    stacktop--;
 		    break;
 		case opc_fsub: 
-		    stack[stacktop-2].setFloat(stack[stacktop-2].floatValue()
-					       - stack[stacktop-1].floatValue());
+		    stack[stacktop-2] = fromFloat(toFloat(stack[stacktop-2])
+						  - toFloat(stack[stacktop-1]));
 		    stacktop--;
 		    break;
 		case opc_fmul: 
-		    stack[stacktop-2].setFloat(stack[stacktop-2].floatValue()
-					       * stack[stacktop-1].floatValue());
+		    stack[stacktop-2] = fromFloat(toFloat(stack[stacktop-2])
+						  * toFloat(stack[stacktop-1]));
 		    stacktop--;
 		    break;
 		case opc_fdiv: 
-		    stack[stacktop-2].setFloat(stack[stacktop-2].floatValue()
-					       / stack[stacktop-1].floatValue());
+		    stack[stacktop-2] = fromFloat(toFloat(stack[stacktop-2])
+						  / toFloat(stack[stacktop-1]));
 		    stacktop--;
 		    break;
 		case opc_frem: 
-		    stack[stacktop-2].setFloat(stack[stacktop-2].floatValue()
-					       % stack[stacktop-1].floatValue());
+		    stack[stacktop-2] = fromFloat(toFloat(stack[stacktop-2])
+						  % toFloat(stack[stacktop-1]));
 		    stacktop--;
 		    break;
 
 		case opc_dadd: 
 		    stacktop-=2;
-		    stack[stacktop-2].setDouble(stack[stacktop-2].doubleValue()
-						+ stack[stacktop].doubleValue());
+		    stack[stacktop-2] = fromDouble(toDouble(stack[stacktop-2])
+						   + toDouble(stack[stacktop]));
 		    break;
 		case opc_dsub: 
 		    stacktop-=2;
-		    stack[stacktop-2].setDouble(stack[stacktop-2].doubleValue()
-						- stack[stacktop].doubleValue());
+		    stack[stacktop-2] = fromDouble(toDouble(stack[stacktop-2])
+						   - toDouble(stack[stacktop]));
 		    break;
 		case opc_dmul: 
 		    stacktop-=2;
-		    stack[stacktop-2].setDouble(stack[stacktop-2].doubleValue()
-						* stack[stacktop].doubleValue());
+		    stack[stacktop-2] = fromDouble(toDouble(stack[stacktop-2])
+						   * toDouble(stack[stacktop]));
 		    break;
 		case opc_ddiv: 
 		    stacktop-=2;
-		    stack[stacktop-2].setDouble(stack[stacktop-2].doubleValue()
-						/ stack[stacktop].doubleValue());
+		    stack[stacktop-2] = fromDouble(toDouble(stack[stacktop-2])
+						   / toDouble(stack[stacktop]));
 		    break;
 		case opc_drem: 
 		    stacktop-=2;
-		    stack[stacktop-2].setDouble(stack[stacktop-2].doubleValue()
-						% stack[stacktop].doubleValue());
+		    stack[stacktop-2] = fromDouble(toDouble(stack[stacktop-2])
+						   % toDouble(stack[stacktop]));
 		    break;
 
 		case opc_ineg: 
-		    stack[stacktop-1].setInt(-stack[stacktop-1].intValue());
+		    stack[stacktop-1] = -(int) stack[stacktop-1];
 		    break;
 		case opc_lneg: 
-		    stack[stacktop-2].setLong(-stack[stacktop-2].longValue());
+		    stack[stacktop-2] = -stack[stacktop-2];
 		    break;
 		case opc_fneg: 
-		    stack[stacktop-1].setFloat(-stack[stacktop-1].floatValue());
+		    stack[stacktop-1] = fromFloat(-toFloat(stack[stacktop-1]));
 		    break;
 		case opc_dneg: 
-		    stack[stacktop-2].setDouble(-stack[stacktop-2].doubleValue());
+		    stack[stacktop-2]
+			= fromDouble(-toDouble(stack[stacktop-2]));
 		    break;
 
 		case opc_ishl:
-		    stack[stacktop-2].setInt(stack[stacktop-2].intValue()
-					     << stack[stacktop-1].intValue());
+		    stack[stacktop-2] = (int) stack[stacktop-2]
+			<< (int) stack[stacktop-1];
 		    stacktop--;
 		    break;
 		case opc_ishr:
-		    stack[stacktop-2].setInt(stack[stacktop-2].intValue()
-					     >> stack[stacktop-1].intValue());
+		    stack[stacktop-2] = (int) stack[stacktop-2]
+			>> (int) stack[stacktop-1];
 		    stacktop--;
 		    break;
 		case opc_iushr:
-		    stack[stacktop-2].setInt(stack[stacktop-2].intValue()
-					     >>> stack[stacktop-1].intValue());
+		    stack[stacktop-2] = (int) stack[stacktop-2]
+			>>> (int) stack[stacktop-1];
 		    stacktop--;
 		    break;
 		case opc_iand:
-		    stack[stacktop-2].setInt(stack[stacktop-2].intValue()
-					     & stack[stacktop-1].intValue());
+		    stack[stacktop-2] = (int) stack[stacktop-2]
+			& (int) stack[stacktop-1];
 		    stacktop--;
 		    break;
 		case opc_ior :
-		    stack[stacktop-2].setInt(stack[stacktop-2].intValue()
-					     | stack[stacktop-1].intValue());
+		    stack[stacktop-2] = (int) stack[stacktop-2]
+			| (int) stack[stacktop-1];
 		    stacktop--;
 		    break;
 		case opc_ixor:
-		    stack[stacktop-2].setInt(stack[stacktop-2].intValue()
-					     ^ stack[stacktop-1].intValue());
+		    stack[stacktop-2] = (int) stack[stacktop-2]
+			^ (int) stack[stacktop-1];
 		    stacktop--;
 		    break;
 
 		case opc_lshl:
-		    stack[stacktop-3].setLong(stack[stacktop-3].longValue()
-					      << stack[stacktop-1].intValue());
+		    stack[stacktop-3] <<= (int) stack[stacktop-1];
 		    stacktop--;
 		    break;
 		case opc_lshr:
-		    stack[stacktop-3].setLong(stack[stacktop-3].longValue()
-					      >> stack[stacktop-1].intValue());
+		    stack[stacktop-3] >>= (int) stack[stacktop-1];
 		    stacktop--;
 		    break;
 		case opc_lushr:
-		    stack[stacktop-3].setLong(stack[stacktop-3].longValue()
-					      >>> stack[stacktop-1].intValue());
+		    stack[stacktop-3] >>>= (int) stack[stacktop-1];
 		    stacktop--;
 		    break;
 		case opc_land:
 		    stacktop-=2;
-		    stack[stacktop-2].setLong(stack[stacktop-2].longValue()
-					      & stack[stacktop].longValue());
+		    stack[stacktop-2] &= stack[stacktop];
 		    break;
 		case opc_lor :
 		    stacktop-=2;
-		    stack[stacktop-2].setLong(stack[stacktop-2].longValue()
-					      | stack[stacktop].longValue());
+		    stack[stacktop-2] |= stack[stacktop];
 		    break;
 		case opc_lxor:
 		    stacktop-=2;
-		    stack[stacktop-2].setLong(stack[stacktop-2].longValue()
-					      ^ stack[stacktop].longValue());
+		    stack[stacktop-2] ^= stack[stacktop];
 		    break;
 
 		case opc_iinc:
-		    locals[instr.getLocalSlot()].setInt
-			(locals[instr.getLocalSlot()].intValue() + instr.getIncrement());
+		    locals[slots[pc]] = (int) locals[slots[pc]]
+			+ instrs[pc].getIncrement();
 		    break;
 		case opc_i2l:
-		    stack[stacktop-1]
-			.setLong((long)stack[stacktop-1].intValue());
+		    stack[stacktop-1] = (int) stack[stacktop-1];
 		    stacktop++;
 		    break;
 		case opc_i2f: 
 		    stack[stacktop-1]
-			.setFloat((float)stack[stacktop-1].intValue());
+			= fromFloat((float) (int) stack[stacktop-1]);
 		    break;
 		case opc_i2d:
 		    stack[stacktop-1]
-			.setDouble((double)stack[stacktop-1].intValue());
+			= fromDouble((double) (int) stack[stacktop-1]);
 		    stacktop++;
 		    break;
 
 		case opc_l2i:
 		    stacktop--;
-		    stack[stacktop-1]
-			.setInt((int)stack[stacktop-1].longValue());
+		    stack[stacktop-1] = (int) stack[stacktop-1];
 		    break;
 		case opc_l2f: 
 		    stacktop--;
-		    stack[stacktop-1]
-			.setFloat((float)stack[stacktop-1].longValue());
+		    stack[stacktop-1] = fromFloat((float) stack[stacktop-1]);
 		    break;
 		case opc_l2d:
-		    stack[stacktop-2]
-			.setDouble((double)stack[stacktop-2].longValue());
+		    stack[stacktop-2] = fromDouble((double) stack[stacktop-2]);
 		    break;
 
 		case opc_f2i: 
-		    stack[stacktop-1]
-			.setInt((int)stack[stacktop-1].floatValue());
+		    stack[stacktop-1] = (int) toFloat(stack[stacktop-1]);
 		    break;
 		case opc_f2l:
-		    stack[stacktop-1]
-			.setLong((long)stack[stacktop-1].floatValue());
+		    stack[stacktop-1] = (long) toFloat(stack[stacktop-1]);
 		    stacktop++;
 		    break;
 		case opc_f2d:
 		    stack[stacktop-1]
-			.setDouble((double)stack[stacktop-1].floatValue());
+			= fromDouble((double) toFloat(stack[stacktop-1]));
 		    stacktop++;
 		    break;
 
 		case opc_d2i:
 		    stacktop--;
-		    stack[stacktop-1]
-			.setInt((int)stack[stacktop-1].doubleValue());
+		    stack[stacktop-1] = (int) toDouble(stack[stacktop-1]);
 		    break;
 		case opc_d2l:
-		    stack[stacktop-2]
-			.setLong((long)stack[stacktop-2].doubleValue());
+		    stack[stacktop-2] = (long) toDouble(stack[stacktop-2]);
 		    break;
 		case opc_d2f: 
 		    stacktop--;
 		    stack[stacktop-1]
-			.setFloat((float)stack[stacktop-1].doubleValue());
+			= fromFloat((float) toDouble(stack[stacktop-1]));
 		    break;
 
 		case opc_i2b: 
-		    stack[stacktop-1]
-			.setInt((byte)stack[stacktop-1].intValue());
+		    stack[stacktop-1] = (byte) stack[stacktop-1];
 		    break;		
 		case opc_i2c: 
-		    stack[stacktop-1]
-			.setInt((char)stack[stacktop-1].intValue());
+		    stack[stacktop-1] = (char) stack[stacktop-1];
 		    break;
 		case opc_i2s:
-		    stack[stacktop-1]
-			.setInt((short)stack[stacktop-1].intValue());
+		    stack[stacktop-1] = (short) stack[stacktop-1];
 		    break;
 		case opc_lcmp: {
 		    stacktop -= 3;
-		    long val1 = stack[stacktop-1].longValue();
-		    long val2 = stack[stacktop+1].longValue();
-		    stack[stacktop-1].setInt
-			(val1 == val2 ? 0 : val1 < val2 ? -1 : 1);
+		    long val1 = stack[stacktop-1];
+		    long val2 = stack[stacktop+1];
+		    stack[stacktop-1] = val1 == val2 ? 0 : val1 < val2 ? -1 : 1;
 		    break;
 		}
 		case opc_fcmpl: case opc_fcmpg: {
-		    float val1 = stack[stacktop-2].floatValue();
-		    float val2 = stack[--stacktop].floatValue();
-		    stack[stacktop-1].setInt
+		    float val1 = toFloat(stack[stacktop-2]);
+		    float val2 = toFloat(stack[--stacktop]);
+		    stack[stacktop-1] =
 			(val1 == val2 ? 0
 			 : ( opcode == opc_fcmpg
 			     ? (val1 < val2 ? -1 :  1)
@@ -545,9 +632,9 @@ public class Interpreter implements Opcodes {
 		}
 		case opc_dcmpl: case opc_dcmpg: {
 		    stacktop -= 3;
-		    double val1 = stack[stacktop-1].doubleValue();
-		    double val2 = stack[stacktop+1].doubleValue();
-		    stack[stacktop-1].setInt
+		    double val1 = toDouble(stack[stacktop-1]);
+		    double val2 = toDouble(stack[stacktop+1]);
+		    stack[stacktop-1] =
 			(val1 == val2 ? 0
 			 : ( opcode == opc_dcmpg
 			     ? (val1 < val2 ? -1 :  1)
@@ -563,180 +650,194 @@ public class Interpreter implements Opcodes {
 		case opc_if_acmpeq: case opc_if_acmpne:
 		case opc_ifnull: case opc_ifnonnull: {
 		    int value;
+		    int cmp;
 		    if (opcode >= opc_if_acmpeq) {
-			Object objValue = stack[--stacktop].objectValue();
+			Object objValue = objectValue(stackObjs[--stacktop]);
 			if (opcode >= opc_ifnull) {
 			    value = objValue == null ? 0 : 1;
-			    opcode -= opc_ifnull;
+			    cmp = opcode - opc_ifnull;
 			} else {
 			    value = objValue
-				== stack[--stacktop].objectValue() ? 0 : 1;
-			    opcode -= opc_if_acmpeq;
+				== objectValue(stackObjs[--stacktop]) ? 0 : 1;
+			    cmp = opcode - opc_if_acmpeq;
 			}
 		    } else {
-			value = stack[--stacktop].intValue();
+			value = (int) stack[--stacktop];
 			if (opcode >= opc_if_icmpeq) {
-			    int val1 = stack[--stacktop].intValue();
+			    int val1 = (int) stack[--stacktop];
 			    value = (val1 == value ? 0
 				     : val1 < value ? -1 : 1);
-			    opcode -= opc_if_icmpeq;
+			    cmp = opcode - opc_if_icmpeq;
 			} else
-			    opcode -= opc_ifeq;
+			    cmp = opcode - opc_ifeq;
 		    }
-		    int opc_mask = 1 << opcode;
+		    int opc_mask = 1 << cmp;
 		    if (value > 0 && (opc_mask & CMP_GREATER_MASK) != 0
 			|| value < 0 && (opc_mask & CMP_LESS_MASK) != 0
 			|| value == 0 && (opc_mask & CMP_EQUAL_MASK) != 0) {
-			nextBlock = succs[0];
+			pc = targets[pc];
+			continue big_loop;
 		    }
 		    break;
 		}
 		case opc_jsr:
 		case opc_jsr_w:
-		    stack[stacktop++].setObject(nextBlock);
-		    nextBlock = succs[0];
-		    break;
+		    /* The return address is the target of the following
+		     * OPC_NEXTBLOCK.
+		     */
+		    stack[stacktop] = targets[pc + 1];
+		    stackObjs[stacktop] = null;
+		    stacktop++;
+		    pc = targets[pc];
+		    continue big_loop;
 		case opc_ret:
-		    nextBlock
-			= (Block) locals[instr.getLocalSlot()].objectValue();
-		    break;
+		    pc = (int) locals[slots[pc]];
+		    continue big_loop;
 		case opc_lookupswitch: {
-		    int value = stack[--stacktop].intValue();
-		    int[] values = instr.getValues();
+		    int value = (int) stack[--stacktop];
+		    int[] values = instrs[pc].getValues();
 		    int pos = Arrays.binarySearch(values, value);
-		    if (pos >= 0)
-			nextBlock = succs[pos];
+		    if (pos >= 0) {
+			pc = code.switchTargets[pc][pos];
+			continue big_loop;
+		    }
 		    break;
 		}
-		case opc_ireturn: case opc_freturn: case opc_areturn:
-		    return stack[--stacktop].objectValue();
-		case opc_lreturn: case opc_dreturn:
-		    return stack[stacktop -= 2].objectValue();
+		case opc_ireturn:
+		    return new Integer((int) stack[stacktop-1]);
+		case opc_freturn:
+		    return new Float(toFloat(stack[stacktop-1]));
+		case opc_areturn:
+		    return objectValue(stackObjs[stacktop-1]);
+		case opc_lreturn:
+		    return new Long(stack[stacktop-2]);
+		case opc_dreturn:
+		    return new Double(toDouble(stack[stacktop-2]));
 		case opc_return:
 		    return Void.TYPE;
 		case opc_getstatic: {
-		    Reference ref = instr.getReference();
-		    Object result = env.getField(instr.getReference(), null);
-		    stack[stacktop].setObject(result);
-		    stacktop += TypeSignature.getTypeSize(ref.getType());
+		    Object result
+			= env.getField(instrs[pc].getReference(), null);
+		    setValue(stack, stackObjs, stacktop, types[pc], result);
+		    stacktop += TypeSignature.getTypeSize(types[pc]);
 		    break;
 		}
 		case opc_getfield: {
-		    Reference ref = instr.getReference();
-		    Object cls = stack[--stacktop].objectValue();
+		    Object cls = objectValue(stackObjs[--stacktop]);
 		    if (cls == null)
 			throw new InvocationTargetException
 			    (new NullPointerException());
-		    Object result = env.getField(instr.getReference(), cls);
-		    stack[stacktop].setObject(result);
-		    stacktop += TypeSignature.getTypeSize(ref.getType());
+		    Object result
+			= env.getField(instrs[pc].getReference(), cls);
+		    setValue(stack, stackObjs, stacktop, types[pc], result);
+		    stacktop += TypeSignature.getTypeSize(types[pc]);
 		    break;
 		}
 		case opc_putstatic: {
-		    Reference ref = instr.getReference();
-		    stacktop -= TypeSignature.getTypeSize(ref.getType());
-		    Object value = stack[stacktop].objectValue();
-		    env.putField(instr.getReference(), null, value);
+		    stacktop -= TypeSignature.getTypeSize(types[pc]);
+		    Object value
+			= getValue(stack, stackObjs, stacktop, types[pc]);
+		    env.putField(instrs[pc].getReference(), null, value);
 		    break;
 		}
 		case opc_putfield: {
-		    Reference ref = instr.getReference();
-		    stacktop -= TypeSignature.getTypeSize(ref.getType());
-		    Object value = stack[stacktop].objectValue();
-		    Object cls = stack[--stacktop].objectValue();
+		    stacktop -= TypeSignature.getTypeSize(types[pc]);
+		    Object value
+			= getValue(stack, stackObjs, stacktop, types[pc]);
+		    Object cls = objectValue(stackObjs[--stacktop]);
 		    if (cls == null)
 			throw new InvocationTargetException
 			    (new NullPointerException());
-		    env.putField(instr.getReference(), cls, value);
+		    env.putField(instrs[pc].getReference(), cls, value);
 		    break;
 		}
 		case opc_invokevirtual:
 		case opc_invokespecial:
 		case opc_invokestatic :
 		case opc_invokeinterface: {
-		    Reference ref = instr.getReference();
-		    String[] paramTypes
-			= TypeSignature.getParameterTypes(ref.getType());
+		    Reference ref = instrs[pc].getReference();
+		    String[] paramTypes = code.paramTypes[pc];
 		    Object[] args = new Object[paramTypes.length];
 		    for (int i = paramTypes.length - 1; i >= 0; i--) {
 			stacktop -= TypeSignature.getTypeSize(paramTypes[i]);
-			args[i] = stack[stacktop].objectValue();
+			args[i] = getValue(stack, stackObjs, stacktop,
+					   paramTypes[i]);
 		    }
 		
 		    Object result = null;
-		    if (opcode == opc_invokespecial
-			&& ref.getName().equals("<init>")
-			&& stack[--stacktop].getNewObject() != null) {
-			NewObject newObj = stack[stacktop].getNewObject();
+		    if (opcode == opc_invokestatic) {
+			result = env.invokeMethod(ref, false, null, args);
+		    } else if (opcode == opc_invokespecial
+			       && stackObjs[stacktop-1] instanceof NewObject
+			       && ref.getName().equals("<init>")) {
+			NewObject newObj = (NewObject) stackObjs[--stacktop];
 			if (!newObj.getType().equals(ref.getClazz()))
 			    throw new InterpreterException
 				("constructor doesn't match new");
 			newObj.setObject(env.invokeConstructor(ref, args));
-		    } else if (opcode == opc_invokestatic) {
-			result = env.invokeMethod(ref, false, null, args);
 		    } else {
-			Object cls = stack[--stacktop].objectValue();
+			Object cls = objectValue(stackObjs[--stacktop]);
 			if (cls == null)
 			    throw new InvocationTargetException
 				(new NullPointerException());
 			result = env.invokeMethod
 			    (ref, opcode != opc_invokespecial, cls, args);
 		    }
-		    String retType
-			= TypeSignature.getReturnType(ref.getType());
-		    if (!retType.equals("V")) {
-			stack[stacktop].setObject(result);
+		    String retType = types[pc];
+		    if (retType.charAt(0) != 'V') {
+			setValue(stack, stackObjs, stacktop, retType, result);
 			stacktop += TypeSignature.getTypeSize(retType);
 		    }
 		    break;
 		}
 		case opc_new: {
-		    String clazz = instr.getClazzType();
-		    stack[stacktop++].setNewObject(new NewObject(clazz));
+		    String clazz = instrs[pc].getClazzType();
+		    stackObjs[stacktop++] = new NewObject(clazz);
 		    break;
 		}
 		case opc_arraylength: {
-		    Object array = stack[--stacktop].objectValue();
+		    Object array = objectValue(stackObjs[--stacktop]);
 		    if (array == null)
 			throw new InvocationTargetException
 			    (new NullPointerException());
-		    stack[stacktop++].setInt(Array.getLength(array));
+		    stack[stacktop++] = Array.getLength(array);
 		    break;
 		}
 		case opc_athrow: {
 		    Throwable exc = 
-			(Throwable) stack[--stacktop].objectValue();
+			(Throwable) objectValue(stackObjs[--stacktop]);
 		    throw new InvocationTargetException
 			(exc == null ? new NullPointerException() : exc);
 		}
 		case opc_checkcast: {
-		    Object obj = stack[stacktop-1].objectValue();
+		    Object obj = objectValue(stackObjs[stacktop-1]);
 		    if (obj != null
-			&& !env.instanceOf(obj, instr.getClazzType()))
+			&& !env.instanceOf(obj, instrs[pc].getClazzType()))
 			throw new InvocationTargetException
 			    (new ClassCastException(obj.getClass().getName()));
 		    break;
 		}
 		case opc_instanceof: {
-		    Object obj = stack[--stacktop].objectValue();
-		    stack[stacktop++].setInt
-			(env.instanceOf(obj, instr.getClazzType()) ? 1 : 0);
+		    Object obj = objectValue(stackObjs[--stacktop]);
+		    stack[stacktop++]
+			= env.instanceOf(obj, instrs[pc].getClazzType())
+			? 1 : 0;
 		    break;
 		}
 		case opc_monitorenter:
-		    env.enterMonitor(stack[--stacktop].objectValue());
+		    env.enterMonitor(objectValue(stackObjs[--stacktop]));
 		    break;
 		case opc_monitorexit:
-		    env.exitMonitor(stack[--stacktop].objectValue());
+		    env.exitMonitor(objectValue(stackObjs[--stacktop]));
 		    break;
 		case opc_multianewarray: {
-		    int dimension = instr.getDimensions();
+		    int dimension = instrs[pc].getDimensions();
 		    int[] dims = new int[dimension];
 		    for (int i=dimension - 1; i >= 0; i--)
-			dims[i] = stack[--stacktop].intValue();
+			dims[i] = (int) stack[--stacktop];
 		    try {
-			stack[stacktop++].setObject
-			    (env.newArray(instr.getClazzType(), dims));
+			stackObjs[stacktop++] = env.newArray
+			    (instrs[pc].getClazzType(), dims);
 		    } catch (NegativeArraySizeException ex) {
 			throw new InvocationTargetException(ex);
 		    }
@@ -745,15 +846,17 @@ public class Interpreter implements Opcodes {
 		default:
 		    throw new InternalError("Invalid opcode "+opcode);
 		}
+		pc++;
 	    } catch (InvocationTargetException ex) {
-		iter = null;
 		Throwable obj = ex.getTargetException();
-		for (int i=0; i < handlers.length; i++) {
-		    if (handlers[i].getType() == null
-			|| env.instanceOf(obj, handlers[i].getType())) {
+		int blockNr = code.blockNrs[pc];
+		String[] handlerTypes = code.handlerTypes[blockNr];
+		for (int i=0; i < handlerTypes.length; i++) {
+		    if (handlerTypes[i] == null
+			|| env.instanceOf(obj, handlerTypes[i])) {
 			stacktop = 0;
-			stack[stacktop++].setObject(obj);
-			nextBlock = handlers[i].getCatcher();
+			stackObjs[stacktop++] = obj;
+			pc = code.handlerPcs[blockNr][i];
 			continue big_loop;
 		    }
 		}
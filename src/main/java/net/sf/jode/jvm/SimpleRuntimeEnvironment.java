@@ -26,6 +26,8 @@ import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.InvocationTargetException;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * This is a runtime environment using reflection.
@@ -63,9 +65,50 @@ public class SimpleRuntimeEnvironment implements RuntimeEnvironment {
 	}
     }
 
-    public Object getField(Reference ref, Object obj)
+    /**
+     * The maximum number of fields, methods and constructors whose
+     * reflection objects are remembered.
+     */
+    private static final int MEMBER_CACHE_SIZE = 1000;
+
+    /**
+     * Maps the references to the Field, Method or Constructor objects
+     * they were resolved to.  The lookup by reflection is expensive
+     * and the interpreter uses the same references again and again.
+     * The least recently used entries are removed first.
+     */
+    private static final Map memberCache
+	= new LinkedHashMap(16, 0.75f, true) {
+	    protected boolean removeEldestEntry(Map.Entry eldest) {
+		return size() > MEMBER_CACHE_SIZE;
+	    }
+	};
+
+    private static Object getCachedMember(Reference ref) {
+	synchronized (memberCache) {
+	    return memberCache.get(ref);
+	}
+    }
+
+    private static void putCachedMember(Reference ref, Object member) {
+	synchronized (memberCache) {
+	    memberCache.put(ref, member);
+	}
+    }
+
+    private static Class[] getParamClasses(String[] paramTypeSigs)
+	throws ClassNotFoundException {
+	Class[] paramTypes = new Class[paramTypeSigs.length];
+	for (int i=0; i< paramTypeSigs.length; i++)
+	    paramTypes[i] = TypeSignature.getClass(paramTypeSigs[i]);
+	return paramTypes;
+    }
+
+    private static Field findField(Reference ref)
 	throws InterpreterException {
-	Field f;
+	Field f = (Field) getCachedMember(ref);
+	if (f != null)
+	    return f;
 	try {
 	    Class clazz = TypeSignature.getClass(ref.getClazz());
 	    try {
@@ -83,70 +126,95 @@ public class SimpleRuntimeEnvironment implements RuntimeEnvironment {
 	    throw new InterpreterException
 		(ref+": Security exception");
 	}
-	try {
-	    return fromReflectType(ref.getType(), f.get(obj));
-	} catch (IllegalAccessException ex) {
-	    throw new InterpreterException
-		("Field " + ref + " not accessible");
-	}
+	putCachedMember(ref, f);
+	return f;
     }
 
-    public void putField(Reference ref, Object obj, Object value)
+    private static Constructor findConstructor(Reference ref)
 	throws InterpreterException {
-	Field f;
+	Constructor c = (Constructor) getCachedMember(ref);
+	if (c != null)
+	    return c;
 	try {
 	    Class clazz = TypeSignature.getClass(ref.getClazz());
+	    Class[] paramTypes = getParamClasses
+		(TypeSignature.getParameterTypes(ref.getType()));
 	    try {
-		f = clazz.getField(ref.getName());
-	    } catch (NoSuchFieldException ex) {
-		f = clazz.getDeclaredField(ref.getName());
+		c = clazz.getConstructor(paramTypes);
+	    } catch (NoSuchMethodException ex) {
+		c = clazz.getDeclaredConstructor(paramTypes);
 	    }
 	} catch (ClassNotFoundException ex) {
 	    throw new InterpreterException
 		(ref+": Class not found");
-	} catch (NoSuchFieldException ex) {
+	} catch (NoSuchMethodException ex) {
 	    throw new InterpreterException
 		("Constructor "+ref+" not found");
 	} catch (SecurityException ex) {
 	    throw new InterpreterException
 		(ref+": Security exception");
 	}
-	try {
-	    f.set(obj, toReflectType(ref.getType(), value));
-	} catch (IllegalAccessException ex) {
-	    throw new InterpreterException
-		("Field " + ref + " not accessible");
-	}
+	putCachedMember(ref, c);
+	return c;
     }
-    
-    public Object invokeConstructor(Reference ref, Object[] params)
-	throws InterpreterException, InvocationTargetException {
-	Constructor c;
+
+    private static Method findMethod(Reference ref)
+	throws InterpreterException {
+	Method m = (Method) getCachedMember(ref);
+	if (m != null)
+	    return m;
 	try {
-	    String[] paramTypeSigs
-		= TypeSignature.getParameterTypes(ref.getType());
 	    Class clazz = TypeSignature.getClass(ref.getClazz());
-	    Class[] paramTypes = new Class[paramTypeSigs.length];
-	    for (int i=0; i< paramTypeSigs.length; i++) {
-		params[i] = toReflectType(paramTypeSigs[i], params[i]);
-		paramTypes[i] = TypeSignature.getClass(paramTypeSigs[i]);
-	    }
+	    Class[] paramTypes = getParamClasses
+		(TypeSignature.getParameterTypes(ref.getType()));
 	    try {
-		c = clazz.getConstructor(paramTypes);
+		m = clazz.getMethod(ref.getName(), paramTypes);
 	    } catch (NoSuchMethodException ex) {
-		c = clazz.getDeclaredConstructor(paramTypes);
+		m = clazz.getDeclaredMethod(ref.getName(), paramTypes);
 	    }
 	} catch (ClassNotFoundException ex) {
 	    throw new InterpreterException
 		(ref+": Class not found");
 	} catch (NoSuchMethodException ex) {
 	    throw new InterpreterException
-		("Constructor "+ref+" not found");
+		("Method "+ref+" not found");
 	} catch (SecurityException ex) {
 	    throw new InterpreterException
 		(ref+": Security exception");
 	}
-	
+	putCachedMember(ref, m);
+	return m;
+    }
+
+    public Object getField(Reference ref, Object obj)
+	throws InterpreterException {
+	Field f = findField(ref);
+	try {
+	    return fromReflectType(ref.getType(), f.get(obj));
+	} catch (IllegalAccessException ex) {
+	    throw new InterpreterException
+		("Field " + ref + " not accessible");
+	}
+    }
+
+    public void putField(Reference ref, Object obj, Object value)
+	throws InterpreterException {
+	Field f = findField(ref);
+	try {
+	    f.set(obj, toReflectType(ref.getType(), value));
+	} catch (IllegalAccessException ex) {
+	    throw new InterpreterException
+		("Field " + ref + " not accessible");
+	}
+    }
+    
+    public Object invokeConstructor(Reference ref, Object[] params)
+	throws InterpreterException, InvocationTargetException {
+	Constructor c = findConstructor(ref);
+	String[] paramTypeSigs
+	    = TypeSignature.getParameterTypes(ref.getType());
+	for (int i=0; i< paramTypeSigs.length; i++)
+	    params[i] = toReflectType(paramTypeSigs[i], params[i]);
 	try {
 	    return c.newInstance(params);
 	} catch (IllegalAccessException ex) {
@@ -165,31 +233,11 @@ public class SimpleRuntimeEnvironment implements RuntimeEnvironment {
 	    throw new InterpreterException
 		("Can't invoke nonvirtual Method " + ref + ".");
 
-	Method m;
-	try {
-	    String[] paramTypeSigs
-		= TypeSignature.getParameterTypes(ref.getType());
-	    Class clazz = TypeSignature.getClass(ref.getClazz());
-	    Class[] paramTypes = new Class[paramTypeSigs.length];
-	    for (int i=0; i< paramTypeSigs.length; i++) {
-		params[i] = toReflectType(paramTypeSigs[i], params[i]);
-		paramTypes[i] = TypeSignature.getClass(paramTypeSigs[i]);
-	    }
-	    try {
-		m = clazz.getMethod(ref.getName(), paramTypes);
-	    } catch (NoSuchMethodException ex) {
-		m = clazz.getDeclaredMethod(ref.getName(), paramTypes);
-	    }
-	} catch (ClassNotFoundException ex) {
-	    throw new InterpreterException
-		(ref+": Class not found");
-	} catch (NoSuchMethodException ex) {
-	    throw new InterpreterException
-		("Method "+ref+" not found");
-	} catch (SecurityException ex) {
-	    throw new InterpreterException
-		(ref+": Security exception");
-	}
+	Method m = findMethod(ref);
+	String[] paramTypeSigs
+	    = TypeSignature.getParameterTypes(ref.getType());
+	for (int i=0; i< paramTypeSigs.length; i++)
+	    params[i] = toReflectType(paramTypeSigs[i], params[i]);
 	String retType = TypeSignature.getReturnType(ref.getType());
 	try {
 	    return fromReflectType(retType, m.invoke(cls, params));
@@ -20,6 +20,7 @@
 package net.sf.jode.obfuscator;
 import net.sf.jode.GlobalOptions;
 import net.sf.jode.bytecode.ClassPath;
+import net.sf.jode.bytecode.ClassPathIndex;
 import net.sf.jode.bytecode.Reference;
 import net.sf.jode.obfuscator.modules.WildCard;
 import net.sf.jode.obfuscator.modules.MultiIdentifierMatcher;
@@ -28,8 +29,10 @@ import net.sf.jode.obfuscator.modules.IdentityRenamer;
 import java.io.*;
 import java.util.zip.ZipOutputStream;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 import java.util.HashSet;
 import java.util.Map;
@@ -46,6 +49,8 @@ public class ClassBundle implements OptionHandler {
     Set toAnalyze = new HashSet();
 
     ClassPath classPath;
+    ClassPathIndex classPathIndex;
+    int threads = 1;
     String destDir;
 
     String tableFile;
@@ -67,12 +72,31 @@ public class ClassBundle implements OptionHandler {
 	basePackage.setPreserved();
     }
 
+    /* The caches are also used by the threads that transform the
+     * classes, so they are only accessed in synchronized methods.
+     */
     private static final Map aliasesHash = new WeakHashMap();
     private static final Map clazzCache = new HashMap();
     private static final Map referenceCache = new HashMap();
 
     public static void setStripOptions(Collection stripString) {
     }
+    /**
+     * Sets the index that remembers the directories of the jars in
+     * the class path.  It must be set before the class path.
+     */
+    public void setClassPathIndex(ClassPathIndex index) {
+	classPathIndex = index;
+    }
+
+    /**
+     * Sets the number of threads that analyze, transform and write
+     * the classes.
+     */
+    public void setThreads(int threads) {
+	this.threads = threads;
+    }
+
     public void setOption(String option, Collection values) {
 	if (option.equals("classpath")) {
 	    Iterator i = values.iterator();
@@ -81,7 +105,7 @@ public class ClassBundle implements OptionHandler {
 		sb.append(ClassPath.altPathSeparatorChar)
 		    .append((String)i.next());
 	    }
-	    classPath = new ClassPath(sb.toString());
+	    classPath = new ClassPath(sb.toString(), classPathIndex);
 	    return;
 	}
 	    
@@ -221,7 +245,7 @@ public class ClassBundle implements OptionHandler {
 	throw new IllegalArgumentException("Invalid option `"+option+"'.");
     }
 
-    public Reference getReferenceAlias(Reference ref) {
+    public synchronized Reference getReferenceAlias(Reference ref) {
 	Reference alias = (Reference) aliasesHash.get(ref);
 	if (alias == null) {
 	    Identifier ident = getIdentifier(ref);
@@ -238,7 +262,7 @@ public class ClassBundle implements OptionHandler {
 	return alias;
     }
 
-    public String getTypeAlias(String typeSig) {
+    public synchronized String getTypeAlias(String typeSig) {
 	String alias = (String) aliasesHash.get(typeSig);
 	if (alias == null) { 
 	    StringBuffer newSig = new StringBuffer();
@@ -264,7 +288,7 @@ public class ClassBundle implements OptionHandler {
 	return classPath;
     }
 
-    public ClassIdentifier getClassIdentifier(String name) {
+    public synchronized ClassIdentifier getClassIdentifier(String name) {
 	if (clazzCache.containsKey(name))
 	    return (ClassIdentifier) clazzCache.get(name);
 	ClassIdentifier ident
@@ -273,7 +297,7 @@ public class ClassBundle implements OptionHandler {
 	return ident;
     }
 
-    public Identifier getIdentifier(Reference ref) {
+    public synchronized Identifier getIdentifier(Reference ref) {
 	if (referenceCache.containsKey(ref))
 	    return (Identifier) referenceCache.get(ref);
 
@@ -291,13 +315,18 @@ public class ClassBundle implements OptionHandler {
 	return ident;
     }
 
-    public void reachableClass(String clazzName) {
+    /* While the bundle is analyzed on several threads, the
+     * identifiers are only read and changed by a thread that holds
+     * the lock of the bundle, see ParallelAnalyzer.
+     */
+    public synchronized void reachableClass(String clazzName) {
 	ClassIdentifier ident = getClassIdentifier(clazzName);
 	if (ident != null)
 	    ident.setReachable();
     }
 
-    public void reachableReference(Reference ref, boolean isVirtual) {
+    public synchronized void reachableReference(Reference ref,
+						boolean isVirtual) {
 	String clName = ref.getClazz();
 	if (clName.charAt(0) == '[')
 	    /* Can't represent arrays */
@@ -309,13 +338,18 @@ public class ClassBundle implements OptionHandler {
 	    ident.reachableReference(ref, isVirtual);
     }
 
-    public void analyzeIdentifier(Identifier ident) {
+    public synchronized void analyzeIdentifier(Identifier ident) {
 	if (ident == null)
 	    throw new NullPointerException();
-	toAnalyze.add(ident);
+	if (toAnalyze.add(ident))
+	    notifyAll();
     }
 
     public void analyze() {
+	if (threads > 1) {
+	    new ParallelAnalyzer(this, threads).analyze();
+	    return;
+	}
 	while(!toAnalyze.isEmpty()) {
 	    Identifier ident = (Identifier) toAnalyze.iterator().next();
 	    toAnalyze.remove(ident);
@@ -351,8 +385,8 @@ public class ClassBundle implements OptionHandler {
 	    input.close();
 	    basePackage.readTable(table);
 	} catch (java.io.IOException ex) {
-	    GlobalOptions.err.println("Can't read rename table " + tableFile);
-	    ex.printStackTrace(GlobalOptions.err);
+	    GlobalOptions.getErr().println("Can't read rename table " + tableFile);
+	    ex.printStackTrace(GlobalOptions.getErr());
 	}
     }
 
@@ -364,13 +398,21 @@ public class ClassBundle implements OptionHandler {
 	    table.store(out);
 	    out.close();
 	} catch (java.io.IOException ex) {
-	    GlobalOptions.err.println("Can't write rename table "+toTableFile);
-	    ex.printStackTrace(GlobalOptions.err);
+	    GlobalOptions.getErr().println("Can't write rename table "+toTableFile);
+	    ex.printStackTrace(GlobalOptions.getErr());
 	}
     }
 
     public void doTransformations() {
-	basePackage.doTransformations();
+	if (threads > 1) {
+	    /* Rename the classes first, then transform the code of
+	     * the methods in parallel.
+	     */
+	    List methods = new ArrayList();
+	    basePackage.doTransformations(methods);
+	    new ParallelTransformer(threads).transformMethods(methods);
+	} else
+	    basePackage.doTransformations();
     }
     
     public void storeClasses() {
@@ -379,22 +421,34 @@ public class ClassBundle implements OptionHandler {
 	    try {
 		ZipOutputStream zip = new ZipOutputStream
 		    (new FileOutputStream(destDir));
-		basePackage.storeClasses(zip);
+		if (threads > 1) {
+		    List classes = new ArrayList();
+		    basePackage.collectClasses(classes);
+		    new ParallelTransformer(threads)
+			.storeClasses(classes, zip, null);
+		} else
+		    basePackage.storeClasses(zip);
 		zip.close();
 	    } catch (IOException ex) {
-		GlobalOptions.err.println
+		GlobalOptions.getErr().println
 		    ("Can't write zip file: "+destDir);
-		ex.printStackTrace(GlobalOptions.err);
+		ex.printStackTrace(GlobalOptions.getErr());
 	    }
 	} else {
 	    File directory = new File(destDir);
 	    if (!directory.exists()) {
-		GlobalOptions.err.println("Destination directory "
+		GlobalOptions.getErr().println("Destination directory "
 					  +directory.getPath()
 					  +" doesn't exists.");
 		return;
 	    }
-	    basePackage.storeClasses(new File(destDir));
+	    if (threads > 1) {
+		List classes = new ArrayList();
+		basePackage.collectClasses(classes);
+		new ParallelTransformer(threads)
+		    .storeClasses(classes, null, directory);
+	    } else
+		basePackage.storeClasses(directory);
 	}
     }
 
@@ -403,7 +457,7 @@ public class ClassBundle implements OptionHandler {
 	    String cp = System.getProperty("java.class.path")
 		.replace(File.pathSeparatorChar, 
 			 ClassPath.altPathSeparatorChar);
-	    classPath = new ClassPath(cp);
+	    classPath = new ClassPath(cp, classPathIndex);
 	}
 
 	if (analyzer == null)
@@ -426,7 +480,7 @@ public class ClassBundle implements OptionHandler {
 	} while (free < last);
 	System.err.println("used before: "+(runtime.totalMemory()- free));
 
-	GlobalOptions.err.println("Loading and preserving classes");
+	GlobalOptions.getErr().println("Loading and preserving classes");
 
 	long time = System.currentTimeMillis();
 	basePackage.loadMatchingClasses(loading);
@@ -435,7 +489,7 @@ public class ClassBundle implements OptionHandler {
 	System.err.println("Time used: "+(System.currentTimeMillis() - time));
 
 
-	GlobalOptions.err.println("Computing reachability");
+	GlobalOptions.getErr().println("Computing reachability");
 	time = System.currentTimeMillis();
 	analyze();
 	System.err.println("Time used: "+(System.currentTimeMillis() - time));
@@ -450,7 +504,7 @@ public class ClassBundle implements OptionHandler {
 	System.err.println("used after analyze: "
 			   + (runtime.totalMemory() - free));
 
-	GlobalOptions.err.println("Renaming methods");
+	GlobalOptions.getErr().println("Renaming methods");
 	time = System.currentTimeMillis();
 	if (tableFile != null)
             readTable();
@@ -459,7 +513,7 @@ public class ClassBundle implements OptionHandler {
             writeTable();
 	System.err.println("Time used: "+(System.currentTimeMillis() - time));
 
-	GlobalOptions.err.println("Transforming the classes");
+	GlobalOptions.getErr().println("Transforming the classes");
 	time = System.currentTimeMillis();
 	doTransformations();
 	System.err.println("Time used: "+(System.currentTimeMillis() - time));
@@ -474,7 +528,7 @@ public class ClassBundle implements OptionHandler {
 	System.err.println("used after transform: "
 			   + (runtime.totalMemory() - free));
 
-	GlobalOptions.err.println("Writing new classes");
+	GlobalOptions.getErr().println("Writing new classes");
 	time = System.currentTimeMillis();
         storeClasses();
 	System.err.println("Time used: "+(System.currentTimeMillis() - time));
@@ -26,9 +26,11 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.LinkedList;
+import java.util.Map;
 import java.util.Random;
 import java.lang.UnsupportedOperationException;
 
@@ -51,6 +53,14 @@ public class ClassIdentifier extends Identifier {
     List knownSubClasses = new LinkedList();
     List virtualReachables = new LinkedList();
 
+    /**
+     * The aliased fields and methods of this class, so that we don't
+     * have to check all of them for every new alias.  They map the
+     * alias key, see aliasKey, to a list of identifiers.
+     */
+    Map fieldAliases = new HashMap();
+    Map methodAliases = new HashMap();
+
     boolean initialized;
 
     public ClassIdentifier(PackageIdentifier pack, String fullName,
@@ -147,7 +157,7 @@ public class ClassIdentifier extends Identifier {
 	    md = MessageDigest.getInstance("SHA");
 	} catch (NoSuchAlgorithmException ex) {
 	    ex.printStackTrace();
-	    GlobalOptions.err.println("Can't calculate serialVersionUID");
+	    GlobalOptions.getErr().println("Can't calculate serialVersionUID");
 	    return 0L;
 	}
 	OutputStream digest = new OutputStream() {
@@ -248,7 +258,7 @@ public class ClassIdentifier extends Identifier {
 	    return result;
 	} catch (IOException ex) {
 	    ex.printStackTrace();
-	    GlobalOptions.err.println("Can't calculate serialVersionUID");
+	    GlobalOptions.getErr().println("Can't calculate serialVersionUID");
 	    return 0L;
 	}
     }
@@ -322,13 +332,15 @@ public class ClassIdentifier extends Identifier {
     }
 
     public void analyze() {
-	if (GlobalOptions.verboseLevel > 0)
-	    GlobalOptions.err.println("Reachable: "+this);
+	if (GlobalOptions.getVerboseLevel() > 0)
+	    GlobalOptions.getErr().println("Reachable: "+this);
 
-	ClassInfo[] ifaces = info.getInterfaces();
-	for (int i=0; i < ifaces.length; i++)
-	    analyzeSuperClasses(ifaces[i]);
-	analyzeSuperClasses(info.getSuperclass());
+	synchronized (Main.getClassBundle()) {
+	    ClassInfo[] ifaces = info.getInterfaces();
+	    for (int i=0; i < ifaces.length; i++)
+		analyzeSuperClasses(ifaces[i]);
+	    analyzeSuperClasses(info.getSuperclass());
+	}
     }
 
     public void initSuperClasses(ClassInfo superclass) {
@@ -540,8 +552,18 @@ public class ClassIdentifier extends Identifier {
     }
 
     public void doTransformations() {
-	if (GlobalOptions.verboseLevel > 0)
-	    GlobalOptions.err.println("Transforming "+this);
+	doTransformations(null);
+    }
+
+    /**
+     * Transforms this class and its fields and methods.
+     * @param methodTrafos if not null, the methods are not
+     * transformed, but added to this list, so that they can be
+     * transformed later.
+     */
+    public void doTransformations(List methodTrafos) {
+	if (GlobalOptions.getVerboseLevel() > 0)
+	    GlobalOptions.getErr().println("Transforming "+this);
 	info.setName(getFullAlias());
 	transformSuperIfaces();
 	transformInnerClasses();
@@ -555,18 +577,21 @@ public class ClassIdentifier extends Identifier {
 		|| ident.isReachable()) {
 		ident.doTransformations();
 		newFields.add(ident.info);
-	    } else if (GlobalOptions.verboseLevel > 2) {
-	        GlobalOptions.err.println("Field "+ ident+" not reachable");
+	    } else if (GlobalOptions.getVerboseLevel() > 2) {
+	        GlobalOptions.getErr().println("Field "+ ident+" not reachable");
 	    }
 	}
 	for (Iterator i = methodIdents.iterator(); i.hasNext(); ) {
 	    MethodIdentifier ident = (MethodIdentifier)i.next();
 	    if ((Main.stripping & Main.STRIP_UNREACH) == 0
 		|| ident.isReachable()) {
-		ident.doTransformations();
+		if (methodTrafos != null)
+		    methodTrafos.add(ident);
+		else
+		    ident.doTransformations();
 		newMethods.add(ident.info);
-	    } else if (GlobalOptions.verboseLevel > 2) {
-	        GlobalOptions.err.println("Method "+ ident+" not reachable");
+	    } else if (GlobalOptions.getVerboseLevel() > 2) {
+	        GlobalOptions.getErr().println("Method "+ ident+" not reachable");
 	    }
 	}
 
@@ -577,8 +602,8 @@ public class ClassIdentifier extends Identifier {
     }
     
     public void storeClass(DataOutputStream out) throws IOException {
-	if (GlobalOptions.verboseLevel > 0)
-	    GlobalOptions.err.println("Writing "+this);
+	if (GlobalOptions.getVerboseLevel() > 0)
+	    GlobalOptions.getErr().println("Writing "+this);
 	info.write(out);
 	info = null;
 	fieldIdents = methodIdents = null;
@@ -675,9 +700,72 @@ public class ClassIdentifier extends Identifier {
 	return null;
     }
 
+    /**
+     * Returns the key under which an identifier with the given alias
+     * and type is indexed.  This is the alias followed by the
+     * parameter types, if there are any.  This way methods with the
+     * same alias and the same parameters, that are the only ones
+     * that can conflict, share a key, even if the type signature
+     * includes the return type.
+     */
+    private static String aliasKey(String alias, String typeSig) {
+	int paramEnd = typeSig.indexOf(')');
+	return paramEnd >= 0 ? alias + typeSig.substring(0, paramEnd + 1)
+	    : alias;
+    }
+
+    private static void updateAliasIndex(Map index, Identifier ident,
+					 String oldAlias) {
+	if (oldAlias != null) {
+	    String key = aliasKey(oldAlias, ident.getType());
+	    List idents = (List) index.get(key);
+	    if (idents != null) {
+		idents.remove(ident);
+		if (idents.isEmpty())
+		    index.remove(key);
+	    }
+	}
+	if (ident.wasAliased()) {
+	    String key = aliasKey(ident.getAlias(), ident.getType());
+	    List idents = (List) index.get(key);
+	    if (idents == null) {
+		idents = new ArrayList(1);
+		index.put(key, idents);
+	    }
+	    idents.add(ident);
+	}
+    }
+
+    /**
+     * Called by a field of this class, when its alias changed.
+     */
+    void fieldAliasChanged(FieldIdentifier field, String oldAlias) {
+	updateAliasIndex(fieldAliases, field, oldAlias);
+    }
+
+    /**
+     * Called by a method of this class, when its alias changed.
+     */
+    void methodAliasChanged(MethodIdentifier method, String oldAlias) {
+	updateAliasIndex(methodAliases, method, oldAlias);
+    }
+
+    /**
+     * Returns the aliased identifiers with the given alias key.
+     */
+    private static Collection getAliased(Map index, String key) {
+	Collection idents = (Collection) index.get(key);
+	return idents != null ? idents : Collections.EMPTY_LIST;
+    }
+
     public boolean containsFieldAliasDirectly(String fieldName, String typeSig,
 					      IdentifierMatcher matcher) {
-	for (Iterator i = fieldIdents.iterator(); i.hasNext(); ) {
+	/* Field types have no parameters, so all fields with that
+	 * alias share the key.
+	 */
+	Collection candidates
+	    = getAliased(fieldAliases, aliasKey(fieldName, typeSig));
+	for (Iterator i = candidates.iterator(); i.hasNext(); ) {
 	    Identifier ident = (Identifier) i.next();
 	    if (((Main.stripping & Main.STRIP_UNREACH) == 0
 		 || ident.isReachable())
@@ -693,7 +781,13 @@ public class ClassIdentifier extends Identifier {
     public boolean containsMethodAliasDirectly(String methodName, 
 					       String paramType,
 					       IdentifierMatcher matcher) {
-	for (Iterator i = methodIdents.iterator(); i.hasNext(); ) {
+	/* If paramType doesn't contain all parameters, the methods
+	 * are spread over several keys, so check them all.
+	 */
+	Collection candidates = paramType.indexOf(')') >= 0
+	    ? getAliased(methodAliases, aliasKey(methodName, paramType))
+	    : methodIdents;
+	for (Iterator i = candidates.iterator(); i.hasNext(); ) {
 	    Identifier ident = (Identifier) i.next();
 	    if (((Main.stripping & Main.STRIP_UNREACH) == 0
 		 || ident.isReachable())
@@ -27,6 +27,9 @@ import net.sf.jode.bytecode.TypeSignature;
 import java.lang.reflect.Array;
 import java.lang.reflect.InvocationTargetException;
 
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
 import java.util.HashSet;
 
@@ -214,12 +217,87 @@ public class ConstantRuntimeEnvironment extends SimpleRuntimeEnvironment {
 //  	whiteList.add("Ljava/lang/reflect/Field;");
     }
 
+    /**
+     * The maximum number of results of white listed methods that are
+     * remembered.
+     */
+    private static final int RESULT_CACHE_SIZE = 4096;
+
+    /**
+     * An invocation of a white listed method, used as key in the
+     * result cache.
+     */
+    private static class Invocation {
+	Reference ref;
+	Object cls;
+	Object[] params;
+	int hashCode;
+
+	Invocation(Reference ref, Object cls, Object[] params) {
+	    this.ref = ref;
+	    this.cls = cls;
+	    this.params = (Object[]) params.clone();
+	    hashCode = ref.hashCode() ^ (cls == null ? 0 : cls.hashCode());
+	    for (int i = 0; i < params.length; i++)
+		hashCode = hashCode * 31
+		    + (params[i] == null ? 0 : params[i].hashCode());
+	}
+
+	public int hashCode() {
+	    return hashCode;
+	}
+
+	public boolean equals(Object o) {
+	    if (!(o instanceof Invocation))
+		return false;
+	    Invocation other = (Invocation) o;
+	    return ref == other.ref
+		&& (cls == null ? other.cls == null : cls.equals(other.cls))
+		&& Arrays.equals(params, other.params);
+	}
+    }
+
     private Interpreter interpreter;
+
+    /**
+     * The results of white listed methods, indexed by the
+     * invocation.  The same constant methods are often called with
+     * the same arguments, e.g. to decrypt the strings of an
+     * obfuscated class.  Only invocations whose object, arguments and
+     * result can't be modified are remembered, and the least recently
+     * used results are removed first.
+     */
+    private Map resultCache = new LinkedHashMap(16, 0.75f, true) {
+	    protected boolean removeEldestEntry(Map.Entry eldest) {
+		return size() > RESULT_CACHE_SIZE;
+	    }
+	};
     
     public ConstantRuntimeEnvironment() {
 	interpreter = new Interpreter(this);
     }
 
+    /**
+     * Checks if the value is null, a string or a wrapped primitive
+     * value.  These can't be modified, so it is safe to share them.
+     */
+    private static boolean isImmutable(Object value) {
+	return value == null
+	    || value instanceof String
+	    || value instanceof Integer || value instanceof Long
+	    || value instanceof Float || value instanceof Double
+	    || value instanceof Short || value instanceof Byte
+	    || value instanceof Character || value instanceof Boolean;
+    }
+
+    private static boolean isImmutable(Object[] values) {
+	for (int i = 0; i < values.length; i++) {
+	    if (!isImmutable(values[i]))
+		return false;
+	}
+	return true;
+    }
+
     public Object getField(Reference ref, Object obj)
 	throws InterpreterException {
 	if (isWhite(ref))
@@ -250,8 +328,24 @@ public class ConstantRuntimeEnvironment extends SimpleRuntimeEnvironment {
     public Object invokeMethod(Reference ref, boolean isVirtual, 
 			       Object cls, Object[] params) 
 	throws InterpreterException, InvocationTargetException {
-	if (isWhite(ref))
-	    return super.invokeMethod(ref, isVirtual, cls, params);
+	if (isWhite(ref)) {
+	    Invocation key = null;
+	    if (isImmutable(cls) && isImmutable(params))
+		key = new Invocation(ref, cls, params);
+	    if (key != null) {
+		synchronized (resultCache) {
+		    if (resultCache.containsKey(key))
+			return resultCache.get(key);
+		}
+	    }
+	    Object result = super.invokeMethod(ref, isVirtual, cls, params);
+	    if (key != null && isImmutable(result)) {
+		synchronized (resultCache) {
+		    resultCache.put(key, result);
+		}
+	    }
+	    return result;
+	}
 	MethodIdentifier mi
 	    = (MethodIdentifier) Main.getClassBundle().getIdentifier(ref);
 	if (mi != null) {
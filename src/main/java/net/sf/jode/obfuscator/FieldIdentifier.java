@@ -141,6 +141,10 @@ public class FieldIdentifier extends Identifier{
 	return "FieldIdentifier "+getFullName();
     }
 
+    protected void aliasChanged(String oldAlias) {
+	clazz.fieldAliasChanged(this, oldAlias);
+    }
+
     public boolean conflicting(String newAlias) {
 	return clazz.fieldConflicts(this, newAlias);
     }
@@ -126,8 +126,11 @@ public abstract class Identifier {
     public final void setAlias(String name) {
 	if (name != null) {
 	    Identifier rep = getRepresentative();
+	    String oldAlias = rep.wasAliased ? rep.alias : null;
 	    rep.wasAliased = true;
 	    rep.alias = name;
+	    for (Identifier ptr = rep; ptr != null; ptr = ptr.right)
+		ptr.aliasChanged(oldAlias);
 	}
     }
 
@@ -135,6 +138,16 @@ public abstract class Identifier {
 	return getRepresentative().alias;
     }
 
+    /**
+     * This is called whenever the alias of this identifier changes,
+     * i.e. when it is aliased or when it is chained to an aliased
+     * identifier.  The class identifiers use it to update their
+     * indexes of the aliases.
+     * @param oldAlias the previous alias, null if there was none.
+     */
+    protected void aliasChanged(String oldAlias) {
+    }
+
     /**
      * Mark that this identifier and the given identifier must always have
      * the same name.
@@ -158,8 +171,14 @@ public abstract class Identifier {
 
 	while (orig.left != null)
 	    orig = orig.left;
+	String oldAlias = orig.wasAliased ? orig.alias : null;
 	ptr.right = orig;
 	orig.left = ptr;
+	/* The identifiers of orig now share the alias of this chain. */
+	if (oldAlias != null || wasAliased()) {
+	    for (ptr = orig; ptr != null; ptr = ptr.right)
+		ptr.aliasChanged(oldAlias);
+	}
     }
 
     static int serialnr = 0;
@@ -170,15 +189,13 @@ public abstract class Identifier {
 	    return;
 
 	if (isPreserved()) {
-	    if (GlobalOptions.verboseLevel > 4)
-		GlobalOptions.err.println(toString() + " is preserved");
+	    if (GlobalOptions.getVerboseLevel() > 4)
+		GlobalOptions.getErr().println(toString() + " is preserved");
 	} else {
 	    Identifier rep = getRepresentative();
 	    if (!rep.wasAliased) {
-		rep.wasAliased = true;
-
 		// set alias to empty string, so it won't conflict!
-		rep.alias = "";
+		setAlias("");
 		Iterator aliases = renameRule.generateNames(this);
 	    next_alias:
 		for (;;) {
@@ -222,10 +239,8 @@ public abstract class Identifier {
 	Identifier rep = getRepresentative();
 	if (!rep.wasAliased) {
 	    String newAlias = (String) table.get(getFullName());
-	    if (newAlias != null) {
-		rep.wasAliased = true;
+	    if (newAlias != null)
 		rep.setAlias(newAlias);
-	    }
 	}
 	for (Iterator i = getChilds(); i.hasNext(); )
 	    ((Identifier)i.next()).readTable(table);
@@ -19,10 +19,12 @@
 
 package net.sf.jode.obfuscator;
 import net.sf.jode.GlobalOptions;
+import net.sf.jode.bytecode.ClassPathIndex;
 
 import gnu.getopt.LongOpt;
 import gnu.getopt.Getopt;
 
+import java.io.File;
 import java.io.PrintWriter;
 import java.io.FileReader;
 import java.io.InputStreamReader;
@@ -40,6 +42,8 @@ public class Main {
 	new LongOpt("cp", LongOpt.REQUIRED_ARGUMENT, null, 'c'),
 	new LongOpt("classpath", LongOpt.REQUIRED_ARGUMENT, null, 'c'),
 	new LongOpt("destpath", LongOpt.REQUIRED_ARGUMENT, null, 'd'),
+	new LongOpt("index", LongOpt.REQUIRED_ARGUMENT, null, 'I'),
+	new LongOpt("threads", LongOpt.REQUIRED_ARGUMENT, null, 't'),
 	new LongOpt("help", LongOpt.NO_ARGUMENT, null, 'h'),
 	new LongOpt("version", LongOpt.NO_ARGUMENT, null, 'V'),
 	new LongOpt("verbose", LongOpt.OPTIONAL_ARGUMENT, null, 'v'),
@@ -59,7 +63,7 @@ public class Main {
     private static ClassBundle bundle;
 
     public static void usage() {
-	PrintWriter err = GlobalOptions.err;
+	PrintWriter err = GlobalOptions.getErr();
         err.println("usage: net.sf.jode.obfuscator.Main flags* script");
 	err.println("  -h, --help           "+
 		    "show this information.");
@@ -73,6 +77,14 @@ public class Main {
 		    "The directories should be separated by ','.");
 	err.println("  -d, --dest <dir>     "+
 		    "write decompiled files to disk into directory destdir.");
+	err.println("  -I, --index <file>   "+
+		    "remember the directories of the jars in the classpath");
+	err.println("                       "+
+		    "in file, to start faster next time.");
+	err.println("  -t, --threads <n>    "+
+		    "analyze, transform and write classes with n threads.");
+	err.println("                       "+
+		    "0 means one thread per processor.  Default is 1.");
 	err.println("  -D, --debug=...      "+
 		    "use --debug=help for more information.");
     }
@@ -88,11 +100,12 @@ public class Main {
 	    return;
 	}
 	String cp = null, dest = null;
+	ClassPathIndex index = null;
         
-	GlobalOptions.err.println(GlobalOptions.copyright);
+	GlobalOptions.getErr().println(GlobalOptions.copyright);
 	bundle = new ClassBundle();
 	boolean errorInParams = false;
-	Getopt g = new Getopt("net.sf.jode.obfuscator.Main", params, "hVvc:d:D:",
+	Getopt g = new Getopt("net.sf.jode.obfuscator.Main", params, "hVvt:c:d:I:D:",
 			      longOptions, true);
 	for (int opt = g.getopt(); opt != -1; opt = g.getopt()) {
 	    switch(opt) {
@@ -103,7 +116,7 @@ public class Main {
 		errorInParams = true;
 		break;
 	    case 'V':
-		GlobalOptions.err.println(GlobalOptions.version);
+		GlobalOptions.getErr().println(GlobalOptions.version);
 		break;
 	    case 'c':
 		cp = g.getOptarg();
@@ -111,6 +124,26 @@ public class Main {
 	    case 'd':
 		dest = g.getOptarg();
 		break;
+	    case 'I':
+		index = new ClassPathIndex(new File(g.getOptarg()));
+		bundle.setClassPathIndex(index);
+		break;
+	    case 't': {
+		String arg = g.getOptarg();
+		try {
+		    int threads = Integer.parseInt(arg.trim());
+		    if (threads < 0)
+			throw new IllegalArgumentException();
+		    if (threads == 0)
+			threads = Runtime.getRuntime().availableProcessors();
+		    bundle.setThreads(threads);
+		} catch (RuntimeException ex) {
+		    GlobalOptions.getErr().println
+			("net.sf.jode.obfuscator.Main: Invalid argument for -t option.");
+		    errorInParams = true;
+		}
+		break;
+	    }
 	    case 'v': {
 		String arg = g.getOptarg();
 		if (arg == null)
@@ -119,7 +152,7 @@ public class Main {
 		    try {
 			GlobalOptions.verboseLevel = Integer.parseInt(arg);
 		    } catch (NumberFormatException ex) {
-			GlobalOptions.err.println
+			GlobalOptions.getErr().println
 			    ("net.sf.jode.obfuscator.Main: Argument `"
 			     +arg+"' to --verbose must be numeric:");
 			errorInParams = true;
@@ -143,7 +176,7 @@ public class Main {
 	    return;
 
         if (g.getOptind() != params.length - 1) {
-            GlobalOptions.err.println("You must specify exactly one script.");
+            GlobalOptions.getErr().println("You must specify exactly one script.");
             return;
         }
 
@@ -156,15 +189,15 @@ public class Main {
 		 : new FileReader(filename));
 	    parser.parseOptions(bundle);
 	} catch (IOException ex) {
-	    GlobalOptions.err.println
+	    GlobalOptions.getErr().println
 		("IOException while reading script file.");
-	    ex.printStackTrace(GlobalOptions.err);
+	    ex.printStackTrace(GlobalOptions.getErr());
 	    return;
 	} catch (ParseException ex) {
-	    GlobalOptions.err.println("Syntax error in script file: ");
-	    GlobalOptions.err.println(ex.getMessage());
-	    if (GlobalOptions.verboseLevel > 5)
-		ex.printStackTrace(GlobalOptions.err);
+	    GlobalOptions.getErr().println("Syntax error in script file: ");
+	    GlobalOptions.getErr().println(ex.getMessage());
+	    if (GlobalOptions.getVerboseLevel() > 5)
+		ex.printStackTrace(GlobalOptions.getErr());
 	    return;
 	}
 
@@ -175,6 +208,16 @@ public class Main {
 	    bundle.setOption("dest", Collections.singleton(dest));
 
 	bundle.run();
+
+	if (index != null) {
+	    try {
+		index.save();
+	    } catch (IOException ex) {
+		GlobalOptions.getErr().println
+		    ("Can't write index file " + index + ".");
+		ex.printStackTrace(GlobalOptions.getErr());
+	    }
+	}
     }
 }
 
@@ -85,8 +85,8 @@ public class MethodIdentifier extends Identifier implements Opcodes {
     }
 
     public void analyze() {
-	if (GlobalOptions.verboseLevel > 1)
-	    GlobalOptions.err.println("Analyze: "+this);
+	if (GlobalOptions.getVerboseLevel() > 1)
+	    GlobalOptions.getErr().println("Analyze: "+this);
 
 	String type = getType();
 	int index = type.indexOf('L');
@@ -134,6 +134,10 @@ public class MethodIdentifier extends Identifier implements Opcodes {
 	return info.getModifiers();
     }
 
+    protected void aliasChanged(String oldAlias) {
+	clazz.methodAliasChanged(this, oldAlias);
+    }
+
     public boolean conflicting(String newAlias) {
 	return clazz.methodConflicts(this, newAlias);
     }
@@ -183,8 +187,8 @@ public class MethodIdentifier extends Identifier implements Opcodes {
 		    trafos[i].transformCode(bb);
 		}
 	    } catch (RuntimeException ex) {
-		ex.printStackTrace(GlobalOptions.err);
-		bb.dumpCode(GlobalOptions.err);
+		ex.printStackTrace(GlobalOptions.getErr());
+		bb.dumpCode(GlobalOptions.getErr());
 	    }
 	    
 	    Block[] blocks = bb.getBlocks();
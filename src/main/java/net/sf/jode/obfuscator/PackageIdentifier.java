@@ -92,8 +92,8 @@ public class PackageIdentifier extends Identifier {
 			(this, subFull, subclazz, 
 			 bundle.getClassPath().getClassInfo(subFull));
 		    
-		    if (GlobalOptions.verboseLevel > 1)
-			GlobalOptions.err.println("preloading Class "
+		    if (GlobalOptions.getVerboseLevel() > 1)
+			GlobalOptions.getErr().println("preloading Class "
 						  + subFull);
 		    loadedClasses.put(subclazz, ident);
 		    swappedClasses = null;
@@ -124,8 +124,8 @@ public class PackageIdentifier extends Identifier {
 		    if (initialized)
 			((PackageIdentifier) ident).initialize();
 		} else if (bundle.getClassPath().existsClass(subFull)) {
-		    if (GlobalOptions.verboseLevel > 1)
-			GlobalOptions.err.println("loading Class " +subFull);
+		    if (GlobalOptions.getVerboseLevel() > 1)
+			GlobalOptions.getErr().println("loading Class " +subFull);
 		    ident = new ClassIdentifier(this, subFull, component, 
 						bundle.getClassPath()
 						.getClassInfo(subFull));
@@ -137,14 +137,14 @@ public class PackageIdentifier extends Identifier {
 			bundle.addClassIdentifier(ident);
 		    }
 		} else {
-		    GlobalOptions.err.println
+		    GlobalOptions.getErr().println
 			("Warning: Can't find class/package " + subFull);
 		}
 	    }
 	    if (ident instanceof PackageIdentifier) {
 		if (matcher.matches(ident)) {
-		    if (GlobalOptions.verboseLevel > 0)
-			GlobalOptions.err.println("loading Package "
+		    if (GlobalOptions.getVerboseLevel() > 0)
+			GlobalOptions.getErr().println("loading Package "
 						  +ident.getFullName());
 		    ((PackageIdentifier) ident).setLoadOnDemand();
 		}
@@ -166,8 +166,8 @@ public class PackageIdentifier extends Identifier {
 		
 		if (matcher.matchesSub(this, subclazz)) {
 		    if (bundle.getClassPath().isPackage(subFull)) {
-			if (GlobalOptions.verboseLevel > 0)
-			    GlobalOptions.err.println("loading Package "
+			if (GlobalOptions.getVerboseLevel() > 0)
+			    GlobalOptions.getErr().println("loading Package "
 						      + subFull);
 			PackageIdentifier ident = new PackageIdentifier
 			    (bundle, this, subFull, subclazz);
@@ -183,8 +183,8 @@ public class PackageIdentifier extends Identifier {
 			     bundle.getClassPath().getClassInfo(subFull));
 
 			if (loadOnDemand || matcher.matches(ident)) {
-			    if (GlobalOptions.verboseLevel > 1)
-				GlobalOptions.err.println("loading Class "
+			    if (GlobalOptions.getVerboseLevel() > 1)
+				GlobalOptions.getErr().println("loading Class "
 							  + subFull);
 			    loadedClasses.put(subclazz, ident);
 			    swappedClasses = null;
@@ -255,7 +255,7 @@ public class PackageIdentifier extends Identifier {
 		    pack.setLoadOnDemand();
 		    ident = pack;
 		} else if (!bundle.getClassPath().existsClass(subFull)) {
-		    GlobalOptions.err.println("Warning: Can't find class "
+		    GlobalOptions.getErr().println("Warning: Can't find class "
 					      + subFull);
 		    Thread.dumpStack();
 		} else {
@@ -345,12 +345,22 @@ public class PackageIdentifier extends Identifier {
     }
 
     public void doTransformations() {
+	doTransformations(null);
+    }
+
+    /**
+     * Transforms the classes in this package and its sub packages.
+     * @param methodTrafos if not null, the methods are not
+     * transformed, but added to this list.
+     * @see ClassIdentifier#doTransformations(List)
+     */
+    public void doTransformations(List methodTrafos) {
 	for (Iterator i = getChilds(); i.hasNext(); ) {
 	    Identifier ident = (Identifier) i.next();
 	    if (ident instanceof ClassIdentifier) {
-		((ClassIdentifier) ident).doTransformations();
+		((ClassIdentifier) ident).doTransformations(methodTrafos);
 	    } else
-		((PackageIdentifier) ident).doTransformations();
+		((PackageIdentifier) ident).doTransformations(methodTrafos);
 	}
     }
 
@@ -389,13 +399,36 @@ public class PackageIdentifier extends Identifier {
 	return swappedClasses.iterator();
     }
 
+    /**
+     * Adds the classes in this package and its sub packages that
+     * should be stored to the list, in the order storeClasses would
+     * write them.
+     */
+    public void collectClasses(List classes) {
+	for (Iterator i = getChilds(); i.hasNext(); ) {
+	    Identifier ident = (Identifier) i.next();
+	    if ((Main.stripping & Main.STRIP_UNREACH) != 0
+		&& !ident.isReachable()) {
+		if (GlobalOptions.getVerboseLevel() > 4)
+		    GlobalOptions.getErr().println("Class/Package "
+					   + ident.getFullName()
+					   + " is not reachable");
+		continue;
+	    }
+	    if (ident instanceof PackageIdentifier)
+		((PackageIdentifier) ident).collectClasses(classes);
+	    else
+		classes.add(ident);
+	}
+    }
+
     public void storeClasses(ZipOutputStream zip) {
 	for (Iterator i = getChilds(); i.hasNext(); ) {
 	    Identifier ident = (Identifier) i.next();
 	    if ((Main.stripping & Main.STRIP_UNREACH) != 0
 		&& !ident.isReachable()) {
-		if (GlobalOptions.verboseLevel > 4)
-		    GlobalOptions.err.println("Class/Package "
+		if (GlobalOptions.getVerboseLevel() > 4)
+		    GlobalOptions.getErr().println("Class/Package "
 					   + ident.getFullName()
 					   + " is not reachable");
 		continue;
@@ -413,9 +446,9 @@ public class PackageIdentifier extends Identifier {
 		    out.flush();
 		    zip.closeEntry();
 		} catch (java.io.IOException ex) {
-		    GlobalOptions.err.println("Can't write Class "
+		    GlobalOptions.getErr().println("Can't write Class "
 					      + ident.getName());
-		    ex.printStackTrace(GlobalOptions.err);
+		    ex.printStackTrace(GlobalOptions.getErr());
 		}
 	    }
 	}
@@ -425,15 +458,15 @@ public class PackageIdentifier extends Identifier {
 	File newDest = (parent == null) ? destination 
 	    : new File(destination, getAlias());
 	if (!newDest.exists() && !newDest.mkdir()) {
-	    GlobalOptions.err.println("Could not create directory "
+	    GlobalOptions.getErr().println("Could not create directory "
 				   +newDest.getPath()+", check permissions.");
 	}
 	for (Iterator i = getChilds(); i.hasNext(); ) {
 	    Identifier ident = (Identifier) i.next();
 	    if ((Main.stripping & Main.STRIP_UNREACH) != 0
 		&& !ident.isReachable()) {
-		if (GlobalOptions.verboseLevel > 4)
-		    GlobalOptions.err.println("Class/Package "
+		if (GlobalOptions.getVerboseLevel() > 4)
+		    GlobalOptions.getErr().println("Class/Package "
 					      + ident.getFullName()
 					      + " is not reachable");
 		continue;
@@ -445,7 +478,7 @@ public class PackageIdentifier extends Identifier {
 		try {
 		    File file = new File(newDest, ident.getAlias()+".class");
 // 		    if (file.exists()) {
-// 			GlobalOptions.err.println
+// 			GlobalOptions.getErr().println
 // 			    ("Refuse to overwrite existing class file "
 // 			     +file.getPath()+".  Remove it first.");
 // 			return;
@@ -456,9 +489,9 @@ public class PackageIdentifier extends Identifier {
 		    ((ClassIdentifier) ident).storeClass(out);
 		    out.close();
 		} catch (java.io.IOException ex) {
-		    GlobalOptions.err.println("Can't write Class "
+		    GlobalOptions.getErr().println("Can't write Class "
 					   + ident.getName());
-		    ex.printStackTrace(GlobalOptions.err);
+		    ex.printStackTrace(GlobalOptions.getErr());
 		}
 	    }
 	}
@@ -0,0 +1,157 @@
+/* ParallelAnalyzer Copyright (C) 2026 agent.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; see the file COPYING.  If not, write to
+ * the Free Software Foundation, 675 Mass Ave, Cambridge, MA 02139, USA.
+ *
+ * $Id$
+ */
+
+package net.sf.jode.obfuscator;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * Computes the reachable identifiers of a bundle on several threads.
+ * <br>
+ *
+ * The worker threads take the identifiers from the work list of the
+ * bundle and analyze them.  Most of the time is spent in the code
+ * analyzer, whose data flow analysis only looks at the code of a
+ * single method.  Everything that reads or changes the identifiers,
+ * like marking them reachable or adding them to the work list, is
+ * done while holding the lock of the bundle, so the workers see a
+ * consistent state. <br>
+ *
+ * An identifier is never analyzed by two threads at the same time.
+ * If it is added to the work list while it is analyzed, it is
+ * analyzed again afterwards, like the serial code would do.  The
+ * analysis is finished when the work list is empty and no worker is
+ * busy.  Since the analysis only ever adds reachable identifiers and
+ * fields only become non-constant, the result doesn't depend on the
+ * order in which the identifiers are analyzed.
+ *
+ * @author agent
+ */
+class ParallelAnalyzer {
+    private ClassBundle bundle;
+    private int threads;
+
+    /**
+     * The identifiers that are analyzed right now.
+     */
+    private Set running = new HashSet();
+    private Throwable failure;
+
+    private class Worker extends Thread {
+	Worker(int nr) {
+	    super("jode-analyzer-" + nr);
+	}
+
+	public void run() {
+	    Identifier ident;
+	    while ((ident = nextIdentifier()) != null) {
+		try {
+		    ident.analyze();
+		} catch (Throwable ex) {
+		    synchronized (bundle) {
+			if (failure == null)
+			    failure = ex;
+		    }
+		} finally {
+		    synchronized (bundle) {
+			running.remove(ident);
+			bundle.notifyAll();
+		    }
+		}
+	    }
+	}
+    }
+
+    /**
+     * Creates a new parallel analyzer.
+     * @param bundle the bundle, whose work list should be analyzed.
+     * @param threads the number of worker threads.
+     */
+    public ParallelAnalyzer(ClassBundle bundle, int threads) {
+	this.bundle = bundle;
+	this.threads = threads;
+    }
+
+    /**
+     * Takes the next identifier from the work list, that isn't
+     * analyzed by another thread.  Waits until there is one.
+     * @return the identifier, or null if the analysis is finished.
+     */
+    private Identifier nextIdentifier() {
+	synchronized (bundle) {
+	    for (;;) {
+		if (failure != null)
+		    return null;
+		Iterator iter = bundle.toAnalyze.iterator();
+		while (iter.hasNext()) {
+		    Identifier ident = (Identifier) iter.next();
+		    if (!running.contains(ident)) {
+			iter.remove();
+			running.add(ident);
+			return ident;
+		    }
+		}
+		if (running.isEmpty())
+		    return null;
+		try {
+		    bundle.wait();
+		} catch (InterruptedException ex) {
+		    failure = ex;
+		    bundle.notifyAll();
+		    return null;
+		}
+	    }
+	}
+    }
+
+    /**
+     * Analyzes the identifiers in the work list of the bundle and
+     * all identifiers that are added to it, until it is empty.
+     */
+    public void analyze() {
+	Worker[] workers = new Worker[threads];
+	for (int i = 0; i < workers.length; i++) {
+	    workers[i] = new Worker(i);
+	    workers[i].setDaemon(true);
+	    workers[i].start();
+	}
+	for (int i = 0; i < workers.length; i++) {
+	    try {
+		workers[i].join();
+	    } catch (InterruptedException ex) {
+		synchronized (bundle) {
+		    if (failure == null)
+			failure = ex;
+		    bundle.notifyAll();
+		}
+		i--;
+	    }
+	}
+
+	/* Report a failure like the serial code would. */
+	if (failure instanceof RuntimeException)
+	    throw (RuntimeException) failure;
+	if (failure instanceof Error)
+	    throw (Error) failure;
+	if (failure != null)
+	    throw new RuntimeException("Analysis interrupted");
+    }
+}
@@ -0,0 +1,260 @@
+/* ParallelTransformer Copyright (C) 2026 agent.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; see the file COPYING.  If not, write to
+ * the Free Software Foundation, 675 Mass Ave, Cambridge, MA 02139, USA.
+ *
+ * $Id$
+ */
+
+package net.sf.jode.obfuscator;
+import net.sf.jode.GlobalOptions;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Transforms the methods and writes the classes of a bundle on
+ * several threads.  <br>
+ *
+ * The classes are renamed by the calling thread, since the super
+ * classes and outer classes are looked up by name.  Once this is
+ * done, the code of every method can be transformed on its own, and
+ * every class can be serialized into its own buffer.  The calling
+ * thread is the only one that writes to the destination and it
+ * writes the classes in the same order as the serial code. <br>
+ *
+ * To bound the memory, workers won't serialize a class that is more
+ * than a few classes ahead of the writer.
+ *
+ * @author agent
+ */
+class ParallelTransformer {
+    /**
+     * How many classes per thread may be serialized ahead of the
+     * writer.
+     */
+    private static final int CLASSES_AHEAD = 4;
+
+    private int threads;
+
+    /**
+     * The method or class identifiers to handle.
+     */
+    private Object[] jobs;
+    /**
+     * The serialized classes, null when transforming methods.
+     */
+    private byte[][] outputs;
+    private boolean[] done;
+    private int nextJob;
+    private int nextWrite;
+    private boolean aborted;
+    private Throwable failure;
+
+    private class Worker extends Thread {
+	Worker(int nr) {
+	    super("jode-obfuscator-" + nr);
+	}
+
+	public void run() {
+	    int job;
+	    while ((job = nextJob()) >= 0) {
+		byte[] output = null;
+		try {
+		    output = handle(jobs[job]);
+		} catch (Throwable ex) {
+		    synchronized (ParallelTransformer.this) {
+			if (failure == null)
+			    failure = ex;
+			aborted = true;
+		    }
+		} finally {
+		    synchronized (ParallelTransformer.this) {
+			if (outputs != null)
+			    outputs[job] = output;
+			done[job] = true;
+			ParallelTransformer.this.notifyAll();
+		    }
+		}
+	    }
+	}
+    }
+
+    /**
+     * Creates a new parallel transformer.
+     * @param threads the number of worker threads.
+     */
+    public ParallelTransformer(int threads) {
+	this.threads = threads;
+    }
+
+    private synchronized int nextJob() {
+	int window = threads * CLASSES_AHEAD;
+	while (!aborted && nextJob < jobs.length
+	       && outputs != null && nextJob >= nextWrite + window) {
+	    try {
+		wait();
+	    } catch (InterruptedException ex) {
+		aborted = true;
+	    }
+	}
+	if (aborted || nextJob >= jobs.length)
+	    return -1;
+	return nextJob++;
+    }
+
+    private byte[] handle(Object job) throws IOException {
+	if (job instanceof MethodIdentifier) {
+	    ((MethodIdentifier) job).doTransformations();
+	    return null;
+	}
+	ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+	DataOutputStream out = new DataOutputStream(buffer);
+	((ClassIdentifier) job).storeClass(out);
+	out.flush();
+	return buffer.toByteArray();
+    }
+
+    private void write(ClassIdentifier ident, byte[] output,
+		       ZipOutputStream zip, File destination) 
+	throws IOException
+    {
+	String filename = ident.getFullAlias().replace('.','/') + ".class";
+	if (zip != null) {
+	    zip.putNextEntry(new ZipEntry(filename));
+	    zip.write(output);
+	    zip.closeEntry();
+	} else {
+	    File file = new File(destination,
+				 filename.replace('/', File.separatorChar));
+	    File directory = file.getParentFile();
+	    if (!directory.exists() && !directory.mkdirs()) {
+		GlobalOptions.getErr().println
+		    ("Could not create directory "
+		     +directory.getPath()+", check permissions.");
+	    }
+	    OutputStream os = new FileOutputStream(file);
+	    try {
+		os.write(output);
+	    } finally {
+		os.close();
+	    }
+	}
+    }
+
+    /**
+     * Handles the jobs and writes the serialized classes.
+     */
+    private void run(List idents, boolean store,
+		     ZipOutputStream zip, File destination) {
+	jobs = idents.toArray();
+	outputs = store ? new byte[jobs.length][] : null;
+	done = new boolean[jobs.length];
+	nextJob = 0;
+	nextWrite = 0;
+	aborted = false;
+	failure = null;
+
+	Worker[] workers = new Worker[Math.min(threads, jobs.length)];
+	for (int i = 0; i < workers.length; i++) {
+	    workers[i] = new Worker(i);
+	    workers[i].setDaemon(true);
+	    workers[i].start();
+	}
+
+	try {
+	    for (int i = 0; i < jobs.length; i++) {
+		byte[] output;
+		synchronized (this) {
+		    while (!done[i] && failure == null)
+			wait();
+		    if (failure != null)
+			break;
+		    nextWrite = i + 1;
+		    notifyAll();
+		    output = store ? outputs[i] : null;
+		    if (store)
+			outputs[i] = null;
+		}
+		if (output != null) {
+		    ClassIdentifier ident = (ClassIdentifier) jobs[i];
+		    try {
+			write(ident, output, zip, destination);
+		    } catch (IOException ex) {
+			GlobalOptions.getErr().println("Can't write Class "
+						       + ident.getName());
+			ex.printStackTrace(GlobalOptions.getErr());
+		    }
+		}
+		jobs[i] = null;
+	    }
+	} catch (InterruptedException ex) {
+	    /* stop the workers and return */
+	} finally {
+	    synchronized (this) {
+		aborted = true;
+		notifyAll();
+	    }
+	    for (int i = 0; i < workers.length; i++) {
+		try {
+		    workers[i].join();
+		} catch (InterruptedException ex) {
+		    /* the workers are daemons, so just go on */
+		}
+	    }
+	}
+
+	/* Report a failure like the serial code would. */
+	if (failure instanceof RuntimeException)
+	    throw (RuntimeException) failure;
+	if (failure instanceof Error)
+	    throw (Error) failure;
+	if (failure != null) {
+	    GlobalOptions.getErr().println("Can't write classes");
+	    failure.printStackTrace(GlobalOptions.getErr());
+	}
+    }
+
+    /**
+     * Transforms the code of the given methods, after their classes
+     * were transformed.
+     * @param methods the method identifiers.
+     * @see MethodIdentifier#doTransformations
+     */
+    public void transformMethods(List methods) {
+	run(methods, false, null, null);
+    }
+
+    /**
+     * Serializes the given classes and writes them to the zip file
+     * or the directory.  Exactly one of zip and destination should
+     * be non-null.
+     * @param classes the class identifiers, in the order they should
+     * be written.
+     * @param zip the zip file where the classes should be written.
+     * @param destination the directory where the classes should be
+     * written.
+     */
+    public void storeClasses(List classes, ZipOutputStream zip,
+			     File destination) {
+	run(classes, true, zip, destination);
+    }
+}
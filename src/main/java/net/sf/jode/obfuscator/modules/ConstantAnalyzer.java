@@ -32,6 +32,7 @@ import java.util.BitSet;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.HashMap;
@@ -102,8 +103,11 @@ public class ConstantAnalyzer extends SimpleAnalyzer {
     MethodIdentifier methodIdent;
     Map fieldDependencies;
 
-    Map bbInfos = new HashMap();
-    Map constantInfos = new HashMap();
+    /* analyzeCode and transformCode may be called for several
+     * methods at the same time, see ClassBundle.setThreads.
+     */
+    Map bbInfos = Collections.synchronizedMap(new HashMap());
+    Map constantInfos = Collections.synchronizedMap(new HashMap());
 
     private interface ConstantListener {
 	public void constantChanged();
@@ -1256,20 +1260,24 @@ public class ConstantAnalyzer extends SimpleAnalyzer {
 		    = (FieldIdentifier) canonizeReference(instr);
 		Reference ref = instr.getReference();
 		int size = TypeSignature.getTypeSize(ref.getType());
-		if (fi != null && !fi.isNotConstant()) {
-		    ConstValue stacktop = info.getStack(size);
-		    Object fieldVal = fi.getConstant();
-		    if (fieldVal == null)
-			fieldVal = TypeSignature.getDefaultValue(ref.getType());
-		    if (stacktop.value == null ? fieldVal == null
-			: stacktop.value.equals(fieldVal)) {
-			stacktop.addConstantListener(new ConstantListener() {
-				public void constantChanged() {
-				    fieldNotConstant(fi);
-				}
-			    });
-		    } else {
-			fieldNotConstant(fi);
+		synchronized (Main.getClassBundle()) {
+		    if (fi != null && !fi.isNotConstant()) {
+			ConstValue stacktop = info.getStack(size);
+			Object fieldVal = fi.getConstant();
+			if (fieldVal == null)
+			    fieldVal = TypeSignature.getDefaultValue
+				(ref.getType());
+			if (stacktop.value == null ? fieldVal == null
+			    : stacktop.value.equals(fieldVal)) {
+			    stacktop.addConstantListener
+				(new ConstantListener() {
+				    public void constantChanged() {
+					fieldNotConstant(fi);
+				    }
+				});
+			} else {
+			    fieldNotConstant(fi);
+			}
 		    }
 		}
 		size += (opcode == opc_putstatic) ? 0 : 1;
@@ -1281,7 +1289,12 @@ public class ConstantAnalyzer extends SimpleAnalyzer {
 		FieldIdentifier fi = (FieldIdentifier) canonizeReference(instr);
 		Reference ref = instr.getReference();
 		int typesize = TypeSignature.getTypeSize(ref.getType());
-		if (fi != null) {
+		if (fi == null)
+		    return info.poppush(size, unknownValue[typesize - 1]);
+		/* The field must not become non-constant between the
+		 * check and adding the listener.
+		 */
+		synchronized (Main.getClassBundle()) {
 		    if (fi.isNotConstant()) {
 			fi.setReachable();
 			result = unknownValue[typesize - 1];
@@ -1292,6 +1305,7 @@ public class ConstantAnalyzer extends SimpleAnalyzer {
 			ConstantInfo constInfo = new ConstantInfo(CONSTANT, obj);
 			constantInfos.put(instr, constInfo);
 			result = new ConstValue(obj);
+			result.addConstantListener(constInfo);
 			fi.addFieldListener(methodIdent);
 			ConstValue prev = (ConstValue) fieldDependencies.get(fi);
 			if (prev != null)
@@ -1299,8 +1313,7 @@ public class ConstantAnalyzer extends SimpleAnalyzer {
 			else
 			    fieldDependencies.put(fi, result);
 		    }
-		} else
-		    result = unknownValue[typesize - 1];
+		}
 		return info.poppush(size, result);
 	    }
 	    case opc_invokespecial:
@@ -1347,18 +1360,21 @@ public class ConstantAnalyzer extends SimpleAnalyzer {
 		Object methodResult = null;
 		if (constant) {
 		    try {
-			methodResult = runtime.invokeMethod
-			    (ref, opcode != opc_invokespecial, cls, args);
+			/* The runtime looks at the identifiers. */
+			synchronized (Main.getClassBundle()) {
+			    methodResult = runtime.invokeMethod
+				(ref, opcode != opc_invokespecial, cls, args);
+			}
 		    } catch (InterpreterException ex) {
 			constant = false;
-			if (net.sf.jode.GlobalOptions.verboseLevel > 3)
-			    GlobalOptions.err.println("Can't interpret "+ref+": "
+			if (net.sf.jode.GlobalOptions.getVerboseLevel() > 3)
+			    GlobalOptions.getErr().println("Can't interpret "+ref+": "
 						      + ex.getMessage());
 			/* result is not constant */
 		    } catch (InvocationTargetException ex) {
 			constant = false;
-			if (net.sf.jode.GlobalOptions.verboseLevel > 3)
-			    GlobalOptions.err.println("Method "+ref
+			if (net.sf.jode.GlobalOptions.getVerboseLevel() > 3)
+			    GlobalOptions.getErr().println("Method "+ref
 						      +" throwed exception: "
 						      + ex.getTargetException());
 			/* method always throws exception ? */
@@ -1497,8 +1513,13 @@ public class ConstantAnalyzer extends SimpleAnalyzer {
 	ConstValue value = (ConstValue) fieldDependencies.remove(fi);
 	if (value != null)
 	    value.constantChanged();
-	fi.removeFieldListener(methodIdent);
-	fi.setNotConstant();
+	synchronized (Main.getClassBundle()) {
+	    /* This method reads the field, so it is needed now. */
+	    if (value != null)
+		fi.setReachable();
+	    fi.removeFieldListener(methodIdent);
+	    fi.setNotConstant();
+	}
     }
     
     void handleReference(Reference ref, boolean isVirtual) {
@@ -1518,6 +1539,15 @@ public class ConstantAnalyzer extends SimpleAnalyzer {
     public ConstantAnalyzer() {
     }
 
+    /**
+     * Creates an analyzer for a single method, that stores its
+     * results in the given analyzer.
+     */
+    private ConstantAnalyzer(ConstantAnalyzer parent) {
+	bbInfos = parent.bbInfos;
+	constantInfos = parent.constantInfos;
+    }
+
 
     public void dumpBlockInfo(PrintWriter output) {
 	for (int i=0; i < infos.length; i++)
@@ -1525,7 +1555,24 @@ public class ConstantAnalyzer extends SimpleAnalyzer {
     }
 
     public void analyzeCode(MethodIdentifier methodIdent, BasicBlocks bb) {
+	/* Several methods may be analyzed at the same time, see
+	 * ClassBundle.setThreads, so every method gets its own
+	 * analyzer for the state of the data flow analysis.
+	 */
+	new ConstantAnalyzer(this).analyzeMethod(methodIdent, bb);
+    }
+
+    private void analyzeMethod(MethodIdentifier methodIdent,
+			       BasicBlocks bb) {
 	Block[] blocks = bb.getBlocks();
+	/* Forget the constants of an earlier analysis of this method,
+	 * they may no longer be valid.
+	 */
+	for (int i=0; i < blocks.length; i++) {
+	    Instruction[] instrs = blocks[i].getInstructions();
+	    for (int idx = 0; idx < instrs.length; idx++)
+		constantInfos.remove(instrs[idx]);
+	}
 	this.methodIdent = methodIdent;
 	this.bb = bb;
 	this.infos = new BlockInfo[blocks.length];
@@ -1544,14 +1591,14 @@ public class ConstantAnalyzer extends SimpleAnalyzer {
 
 	    BlockInfo info;
 	    while ((info = modifiedQueue.dequeue()) != null) {
-// 		dumpBlockInfo(GlobalOptions.err);
-// 		GlobalOptions.err.println("Analyzing: "+info);
+// 		dumpBlockInfo(GlobalOptions.getErr());
+// 		GlobalOptions.getErr().println("Analyzing: "+info);
 		info.analyze();
 	    }
 	}
 	
-// 	GlobalOptions.err.println("After Analyze");
-// 	dumpBlockInfo(GlobalOptions.err);
+// 	GlobalOptions.getErr().println("After Analyze");
+// 	dumpBlockInfo(GlobalOptions.getErr());
 
 	BitSet reachableBlocks = new BitSet();
 	for (int i=0; i< infos.length; i++) {
@@ -1704,16 +1751,16 @@ public class ConstantAnalyzer extends SimpleAnalyzer {
 			(info.constant instanceof Long
 			 || info.constant instanceof Double
 			 ? opc_ldc2_w : opc_ldc, info.constant);
-		    if (GlobalOptions.verboseLevel > 2)
-			GlobalOptions.err.println
+		    if (GlobalOptions.getVerboseLevel() > 2)
+			GlobalOptions.getErr().println
 				(bb + ": Replacing " + instr
 				 + " with constant " + info.constant);
 		    replaceWith(newCode, instr, ldcInstr);
 		} else if (info != null && (info.flags & CONSTANTFLOW) != 0) {
 		    int succnr = ((Integer)info.constant).intValue();
 		    replaceWith(newCode, instr, null);
-		    if (GlobalOptions.verboseLevel > 2)
-			GlobalOptions.err.println
+		    if (GlobalOptions.getVerboseLevel() > 2)
+			GlobalOptions.getErr().println
 			    (bb + ": Removing " + instr);
 		    succs = new Block[] { succs[succnr] };
 		} else {
@@ -97,7 +97,7 @@ public class SimpleAnalyzer implements CodeAnalyzer, Opcodes {
 	    }
 
 	    if (clazz == null) {
-		GlobalOptions.err.println("WARNING: Can't find reference: "
+		GlobalOptions.getErr().println("WARNING: Can't find reference: "
 					  +ref);
 		realClazzName = clName;
 	    } else
@@ -149,7 +149,10 @@ public class SimpleAnalyzer implements CodeAnalyzer, Opcodes {
 		case opc_getstatic:
 		case opc_getfield: {
 		    Identifier ident = canonizeReference(instrs[idx]);
-		    if (ident != null) {
+		    if (ident == null)
+			break;
+		    /* Other methods may be analyzed at the same time. */
+		    synchronized (Main.getClassBundle()) {
 			if (opcode == opc_putstatic 
 			    || opcode == opc_putfield) {
 			    FieldIdentifier fi = (FieldIdentifier) ident;
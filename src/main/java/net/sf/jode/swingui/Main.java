@@ -411,7 +411,7 @@ public class Main
     }
 
     public static void usage() {
-	PrintWriter err = GlobalOptions.err;
+	PrintWriter err = GlobalOptions.getErr();
 	int numUsage = Integer.parseInt(bundle.getString("usage.count"));
 	for (int i=0; i < numUsage ; i++)
 	    err.println(bundle.getString("usage."+i));
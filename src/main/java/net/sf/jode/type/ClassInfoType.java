@@ -23,6 +23,9 @@ import net.sf.jode.GlobalOptions;
 
 import java.lang.reflect.Modifier;
 import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
 
 /**
  * This class is the type representing a class loaded from a ClassPath.<p>
@@ -33,6 +36,13 @@ public class ClassInfoType extends ClassType {
     ClassType superClass = null;
     ClassType[] interfaces = null;
 
+    /**
+     * The generalized types of this and other classes of the same
+     * class path.  The result consists of super types of this class,
+     * so only the other class must be referenced weakly.
+     */
+    private Map generalizedCache;
+
     public ClassInfo getClazz() {
         return clazz;
     }
@@ -44,10 +54,10 @@ public class ClassInfoType extends ClassType {
 	    clazz.load(ClassInfo.HIERARCHY);
 	} catch (IOException ex) {
 	    clazz.guess(ClassInfo.HIERARCHY);
-	    GlobalOptions.err.println
+	    GlobalOptions.getErr().println
 		("Can't get full class hierarchy for "+clazz+
 		 " types may be incorrect.");
-	    GlobalOptions.err.println(ex.toString());
+	    GlobalOptions.getErr().println(ex.toString());
 	}
     }
 
@@ -81,9 +91,13 @@ public class ClassInfoType extends ClassType {
 	    if (ifaceInfos.length == 0)
 		interfaces = EMPTY_IFACES;
 	    else {
-		interfaces = new ClassType[ifaceInfos.length];
-		for (int i=0; i < interfaces.length; i++)
-		    interfaces[i] = Type.tClass(ifaceInfos[i]);
+		/* Types are shared between threads, so don't publish
+		 * the array before it is filled.
+		 */
+		ClassType[] ifaces = new ClassType[ifaceInfos.length];
+		for (int i=0; i < ifaces.length; i++)
+		    ifaces[i] = Type.tClass(ifaceInfos[i]);
+		interfaces = ifaces;
 	    }
 	}
 	return interfaces;
@@ -93,6 +107,24 @@ public class ClassInfoType extends ClassType {
 	return clazz;
     }
 
+    /**
+     * Returns the table where the generalized types of this and
+     * other classes are remembered.  Type inference generalizes the
+     * same pairs of classes again and again.  This is only done for
+     * classes of the same class path, whose equality is the identity
+     * of their class info.
+     */
+    synchronized Map getGeneralizedCache(Type other) {
+	if (!(other instanceof ClassInfoType)
+	    || (((ClassInfoType) other).clazz.getClassPath()
+		!= clazz.getClassPath()))
+	    return null;
+	if (generalizedCache == null)
+	    generalizedCache
+		= Collections.synchronizedMap(new WeakHashMap());
+	return generalizedCache;
+    }
+
     public boolean equals(Object o) {
 	if (o instanceof ClassInfoType)
 	    return ((ClassInfoType) o).clazz == clazz;
@@ -19,7 +19,9 @@
 
 package net.sf.jode.type;
 import java.util.Stack;
+import java.util.HashMap;
 import java.util.Hashtable;
+import java.util.Map;
 
 /**
  * This class is the base class of all types representing a class type.<p>
@@ -29,6 +31,32 @@ import java.util.Hashtable;
 public abstract class ClassType extends ReferenceType {
     protected String className;
 
+    /**
+     * The super classes and all interfaces of this type, including
+     * this type, by their class name.  It is only set after a check
+     * for a super interface had to visit all of them anyway, so that
+     * it never loads a class that wouldn't be loaded otherwise.  It
+     * is not modified after it was set.
+     */
+    private volatile Map ancestors;
+
+    /**
+     * An entry in the ancestors map.  There is more than one entry
+     * for a class name, if there are two types with that name that
+     * are not equal, e.g. from different class paths.
+     */
+    private static class Ancestor {
+	ClassType type;
+	boolean isSuperClass;
+	Ancestor next;
+
+	Ancestor(ClassType type, boolean isSuperClass, Ancestor next) {
+	    this.type = type;
+	    this.isSuperClass = isSuperClass;
+	    this.next = next;
+	}
+    }
+
     public String getClassName() {
 	return className;
     }
@@ -73,6 +101,59 @@ public abstract class ClassType extends ReferenceType {
      */
     public abstract ClassType[] getInterfaces();
 
+    private static boolean addAncestor(Map map, ClassType type,
+				       boolean isSuperClass) {
+	Ancestor first = (Ancestor) map.get(type.className);
+	for (Ancestor a = first; a != null; a = a.next) {
+	    if (a.type == type)
+		return false;
+	}
+	map.put(type.className, new Ancestor(type, isSuperClass, first));
+	return true;
+    }
+
+    private static void addInterfaces(Map map, ClassType type) {
+	ClassType[] ifaces = type.getInterfaces();
+	for (int i = 0; i < ifaces.length; i++) {
+	    for (ClassType ctype = ifaces[i]; ctype != null;
+		 ctype = ctype.getSuperClass()) {
+		if (!addAncestor(map, ctype, false))
+		    break;
+		addInterfaces(map, ctype);
+	    }
+	}
+    }
+
+    /**
+     * Remembers all super classes and interfaces of this type.  This
+     * must only be called if all of them were already visited.
+     */
+    private Map collectAncestors() {
+	Map map = new HashMap();
+	for (ClassType ctype = this; ctype != null;
+	     ctype = ctype.getSuperClass())
+	    addAncestor(map, ctype, true);
+	for (ClassType ctype = this; ctype != null;
+	     ctype = ctype.getSuperClass())
+	    addInterfaces(map, ctype);
+	return map;
+    }
+
+    /**
+     * Checks if the given type is in the ancestors map.
+     * @param withInterfaces false, if only the super classes should
+     * be considered.
+     */
+    private static boolean hasAncestor(Map ancestors, ClassType type, 
+				       boolean withInterfaces) {
+	for (Ancestor a = (Ancestor) ancestors.get(type.className);
+	     a != null; a = a.next) {
+	    if ((withInterfaces || a.isSuperClass) && a.type.equals(type))
+		return true;
+	}
+	return false;
+    }
+
     public boolean isSubTypeOf(Type type) {
 	if (type == tNull)
 	    return true;
@@ -87,19 +168,28 @@ public abstract class ClassType extends ReferenceType {
 
 	if (isFinal())
 	    return ctype.equals(this);
-	
-	while (ctype != null) {
-	    if (ctype.equals(this))
+
+	Map ctypeAncestors = ctype.ancestors;
+	if (ctypeAncestors != null)
+	    return hasAncestor(ctypeAncestors, this, isInterface());
+
+	for (ClassType ancestor = ctype; ancestor != null;
+	     ancestor = ancestor.getSuperClass()) {
+	    if (ancestor.equals(this))
 		return true;
 
 	    if (isInterface()) {
-		ClassType[] typeIfaces = ctype.getInterfaces();
+		ClassType[] typeIfaces = ancestor.getInterfaces();
 		for (int i = 0; i < typeIfaces.length; i++)
 		    if (isSubTypeOf(typeIfaces[i]))
 			return true;
 	    }
-	    ctype = ctype.getSuperClass();
 	}
+	if (isInterface())
+	    /* We visited all super classes and interfaces of ctype.
+	     * Remember them, so that the next check is fast.
+	     */
+	    ctype.ancestors = ctype.collectAncestors();
 	return false;
     }
 
@@ -115,6 +205,20 @@ public abstract class ClassType extends ReferenceType {
 
 	if (isFinal())
 	    return ctype.equals(this);
+
+	/* For a class the walk through the super classes is as fast.
+	 */
+	Map ctypeAncestors = ctype.ancestors;
+	if (ctypeAncestors != null && isInterface()) {
+	    if (hasAncestor(ctypeAncestors, this, true))
+		return true;
+	    while (ctype != null) {
+		if (ctype.isUnknown())
+		    return true;
+		ctype = ctype.getSuperClass();
+	    }
+	    return false;
+	}
 	
 	while (ctype != null) {
 	    if (ctype.equals(this))
@@ -221,9 +325,27 @@ public abstract class ClassType extends ReferenceType {
 	if (!(type instanceof ReferenceType))
 	    return tError;
 
-	Stack classTypes = new Stack();
-	classTypes.push(this);
-	return ((ReferenceType) type).findCommonClassTypes(classTypes);
+	Map cache = getGeneralizedCache(type);
+	Type result = cache != null ? (Type) cache.get(type) : null;
+	if (result == null) {
+	    Stack classTypes = new Stack();
+	    classTypes.push(this);
+	    result = ((ReferenceType) type).findCommonClassTypes(classTypes);
+	    if (cache != null)
+		cache.put(type, result);
+	}
+	return result;
+    }
+
+    /**
+     * Returns the table where the generalized types of this and other
+     * types are remembered.  The default implementation remembers
+     * nothing.
+     * @param other the other type, which is the key in the table.
+     * @return the table, or null if the result isn't remembered.
+     */
+    Map getGeneralizedCache(Type other) {
+	return null;
     }
 
     public String getTypeSignature() {
@@ -269,8 +269,8 @@ public class IntegerType extends Type {
 	}
 	Type result = mergeTypes == 0
 	    ? tError : new IntegerType(mergeTypes, mergeHints);
-	if ((GlobalOptions.debuggingFlags & GlobalOptions.DEBUG_TYPES) != 0) {
-	    GlobalOptions.err.println("intersecting "+ this +" and "+ type + 
+	if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_TYPES)) {
+	    GlobalOptions.getErr().println("intersecting "+ this +" and "+ type + 
 				      " to " + result);
 	}	    
 	return result;
@@ -215,8 +215,8 @@ public class RangeType extends Type {
 	else
 	    result = tError;
 
-        if ((GlobalOptions.debuggingFlags & GlobalOptions.DEBUG_TYPES) != 0) {
-	    GlobalOptions.err.println("intersecting "+ this +" and "+ type +
+        if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_TYPES)) {
+	    GlobalOptions.getErr().println("intersecting "+ this +" and "+ type +
 				      " to <" + bottom + "," + top +
 				      "> to " + result);
 	}	    
@@ -21,7 +21,7 @@ package net.sf.jode.type;
 import net.sf.jode.GlobalOptions;
 import net.sf.jode.bytecode.ClassPath;
 import net.sf.jode.bytecode.ClassInfo;
-import net.sf.jode.util.UnifyHash;
+import net.sf.jode.util.ConcurrentUnifyHash;
 
 import java.util.Iterator;
 
@@ -55,9 +55,12 @@ public class Type {
     public static final int TC_SYSCLASS = 108;
     public static final int TC_CLASSIFACE = 109;
 
-    private static final UnifyHash classHash = new UnifyHash();
-    private static final UnifyHash arrayHash = new UnifyHash();    
-    private static final UnifyHash methodHash = new UnifyHash();    
+    private static final ConcurrentUnifyHash classHash
+	= new ConcurrentUnifyHash();
+    private static final ConcurrentUnifyHash arrayHash
+	= new ConcurrentUnifyHash();
+    private static final ConcurrentUnifyHash methodHash
+	= new ConcurrentUnifyHash();
 
     /**
      * This type represents the singleton set containing the boolean type.
@@ -302,15 +305,17 @@ public class Type {
      */
     public static final ClassType tClass(ClassInfo clazzinfo) {
 	int hash = clazzinfo.hashCode();
-	Iterator iter = classHash.iterateHashCode(hash);
-	while (iter.hasNext()) {
-	    ClassInfoType type = (ClassInfoType) iter.next();
-	    if (type.getClassInfo() == clazzinfo)
-		return type;
+	synchronized (classHash.getLock(hash)) {
+	    Iterator iter = classHash.iterateHashCode(hash);
+	    while (iter.hasNext()) {
+		ClassInfoType type = (ClassInfoType) iter.next();
+		if (type.getClassInfo() == clazzinfo)
+		    return type;
+	    }
+	    ClassInfoType type = new ClassInfoType(clazzinfo);
+	    classHash.put(hash, type);
+	    return type;
 	}
-	ClassInfoType type = new ClassInfoType(clazzinfo);
-	classHash.put(hash, type);
-        return type;
     }
 
     /**
@@ -324,15 +329,17 @@ public class Type {
             return type;
 
 	int hash = type.hashCode();
-	Iterator iter = arrayHash.iterateHashCode(hash);
-	while (iter.hasNext()) {
-	    ArrayType arrType = (ArrayType) iter.next();
-	    if (arrType.getElementType().equals(type))
-		return arrType;
+	synchronized (arrayHash.getLock(hash)) {
+	    Iterator iter = arrayHash.iterateHashCode(hash);
+	    while (iter.hasNext()) {
+		ArrayType arrType = (ArrayType) iter.next();
+		if (arrType.getElementType().equals(type))
+		    return arrType;
+	    }
+	    ArrayType arrType = new ArrayType(type);
+	    arrayHash.put(hash, arrType);
+	    return arrType;
 	}
-	ArrayType arrType = new ArrayType(type);
-	arrayHash.put(hash, arrType);
-        return arrType;
     }
 
     /**
@@ -342,16 +349,18 @@ public class Type {
      */
     public static MethodType tMethod(ClassPath cp, String signature) {
 	int hash = signature.hashCode() + cp.hashCode();
-	Iterator iter = methodHash.iterateHashCode(hash);
-	while (iter.hasNext()) {
-	    MethodType methodType = (MethodType) iter.next();
-	    if (methodType.getTypeSignature().equals(signature)
-		&& methodType.getClassPath().equals(cp))
-		return methodType;
+	synchronized (methodHash.getLock(hash)) {
+	    Iterator iter = methodHash.iterateHashCode(hash);
+	    while (iter.hasNext()) {
+		MethodType methodType = (MethodType) iter.next();
+		if (methodType.getTypeSignature().equals(signature)
+		    && methodType.getClassPath().equals(cp))
+		    return methodType;
+	    }
+	    MethodType methodType = new MethodType(cp, signature);
+	    methodHash.put(hash, methodType);
+	    return methodType;
 	}
-	MethodType methodType = new MethodType(cp, signature);
-	methodHash.put(hash, methodType);
-        return methodType;
     }
 
     /**
@@ -511,8 +520,8 @@ public class Type {
 	    return this;
 	/* We have two different singleton sets now.
 	 */
-	if ((GlobalOptions.debuggingFlags & GlobalOptions.DEBUG_TYPES) != 0)
-	    GlobalOptions.err.println("intersecting "+ this +" and "+ type
+	if (GlobalOptions.isDebugging(GlobalOptions.DEBUG_TYPES))
+	    GlobalOptions.getErr().println("intersecting "+ this +" and "+ type
 				   + " to <error>");
 	return tError;
     }
@@ -0,0 +1,140 @@
+/* ConcurrentUnifyHash Copyright (C) 2026 agent.
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; see the file COPYING.LESSER.  If not, write to
+ * the Free Software Foundation, 675 Mass Ave, Cambridge, MA 02139, USA.
+ *
+ * $Id$
+ */
+
+package net.sf.jode.util;
+import java.util.Comparator;
+import java.util.Iterator;
+
+/**
+ * A UnifyHash that can be used by several threads.  The objects are
+ * distributed by their hash code over several stripes, every stripe
+ * is an ordinary UnifyHash with its own lock.  Threads that look up
+ * objects with different hash codes rarely wait for each other. <br>
+ *
+ * To look up an object and to add it if it isn't there, you should
+ * hold the lock of its stripe, so that no other thread adds the same
+ * object in between:
+ *
+ * <pre>
+ * synchronized (hash.getLock(hashCode)) {
+ *     Iterator iter = hash.iterateHashCode(hashCode);
+ *     while (iter.hasNext()) {
+ *         ... return the object if it matches ...
+ *     }
+ *     hash.put(hashCode, newObject);
+ * }
+ * </pre>
+ *
+ * @author agent
+ */
+public class ConcurrentUnifyHash {
+    /**
+     * The default number of stripes, must be a power of two.
+     */
+    private static final int DEFAULT_STRIPES = 16;
+
+    private final UnifyHash[] stripes;
+
+    /**
+     * Creates a new hash.
+     * @param stripeCount the number of stripes, must be a power of two.
+     */
+    public ConcurrentUnifyHash(int stripeCount) {
+	if (stripeCount <= 0 || (stripeCount & (stripeCount - 1)) != 0)
+	    throw new IllegalArgumentException("stripes: "+stripeCount);
+	stripes = new UnifyHash[stripeCount];
+	for (int i = 0; i < stripeCount; i++)
+	    stripes[i] = new UnifyHash();
+    }
+
+    public ConcurrentUnifyHash() {
+	this(DEFAULT_STRIPES);
+    }
+
+    private UnifyHash getStripe(int hash) {
+	/* The buckets of the stripe use the hash code modulo the
+	 * capacity.  Fold the upper bits into the low bits before
+	 * taking the stripe from them, so that the entries of a
+	 * stripe don't all share the same low bits and still spread
+	 * over its buckets.  The upper bits alone are not used, as
+	 * they are zero for small hash codes.
+	 */
+	hash ^= hash >>> 16;
+	hash ^= hash >>> 8;
+	return stripes[hash & (stripes.length - 1)];
+    }
+
+    /**
+     * Returns the lock that guards the objects with the given hash
+     * code.  The caller must hold it while calling iterateHashCode,
+     * put and remove, and while using the iterator.
+     */
+    public Object getLock(int hash) {
+	return getStripe(hash);
+    }
+
+    /**
+     * Iterates the objects with the given hash code.  The caller must
+     * hold the lock returned by getLock.
+     */
+    public Iterator iterateHashCode(int hash) {
+	return getStripe(hash).iterateHashCode(hash);
+    }
+
+    /**
+     * Adds an object with the given hash code.  The caller must
+     * hold the lock returned by getLock.
+     */
+    public void put(int hash, Object o) {
+	getStripe(hash).put(hash, o);
+    }
+
+    /**
+     * Removes an object with the given hash code.  The caller must
+     * hold the lock returned by getLock.
+     */
+    public boolean remove(int hash, Object o) {
+	return getStripe(hash).remove(hash, o);
+    }
+
+    /**
+     * Returns the object that is equal to o according to comparator,
+     * and adds o if there is no such object.
+     */
+    public Object unify(Object o, int hash, Comparator comparator) {
+	UnifyHash stripe = getStripe(hash);
+	synchronized (stripe) {
+	    return stripe.unify(o, hash, comparator);
+	}
+    }
+
+    /**
+     * Returns the number of objects.  The result is only a snapshot
+     * if other threads add objects at the same time.
+     */
+    public int size() {
+	int size = 0;
+	for (int i = 0; i < stripes.length; i++) {
+	    synchronized (stripes[i]) {
+		size += stripes[i].size();
+	    }
+	}
+	return size;
+    }
+}
@@ -0,0 +1,71 @@
+package net.sf.jode.bytecode;
+import junit.framework.*;
+import java.io.*;
+
+public class ClassFileInputTest extends TestCase {
+    public ClassFileInputTest(String name) {
+	super(name);
+    }
+
+    private byte[] bytes() throws IOException {
+	ByteArrayOutputStream baos = new ByteArrayOutputStream();
+	DataOutputStream dos = new DataOutputStream(baos);
+	dos.writeByte(-2);
+	dos.writeShort(-3);
+	dos.writeShort(0xcafe);
+	dos.writeInt(0xdeadbeef);
+	dos.writeInt(3);
+	dos.writeBytes("abcde");
+	dos.close();
+	return baos.toByteArray();
+    }
+
+    public void testRead() throws IOException {
+	byte[] data = bytes();
+	DataInputStream dis
+	    = new DataInputStream(new ByteArrayInputStream(data));
+	ClassFileInput input = new ClassFileInput(data);
+	assertEquals(dis.readByte(), input.readByte());
+	assertEquals(dis.readShort(), input.readShort());
+	assertEquals(dis.readUnsignedShort(), input.readUnsignedShort());
+	assertEquals(dis.readInt(), input.readInt());
+	assertEquals(3, input.readInt());
+	assertEquals(5, input.available());
+    }
+
+    public void testSub() throws IOException {
+	ClassFileInput input = new ClassFileInput(bytes());
+	input.skipBytes(13);
+	ClassFileInput sub = input.sub(3);
+	assertEquals(2, input.available());
+	assertEquals('a', sub.readUnsignedByte());
+	try {
+	    sub.readInt();
+	    fail("read over the attribute boundary");
+	} catch (EOFException ex) {
+	}
+	assertEquals('b' << 8 | 'c', sub.readUnsignedShort());
+	try {
+	    input.sub(3);
+	    fail("sub input longer than the input");
+	} catch (EOFException ex) {
+	}
+	try {
+	    input.skipBytes(-1);
+	    fail("skipped backwards");
+	} catch (EOFException ex) {
+	}
+    }
+
+    public void testReadAll() throws IOException {
+	byte[] data = new byte[5000];
+	for (int i = 0; i < data.length; i++)
+	    data[i] = (byte) i;
+	InputStream stream = new BufferedInputStream
+	    (new ByteArrayInputStream(data), 100);
+	byte[] result = ClassFileInput.readAll(stream);
+	assertEquals(data.length, result.length);
+	for (int i = 0; i < data.length; i++)
+	    assertEquals(data[i], result[i]);
+    }
+}
@@ -0,0 +1,143 @@
+package net.sf.jode.bytecode;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.Map;
+
+import junit.framework.*;
+
+public class ClassInfoTest extends TestCase {
+    public ClassInfoTest(String name) {
+	super(name);
+    }
+
+    /**
+     * A location that holds the class files in memory.
+     */
+    static class MemoryLocation extends ClassPath.Location {
+	Map files = new HashMap();
+
+	protected boolean exists(String file) {
+	    return files.containsKey(file);
+	}
+
+	protected InputStream getFile(String file) throws IOException {
+	    return new ByteArrayInputStream((byte[]) files.get(file));
+	}
+
+	/**
+	 * Adds a class file without fields and methods that extends
+	 * Object.  Each entry of innerClasses gives the inner class,
+	 * outer class, simple name and access flags of one entry of
+	 * the InnerClasses attribute; the names may be null.
+	 */
+	void addClass(String name, int modifiers, Object[][] innerClasses)
+	    throws IOException {
+	    GrowableConstantPool gcp = new GrowableConstantPool();
+	    int thisClass = gcp.putClassName(name);
+	    int superClass = gcp.putClassName("java.lang.Object");
+	    int attrName = gcp.putUTF8("InnerClasses");
+	    int[][] entries = new int[innerClasses.length][];
+	    for (int i = 0; i < innerClasses.length; i++) {
+		Object[] entry = innerClasses[i];
+		entries[i] = new int[] {
+		    gcp.putClassName((String) entry[0]),
+		    entry[1] != null ? gcp.putClassName((String) entry[1]) : 0,
+		    entry[2] != null ? gcp.putUTF8((String) entry[2]) : 0,
+		    ((Integer) entry[3]).intValue()
+		};
+	    }
+
+	    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+	    DataOutputStream output = new DataOutputStream(bytes);
+	    output.writeInt(0xcafebabe);
+	    output.writeShort(3);
+	    output.writeShort(45);
+	    gcp.write(output);
+	    output.writeShort(modifiers);
+	    output.writeShort(thisClass);
+	    output.writeShort(superClass);
+	    output.writeShort(0); /* interfaces */
+	    output.writeShort(0); /* fields */
+	    output.writeShort(0); /* methods */
+	    output.writeShort(1); /* attributes */
+	    output.writeShort(attrName);
+	    output.writeInt(2 + 8 * entries.length);
+	    output.writeShort(entries.length);
+	    for (int i = 0; i < entries.length; i++) {
+		for (int j = 0; j < 4; j++)
+		    output.writeShort(entries[i][j]);
+	    }
+	    output.close();
+	    files.put(name.replace('.', '/') + ".class", bytes.toByteArray());
+	}
+    }
+
+    /**
+     * The javac that built the Java 8 runtime marks anonymous classes
+     * final in the class file, but not in the InnerClasses attribute.
+     */
+    public void testFinalAnonymousClass() throws IOException {
+	Object[] entry = {
+	    "Outer$1", null, null, new Integer(Modifier.STATIC)
+	};
+	MemoryLocation location = new MemoryLocation();
+	location.addClass("Outer", Modifier.PUBLIC | 0x20,
+			  new Object[][] { entry });
+	location.addClass("Outer$1", Modifier.FINAL | 0x20,
+			  new Object[][] { entry });
+	ClassPath classPath
+	    = new ClassPath(new ClassPath.Location[] { location });
+
+	ClassInfo anonymous = classPath.getClassInfo("Outer$1");
+	anonymous.load(ClassInfo.DECLARATIONS);
+	assertTrue(anonymous.isMethodScoped());
+	assertNull(anonymous.getClassName());
+	assertEquals(Modifier.STATIC, anonymous.getModifiers() & ~0x20);
+
+	/* The same in the other order, when the outer class is read
+	 * first.
+	 */
+	classPath = new ClassPath(new ClassPath.Location[] { location });
+	classPath.getClassInfo("Outer").load(ClassInfo.DECLARATIONS);
+	anonymous = classPath.getClassInfo("Outer$1");
+	anonymous.load(ClassInfo.DECLARATIONS);
+	assertEquals(Modifier.STATIC, anonymous.getModifiers() & ~0x20);
+    }
+
+    /**
+     * A guessed class must take the modifiers from a real
+     * InnerClasses entry instead of failing on a mismatch.
+     */
+    public void testGuessedInnerClass() throws IOException {
+	MemoryLocation location = new MemoryLocation();
+	location.addClass("User", Modifier.PUBLIC | 0x20, new Object[][] {
+	    { "java.util.Map$Entry", "java.util.Map", "Entry",
+	      new Integer(Modifier.PUBLIC | Modifier.STATIC
+			  | Modifier.INTERFACE | Modifier.ABSTRACT) }
+	});
+	ClassPath classPath
+	    = new ClassPath(new ClassPath.Location[] { location });
+
+	/* The class isn't in the class path, so it must be guessed. */
+	ClassInfo entry = classPath.getClassInfo("java.util.Map$Entry");
+	try {
+	    entry.load(ClassInfo.HIERARCHY);
+	    fail("loaded a class that doesn't exist");
+	} catch (IOException ex) {
+	}
+	entry.guess(ClassInfo.HIERARCHY);
+	assertTrue(entry.isGuessed());
+	assertFalse(entry.isInterface());
+
+	classPath.getClassInfo("User").load(ClassInfo.DECLARATIONS);
+	assertTrue(entry.isInterface());
+	assertTrue(Modifier.isStatic(entry.getModifiers()));
+	assertEquals("Entry", entry.getClassName());
+    }
+}
@@ -0,0 +1,148 @@
+package net.sf.jode.bytecode;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import junit.framework.*;
+import net.sf.jode.decompiler.ClassPathHelper;
+
+public class ClassPathTest extends TestCase {
+    public ClassPathTest(String name) {
+	super(name);
+    }
+
+    /**
+     * A location that contains a single file and counts the lookups.
+     */
+    static class CountingLocation extends ClassPath.Location {
+	String file;
+	int lookups;
+
+	CountingLocation(String file) {
+	    this.file = file;
+	}
+
+	protected boolean exists(String name) {
+	    lookups++;
+	    return name.equals(file);
+	}
+    }
+
+    public void testExistsClass() {
+	CountingLocation first = new CountingLocation("a/A.class");
+	CountingLocation second = new CountingLocation("b/B.class");
+	ClassPath classPath = new ClassPath(new ClassPath.Location[] {
+	    first, second
+	});
+	assertTrue(classPath.existsClass("a.A"));
+	assertTrue(classPath.existsClass("b.B"));
+	assertFalse(classPath.existsClass("c.C"));
+	int firstLookups = first.lookups;
+	int secondLookups = second.lookups;
+	assertEquals(3, firstLookups);
+	assertEquals(2, secondLookups);
+
+	/* The answers are remembered, both positive and negative. */
+	assertTrue(classPath.existsClass("a.A"));
+	assertTrue(classPath.existsClass("b.B"));
+	assertFalse(classPath.existsClass("c.C"));
+	assertEquals(firstLookups, first.lookups);
+	assertEquals(secondLookups, second.lookups);
+
+	/* existsFile still asks the locations. */
+	assertTrue(classPath.existsFile("b/B.class"));
+	assertEquals(firstLookups + 1, first.lookups);
+    }
+
+    /**
+     * A full cache forgets the least recently asked class names
+     * first, so a name that is asked for again and again stays.
+     */
+    public void testExistsCacheEviction() {
+	CountingLocation location = new CountingLocation("a/A.class");
+	ClassPath classPath = new ClassPath(new ClassPath.Location[] {
+	    location
+	});
+	assertTrue(classPath.existsClass("a.A"));
+	assertFalse(classPath.existsClass("b.B"));
+	for (int i = 0; i < ClassPath.MAX_EXISTS_CACHE; i++) {
+	    assertTrue(classPath.existsClass("a.A"));
+	    assertFalse(classPath.existsClass("c.C" + i));
+	}
+	int lookups = location.lookups;
+	assertTrue(classPath.existsClass("a.A"));
+	assertEquals(lookups, location.lookups);
+	assertFalse(classPath.existsClass("b.B"));
+	assertEquals(lookups + 1, location.lookups);
+    }
+
+    /**
+     * Loads the code of some jode classes with the given memory
+     * budget and returns them.
+     */
+    ClassInfo[] loadWithBudget(long budget) throws IOException {
+	ClassPath classPath = new ClassPath(ClassPathHelper.getJodeClasses());
+	classPath.setMemoryBudget(budget, ClassInfo.DECLARATIONS);
+	String[] files = new File(ClassPathHelper.getJodeClasses(),
+				  "net/sf/jode/flow").list();
+	ClassInfo[] classes = new ClassInfo[20];
+	for (int i = 0; i < classes.length; i++) {
+	    String name = files[i].substring(0, files[i].length() - 6);
+	    classes[i] = classPath.getClassInfo("net.sf.jode.flow." + name);
+	    classes[i].load(ClassInfo.ALL);
+	}
+	return classes;
+    }
+
+    /**
+     * The budget is compared with the estimated size of the loaded
+     * classes, not with the heap, so the result doesn't depend on
+     * the garbage collector.
+     */
+    public void testMemoryBudget() throws IOException {
+	ClassInfo[] classes = loadWithBudget(1L << 30);
+	for (int i = 0; i < classes.length; i++)
+	    assertTrue(classes[i].getName(), classes[i].dropCandidate);
+
+	/* A tiny budget drops all but the recently loaded classes. */
+	classes = loadWithBudget(1);
+	for (int i = 0; i < classes.length; i++)
+	    assertEquals(classes[i].getName(), i >= classes.length - 8,
+			 classes[i].dropCandidate);
+	classes[0].load(ClassInfo.ALL);
+	assertNotNull(classes[0].getMethods());
+    }
+
+    /**
+     * A file URL of a jar is mapped from the file it names.  A plus
+     * sign in the name must not be decoded to a space.
+     */
+    public void testFileURLWithPlus() throws IOException {
+	File dir = File.createTempFile("jode+test", "");
+	dir.delete();
+	dir.mkdir();
+	File jar = new File(dir, "a+b.jar");
+	try {
+	    ZipOutputStream output
+		= new ZipOutputStream(new FileOutputStream(jar));
+	    try {
+		output.putNextEntry(new ZipEntry("a/A.class"));
+		output.write(new byte[] { (byte) 0xca, (byte) 0xfe });
+		output.closeEntry();
+	    } finally {
+		output.close();
+	    }
+	    String url = jar.toURI().toURL().toString();
+	    assertTrue(url, url.indexOf('+') >= 0);
+	    ClassPath classPath = new ClassPath(new ClassPath.Location[] {
+		ClassPath.createLocation(url)
+	    });
+	    assertTrue(classPath.existsFile("a/A.class"));
+	} finally {
+	    jar.delete();
+	    dir.delete();
+	}
+    }
+}
@@ -0,0 +1,86 @@
+package net.sf.jode.decompiler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Arrays;
+
+import junit.framework.*;
+
+public class ChannelWriterTest extends TestCase {
+
+    public ChannelWriterTest(String name) {
+	super (name);
+    }
+
+    /**
+     * A text longer than the buffers, with non ascii characters and
+     * a surrogate pair at the end of the char buffer.
+     */
+    static String makeText() {
+	StringBuffer sb = new StringBuffer();
+	while (sb.length() < 8191)
+	    sb.append("x = \"\u00e4\u20ac\";\n");
+	sb.setLength(8191);
+	sb.append("\ud834\udd1e");
+	while (sb.length() < 100000)
+	    sb.append("\tint i = " + sb.length() + ";\n");
+	return sb.toString();
+    }
+
+    /**
+     * Writes the text in pieces of different size and kind.
+     */
+    static void writeText(Writer writer, String text) throws IOException {
+	int pos = 0;
+	int step = 1;
+	while (pos < text.length()) {
+	    int end = Math.min(pos + step, text.length());
+	    switch (step % 3) {
+	    case 0:
+		writer.write(text, pos, end - pos);
+		break;
+	    case 1:
+		for (int i = pos; i < end; i++)
+		    writer.write(text.charAt(i));
+		break;
+	    case 2:
+		writer.write(text.substring(pos, end).toCharArray());
+		break;
+	    }
+	    pos = end;
+	    step = step * 7 % 1000 + 1;
+	}
+    }
+
+    public void testSameBytes() throws IOException {
+	String text = makeText();
+	ByteArrayOutputStream expected = new ByteArrayOutputStream();
+	Writer writer = new OutputStreamWriter(expected);
+	writer.write(text);
+	writer.close();
+
+	/* The second writer uses the buffers of the first. */
+	for (int i = 0; i < 2; i++) {
+	    ByteArrayOutputStream out = new ByteArrayOutputStream();
+	    writer = new ChannelWriter(out);
+	    writeText(writer, text);
+	    writer.flush();
+	    writer.close();
+	    assertTrue(Arrays.equals(expected.toByteArray(),
+				     out.toByteArray()));
+	}
+    }
+
+    public void testClosed() throws IOException {
+	Writer writer = new ChannelWriter(new ByteArrayOutputStream());
+	writer.close();
+	writer.close();
+	try {
+	    writer.write("x");
+	    fail("write after close");
+	} catch (IOException ex) {
+	}
+    }
+}
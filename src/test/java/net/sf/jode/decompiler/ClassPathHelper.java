@@ -0,0 +1,61 @@
+package net.sf.jode.decompiler;
+
+import java.io.File;
+import java.net.URISyntaxException;
+import java.net.URL;
+
+/**
+ * Builds the class path for tests that decompile the jode classes
+ * themselves.  The test runner may hide the real class path, so the
+ * locations are given explicitly.
+ */
+public class ClassPathHelper {
+    private ClassPathHelper() {
+    }
+
+    /**
+     * Gets the directory or jar file containing the jode classes.
+     */
+    public static String getJodeClasses() {
+	URL url = Decompiler.class.getProtectionDomain()
+	    .getCodeSource().getLocation();
+	try {
+	    return new File(url.toURI()).getPath();
+	} catch (URISyntaxException ex) {
+	    return url.getPath();
+	}
+    }
+
+    /**
+     * Gets the class path of the runtime classes.  This is the boot
+     * class path if the VM tells it, otherwise the rt.jar of the
+     * running VM.  VMs since Java 9 have neither, so their classes
+     * are read by reflection.
+     */
+    public static String getRuntimeClasses() {
+	String bootPath = System.getProperty("sun.boot.class.path");
+	if (bootPath != null)
+	    return bootPath.replace(File.pathSeparatorChar,
+				    Decompiler.altPathSeparatorChar);
+	File rtJar = new File(System.getProperty("java.home"),
+			      "lib" + File.separator + "rt.jar");
+	if (rtJar.exists())
+	    return rtJar.getPath();
+	return "reflection:";
+    }
+
+    /**
+     * Gets the class path with the jode classes, the runtime classes
+     * and the given extra path.  The jode classes come first, so
+     * that they are read from their class files even if the runtime
+     * classes are read by reflection.
+     * @param extraPath a path to append, separated by
+     * {@link Decompiler#altPathSeparatorChar}, or null.
+     */
+    public static String getClassPath(String extraPath) {
+	return getJodeClasses() + Decompiler.altPathSeparatorChar
+	    + getRuntimeClasses()
+	    + (extraPath != null
+	       ? Decompiler.altPathSeparatorChar + extraPath : "");
+    }
+}
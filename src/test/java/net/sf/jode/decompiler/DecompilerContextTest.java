@@ -0,0 +1,45 @@
+package net.sf.jode.decompiler;
+
+import junit.framework.*;
+
+public class DecompilerContextTest extends TestCase {
+
+    public DecompilerContextTest(String name) {
+	super (name);
+    }
+
+    public void testDefaultContextKeepsSerials() {
+	assertNull(DecompilerContext.getBound());
+	DecompilerContext first = DecompilerContext.getCurrent();
+	assertSame(first, DecompilerContext.getCurrent());
+	int serial = DecompilerContext.getCurrent()
+	    .nextSerial(DecompilerContext.SERIAL_LABEL);
+	assertEquals(serial + 1, DecompilerContext.getCurrent()
+		     .nextSerial(DecompilerContext.SERIAL_LABEL));
+    }
+
+    public void testDefaultContextFollowsOptions() {
+	int oldOptions = Options.options;
+	try {
+	    Options.options = Options.OPTION_INNER;
+	    assertEquals(Options.OPTION_INNER,
+			 DecompilerContext.getCurrent().getOptions());
+	    Options.options = Options.OPTION_ANON;
+	    assertEquals(Options.OPTION_ANON,
+			 DecompilerContext.getCurrent().getOptions());
+	} finally {
+	    Options.options = oldOptions;
+	}
+    }
+
+    public void testBoundContext() {
+	DecompilerContext context = new DecompilerContext();
+	DecompilerContext previous = DecompilerContext.setCurrent(context);
+	try {
+	    assertSame(context, DecompilerContext.getCurrent());
+	} finally {
+	    DecompilerContext.setCurrent(previous);
+	}
+	assertNotSame(context, DecompilerContext.getCurrent());
+    }
+}
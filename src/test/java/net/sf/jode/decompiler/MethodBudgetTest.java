@@ -0,0 +1,93 @@
+package net.sf.jode.decompiler;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+import junit.framework.*;
+import net.sf.jode.GlobalOptions;
+
+public class MethodBudgetTest extends TestCase {
+
+    public MethodBudgetTest(String name) {
+	super (name);
+    }
+
+    public void setUp() {
+	/* Other tests turn on the consistency checks, which fail for
+	 * the classes decompiled here.
+	 */
+	GlobalOptions.debuggingFlags &= ~GlobalOptions.DEBUG_CHECK;
+    }
+
+    String decompile(String className, String budget, StringWriter err)
+	throws IOException {
+	return decompile(className, budget, null, err);
+    }
+
+    String decompile(String className, String budget,
+		     DecompilerCache cache, StringWriter err)
+	throws IOException {
+	Decompiler decompiler = new Decompiler();
+	decompiler.setClassPath(ClassPathHelper.getClassPath(null));
+	decompiler.setErr(new PrintWriter(err, true));
+	if (budget != null)
+	    decompiler.setOption("budget", budget);
+	decompiler.setCache(cache);
+	StringWriter writer = new StringWriter();
+	decompiler.decompile(className, writer, null);
+	return writer.toString();
+    }
+
+    public void testStepBudget() throws IOException {
+	String className = "net.sf.jode.decompiler.ImportHandler";
+	StringWriter err = new StringWriter();
+	String full = decompile(className, null, err);
+	assertEquals(-1, full.indexOf("Not decompiled"));
+
+	String limited = decompile(className, "0,20", err);
+	assertTrue(limited.indexOf("Not decompiled, the analysis exceeded"
+				   + " the limit of 20 steps.") >= 0);
+	assertTrue(limited.indexOf("Byte code:") >= 0);
+	assertTrue(err.toString().indexOf("exceeded the limit") >= 0);
+	/* Small methods are still decompiled. */
+	assertTrue(limited.indexOf("public void useClass(") >= 0);
+    }
+
+    public void testBudgetNotCached() throws IOException {
+	String className = "net.sf.jode.decompiler.ImportHandler";
+	File dir = File.createTempFile("jode-cache", "");
+	dir.delete();
+	try {
+	    DecompilerCache cache = new DecompilerCache(dir);
+	    StringWriter err = new StringWriter();
+	    String limited = decompile(className, "0,20", cache, err);
+	    assertTrue(limited.indexOf("Not decompiled") >= 0);
+	    /* Nothing was cached, since some methods were given up. */
+	    assertFalse(dir.exists());
+
+	    String full = decompile(className, null, cache, err);
+	    assertEquals(-1, full.indexOf("Not decompiled"));
+	    assertTrue(dir.exists());
+	    assertEquals(full, decompile(className, null, cache, err));
+	} finally {
+	    delete(dir);
+	}
+    }
+
+    void delete(File file) {
+	File[] files = file.listFiles();
+	for (int i = 0; files != null && i < files.length; i++)
+	    delete(files[i]);
+	file.delete();
+    }
+
+    public void testInvalidBudget() {
+	try {
+	    new Decompiler().setOption("budget", "-1");
+	    fail("negative budget accepted");
+	} catch (IllegalArgumentException ex) {
+	}
+    }
+}
@@ -0,0 +1,135 @@
+package net.sf.jode.decompiler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.Vector;
+
+import junit.framework.*;
+import net.sf.jode.GlobalOptions;
+import net.sf.jode.bytecode.ClassInfo;
+import net.sf.jode.bytecode.ClassPath;
+
+public class ParallelDecompilerTest extends TestCase {
+
+    public ParallelDecompilerTest(String name) {
+	super (name);
+    }
+
+    public void setUp() {
+	GlobalOptions.debuggingFlags &= ~GlobalOptions.DEBUG_CHECK;
+    }
+
+    String decompile(int threads, long memoryBudget) {
+	String classes = ClassPathHelper.getJodeClasses();
+	String classPathStr = ClassPathHelper.getClassPath(null);
+	ClassPath classPath = new ClassPath(classPathStr);
+	if (memoryBudget > 0)
+	    classPath.setMemoryBudget(memoryBudget, ClassInfo.DECLARATIONS);
+
+	/* All top level classes of the flow package. */
+	Vector classNames = new Vector();
+	String[] files = new File(classes, "net/sf/jode/flow").list();
+	for (int i = 0; i < files.length; i++) {
+	    if (files[i].endsWith(".class") && files[i].indexOf('$') < 0)
+		classNames.addElement("net.sf.jode.flow." + files[i]
+				      .substring(0, files[i].length() - 6));
+	}
+
+	DecompilerContext context = new DecompilerContext();
+	context.setErr(new PrintWriter(new StringWriter(), true));
+	ParallelDecompiler decompiler = new ParallelDecompiler
+	    (threads, context, classPath,
+	     ImportHandler.DEFAULT_PACKAGE_LIMIT,
+	     ImportHandler.DEFAULT_CLASS_LIMIT,
+	     TabbedPrintWriter.BRACE_AT_EOL, 4, 0, 79);
+	ByteArrayOutputStream out = new ByteArrayOutputStream();
+	assertTrue(decompiler.decompile(classNames, classPath, classPathStr,
+					null, null, out, true));
+	return out.toString();
+    }
+
+    public void testThreadsWithMemoryBudget() {
+	String serial = decompile(1, 0);
+	/* With a budget of one byte every load drops the older
+	 * classes, but not those that the threads still analyze.
+	 */
+	assertEquals(serial, decompile(8, 1));
+    }
+
+    String readFile(File file) throws IOException {
+	FileInputStream input = new FileInputStream(file);
+	try {
+	    ByteArrayOutputStream out = new ByteArrayOutputStream();
+	    byte[] buffer = new byte[4096];
+	    int len;
+	    while ((len = input.read(buffer)) > 0)
+		out.write(buffer, 0, len);
+	    return out.toString();
+	} finally {
+	    input.close();
+	}
+    }
+
+    void delete(File file) {
+	File[] files = file.listFiles();
+	if (files != null) {
+	    for (int i = 0; i < files.length; i++)
+		delete(files[i]);
+	}
+	file.delete();
+    }
+
+    /**
+     * Runs the serial loop of Main with a cache and returns what it
+     * printed to the error stream.
+     */
+    String runMain(File cacheDir, File destDir) {
+	PrintWriter oldErr = GlobalOptions.err;
+	StringWriter err = new StringWriter();
+	GlobalOptions.err = new PrintWriter(err, true);
+	try {
+	    Main.decompile(new String[] {
+		"-c", ClassPathHelper.getClassPath(null),
+		"-C", cacheDir.getPath(), "-d", destDir.getPath(),
+		"net.sf.jode.flow.FlowBlock",
+		"net.sf.jode.flow.LoopBlock"
+	    });
+	} finally {
+	    GlobalOptions.err = oldErr;
+	}
+	return err.toString();
+    }
+
+    public void testSerialCache() throws IOException {
+	File dir = File.createTempFile("jode-cache", "");
+	dir.delete();
+	File cacheDir = new File(dir, "cache");
+	File firstDir = new File(dir, "first");
+	File secondDir = new File(dir, "second");
+	try {
+	    String firstErr = runMain(cacheDir, firstDir);
+	    assertTrue(cacheDir.list().length > 0);
+	    String secondErr = runMain(cacheDir, secondDir);
+
+	    String[] names = { "FlowBlock", "LoopBlock" };
+	    for (int i = 0; i < names.length; i++) {
+		/* A cached class is reported like a decompiled one. */
+		String line = "net.sf.jode.flow." + names[i]
+		    + System.getProperty("line.separator");
+		assertTrue(firstErr.indexOf(line) >= 0);
+		assertTrue(secondErr, secondErr.indexOf(line) >= 0);
+
+		String path = "net/sf/jode/flow/" + names[i] + ".java";
+		String source = readFile(new File(firstDir, path));
+		assertTrue(source.length() > 0);
+		assertEquals(source, readFile(new File(secondDir, path)));
+	    }
+	} finally {
+	    delete(dir);
+	}
+    }
+}
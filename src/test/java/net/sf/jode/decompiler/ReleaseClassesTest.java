@@ -0,0 +1,54 @@
+package net.sf.jode.decompiler;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import junit.framework.*;
+import net.sf.jode.GlobalOptions;
+
+public class ReleaseClassesTest extends TestCase {
+
+    public ReleaseClassesTest(String name) {
+	super (name);
+    }
+
+    public void setUp() {
+	GlobalOptions.debuggingFlags &= ~GlobalOptions.DEBUG_CHECK;
+    }
+
+    String decompile(Decompiler decompiler, String className)
+	throws IOException {
+	StringWriter writer = new StringWriter();
+	decompiler.decompile(className, writer, null);
+	return writer.toString();
+    }
+
+    Decompiler createDecompiler(String release) {
+	Decompiler decompiler = new Decompiler();
+	decompiler.setClassPath(ClassPathHelper.getClassPath(null));
+	decompiler.setOption("release", release);
+	return decompiler;
+    }
+
+    public void testSameOutput() throws IOException {
+	String className = "net.sf.jode.decompiler.ImportHandler";
+	String kept = decompile(createDecompiler("no"), className);
+	/* The anonymous comparator is decompiled in place. */
+	assertTrue(kept.indexOf("new Comparator()") >= 0);
+
+	/* Decompiling the class again after its byte code was
+	 * released must read it again.
+	 */
+	Decompiler decompiler = createDecompiler("yes");
+	assertEquals(kept, decompile(decompiler, className));
+	assertEquals(kept, decompile(decompiler, className));
+    }
+
+    public void testInvalidValue() {
+	try {
+	    new Decompiler().setOption("release", "maybe");
+	    fail("invalid value accepted");
+	} catch (IllegalArgumentException ex) {
+	}
+    }
+}
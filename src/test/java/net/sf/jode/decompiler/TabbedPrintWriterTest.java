@@ -0,0 +1,148 @@
+package net.sf.jode.decompiler;
+
+import java.io.StringWriter;
+
+import junit.framework.*;
+
+/**
+ * Tests the line breaking of the TabbedPrintWriter.  The time it
+ * takes is measured by the OutputBenchmark of the benchmark module.
+ */
+public class TabbedPrintWriterTest extends TestCase {
+
+    public TabbedPrintWriterTest(String name) {
+	super (name);
+    }
+
+    /**
+     * Prints <code>x = f(x0, f(x1, ... f(xn-1, 0)...));</code>, like
+     * a long chain of method calls.
+     */
+    static void printNested(TabbedPrintWriter writer, int depth) {
+	writer.print("x = ");
+	for (int i = 0; i < depth; i++) {
+	    writer.print("f(");
+	    writer.startOp(TabbedPrintWriter.EXPL_PAREN, 0);
+	    writer.print("x" + i + ",");
+	    writer.breakOp();
+	    writer.print(" ");
+	}
+	writer.print("0");
+	for (int i = 0; i < depth; i++) {
+	    writer.endOp();
+	    writer.print(")");
+	}
+	writer.println(";");
+    }
+
+    /**
+     * Prints <code>x = "s" + x1 + ... + xn-1;</code>, like a big
+     * string concatenation.
+     */
+    static void printSum(TabbedPrintWriter writer, int length) {
+	writer.print("x = ");
+	writer.startOp(TabbedPrintWriter.IMPL_PAREN, 1);
+	writer.print("\"s\"");
+	for (int i = 1; i < length; i++) {
+	    writer.breakOp();
+	    writer.print(" + ");
+	    writer.startOp(TabbedPrintWriter.IMPL_PAREN, 1);
+	    writer.print("x" + i);
+	    writer.endOp();
+	}
+	writer.endOp();
+	writer.println(";");
+    }
+
+    static String strip(String str) {
+	StringBuffer sb = new StringBuffer();
+	for (int i = 0; i < str.length(); i++) {
+	    char c = str.charAt(i);
+	    if (!Character.isWhitespace(c) && c != '(' && c != ')')
+		sb.append(c);
+	}
+	return sb.toString();
+    }
+
+    static int maxWidth(String str) {
+	int max = 0;
+	int column = 0;
+	for (int i = 0; i < str.length(); i++) {
+	    char c = str.charAt(i);
+	    if (c == '\n') {
+		max = Math.max(max, column);
+		column = 0;
+	    } else if (c == '\t')
+		column = (column + 8) / 8 * 8;
+	    else if (c != '\r')
+		column++;
+	}
+	return Math.max(max, column);
+    }
+
+    public void testShortLine() {
+	StringWriter out = new StringWriter();
+	TabbedPrintWriter writer = new TabbedPrintWriter(out);
+	writer.tab();
+	printNested(writer, 3);
+	assertEquals("    x = f(x0, f(x1, f(x2, 0)));"
+		     + System.getProperty("line.separator"), out.toString());
+    }
+
+    public void testNested() {
+	StringWriter out = new StringWriter();
+	TabbedPrintWriter writer = new TabbedPrintWriter(out);
+	writer.tab();
+	printNested(writer, 2000);
+
+	StringWriter flat = new StringWriter();
+	TabbedPrintWriter flatWriter = new TabbedPrintWriter(flat);
+	flatWriter.print("x = ");
+	for (int i = 0; i < 2000; i++)
+	    flatWriter.print("f(x" + i + ", ");
+	flatWriter.print("0");
+	for (int i = 0; i < 2000; i++)
+	    flatWriter.print(")");
+	flatWriter.println(";");
+	assertEquals(strip(flat.toString()), strip(out.toString()));
+	assertTrue(out.toString().indexOf('\n') >= 0);
+    }
+
+    public void testSum() {
+	StringWriter out = new StringWriter();
+	TabbedPrintWriter writer = new TabbedPrintWriter(out);
+	writer.tab();
+	printSum(writer, 20000);
+	assertTrue(maxWidth(out.toString()) <= 79);
+	assertTrue(out.toString().startsWith("    x = (\"s\" + x1 + x2"));
+    }
+
+    String printNested(int depth, int maxSteps) {
+	int steps = TabbedPrintWriter.maxPenaltySteps;
+	TabbedPrintWriter.maxPenaltySteps = maxSteps;
+	try {
+	    StringWriter out = new StringWriter();
+	    TabbedPrintWriter writer = new TabbedPrintWriter(out);
+	    writer.tab();
+	    printNested(writer, depth);
+	    return out.toString();
+	} finally {
+	    TabbedPrintWriter.maxPenaltySteps = steps;
+	}
+    }
+
+    /**
+     * If the step limit is reached while the best breaks are
+     * committed, the line is printed as if the search had failed
+     * right away.
+     */
+    public void testBudgetInCommit() {
+	String optimal = printNested(11, Integer.MAX_VALUE);
+	String greedy = printNested(11, 0);
+	assertFalse(optimal.equals(greedy));
+	String out;
+	for (int steps = 0;
+	     !(out = printNested(11, steps)).equals(optimal); steps++)
+	    assertEquals("steps " + steps, greedy, out);
+    }
+}
@@ -0,0 +1,229 @@
+package net.sf.jode.flow;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.reflect.Modifier;
+
+import junit.framework.*;
+import net.sf.jode.bytecode.BasicBlocks;
+import net.sf.jode.bytecode.Block;
+import net.sf.jode.bytecode.ClassInfo;
+import net.sf.jode.bytecode.ClassPath;
+import net.sf.jode.bytecode.FieldInfo;
+import net.sf.jode.bytecode.Handler;
+import net.sf.jode.bytecode.Instruction;
+import net.sf.jode.bytecode.LocalVariableInfo;
+import net.sf.jode.bytecode.MethodInfo;
+import net.sf.jode.bytecode.Opcodes;
+import net.sf.jode.decompiler.ClassPathHelper;
+import net.sf.jode.decompiler.Decompiler;
+
+public class DominatorAnalysisTest extends TestCase implements Opcodes {
+    /**
+     * Classes with loops, labeled breaks, switches and exception
+     * handlers.  The later ones were structured differently, when
+     * the prepass tried the blocks in another order than the normal
+     * analysis.
+     */
+    private static final String[] CLASSES = {
+	"net.sf.jode.decompiler.ImportHandler",
+	"net.sf.jode.bytecode.MappedZipLocation",
+	"net.sf.jode.jvm.SimpleRuntimeEnvironment",
+	"net.sf.jode.obfuscator.ParallelTransformer",
+	"net.sf.jode.bytecode.ClassPathIndex",
+	"net.sf.jode.decompiler.DecompilerCache",
+	"net.sf.jode.decompiler.Main",
+	"net.sf.jode.decompiler.MethodAnalyzer",
+	"net.sf.jode.flow.TransformConstructors",
+	"net.sf.jode.jvm.CodeVerifier",
+	"net.sf.jode.jvm.Interpreter",
+	"net.sf.jode.obfuscator.Main",
+	"net.sf.jode.obfuscator.MethodIdentifier",
+	"net.sf.jode.obfuscator.modules.ConstantAnalyzer",
+    };
+
+    /**
+     * The number of statements in the generated method.  Every
+     * fourth is a while loop, the others are if/else statements.
+     */
+    private static final int GENERATED_STATEMENTS = 1000;
+
+    public DominatorAnalysisTest(String name) {
+	super (name);
+    }
+
+    String decompile(String classPath, String className, String dominators,
+		     StringWriter err)
+	throws IOException {
+	Decompiler decompiler = new Decompiler();
+	decompiler.setClassPath(classPath);
+	decompiler.setOption("dominators", dominators);
+	if (err != null) {
+	    decompiler.setErr(new PrintWriter(err, true));
+	    decompiler.setOption("debug", "analyze");
+	}
+	StringWriter writer = new StringWriter();
+	decompiler.decompile(className, writer, null);
+	return writer.toString();
+    }
+
+    public void testSameOutput() throws IOException {
+	String classPath = ClassPathHelper.getClassPath(null);
+	int minBlocks = DominatorAnalysis.minBlocks;
+	/* Use the prepass for every method. */
+	DominatorAnalysis.minBlocks = 0;
+	try {
+	    for (int i = 0; i < CLASSES.length; i++) {
+		String classic = decompile(classPath, CLASSES[i], "no", null);
+		assertTrue(classic.length() > 0);
+		assertEquals(CLASSES[i], classic,
+			     decompile(classPath, CLASSES[i], "yes", null));
+	    }
+	} finally {
+	    DominatorAnalysis.minBlocks = minBlocks;
+	}
+    }
+
+    Instruction ldc(int value) {
+	return Instruction.forOpcode(opc_ldc, new Integer(value));
+    }
+
+    Instruction local(int opcode, int slot) {
+	return Instruction.forOpcode(opcode, LocalVariableInfo.getInfo(slot));
+    }
+
+    boolean isLoop(int statement) {
+	return statement % 4 == 3;
+    }
+
+    /**
+     * Builds the code of <code>static int run(int x)</code>, which
+     * consists of <code>if (x > k) s += k; else s -= x;</code> and
+     * <code>while (s > k) { s >>= 1; s--; }</code>.  The blocks are
+     * laid out like javac does, with the loop condition at the end.
+     */
+    BasicBlocks createGeneratedCode(MethodInfo method) {
+	/* The blocks of every statement in code order: condition,
+	 * then, else for an if and body, condition for a while.
+	 */
+	Block[][] statements = new Block[GENERATED_STATEMENTS][];
+	for (int k = 0; k < GENERATED_STATEMENTS; k++) {
+	    statements[k] = new Block[isLoop(k) ? 2 : 3];
+	    for (int i = 0; i < statements[k].length; i++)
+		statements[k][i] = new Block();
+	}
+	Block start = new Block();
+	Block end = new Block();
+	Block[] entries = new Block[GENERATED_STATEMENTS + 1];
+	for (int k = 0; k < GENERATED_STATEMENTS; k++)
+	    entries[k] = statements[k][isLoop(k) ? 1 : 0];
+	entries[GENERATED_STATEMENTS] = end;
+
+	start.setCode(new Instruction[] {
+	    ldc(0), local(opc_istore, 1)
+	}, new Block[] { entries[0] });
+	for (int k = 0; k < GENERATED_STATEMENTS; k++) {
+	    Block next = entries[k + 1];
+	    if (!isLoop(k)) {
+		Block cond = statements[k][0];
+		Block thenBlock = statements[k][1];
+		Block elseBlock = statements[k][2];
+		cond.setCode(new Instruction[] {
+		    local(opc_iload, 0), ldc(k),
+		    Instruction.forOpcode(opc_if_icmple)
+		}, new Block[] { elseBlock, thenBlock });
+		thenBlock.setCode(new Instruction[] {
+		    Instruction.forOpcode(opc_iinc,
+					  LocalVariableInfo.getInfo(1), k)
+		}, new Block[] { next });
+		elseBlock.setCode(new Instruction[] {
+		    local(opc_iload, 1), local(opc_iload, 0),
+		    Instruction.forOpcode(opc_isub), local(opc_istore, 1)
+		}, new Block[] { next });
+	    } else {
+		Block body = statements[k][0];
+		Block cond = statements[k][1];
+		body.setCode(new Instruction[] {
+		    local(opc_iload, 1), ldc(1),
+		    Instruction.forOpcode(opc_ishr), local(opc_istore, 1),
+		    Instruction.forOpcode(opc_iinc,
+					  LocalVariableInfo.getInfo(1), -1)
+		}, new Block[] { cond });
+		cond.setCode(new Instruction[] {
+		    local(opc_iload, 1), ldc(k),
+		    Instruction.forOpcode(opc_if_icmpgt)
+		}, new Block[] { body, next });
+	    }
+	}
+	end.setCode(new Instruction[] {
+	    local(opc_iload, 1), Instruction.forOpcode(opc_ireturn)
+	}, new Block[0]);
+
+	int count = 2;
+	for (int k = 0; k < GENERATED_STATEMENTS; k++)
+	    count += statements[k].length;
+	Block[] blocks = new Block[count];
+	int nr = 0;
+	blocks[nr++] = start;
+	for (int k = 0; k < GENERATED_STATEMENTS; k++) {
+	    for (int i = 0; i < statements[k].length; i++)
+		blocks[nr++] = statements[k][i];
+	}
+	blocks[nr++] = end;
+	BasicBlocks bb = new BasicBlocks(method);
+	bb.setBlocks(blocks, start, new Handler[0]);
+	return bb;
+    }
+
+    /**
+     * Writes a class with a huge generated method to the given
+     * directory.
+     */
+    void writeGeneratedClass(File dir) throws IOException {
+	ClassPath classPath = new ClassPath(ClassPathHelper.getClassPath(null));
+	ClassInfo clazz = classPath.getClassInfo("Generated");
+	clazz.setModifiers(Modifier.PUBLIC);
+	clazz.setSuperclass(classPath.getClassInfo("java.lang.Object"));
+	clazz.setInterfaces(new ClassInfo[0]);
+	clazz.setFields(new FieldInfo[0]);
+	clazz.setClasses(new ClassInfo[0]);
+	MethodInfo method = new MethodInfo
+	    ("run", "(I)I", Modifier.PUBLIC | Modifier.STATIC);
+	method.setBasicBlocks(createGeneratedCode(method));
+	clazz.setMethods(new MethodInfo[] { method });
+
+	DataOutputStream output = new DataOutputStream
+	    (new FileOutputStream(new File(dir, "Generated.class")));
+	try {
+	    clazz.write(output);
+	} finally {
+	    output.close();
+	}
+    }
+
+    public void testHugeMethod() throws IOException {
+	File dir = File.createTempFile("jode-dom", "");
+	dir.delete();
+	dir.mkdir();
+	try {
+	    writeGeneratedClass(dir);
+	    String classPath = ClassPathHelper.getClassPath(dir.getPath());
+	    String classic = decompile(classPath, "Generated", "no", null);
+	    assertTrue(classic.indexOf("for (;;)") >= 0);
+	    assertEquals(-1, classic.indexOf("GOTO"));
+
+	    StringWriter err = new StringWriter();
+	    assertEquals(classic,
+			 decompile(classPath, "Generated", "yes", err));
+	    /* The prepass really ran on the method. */
+	    assertTrue(err.toString().indexOf("dominator analysis of") >= 0);
+	} finally {
+	    new File(dir, "Generated.class").delete();
+	    dir.delete();
+	}
+    }
+}
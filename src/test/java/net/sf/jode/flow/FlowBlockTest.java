@@ -0,0 +1,175 @@
+package net.sf.jode.flow;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.reflect.Modifier;
+
+import junit.framework.*;
+import net.sf.jode.bytecode.BasicBlocks;
+import net.sf.jode.bytecode.Block;
+import net.sf.jode.bytecode.ClassInfo;
+import net.sf.jode.bytecode.ClassPath;
+import net.sf.jode.bytecode.FieldInfo;
+import net.sf.jode.bytecode.Handler;
+import net.sf.jode.bytecode.Instruction;
+import net.sf.jode.bytecode.LocalVariableInfo;
+import net.sf.jode.bytecode.MethodInfo;
+import net.sf.jode.bytecode.Opcodes;
+import net.sf.jode.decompiler.Decompiler;
+
+public class FlowBlockTest extends TestCase implements Opcodes {
+    public FlowBlockTest(String name) {
+	super (name);
+    }
+
+    Instruction local(int opcode, int slot) {
+	return Instruction.forOpcode(opcode, LocalVariableInfo.getInfo(slot));
+    }
+
+    Instruction ldc(int value) {
+	return Instruction.forOpcode(opc_ldc, new Integer(value));
+    }
+
+    /**
+     * Builds the code javac 8 generates for
+     * <code>return a &gt; b;</code>.
+     */
+    BasicBlocks createGreaterCode(MethodInfo method) {
+	Block cond = new Block();
+	Block isTrue = new Block();
+	Block isFalse = new Block();
+	Block ret = new Block();
+	cond.setCode(new Instruction[] {
+	    local(opc_iload, 0), local(opc_iload, 1),
+	    Instruction.forOpcode(opc_if_icmple)
+	}, new Block[] { isFalse, isTrue });
+	isTrue.setCode(new Instruction[] { ldc(1) }, new Block[] { ret });
+	isFalse.setCode(new Instruction[] { ldc(0) }, new Block[] { ret });
+	ret.setCode(new Instruction[] {
+	    Instruction.forOpcode(opc_ireturn)
+	}, new Block[0]);
+
+	BasicBlocks bb = new BasicBlocks(method);
+	bb.setBlocks(new Block[] { cond, isTrue, isFalse, ret },
+		     cond, new Handler[0]);
+	return bb;
+    }
+
+    /**
+     * Builds the code of <code>static int nested(int a, int b, int
+     * r)</code>, which is <code>if (a != 0) { r++; if (b == 0) r +=
+     * 2; } if (r != 1) r += 4; return r;</code>.  Both conditions of
+     * the nested if jump to the second if.
+     */
+    BasicBlocks createNestedIfCode(MethodInfo method) {
+	Block start = new Block();
+	Block outer = new Block();
+	Block inner = new Block();
+	Block join = new Block();
+	Block add = new Block();
+	Block ret = new Block();
+	start.setCode(new Instruction[] {
+	    local(opc_iload, 0), Instruction.forOpcode(opc_ifeq)
+	}, new Block[] { join, outer });
+	outer.setCode(new Instruction[] {
+	    Instruction.forOpcode(opc_iinc, LocalVariableInfo.getInfo(2), 1),
+	    local(opc_iload, 1), Instruction.forOpcode(opc_ifne)
+	}, new Block[] { join, inner });
+	inner.setCode(new Instruction[] {
+	    Instruction.forOpcode(opc_iinc, LocalVariableInfo.getInfo(2), 2)
+	}, new Block[] { join });
+	join.setCode(new Instruction[] {
+	    local(opc_iload, 2), ldc(1), Instruction.forOpcode(opc_if_icmpeq)
+	}, new Block[] { ret, add });
+	add.setCode(new Instruction[] {
+	    Instruction.forOpcode(opc_iinc, LocalVariableInfo.getInfo(2), 4)
+	}, new Block[] { ret });
+	ret.setCode(new Instruction[] {
+	    local(opc_iload, 2), Instruction.forOpcode(opc_ireturn)
+	}, new Block[0]);
+
+	BasicBlocks bb = new BasicBlocks(method);
+	bb.setBlocks(new Block[] { start, outer, inner, join, add, ret },
+		     start, new Handler[0]);
+	return bb;
+    }
+
+    void writeTestClass(File dir, MethodInfo method) throws IOException {
+	ClassPath classPath = new ClassPath("reflection:");
+	ClassInfo clazz = classPath.getClassInfo("Sample");
+	clazz.setModifiers(Modifier.PUBLIC);
+	ClassInfo object = classPath.getClassInfo("java.lang.Object");
+	object.load(ClassInfo.OUTERCLASS);
+	clazz.setSuperclass(object);
+	clazz.setInterfaces(new ClassInfo[0]);
+	clazz.setFields(new FieldInfo[0]);
+	clazz.setClasses(new ClassInfo[0]);
+	clazz.setMethods(new MethodInfo[] { method });
+
+	DataOutputStream output = new DataOutputStream
+	    (new FileOutputStream(new File(dir, "Sample.class")));
+	try {
+	    clazz.write(output);
+	} finally {
+	    output.close();
+	}
+    }
+
+    /**
+     * Decompiles a class that contains only the given method.
+     */
+    String decompile(MethodInfo method) throws IOException {
+	File dir = File.createTempFile("jode-flow", "");
+	dir.delete();
+	dir.mkdir();
+	try {
+	    writeTestClass(dir, method);
+	    Decompiler decompiler = new Decompiler();
+	    decompiler.setClassPath(dir.getPath()
+				    + Decompiler.altPathSeparatorChar
+				    + "reflection:");
+	    decompiler.setOption("debug", "check");
+	    StringWriter err = new StringWriter();
+	    decompiler.setErr(new PrintWriter(err, true));
+	    StringWriter writer = new StringWriter();
+	    decompiler.decompile("Sample", writer, null);
+	    assertEquals("", err.toString());
+	    return writer.toString();
+	} finally {
+	    new File(dir, "Sample.class").delete();
+	    dir.delete();
+	}
+    }
+
+    /**
+     * The only jump to the false branch is in a conditional block
+     * followed by the true branch.  doT2 left lastModified inside
+     * the new if block, so the ?: operator wasn't created and the
+     * next T2 threw a NullPointerException.
+     */
+    public void testReturnCompare() throws IOException {
+	MethodInfo method = new MethodInfo
+	    ("greater", "(II)Z", Modifier.STATIC);
+	method.setBasicBlocks(createGreaterCode(method));
+	String source = decompile(method);
+	assertTrue(source, source.indexOf("return i > i_0_;") >= 0);
+    }
+
+    /**
+     * resolveSomeJumps replaced the SequentialBlock that was
+     * lastModified by an if block and left the jump on the detached
+     * block, so resolveRemaining threw a NullPointerException.
+     */
+    public void testNestedIf() throws IOException {
+	MethodInfo method = new MethodInfo
+	    ("nested", "(III)I", Modifier.STATIC);
+	method.setBasicBlocks(createNestedIfCode(method));
+	String source = decompile(method);
+	assertTrue(source, source.indexOf("if (i_0_ == 0)") >= 0);
+	assertTrue(source, source.indexOf("return i_1_;") >= 0);
+    }
+}
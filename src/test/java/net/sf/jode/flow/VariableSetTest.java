@@ -0,0 +1,76 @@
+package net.sf.jode.flow;
+import net.sf.jode.decompiler.LocalInfo;
+
+import junit.framework.*;
+
+public class VariableSetTest extends TestCase {
+
+    public VariableSetTest(String name) {
+	super (name);
+    }
+
+    public void testSlotSet() {
+	LocalInfo a = new LocalInfo(null, 1);
+	LocalInfo b = new LocalInfo(null, 1);
+	LocalInfo c = new LocalInfo(null, 200);
+	LocalInfo anon = new LocalInfo();
+
+	SlotSet set = new SlotSet();
+	assertTrue(set.add(a));
+	assertFalse(set.add(b));
+	assertTrue(set.add(c));
+	assertTrue(set.add(anon));
+	assertEquals(3, set.size());
+	assertSame(a, set.findSlot(1));
+	assertSame(c, set.findSlot(200));
+	assertTrue(set.containsSlot(anon.getSlot()));
+	assertFalse(set.containsSlot(2));
+	assertFalse(set.containsSlot(1000));
+
+	SlotSet kill = new SlotSet();
+	kill.add(new LocalInfo(null, 200));
+	SlotSet copy = (SlotSet) set.clone();
+	assertTrue(set.removeAll(kill));
+	assertEquals(2, set.size());
+	assertFalse(set.containsSlot(200));
+	assertNull(set.findSlot(200));
+	assertTrue(copy.containsSlot(200));
+
+	assertTrue(copy.retainAll(kill));
+	assertEquals(1, copy.size());
+	assertSame(c, copy.findSlot(200));
+	assertFalse(copy.containsSlot(1));
+    }
+
+    public void testVariableSet() {
+	LocalInfo a = new LocalInfo(null, 3);
+	LocalInfo b = new LocalInfo(null, 3);
+	LocalInfo c = new LocalInfo(null, 70);
+
+	VariableSet set = new VariableSet();
+	set.add(a);
+	set.add(b);
+	set.add(c);
+	assertEquals(3, set.size());
+	assertTrue(set.remove(a));
+	assertTrue(set.containsSlot(3));
+	assertTrue(set.remove(b));
+	assertFalse(set.containsSlot(3));
+	assertNull(set.findSlot(3));
+	assertFalse(set.contains(a));
+
+	VariableSet other = new VariableSet();
+	other.add(new LocalInfo(null, 70));
+	other.add(new LocalInfo(null, 4));
+	VariableSet intersection = set.intersect(other);
+	assertEquals(1, intersection.size());
+	assertSame(c, intersection.findSlot(70));
+	assertFalse(intersection.containsSlot(4));
+
+	LocalInfo d = new LocalInfo(null, 70);
+	set.mergeWrite(d);
+	assertEquals(1, set.size());
+	assertSame(d, set.findSlot(70));
+	assertFalse(set.contains(c));
+    }
+}
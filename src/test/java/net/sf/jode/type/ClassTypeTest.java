@@ -0,0 +1,56 @@
+package net.sf.jode.type;
+import junit.framework.*;
+
+public class ClassTypeTest extends TestCase {
+    public ClassTypeTest(String name) {
+	super(name);
+    }
+
+    ClassType iface, subIface, otherIface, base, derived, unrelated;
+
+    public void setUp() {
+	iface = Type.tSystemClass("test.Iface", null,
+				  Type.EMPTY_IFACES, false, true);
+	subIface = Type.tSystemClass("test.SubIface", null,
+				     new ClassType[] { iface }, false, true);
+	otherIface = Type.tSystemClass("test.OtherIface", null,
+				       Type.EMPTY_IFACES, false, true);
+	base = Type.tSystemClass("test.Base", Type.tObject,
+				 new ClassType[] { subIface }, false, false);
+	derived = Type.tSystemClass("test.Derived", base,
+				    Type.EMPTY_IFACES, false, false);
+	unrelated = Type.tSystemClass("test.Unrelated", Type.tObject,
+				      Type.EMPTY_IFACES, false, false);
+    }
+
+    private void checkHierarchy() {
+	assertTrue(iface.isSubTypeOf(derived));
+	assertTrue(subIface.isSubTypeOf(derived));
+	assertTrue(base.isSubTypeOf(derived));
+	assertTrue(derived.isSubTypeOf(derived));
+	assertTrue(Type.tObject.isSubTypeOf(derived));
+	assertFalse(otherIface.isSubTypeOf(derived));
+	assertFalse(unrelated.isSubTypeOf(derived));
+	assertFalse(derived.isSubTypeOf(base));
+	assertTrue(iface.maybeSubTypeOf(derived));
+	assertFalse(otherIface.maybeSubTypeOf(derived));
+	assertFalse(unrelated.maybeSubTypeOf(derived));
+    }
+
+    public void testSubTypes() {
+	checkHierarchy();
+	/* The failed check for otherIface remembered the ancestors of
+	 * derived; the answers must stay the same.
+	 */
+	checkHierarchy();
+    }
+
+    public void testGeneralized() {
+	ClassType other = Type.tSystemClass("test.Other", Type.tObject,
+					    new ClassType[] { subIface },
+					    false, false);
+	assertEquals(subIface, derived.getGeneralizedType(other));
+	assertEquals(subIface, derived.getGeneralizedType(other));
+	assertEquals(Type.tObject, derived.getGeneralizedType(unrelated));
+    }
+}